@@ -0,0 +1,72 @@
+package com.bingbaihanji.bfxwt.backend;
+
+import com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.User32Direct;
+
+/**
+ * 热点函数使用直接映射的 Win32 后端
+ *
+ * <p>
+ * SetWindowPos、SetLayeredWindowAttributes、SendMessage、ScreenToClient 这几个
+ * 在拖拽 / 缩放 / 嵌入窗口同步时按输入频率调用的函数改走 {@link User32Direct}，
+ * 其余函数沿用 {@link Win32WindowBackend} 的接口映射。
+ * 直接映射不可用时（32 位 JVM、库加载失败）自动回退到接口映射。
+ * </p>
+ *
+ * <p>
+ * 通过 {@code -Dbfxwt.backend=win32-direct} 启用。
+ * </p>
+ *
+ * @author bingbaihanji
+ * @date 2026-01-22
+ */
+public class DirectWin32WindowBackend extends Win32WindowBackend {
+
+    private final boolean direct = User32Direct.isAvailable();
+
+    /**
+     * 直接映射是否生效（false 表示已回退到接口映射）
+     */
+    public boolean isDirect() {
+        return direct;
+    }
+
+    @Override
+    public boolean setLayeredWindowAttributes(long hwnd, int colorKey, byte alpha, int flags) {
+        if (!direct) {
+            return super.setLayeredWindowAttributes(hwnd, colorKey, alpha, flags);
+        }
+        return User32Direct.SetLayeredWindowAttributes(hwnd, colorKey, alpha, flags) != 0;
+    }
+
+    @Override
+    public boolean setWindowPos(long hwnd, long insertAfter, int x, int y, int cx, int cy, int flags) {
+        if (!direct) {
+            return super.setWindowPos(hwnd, insertAfter, x, y, cx, cy, flags);
+        }
+        return User32Direct.SetWindowPos(hwnd, insertAfter, x, y, cx, cy, flags) != 0;
+    }
+
+    @Override
+    public long sendMessage(long hwnd, int msg, long wParam, long lParam) {
+        if (!direct) {
+            return super.sendMessage(hwnd, msg, wParam, lParam);
+        }
+        return User32Direct.SendMessage(hwnd, msg, wParam, lParam);
+    }
+
+    @Override
+    public boolean screenToClient(long hwnd, int[] point) {
+        if (!direct) {
+            return super.screenToClient(hwnd, point);
+        }
+        return User32Direct.ScreenToClient(hwnd, point) != 0;
+    }
+
+    @Override
+    protected long callWindowProc(long proc, long hwnd, int msg, long wParam, long lParam) {
+        if (!direct) {
+            return super.callWindowProc(proc, hwnd, msg, wParam, lParam);
+        }
+        return User32Direct.CallWindowProc(proc, hwnd, msg, wParam, lParam);
+    }
+}
@@ -0,0 +1,382 @@
+package com.bingbaihanji.bfxwt.backend;
+
+import com.bingbaihanji.bfxwt.backend.NativeCallMetrics.FunctionMetrics;
+
+/**
+ * 记录调用统计的后端包装层
+ *
+ * <p>
+ * 每个方法调用前后取一次 {@link System#nanoTime()}，并按返回值判断是否失败：
+ * BOOL 返回 false、HRESULT 非 0、句柄返回 0 视为失败，失败时记录 HRESULT 或 GetLastError。
+ * 由 {@link NativeCallMetrics#enable()} 安装，一般不需要直接创建。
+ * </p>
+ *
+ * @author bingbaihanji
+ * @date 2026-01-22
+ * @implNote SetWindowLongPtr 的返回值是修改前的值，合法值也可能为 0，
+ * 因此调用前先 SetLastError(0)，只有返回 0 且 GetLastError 非 0 时才计为失败。
+ */
+public class InstrumentedWindowBackend implements NativeWindowBackend {
+
+    private final NativeWindowBackend delegate;
+
+    // 计数器在构造时解析，调用路径上不做 Map 查找
+    private final FunctionMetrics getWindowLongPtr = NativeCallMetrics.metrics("GetWindowLongPtr");
+    private final FunctionMetrics setWindowLongPtr = NativeCallMetrics.metrics("SetWindowLongPtr");
+    private final FunctionMetrics setLayeredWindowAttributes = NativeCallMetrics.metrics("SetLayeredWindowAttributes");
+    private final FunctionMetrics setWindowPos = NativeCallMetrics.metrics("SetWindowPos");
+    private final FunctionMetrics getWindowRect = NativeCallMetrics.metrics("GetWindowRect");
+    private final FunctionMetrics beginDeferWindowPos = NativeCallMetrics.metrics("BeginDeferWindowPos");
+    private final FunctionMetrics deferWindowPos = NativeCallMetrics.metrics("DeferWindowPos");
+    private final FunctionMetrics endDeferWindowPos = NativeCallMetrics.metrics("EndDeferWindowPos");
+    private final FunctionMetrics showWindow = NativeCallMetrics.metrics("ShowWindow");
+    private final FunctionMetrics isZoomed = NativeCallMetrics.metrics("IsZoomed");
+    private final FunctionMetrics isIconic = NativeCallMetrics.metrics("IsIconic");
+    private final FunctionMetrics releaseCapture = NativeCallMetrics.metrics("ReleaseCapture");
+    private final FunctionMetrics sendMessage = NativeCallMetrics.metrics("SendMessage");
+    private final FunctionMetrics screenToClient = NativeCallMetrics.metrics("ScreenToClient");
+    private final FunctionMetrics dwmSetWindowAttribute = NativeCallMetrics.metrics("DwmSetWindowAttribute");
+    private final FunctionMetrics dwmGetWindowAttribute = NativeCallMetrics.metrics("DwmGetWindowAttribute");
+    private final FunctionMetrics dwmExtendFrameIntoClientArea = NativeCallMetrics.metrics("DwmExtendFrameIntoClientArea");
+    private final FunctionMetrics getCurrentProcessId = NativeCallMetrics.metrics("GetCurrentProcessId");
+    private final FunctionMetrics getCurrentThreadId = NativeCallMetrics.metrics("GetCurrentThreadId");
+    private final FunctionMetrics getWindowProcessId = NativeCallMetrics.metrics("GetWindowThreadProcessId");
+    private final FunctionMetrics enumWindows = NativeCallMetrics.metrics("EnumWindows");
+    private final FunctionMetrics enumThreadWindows = NativeCallMetrics.metrics("EnumThreadWindows");
+    private final FunctionMetrics getClassName = NativeCallMetrics.metrics("GetClassName");
+    private final FunctionMetrics getWindowText = NativeCallMetrics.metrics("GetWindowText");
+    private final FunctionMetrics findWindow = NativeCallMetrics.metrics("FindWindow");
+    private final FunctionMetrics createWindowEx = NativeCallMetrics.metrics("CreateWindowEx");
+    private final FunctionMetrics destroyWindow = NativeCallMetrics.metrics("DestroyWindow");
+    private final FunctionMetrics setParent = NativeCallMetrics.metrics("SetParent");
+    private final FunctionMetrics getParent = NativeCallMetrics.metrics("GetParent");
+    private final FunctionMetrics setFocus = NativeCallMetrics.metrics("SetFocus");
+    private final FunctionMetrics invalidateRect = NativeCallMetrics.metrics("InvalidateRect");
+    private final FunctionMetrics updateWindow = NativeCallMetrics.metrics("UpdateWindow");
+    private final FunctionMetrics subclassWindow = NativeCallMetrics.metrics("SubclassWindow");
+    private final FunctionMetrics unsubclassWindow = NativeCallMetrics.metrics("UnsubclassWindow");
+    private final FunctionMetrics setWinEventHook = NativeCallMetrics.metrics("SetWinEventHook");
+    private final FunctionMetrics unhookWinEvent = NativeCallMetrics.metrics("UnhookWinEvent");
+
+    public InstrumentedWindowBackend(NativeWindowBackend delegate) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("被包装的后端不能为 null");
+        }
+        this.delegate = delegate;
+    }
+
+    /**
+     * 被包装的后端
+     */
+    public NativeWindowBackend delegate() {
+        return delegate;
+    }
+
+    // BOOL 返回值：false 时记录 GetLastError
+    private boolean bool(FunctionMetrics metrics, long start, boolean ok) {
+        if (ok) {
+            metrics.record(start);
+        } else {
+            metrics.recordFailure(start, delegate.getLastError());
+        }
+        return ok;
+    }
+
+    // HRESULT 返回值：非 0 时记录 HRESULT
+    private int hresult(FunctionMetrics metrics, long start, int result) {
+        if (result == 0) {
+            metrics.record(start);
+        } else {
+            metrics.recordFailure(start, result);
+        }
+        return result;
+    }
+
+    // 句柄返回值：0 时记录 GetLastError
+    private long handle(FunctionMetrics metrics, long start, long result) {
+        if (result != 0) {
+            metrics.record(start);
+        } else {
+            metrics.recordFailure(start, delegate.getLastError());
+        }
+        return result;
+    }
+
+    @Override
+    public long getWindowLongPtr(long hwnd, int index) {
+        long start = System.nanoTime();
+        long result = delegate.getWindowLongPtr(hwnd, index);
+        getWindowLongPtr.record(start);
+        return result;
+    }
+
+    @Override
+    public long setWindowLongPtr(long hwnd, int index, long value) {
+        long start = System.nanoTime();
+        // 返回 0 既可能是失败，也可能是旧值本来为 0；先清零错误码才能区分
+        delegate.setLastError(0);
+        long result = delegate.setWindowLongPtr(hwnd, index, value);
+        int error = result == 0 ? delegate.getLastError() : 0;
+        if (error == 0) {
+            setWindowLongPtr.record(start);
+        } else {
+            setWindowLongPtr.recordFailure(start, error);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean setLayeredWindowAttributes(long hwnd, int colorKey, byte alpha, int flags) {
+        long start = System.nanoTime();
+        return bool(setLayeredWindowAttributes, start,
+                delegate.setLayeredWindowAttributes(hwnd, colorKey, alpha, flags));
+    }
+
+    @Override
+    public boolean setWindowPos(long hwnd, long insertAfter, int x, int y, int cx, int cy, int flags) {
+        long start = System.nanoTime();
+        return bool(setWindowPos, start, delegate.setWindowPos(hwnd, insertAfter, x, y, cx, cy, flags));
+    }
+
+    @Override
+    public boolean getWindowRect(long hwnd, int[] rect) {
+        long start = System.nanoTime();
+        return bool(getWindowRect, start, delegate.getWindowRect(hwnd, rect));
+    }
+
+    @Override
+    public long beginDeferWindowPos(int count) {
+        long start = System.nanoTime();
+        return handle(beginDeferWindowPos, start, delegate.beginDeferWindowPos(count));
+    }
+
+    @Override
+    public long deferWindowPos(long hdwp, long hwnd, long insertAfter, int x, int y, int cx, int cy, int flags) {
+        long start = System.nanoTime();
+        return handle(deferWindowPos, start, delegate.deferWindowPos(hdwp, hwnd, insertAfter, x, y, cx, cy, flags));
+    }
+
+    @Override
+    public boolean endDeferWindowPos(long hdwp) {
+        long start = System.nanoTime();
+        return bool(endDeferWindowPos, start, delegate.endDeferWindowPos(hdwp));
+    }
+
+    @Override
+    public boolean showWindow(long hwnd, int cmdShow) {
+        // 返回值表示之前是否可见，不代表成功与否
+        long start = System.nanoTime();
+        boolean result = delegate.showWindow(hwnd, cmdShow);
+        showWindow.record(start);
+        return result;
+    }
+
+    @Override
+    public boolean isZoomed(long hwnd) {
+        long start = System.nanoTime();
+        boolean result = delegate.isZoomed(hwnd);
+        isZoomed.record(start);
+        return result;
+    }
+
+    @Override
+    public boolean isIconic(long hwnd) {
+        long start = System.nanoTime();
+        boolean result = delegate.isIconic(hwnd);
+        isIconic.record(start);
+        return result;
+    }
+
+    @Override
+    public boolean releaseCapture() {
+        long start = System.nanoTime();
+        return bool(releaseCapture, start, delegate.releaseCapture());
+    }
+
+    @Override
+    public long sendMessage(long hwnd, int msg, long wParam, long lParam) {
+        long start = System.nanoTime();
+        long result = delegate.sendMessage(hwnd, msg, wParam, lParam);
+        sendMessage.record(start);
+        return result;
+    }
+
+    @Override
+    public boolean screenToClient(long hwnd, int[] point) {
+        long start = System.nanoTime();
+        return bool(screenToClient, start, delegate.screenToClient(hwnd, point));
+    }
+
+    @Override
+    public int dwmSetWindowAttribute(long hwnd, int attribute, int value) {
+        long start = System.nanoTime();
+        return hresult(dwmSetWindowAttribute, start, delegate.dwmSetWindowAttribute(hwnd, attribute, value));
+    }
+
+    @Override
+    public int dwmGetWindowAttribute(long hwnd, int attribute, int[] value) {
+        long start = System.nanoTime();
+        return hresult(dwmGetWindowAttribute, start, delegate.dwmGetWindowAttribute(hwnd, attribute, value));
+    }
+
+    @Override
+    public int dwmExtendFrameIntoClientArea(long hwnd, int left, int right, int top, int bottom) {
+        long start = System.nanoTime();
+        return hresult(dwmExtendFrameIntoClientArea, start,
+                delegate.dwmExtendFrameIntoClientArea(hwnd, left, right, top, bottom));
+    }
+
+    @Override
+    public int getCurrentProcessId() {
+        long start = System.nanoTime();
+        int result = delegate.getCurrentProcessId();
+        getCurrentProcessId.record(start);
+        return result;
+    }
+
+    @Override
+    public int getCurrentThreadId() {
+        long start = System.nanoTime();
+        int result = delegate.getCurrentThreadId();
+        getCurrentThreadId.record(start);
+        return result;
+    }
+
+    @Override
+    public int getWindowProcessId(long hwnd) {
+        long start = System.nanoTime();
+        return (int) handle(getWindowProcessId, start, delegate.getWindowProcessId(hwnd));
+    }
+
+    @Override
+    public void enumWindows(WindowVisitor visitor) {
+        // 耗时包含回调本身
+        long start = System.nanoTime();
+        delegate.enumWindows(visitor);
+        enumWindows.record(start);
+    }
+
+    @Override
+    public void enumThreadWindows(int threadId, WindowVisitor visitor) {
+        long start = System.nanoTime();
+        delegate.enumThreadWindows(threadId, visitor);
+        enumThreadWindows.record(start);
+    }
+
+    @Override
+    public String getClassName(long hwnd) {
+        long start = System.nanoTime();
+        String result = delegate.getClassName(hwnd);
+        if (result.isEmpty()) {
+            getClassName.recordFailure(start, delegate.getLastError());
+        } else {
+            getClassName.record(start);
+        }
+        return result;
+    }
+
+    @Override
+    public String getWindowText(long hwnd) {
+        // 空标题是合法值，不计为失败
+        long start = System.nanoTime();
+        String result = delegate.getWindowText(hwnd);
+        getWindowText.record(start);
+        return result;
+    }
+
+    @Override
+    public long findWindow(String className, String windowName) {
+        // 未找到窗口属于正常结果，不计为失败
+        long start = System.nanoTime();
+        long result = delegate.findWindow(className, windowName);
+        findWindow.record(start);
+        return result;
+    }
+
+    @Override
+    public long createWindowEx(int exStyle, String className, String windowName, int style,
+                               int x, int y, int width, int height, long parent) {
+        long start = System.nanoTime();
+        return handle(createWindowEx, start,
+                delegate.createWindowEx(exStyle, className, windowName, style, x, y, width, height, parent));
+    }
+
+    @Override
+    public boolean destroyWindow(long hwnd) {
+        long start = System.nanoTime();
+        return bool(destroyWindow, start, delegate.destroyWindow(hwnd));
+    }
+
+    @Override
+    public long setParent(long child, long newParent) {
+        // 返回原父窗口，顶层窗口原父窗口为 0 属于正常结果
+        long start = System.nanoTime();
+        long result = delegate.setParent(child, newParent);
+        setParent.record(start);
+        return result;
+    }
+
+    @Override
+    public long getParent(long hwnd) {
+        long start = System.nanoTime();
+        long result = delegate.getParent(hwnd);
+        getParent.record(start);
+        return result;
+    }
+
+    @Override
+    public long setFocus(long hwnd) {
+        long start = System.nanoTime();
+        long result = delegate.setFocus(hwnd);
+        setFocus.record(start);
+        return result;
+    }
+
+    @Override
+    public boolean invalidateRect(long hwnd, boolean erase) {
+        long start = System.nanoTime();
+        return bool(invalidateRect, start, delegate.invalidateRect(hwnd, erase));
+    }
+
+    @Override
+    public boolean updateWindow(long hwnd) {
+        long start = System.nanoTime();
+        return bool(updateWindow, start, delegate.updateWindow(hwnd));
+    }
+
+    @Override
+    public boolean subclassWindow(long hwnd, WindowProcHook hook) {
+        long start = System.nanoTime();
+        return bool(subclassWindow, start, delegate.subclassWindow(hwnd, hook));
+    }
+
+    @Override
+    public boolean unsubclassWindow(long hwnd) {
+        long start = System.nanoTime();
+        boolean result = delegate.unsubclassWindow(hwnd);
+        unsubclassWindow.record(start);
+        return result;
+    }
+
+    @Override
+    public long setWinEventHook(int eventMin, int eventMax, WinEventListener listener) {
+        long start = System.nanoTime();
+        return handle(setWinEventHook, start, delegate.setWinEventHook(eventMin, eventMax, listener));
+    }
+
+    @Override
+    public boolean unhookWinEvent(long hook) {
+        long start = System.nanoTime();
+        return bool(unhookWinEvent, start, delegate.unhookWinEvent(hook));
+    }
+
+    @Override
+    public int getLastError() {
+        return delegate.getLastError();
+    }
+
+    @Override
+    public void setLastError(int error) {
+        delegate.setLastError(error);
+    }
+}
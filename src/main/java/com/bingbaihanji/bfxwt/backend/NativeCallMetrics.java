@@ -0,0 +1,167 @@
+package com.bingbaihanji.bfxwt.backend;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 原生调用统计（按函数）
+ *
+ * <p>
+ * 启用后在当前 {@link NativeWindowBackend} 外包装一层 {@link InstrumentedWindowBackend}，
+ * 按 Win32 函数名记录调用次数、累计 / 最大耗时、失败次数以及最近一次错误码
+ * （HRESULT 或 GetLastError）。计数使用 {@link LongAdder} / {@link LongAccumulator}，
+ * 多线程调用时不会争用同一个变量。
+ * </p>
+ *
+ * <p>
+ * 未启用时不存在包装层，原生调用路径上没有任何额外开销。
+ * 也可以通过系统属性 {@code -Dbfxwt.metrics=true} 在启动时启用。
+ * </p>
+ *
+ * <p><b>使用示例：</b></p>
+ * <pre>{@code
+ * NativeCallMetrics.enable();
+ * // ... 运行一段时间
+ * NativeCallMetrics.snapshot().forEach((function, stats) ->
+ *         System.out.println(function + ": " + stats));
+ * }</pre>
+ *
+ * @author bingbaihanji
+ * @date 2026-01-22
+ */
+public final class NativeCallMetrics {
+
+    /**
+     * 启动时启用统计的系统属性
+     */
+    public static final String METRICS_PROPERTY = "bfxwt.metrics";
+
+    private static final Map<String, FunctionMetrics> METRICS = new ConcurrentHashMap<>();
+
+    private NativeCallMetrics() {
+    }
+
+    /**
+     * 启用统计（包装当前后端，重复调用无副作用）
+     */
+    public static synchronized void enable() {
+        NativeWindowBackends.wrap(current -> current instanceof InstrumentedWindowBackend
+                ? current : new InstrumentedWindowBackend(current));
+    }
+
+    /**
+     * 停用统计（移除包装层，已记录的数据保留）
+     */
+    public static synchronized void disable() {
+        NativeWindowBackends.wrap(current -> current instanceof InstrumentedWindowBackend instrumented
+                ? instrumented.delegate() : current);
+    }
+
+    /**
+     * 统计是否启用
+     */
+    public static boolean isEnabled() {
+        return NativeWindowBackends.get() instanceof InstrumentedWindowBackend;
+    }
+
+    /**
+     * 获取所有函数的统计快照（按函数名排序）
+     */
+    public static Map<String, FunctionStats> snapshot() {
+        Map<String, FunctionStats> result = new TreeMap<>();
+        METRICS.forEach((function, metrics) -> result.put(function, metrics.snapshot(function)));
+        return result;
+    }
+
+    /**
+     * 获取单个函数的统计快照
+     *
+     * @param function Win32 函数名，如 "SetWindowPos"
+     * @return 统计快照，尚未调用过返回全 0 的快照
+     */
+    public static FunctionStats snapshot(String function) {
+        FunctionMetrics metrics = METRICS.get(function);
+        return metrics == null ? new FunctionStats(function, 0, 0, 0, 0, 0) : metrics.snapshot(function);
+    }
+
+    /**
+     * 清空所有统计
+     */
+    public static void reset() {
+        METRICS.values().forEach(FunctionMetrics::reset);
+    }
+
+    /*
+     * 获取（必要时创建）函数的计数器，供包装层在构造时缓存
+     */
+    static FunctionMetrics metrics(String function) {
+        return METRICS.computeIfAbsent(function, key -> new FunctionMetrics());
+    }
+
+    /**
+     * 单个函数的计数器
+     */
+    static final class FunctionMetrics {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder failures = new LongAdder();
+        private volatile int lastErrorCode;
+
+        void record(long startNanos) {
+            long elapsed = System.nanoTime() - startNanos;
+            calls.increment();
+            totalNanos.add(elapsed);
+            maxNanos.accumulate(elapsed);
+        }
+
+        void recordFailure(long startNanos, int errorCode) {
+            record(startNanos);
+            failures.increment();
+            lastErrorCode = errorCode;
+        }
+
+        FunctionStats snapshot(String function) {
+            return new FunctionStats(function, calls.sum(), totalNanos.sum(), maxNanos.get(),
+                    failures.sum(), lastErrorCode);
+        }
+
+        void reset() {
+            calls.reset();
+            totalNanos.reset();
+            maxNanos.reset();
+            failures.reset();
+            lastErrorCode = 0;
+        }
+    }
+
+    /**
+     * 函数统计快照
+     *
+     * @param function      Win32 函数名
+     * @param calls         调用次数
+     * @param totalNanos    累计耗时（纳秒）
+     * @param maxNanos      单次最大耗时（纳秒）
+     * @param failures      失败次数
+     * @param lastErrorCode 最近一次失败的错误码（HRESULT 或 GetLastError），没有失败为 0
+     */
+    public record FunctionStats(String function, long calls, long totalNanos, long maxNanos,
+                                long failures, int lastErrorCode) {
+
+        /**
+         * 平均耗时（纳秒）
+         */
+        public double averageNanos() {
+            return calls == 0 ? 0 : (double) totalNanos / calls;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s calls=%d avg=%.1fus max=%.1fus failures=%d lastError=0x%08X",
+                    function, calls, averageNanos() / 1000.0, maxNanos / 1000.0, failures, lastErrorCode);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.bingbaihanji.bfxwt.backend;
+
+import com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.DwmApi;
+import com.sun.jna.platform.win32.WinDef;
+import com.sun.jna.ptr.IntByReference;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 线程私有的原生调用缓冲区
+ *
+ * <p>
+ * JNA 的 {@code Structure} 与 {@code IntByReference} 在构造时分配原生内存（malloc + Cleaner），
+ * {@link Win32WindowBackend} 的热点方法改为复用每个线程的一组缓冲区，稳定状态下不再分配原生内存。
+ * </p>
+ *
+ * <p>
+ * 窗口过程回调可能在一次原生调用进行中重入（例如 DwmSetWindowAttribute 同步发送消息），
+ * 缓冲区正在使用时重入的调用会临时创建新的缓冲区，保证数据不被覆盖。
+ * {@link #getAllocationCount()} 统计创建过的缓冲区组数，可用于验证稳定状态下没有新的分配。
+ * </p>
+ *
+ * <p><b>使用示例：</b></p>
+ * <pre>{@code
+ * NativeScratch scratch = NativeScratch.acquire();
+ * try {
+ *     scratch.intRef.setValue(value);
+ *     return DwmApi.INSTANCE.DwmSetWindowAttribute(hwnd, attribute, scratch.intRef, Integer.BYTES);
+ * } finally {
+ *     scratch.release();
+ * }
+ * }</pre>
+ *
+ * @author bingbaihanji
+ * @date 2026-01-23
+ */
+public final class NativeScratch {
+
+    /**
+     * 文本缓冲区长度（GetClassName / GetWindowText）
+     */
+    public static final int TEXT_CAPACITY = 256;
+
+    private static final ThreadLocal<NativeScratch> SCRATCH = ThreadLocal.withInitial(NativeScratch::new);
+    private static final LongAdder ALLOCATIONS = new LongAdder();
+
+    final IntByReference intRef = new IntByReference();
+    final WinDef.POINT point = new WinDef.POINT();
+    final WinDef.RECT rect = new WinDef.RECT();
+    final char[] text = new char[TEXT_CAPACITY];
+
+    // DwmApi 的结构体在初始化时加载 dwmapi，只在首次使用时创建
+    private DwmApi.MARGINS margins;
+    private boolean inUse;
+
+    private NativeScratch() {
+        ALLOCATIONS.increment();
+    }
+
+    /**
+     * 获取当前线程的缓冲区；已被外层调用占用时返回新的临时缓冲区
+     */
+    static NativeScratch acquire() {
+        NativeScratch scratch = SCRATCH.get();
+        if (scratch.inUse) {
+            scratch = new NativeScratch();
+        }
+        scratch.inUse = true;
+        return scratch;
+    }
+
+    /**
+     * DwmExtendFrameIntoClientArea 的边距结构体（首次使用时创建）
+     */
+    DwmApi.MARGINS margins() {
+        if (margins == null) {
+            margins = new DwmApi.MARGINS();
+        }
+        return margins;
+    }
+
+    /**
+     * 归还缓冲区
+     */
+    void release() {
+        inUse = false;
+    }
+
+    /**
+     * 创建过的缓冲区组数（每个线程首次使用一次，加上重入时的临时缓冲区）
+     */
+    public static long getAllocationCount() {
+        return ALLOCATIONS.sum();
+    }
+}
@@ -0,0 +1,310 @@
+package com.bingbaihanji.bfxwt.backend;
+
+/**
+ * 原生窗口操作后端（SPI）
+ *
+ * <p>
+ * 抽象出本库用到的全部原生窗口操作，{@code FXNativeWindowsTools} 与 {@code FXWindowEmbedTools}
+ * 只通过该接口访问原生层。默认实现为基于 JNA 的 {@link Win32WindowBackend}；
+ * {@link RecordingWindowBackend} 是纯内存的模拟窗口管理器，可在非 Windows 平台上
+ * 运行回归测试和性能测试（如「一次主题切换不超过 N 次原生调用」）。
+ * </p>
+ *
+ * <p>
+ * 窗口句柄统一使用 {@code long} 表示（HWND 的数值），0 表示空句柄。
+ * 方法名和语义与对应的 Win32 API 保持一致。
+ * </p>
+ *
+ * @author bingbaihanji
+ * @date 2026-01-21
+ * @see NativeWindowBackends
+ */
+public interface NativeWindowBackend {
+
+    /**
+     * 窗口过程钩子返回该值表示消息未处理，交给原窗口过程
+     */
+    long PASS_TO_ORIGINAL = Long.MIN_VALUE;
+
+    //  窗口样式
+
+    /**
+     * GetWindowLongPtr
+     */
+    long getWindowLongPtr(long hwnd, int index);
+
+    /**
+     * SetWindowLongPtr
+     *
+     * @return 修改前的值
+     */
+    long setWindowLongPtr(long hwnd, int index, long value);
+
+    /**
+     * SetLayeredWindowAttributes
+     */
+    boolean setLayeredWindowAttributes(long hwnd, int colorKey, byte alpha, int flags);
+
+    //  位置与显示状态
+
+    /**
+     * SetWindowPos
+     */
+    boolean setWindowPos(long hwnd, long insertAfter, int x, int y, int cx, int cy, int flags);
+
+    /**
+     * GetWindowRect
+     *
+     * @param rect 长度为 4 的数组，返回 left, top, right, bottom
+     */
+    boolean getWindowRect(long hwnd, int[] rect);
+
+    /**
+     * BeginDeferWindowPos
+     *
+     * @return 批量移动句柄（HDWP），失败返回 0
+     */
+    long beginDeferWindowPos(int count);
+
+    /**
+     * DeferWindowPos
+     *
+     * @return 更新后的批量移动句柄，失败返回 0（此时整个批次作废）
+     */
+    long deferWindowPos(long hdwp, long hwnd, long insertAfter, int x, int y, int cx, int cy, int flags);
+
+    /**
+     * EndDeferWindowPos
+     */
+    boolean endDeferWindowPos(long hdwp);
+
+    /**
+     * ShowWindow
+     */
+    boolean showWindow(long hwnd, int cmdShow);
+
+    /**
+     * IsZoomed
+     */
+    boolean isZoomed(long hwnd);
+
+    /**
+     * IsIconic
+     */
+    boolean isIconic(long hwnd);
+
+    //  输入与消息
+
+    /**
+     * ReleaseCapture
+     */
+    boolean releaseCapture();
+
+    /**
+     * SendMessage
+     */
+    long sendMessage(long hwnd, int msg, long wParam, long lParam);
+
+    /**
+     * ScreenToClient
+     *
+     * @param point 长度为 2 的数组（x, y），传入屏幕坐标，返回客户区坐标
+     */
+    boolean screenToClient(long hwnd, int[] point);
+
+    //  DWM
+
+    /**
+     * DwmSetWindowAttribute（整型属性）
+     *
+     * @return HRESULT，0 表示成功
+     */
+    int dwmSetWindowAttribute(long hwnd, int attribute, int value);
+
+    /**
+     * DwmGetWindowAttribute（整型属性）
+     *
+     * @param value 长度为 1 的数组，返回属性值
+     * @return HRESULT，0 表示成功
+     */
+    int dwmGetWindowAttribute(long hwnd, int attribute, int[] value);
+
+    /**
+     * DwmExtendFrameIntoClientArea
+     *
+     * @return HRESULT，0 表示成功
+     */
+    int dwmExtendFrameIntoClientArea(long hwnd, int left, int right, int top, int bottom);
+
+    //  进程、线程与枚举
+
+    /**
+     * GetCurrentProcessId
+     */
+    int getCurrentProcessId();
+
+    /**
+     * GetCurrentThreadId
+     */
+    int getCurrentThreadId();
+
+    /**
+     * GetWindowThreadProcessId（只返回进程 ID）
+     */
+    int getWindowProcessId(long hwnd);
+
+    /**
+     * EnumWindows
+     */
+    void enumWindows(WindowVisitor visitor);
+
+    /**
+     * EnumThreadWindows
+     */
+    void enumThreadWindows(int threadId, WindowVisitor visitor);
+
+    /**
+     * GetClassName
+     */
+    String getClassName(long hwnd);
+
+    /**
+     * GetWindowText
+     */
+    String getWindowText(long hwnd);
+
+    /**
+     * FindWindow
+     *
+     * @return 窗口句柄，未找到返回 0
+     */
+    long findWindow(String className, String windowName);
+
+    //  窗口创建与父子关系
+
+    /**
+     * CreateWindowEx
+     *
+     * @return 窗口句柄，失败返回 0
+     */
+    long createWindowEx(int exStyle, String className, String windowName, int style,
+                        int x, int y, int width, int height, long parent);
+
+    /**
+     * DestroyWindow
+     */
+    boolean destroyWindow(long hwnd);
+
+    /**
+     * SetParent
+     *
+     * @return 原父窗口句柄
+     */
+    long setParent(long child, long newParent);
+
+    /**
+     * GetParent
+     */
+    long getParent(long hwnd);
+
+    /**
+     * SetFocus
+     */
+    long setFocus(long hwnd);
+
+    /**
+     * InvalidateRect（整个客户区）
+     */
+    boolean invalidateRect(long hwnd, boolean erase);
+
+    /**
+     * UpdateWindow
+     */
+    boolean updateWindow(long hwnd);
+
+    /**
+     * GetLastError
+     */
+    int getLastError();
+
+    /**
+     * SetLastError（SetWindowLongPtr 等以 0 同时表示失败和合法结果的函数，调用前需先清零）
+     */
+    void setLastError(int error);
+
+    //  窗口过程子类化
+
+    /**
+     * 通过 GWL_WNDPROC 子类化窗口过程：之后该窗口收到的每条消息先交给钩子，
+     * 钩子返回 {@link #PASS_TO_ORIGINAL} 时再调用原窗口过程（CallWindowProc）。
+     * 同一窗口只能安装一个钩子，重复安装会替换；窗口收到 WM_NCDESTROY 后自动恢复。
+     * 应在窗口所属线程（对 JavaFX 窗口即 JavaFX Application Thread）上调用。
+     *
+     * @return 是否安装成功（不支持的平台返回 false）
+     */
+    boolean subclassWindow(long hwnd, WindowProcHook hook);
+
+    /**
+     * 移除 {@link #subclassWindow(long, WindowProcHook)} 安装的钩子
+     *
+     * @return 之前是否安装过钩子
+     */
+    boolean unsubclassWindow(long hwnd);
+
+    //  系统事件
+
+    /**
+     * SetWinEventHook（WINEVENT_OUTOFCONTEXT，监听所有进程）
+     *
+     * <p>
+     * 事件异步投递：回调在后端自己的事件线程上执行，不在调用线程上执行，也不阻塞产生事件的进程。
+     * </p>
+     *
+     * @param eventMin 事件范围下限（EVENT_*）
+     * @param eventMax 事件范围上限
+     * @return 钩子句柄，失败或不支持的平台返回 0
+     */
+    long setWinEventHook(int eventMin, int eventMax, WinEventListener listener);
+
+    /**
+     * UnhookWinEvent
+     */
+    boolean unhookWinEvent(long hook);
+
+    /**
+     * 窗口枚举回调
+     */
+    @FunctionalInterface
+    interface WindowVisitor {
+        /**
+         * @param hwnd 窗口句柄
+         * @return true 继续枚举，false 停止
+         */
+        boolean visit(long hwnd);
+    }
+
+    /**
+     * 窗口过程钩子（在窗口所属线程上调用，不应抛出异常）
+     */
+    @FunctionalInterface
+    interface WindowProcHook {
+        /**
+         * @return 消息处理结果；返回 {@link #PASS_TO_ORIGINAL} 表示交给原窗口过程
+         */
+        long onMessage(long hwnd, int msg, long wParam, long lParam);
+    }
+
+    /**
+     * 系统事件回调（在事件线程上调用，不应抛出异常）
+     */
+    @FunctionalInterface
+    interface WinEventListener {
+        /**
+         * @param event    事件类型（EVENT_*）
+         * @param hwnd     产生事件的窗口
+         * @param idObject 对象 ID，窗口本身为 OBJID_WINDOW
+         * @param idChild  子对象 ID，对象本身为 CHILDID_SELF
+         */
+        void onEvent(int event, long hwnd, int idObject, int idChild);
+    }
+}
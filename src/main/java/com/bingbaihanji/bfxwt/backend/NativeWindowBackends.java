@@ -0,0 +1,133 @@
+package com.bingbaihanji.bfxwt.backend;
+
+import com.bingbaihanji.bfxwt.jfr.JfrWindowBackend;
+import com.sun.jna.Platform;
+
+import java.util.function.UnaryOperator;
+
+/**
+ * 原生窗口后端的全局选择器
+ *
+ * <p>
+ * Windows 上默认使用 {@link Win32WindowBackend}，64 位 Linux / X11 上默认使用 {@link X11WindowBackend}。
+ * 可以通过系统属性
+ * {@code -Dbfxwt.backend=win32-direct} 切换到热点函数直接映射的 {@link DirectWin32WindowBackend}，
+ * {@code -Dbfxwt.backend=x11} 强制使用 X11 后端，
+ * {@code -Dbfxwt.backend=recording} 切换到 {@link RecordingWindowBackend}，
+ * 或在测试中调用 {@link #set(NativeWindowBackend)} 安装自定义实现。
+ * </p>
+ *
+ * @author bingbaihanji
+ * @date 2026-01-21
+ */
+public final class NativeWindowBackends {
+
+    /**
+     * 选择后端实现的系统属性名
+     */
+    public static final String BACKEND_PROPERTY = "bfxwt.backend";
+
+    private static volatile NativeWindowBackend backend;
+    // 当前后端不依赖 Win32（模拟后端、可用的 X11 后端或通过 set 安装的自定义后端）
+    private static volatile boolean platformIndependent;
+    // 当前默认后端是 X11 后端
+    private static volatile boolean x11;
+
+    private NativeWindowBackends() {
+    }
+
+    /**
+     * 获取当前后端（首次调用时按系统属性创建默认后端）
+     */
+    public static NativeWindowBackend get() {
+        NativeWindowBackend current = backend;
+        if (current == null) {
+            synchronized (NativeWindowBackends.class) {
+                current = backend;
+                if (current == null) {
+                    current = createDefault();
+                    backend = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 安装后端实现
+     *
+     * @param newBackend 新的后端，传入 null 恢复默认后端
+     */
+    public static void set(NativeWindowBackend newBackend) {
+        backend = newBackend;
+        platformIndependent = newBackend != null;
+        x11 = false;
+    }
+
+    /**
+     * 用包装层替换当前后端（例如调用统计），保留当前后端的平台标志
+     *
+     * <p>
+     * 与 {@link #set} 不同，包装层只转发调用，{@link #isX11()} 和 {@link #isUsable()} 仍反映被包装的后端。
+     * </p>
+     *
+     * @param wrapper 由当前后端得到新后端，返回当前后端本身时不做任何改变
+     */
+    static synchronized void wrap(UnaryOperator<NativeWindowBackend> wrapper) {
+        backend = wrapper.apply(get());
+    }
+
+    /**
+     * 当前后端能否在本平台上工作：Windows 上的 Win32 后端、已连接到 X 服务器的 X11 后端，
+     * 或任意平台上的模拟 / 自定义后端
+     *
+     * <p>
+     * 为 false 时调用任何后端方法都会因为找不到 user32.dll 而失败，调用方应直接走非原生的替代实现。
+     * </p>
+     */
+    public static boolean isUsable() {
+        get();
+        return platformIndependent || Platform.isWindows();
+    }
+
+    /**
+     * 当前后端是否为 X11 后端（句柄是 X Window ID，窗口类名不是 Glass 的 Win32 类名）
+     */
+    public static boolean isX11() {
+        get();
+        return x11;
+    }
+
+    private static NativeWindowBackend createDefault() {
+        String name = System.getProperty(BACKEND_PROPERTY, defaultBackendName());
+        NativeWindowBackend created = switch (name) {
+            case "recording" -> {
+                platformIndependent = true;
+                yield new RecordingWindowBackend();
+            }
+            case "win32" -> new Win32WindowBackend();
+            case "win32-direct" -> new DirectWin32WindowBackend();
+            case "x11" -> {
+                X11WindowBackend x11Backend = new X11WindowBackend();
+                // 连不上 X 服务器时与非 Windows 平台上的 Win32 后端一样视为不可用
+                platformIndependent = x11Backend.isAvailable();
+                x11 = true;
+                yield x11Backend;
+            }
+            default -> throw new IllegalStateException("未知的原生窗口后端: " + name);
+        };
+        // 默认提交 JFR 原生调用事件（事件未启用时几乎没有开销）
+        if (!"false".equals(System.getProperty(JfrWindowBackend.JFR_PROPERTY))) {
+            created = new JfrWindowBackend(created);
+        }
+        // -Dbfxwt.metrics=true 时启动即记录调用统计
+        return Boolean.getBoolean(NativeCallMetrics.METRICS_PROPERTY)
+                ? new InstrumentedWindowBackend(created)
+                : created;
+    }
+
+    private static String defaultBackendName() {
+        return Platform.isX11() && Platform.is64Bit() && !Platform.isWindows() && !Platform.isMac()
+                ? "x11" : "win32";
+    }
+}
@@ -0,0 +1,1128 @@
+package com.bingbaihanji.bfxwt.backend;
+
+import com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 纯内存的模拟窗口管理器（记录所有调用）
+ *
+ * <p>
+ * 跟踪每个模拟窗口的进程 / 线程、类名、标题、样式、父窗口、位置尺寸、显示状态和 DWM 属性，
+ * 并按时间顺序记录每一次 {@link NativeWindowBackend} 调用（函数名、句柄、时间戳、线程）。
+ * 调用记录最多保留 {@link #setCallLimit 上限} 条（默认 {@value #DEFAULT_CALL_LIMIT}），超出时丢弃最早的记录，
+ * 调用次数统计不受影响，长时间运行的性能测试不会无限占用内存。
+ * 不依赖任何原生库，可在 Linux CI 上运行回归测试和性能测试。
+ * </p>
+ *
+ * <p>
+ * 窗口的创建、销毁、显示 / 隐藏和标题变化会向 {@link #setWinEventHook} 安装的钩子产生对应的系统事件，
+ * 与真实系统一样在单独的事件线程上异步投递；{@link #flushWinEvents()} 等待已产生的事件投递完毕。
+ * </p>
+ *
+ * <p><b>使用示例：</b></p>
+ * <pre>{@code
+ * RecordingWindowBackend backend = new RecordingWindowBackend();
+ * NativeWindowBackends.set(backend);
+ * long hwnd = backend.addWindow("GlassWndClass-GlassWindowClass-2", "Demo", 0, 0, 800, 600);
+ *
+ * backend.clearCalls();
+ * FXNativeWindowsTools.setWindowDarkMode(new WinDef.HWND(new Pointer(hwnd)), true);
+ * assert backend.callCount("DwmSetWindowAttribute") == 1;
+ * }</pre>
+ *
+ * @author bingbaihanji
+ * @date 2026-01-21
+ */
+public class RecordingWindowBackend implements NativeWindowBackend {
+
+    /**
+     * E_INVALIDARG，不支持的 DWM 属性返回该错误码
+     */
+    public static final int E_INVALIDARG = 0x80070057;
+
+    /**
+     * 默认保留的调用记录条数
+     */
+    public static final int DEFAULT_CALL_LIMIT = 100_000;
+
+    // 所有模拟窗口（按创建顺序，即枚举顺序）
+    private final Map<Long, SimulatedWindow> windows = new LinkedHashMap<>();
+    // 调用记录（最多保留 callLimit 条，超出时丢弃最早的记录）
+    private final Deque<NativeCall> calls = new ArrayDeque<>();
+    // 各函数的调用次数（不受记录条数上限影响）
+    private final Map<String, Long> functionCounts = new HashMap<>();
+    private int callLimit = DEFAULT_CALL_LIMIT;
+    private long totalCalls;
+    // 进行中的 DeferWindowPos 批次
+    private final Map<Long, List<DeferredPos>> deferredBatches = new HashMap<>();
+    // 不支持的 DWM 属性
+    private final Set<Integer> unsupportedDwmAttributes = new HashSet<>();
+    // 系统事件钩子（按安装顺序）
+    private final Map<Long, WinEventHook> winEventHooks = new LinkedHashMap<>();
+    // 系统事件投递线程（首次安装钩子时创建）
+    private ExecutorService winEventThread;
+    private long nextHook = 0x7000;
+
+    private long nextHandle = 0x10000;
+    private int processId = 4242;
+    private int lastError;
+    // 每次调用的模拟耗时（纳秒）
+    private volatile long latencyNanos;
+
+    //  模拟环境配置
+
+    /**
+     * 在当前进程、当前线程下创建一个模拟顶层窗口（不计入调用记录）
+     *
+     * @return 窗口句柄
+     */
+    public synchronized long addWindow(String className, String title, int x, int y, int width, int height) {
+        return addWindow(processId, currentSimulatedThreadId(), className, title, x, y, width, height);
+    }
+
+    /**
+     * 创建一个模拟顶层窗口（不计入调用记录）
+     *
+     * @return 窗口句柄
+     */
+    public synchronized long addWindow(int pid, int threadId, String className, String title,
+                                       int x, int y, int width, int height) {
+        long hwnd = newWindow(pid, threadId, className, title, x, y, width, height);
+        postWinEvent(Win32Constants.WinEvent.EVENT_OBJECT_CREATE, hwnd);
+        postWinEvent(Win32Constants.WinEvent.EVENT_OBJECT_SHOW, hwnd);
+        return hwnd;
+    }
+
+    /**
+     * 以指定句柄在当前进程、当前线程下创建模拟顶层窗口（不计入调用记录），
+     * 用于把真实 Stage 的原生句柄接入模拟后端
+     *
+     * @throws IllegalArgumentException 句柄为 0 或已存在
+     */
+    public synchronized long adoptWindow(long hwnd, String className, String title,
+                                         int x, int y, int width, int height) {
+        if (hwnd == 0 || windows.containsKey(hwnd)) {
+            throw new IllegalArgumentException("句柄为 0 或已存在: 0x" + Long.toHexString(hwnd));
+        }
+        newWindow(hwnd, processId, currentSimulatedThreadId(), className, title, x, y, width, height);
+        postWinEvent(Win32Constants.WinEvent.EVENT_OBJECT_CREATE, hwnd);
+        postWinEvent(Win32Constants.WinEvent.EVENT_OBJECT_SHOW, hwnd);
+        return hwnd;
+    }
+
+    private long newWindow(int pid, int threadId, String className, String title,
+                           int x, int y, int width, int height) {
+        long hwnd = nextHandle;
+        nextHandle += 0x10;
+        return newWindow(hwnd, pid, threadId, className, title, x, y, width, height);
+    }
+
+    private long newWindow(long hwnd, int pid, int threadId, String className, String title,
+                           int x, int y, int width, int height) {
+        SimulatedWindow window = new SimulatedWindow(hwnd, pid, threadId, className);
+        window.title = title == null ? "" : title;
+        window.x = x;
+        window.y = y;
+        window.width = width;
+        window.height = height;
+        window.visible = true;
+        window.style = Win32Constants.WindowStyle.WS_POPUP | Win32Constants.WindowStyle.WS_VISIBLE;
+        windows.put(window.hwnd, window);
+        return window.hwnd;
+    }
+
+    /**
+     * 移除一个模拟窗口（模拟外部进程关闭窗口，不计入调用记录）
+     */
+    public synchronized void removeWindow(long hwnd) {
+        removeRecursively(hwnd);
+    }
+
+    /**
+     * 修改窗口标题（模拟外部进程修改标题，不计入调用记录），产生 EVENT_OBJECT_NAMECHANGE
+     */
+    public synchronized void setWindowTitle(long hwnd, String title) {
+        SimulatedWindow window = windows.get(hwnd);
+        if (window != null) {
+            window.title = title == null ? "" : title;
+            postWinEvent(Win32Constants.WinEvent.EVENT_OBJECT_NAMECHANGE, hwnd);
+        }
+    }
+
+    /**
+     * 设置模拟的当前进程 ID
+     */
+    public synchronized void setProcessId(int processId) {
+        this.processId = processId;
+    }
+
+    /**
+     * 将某个 DWM 属性标记为不支持（DwmSetWindowAttribute / DwmGetWindowAttribute 返回 E_INVALIDARG）
+     */
+    public synchronized void setDwmAttributeSupported(int attribute, boolean supported) {
+        if (supported) {
+            unsupportedDwmAttributes.remove(attribute);
+        } else {
+            unsupportedDwmAttributes.add(attribute);
+        }
+    }
+
+    /**
+     * 设置每次原生调用的模拟耗时，用于测量慢速窗口管理器下调用线程的阻塞时间
+     *
+     * <p>
+     * 等待发生在进入监视器之前，每次调用的状态变化仍是原子的，不同线程的调用可以并行等待；0 表示不模拟耗时。
+     * </p>
+     */
+    public synchronized void setLatency(long duration, TimeUnit unit) {
+        this.latencyNanos = Math.max(0, unit.toNanos(duration));
+    }
+
+    /**
+     * 设置保留的调用记录条数上限（超出时丢弃最早的记录，调用次数统计不受影响）
+     */
+    public synchronized void setCallLimit(int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit 必须大于 0: " + limit);
+        }
+        callLimit = limit;
+        while (calls.size() > callLimit) {
+            calls.removeFirst();
+        }
+    }
+
+    //  查询模拟状态
+
+    /**
+     * 获取模拟窗口，不存在返回 null
+     */
+    public synchronized SimulatedWindow window(long hwnd) {
+        return windows.get(hwnd);
+    }
+
+    /**
+     * 获取所有模拟窗口
+     */
+    public synchronized List<SimulatedWindow> windows() {
+        return new ArrayList<>(windows.values());
+    }
+
+    /**
+     * 获取保留的调用记录（按调用顺序，超出上限时只包含最近的记录）
+     */
+    public synchronized List<NativeCall> calls() {
+        return Collections.unmodifiableList(new ArrayList<>(calls));
+    }
+
+    /**
+     * 总调用次数（上次清空以来，包括已丢弃的记录）
+     */
+    public synchronized long callCount() {
+        return totalCalls;
+    }
+
+    /**
+     * 指定函数的调用次数（上次清空以来，包括已丢弃的记录）
+     *
+     * @param function Win32 函数名，如 "SetWindowPos"
+     */
+    public synchronized long callCount(String function) {
+        return functionCounts.getOrDefault(function, 0L);
+    }
+
+    /**
+     * 清空调用记录和调用次数
+     */
+    public synchronized void clearCalls() {
+        calls.clear();
+        functionCounts.clear();
+        totalCalls = 0;
+    }
+
+    //  NativeWindowBackend 实现
+
+    @Override
+    public long getWindowLongPtr(long hwnd, int index) {
+        simulateLatency();
+        synchronized (this) {
+            record("GetWindowLongPtr", hwnd);
+            SimulatedWindow window = require(hwnd);
+            if (window == null) {
+                return 0;
+            }
+            return switch (index) {
+                case Win32Constants.WindowLongIndex.GWL_STYLE -> window.style;
+                case Win32Constants.WindowLongIndex.GWL_EXSTYLE -> window.exStyle;
+                case Win32Constants.WindowLongIndex.GWL_HWNDPARENT -> window.parent;
+                default -> window.longs.getOrDefault(index, 0L);
+            };
+        }
+    }
+
+    @Override
+    public long setWindowLongPtr(long hwnd, int index, long value) {
+        simulateLatency();
+        synchronized (this) {
+            record("SetWindowLongPtr", hwnd);
+            SimulatedWindow window = require(hwnd);
+            if (window == null) {
+                return 0;
+            }
+            long previous;
+            switch (index) {
+                case Win32Constants.WindowLongIndex.GWL_STYLE -> {
+                    previous = window.style;
+                    window.style = value;
+                }
+                case Win32Constants.WindowLongIndex.GWL_EXSTYLE -> {
+                    previous = window.exStyle;
+                    window.exStyle = value;
+                }
+                default -> {
+                    Long old = window.longs.put(index, value);
+                    previous = old == null ? 0 : old;
+                }
+            }
+            return previous;
+        }
+    }
+
+    @Override
+    public boolean setLayeredWindowAttributes(long hwnd, int colorKey, byte alpha, int flags) {
+        simulateLatency();
+        synchronized (this) {
+            record("SetLayeredWindowAttributes", hwnd);
+            SimulatedWindow window = require(hwnd);
+            if (window == null || (window.exStyle & Win32Constants.WindowStyleEx.WS_EX_LAYERED) == 0) {
+                lastError = 87; // ERROR_INVALID_PARAMETER
+                return false;
+            }
+            window.alpha = alpha & 0xFF;
+            return true;
+        }
+    }
+
+    @Override
+    public boolean setWindowPos(long hwnd, long insertAfter, int x, int y, int cx, int cy, int flags) {
+        simulateLatency();
+        synchronized (this) {
+            record("SetWindowPos", hwnd);
+            SimulatedWindow window = require(hwnd);
+            if (window == null) {
+                return false;
+            }
+            applyWindowPos(window, insertAfter, x, y, cx, cy, flags);
+            return true;
+        }
+    }
+
+    @Override
+    public long beginDeferWindowPos(int count) {
+        simulateLatency();
+        synchronized (this) {
+            record("BeginDeferWindowPos", 0);
+            long hdwp = nextHandle;
+            nextHandle += 0x10;
+            deferredBatches.put(hdwp, new ArrayList<>(Math.max(count, 1)));
+            return hdwp;
+        }
+    }
+
+    @Override
+    public long deferWindowPos(long hdwp, long hwnd, long insertAfter,
+                              int x, int y, int cx, int cy, int flags) {
+        simulateLatency();
+        synchronized (this) {
+            record("DeferWindowPos", hwnd);
+            List<DeferredPos> batch = deferredBatches.get(hdwp);
+            if (batch == null || require(hwnd) == null) {
+                // 与 Win32 一致：任一窗口失败则整个批次作废
+                deferredBatches.remove(hdwp);
+                return 0;
+            }
+            batch.add(new DeferredPos(hwnd, insertAfter, x, y, cx, cy, flags));
+            return hdwp;
+        }
+    }
+
+    @Override
+    public boolean endDeferWindowPos(long hdwp) {
+        simulateLatency();
+        synchronized (this) {
+            record("EndDeferWindowPos", 0);
+            List<DeferredPos> batch = deferredBatches.remove(hdwp);
+            if (batch == null) {
+                lastError = 1400; // ERROR_INVALID_WINDOW_HANDLE
+                return false;
+            }
+            for (DeferredPos pos : batch) {
+                SimulatedWindow window = windows.get(pos.hwnd());
+                if (window != null) {
+                    applyWindowPos(window, pos.insertAfter(), pos.x(), pos.y(), pos.cx(), pos.cy(), pos.flags());
+                }
+            }
+            return true;
+        }
+    }
+
+    private void applyWindowPos(SimulatedWindow window, long insertAfter, int x, int y, int cx, int cy, int flags) {
+        if ((flags & Win32Constants.SetWindowPosFlags.SWP_NOMOVE) == 0) {
+            window.x = x;
+            window.y = y;
+        }
+        if ((flags & Win32Constants.SetWindowPosFlags.SWP_NOSIZE) == 0) {
+            window.width = cx;
+            window.height = cy;
+        }
+        if ((flags & Win32Constants.SetWindowPosFlags.SWP_NOZORDER) == 0) {
+            if (insertAfter == -1) {
+                window.topmost = true;
+            } else if (insertAfter == -2) {
+                window.topmost = false;
+            }
+        }
+        if ((flags & Win32Constants.SetWindowPosFlags.SWP_SHOWWINDOW) != 0) {
+            window.visible = true;
+        }
+        if ((flags & Win32Constants.SetWindowPosFlags.SWP_HIDEWINDOW) != 0) {
+            window.visible = false;
+        }
+        if ((flags & Win32Constants.SetWindowPosFlags.SWP_FRAMECHANGED) != 0) {
+            window.frameChanges++;
+        }
+    }
+
+    @Override
+    public boolean getWindowRect(long hwnd, int[] rect) {
+        simulateLatency();
+        synchronized (this) {
+            record("GetWindowRect", hwnd);
+            SimulatedWindow window = require(hwnd);
+            if (window == null) {
+                return false;
+            }
+            int[] origin = screenOrigin(window);
+            rect[0] = origin[0];
+            rect[1] = origin[1];
+            rect[2] = origin[0] + window.width;
+            rect[3] = origin[1] + window.height;
+            return true;
+        }
+    }
+
+    @Override
+    public boolean showWindow(long hwnd, int cmdShow) {
+        simulateLatency();
+        synchronized (this) {
+            record("ShowWindow", hwnd);
+            SimulatedWindow window = require(hwnd);
+            if (window == null) {
+                return false;
+            }
+            boolean wasVisible = window.visible;
+            showWindow(window, cmdShow);
+            if (window.visible != wasVisible) {
+                postWinEvent(window.visible ? Win32Constants.WinEvent.EVENT_OBJECT_SHOW
+                        : Win32Constants.WinEvent.EVENT_OBJECT_HIDE, hwnd);
+            }
+            return wasVisible;
+        }
+    }
+
+    private static void showWindow(SimulatedWindow window, int cmdShow) {
+        switch (cmdShow) {
+            case Win32Constants.ShowWindowCmd.SW_HIDE -> window.visible = false;
+            case Win32Constants.ShowWindowCmd.SW_MINIMIZE,
+                 Win32Constants.ShowWindowCmd.SW_SHOWMINIMIZED,
+                 Win32Constants.ShowWindowCmd.SW_SHOWMINNOACTIVE,
+                 Win32Constants.ShowWindowCmd.SW_FORCEMINIMIZE -> {
+                window.iconic = true;
+                window.visible = true;
+            }
+            case Win32Constants.ShowWindowCmd.SW_MAXIMIZE -> {
+                window.zoomed = true;
+                window.iconic = false;
+                window.visible = true;
+            }
+            case Win32Constants.ShowWindowCmd.SW_RESTORE -> {
+                if (window.iconic) {
+                    window.iconic = false;
+                } else {
+                    window.zoomed = false;
+                }
+                window.visible = true;
+            }
+            default -> window.visible = true;
+        }
+    }
+
+    @Override
+    public boolean isZoomed(long hwnd) {
+        simulateLatency();
+        synchronized (this) {
+            record("IsZoomed", hwnd);
+            SimulatedWindow window = windows.get(hwnd);
+            return window != null && window.zoomed;
+        }
+    }
+
+    @Override
+    public boolean isIconic(long hwnd) {
+        simulateLatency();
+        synchronized (this) {
+            record("IsIconic", hwnd);
+            SimulatedWindow window = windows.get(hwnd);
+            return window != null && window.iconic;
+        }
+    }
+
+    @Override
+    public boolean releaseCapture() {
+        simulateLatency();
+        synchronized (this) {
+            record("ReleaseCapture", 0);
+            return true;
+        }
+    }
+
+    @Override
+    public long sendMessage(long hwnd, int msg, long wParam, long lParam) {
+        simulateLatency();
+        synchronized (this) {
+            record("SendMessage", hwnd);
+            SimulatedWindow window = require(hwnd);
+            if (window != null) {
+                window.lastMessage = msg;
+                window.lastMessageWParam = wParam;
+            }
+            return 0;
+        }
+    }
+
+    @Override
+    public boolean screenToClient(long hwnd, int[] point) {
+        simulateLatency();
+        synchronized (this) {
+            record("ScreenToClient", hwnd);
+            SimulatedWindow window = require(hwnd);
+            if (window == null) {
+                return false;
+            }
+            int[] origin = screenOrigin(window);
+            point[0] -= origin[0];
+            point[1] -= origin[1];
+            return true;
+        }
+    }
+
+    @Override
+    public int dwmSetWindowAttribute(long hwnd, int attribute, int value) {
+        simulateLatency();
+        synchronized (this) {
+            record("DwmSetWindowAttribute", hwnd);
+            SimulatedWindow window = require(hwnd);
+            if (window == null || unsupportedDwmAttributes.contains(attribute)) {
+                return E_INVALIDARG;
+            }
+            window.dwmAttributes.put(attribute, value);
+            return 0;
+        }
+    }
+
+    @Override
+    public int dwmGetWindowAttribute(long hwnd, int attribute, int[] value) {
+        simulateLatency();
+        synchronized (this) {
+            record("DwmGetWindowAttribute", hwnd);
+            SimulatedWindow window = require(hwnd);
+            if (window == null || unsupportedDwmAttributes.contains(attribute)) {
+                return E_INVALIDARG;
+            }
+            value[0] = window.dwmAttributes.getOrDefault(attribute, 0);
+            return 0;
+        }
+    }
+
+    @Override
+    public int dwmExtendFrameIntoClientArea(long hwnd, int left, int right, int top, int bottom) {
+        simulateLatency();
+        synchronized (this) {
+            record("DwmExtendFrameIntoClientArea", hwnd);
+            SimulatedWindow window = require(hwnd);
+            if (window == null) {
+                return E_INVALIDARG;
+            }
+            window.frameMargins = new int[]{left, right, top, bottom};
+            return 0;
+        }
+    }
+
+    @Override
+    public int getCurrentProcessId() {
+        simulateLatency();
+        synchronized (this) {
+            record("GetCurrentProcessId", 0);
+            return processId;
+        }
+    }
+
+    @Override
+    public int getCurrentThreadId() {
+        simulateLatency();
+        synchronized (this) {
+            record("GetCurrentThreadId", 0);
+            return currentSimulatedThreadId();
+        }
+    }
+
+    @Override
+    public int getWindowProcessId(long hwnd) {
+        simulateLatency();
+        synchronized (this) {
+            record("GetWindowThreadProcessId", hwnd);
+            SimulatedWindow window = require(hwnd);
+            return window == null ? 0 : window.processId;
+        }
+    }
+
+    @Override
+    public void enumWindows(WindowVisitor visitor) {
+        simulateLatency();
+        List<Long> topLevel;
+        synchronized (this) {
+            record("EnumWindows", 0);
+            topLevel = windows.values().stream().filter(w -> w.parent == 0).map(w -> w.hwnd).toList();
+        }
+        // 回调在锁外执行，允许回调中继续调用本后端
+        for (long hwnd : topLevel) {
+            if (!visitor.visit(hwnd)) {
+                break;
+            }
+        }
+    }
+
+    @Override
+    public void enumThreadWindows(int threadId, WindowVisitor visitor) {
+        simulateLatency();
+        List<Long> threadWindows;
+        synchronized (this) {
+            record("EnumThreadWindows", 0);
+            threadWindows = windows.values().stream()
+                    .filter(w -> w.parent == 0 && w.threadId == threadId)
+                    .map(w -> w.hwnd)
+                    .toList();
+        }
+        for (long hwnd : threadWindows) {
+            if (!visitor.visit(hwnd)) {
+                break;
+            }
+        }
+    }
+
+    @Override
+    public String getClassName(long hwnd) {
+        simulateLatency();
+        synchronized (this) {
+            record("GetClassName", hwnd);
+            SimulatedWindow window = require(hwnd);
+            return window == null ? "" : window.className;
+        }
+    }
+
+    @Override
+    public String getWindowText(long hwnd) {
+        simulateLatency();
+        synchronized (this) {
+            record("GetWindowText", hwnd);
+            SimulatedWindow window = require(hwnd);
+            return window == null ? "" : window.title;
+        }
+    }
+
+    @Override
+    public long findWindow(String className, String windowName) {
+        simulateLatency();
+        synchronized (this) {
+            record("FindWindow", 0);
+            for (SimulatedWindow window : windows.values()) {
+                if (window.parent == 0
+                        && (className == null || className.equals(window.className))
+                        && (windowName == null || windowName.equals(window.title))) {
+                    return window.hwnd;
+                }
+            }
+            return 0;
+        }
+    }
+
+    @Override
+    public long createWindowEx(int exStyle, String className, String windowName, int style,
+                               int x, int y, int width, int height, long parent) {
+        simulateLatency();
+        synchronized (this) {
+            record("CreateWindowEx", parent);
+            if (parent != 0 && !windows.containsKey(parent)) {
+                lastError = 1400; // ERROR_INVALID_WINDOW_HANDLE
+                return 0;
+            }
+            long hwnd = newWindow(processId, currentSimulatedThreadId(), className, windowName, x, y, width, height);
+            SimulatedWindow window = windows.get(hwnd);
+            window.parent = parent;
+            window.style = style & 0xFFFFFFFFL;
+            window.exStyle = exStyle;
+            window.visible = (window.style & Win32Constants.WindowStyle.WS_VISIBLE) != 0;
+            postWinEvent(Win32Constants.WinEvent.EVENT_OBJECT_CREATE, hwnd);
+            if (window.visible) {
+                postWinEvent(Win32Constants.WinEvent.EVENT_OBJECT_SHOW, hwnd);
+            }
+            return hwnd;
+        }
+    }
+
+    @Override
+    public boolean destroyWindow(long hwnd) {
+        simulateLatency();
+        synchronized (this) {
+            record("DestroyWindow", hwnd);
+            if (require(hwnd) == null) {
+                return false;
+            }
+            removeRecursively(hwnd);
+            return true;
+        }
+    }
+
+    @Override
+    public long setParent(long child, long newParent) {
+        simulateLatency();
+        synchronized (this) {
+            record("SetParent", child);
+            SimulatedWindow window = require(child);
+            if (window == null || (newParent != 0 && !windows.containsKey(newParent))) {
+                return 0;
+            }
+            long previous = window.parent;
+            window.parent = newParent;
+            return previous;
+        }
+    }
+
+    @Override
+    public long getParent(long hwnd) {
+        simulateLatency();
+        synchronized (this) {
+            record("GetParent", hwnd);
+            SimulatedWindow window = require(hwnd);
+            return window == null ? 0 : window.parent;
+        }
+    }
+
+    @Override
+    public long setFocus(long hwnd) {
+        simulateLatency();
+        synchronized (this) {
+            record("SetFocus", hwnd);
+            long previous = 0;
+            for (SimulatedWindow window : windows.values()) {
+                if (window.focused) {
+                    previous = window.hwnd;
+                    window.focused = false;
+                }
+            }
+            SimulatedWindow window = require(hwnd);
+            if (window != null) {
+                window.focused = true;
+            }
+            return previous;
+        }
+    }
+
+    @Override
+    public boolean invalidateRect(long hwnd, boolean erase) {
+        simulateLatency();
+        synchronized (this) {
+            record("InvalidateRect", hwnd);
+            return require(hwnd) != null;
+        }
+    }
+
+    @Override
+    public boolean updateWindow(long hwnd) {
+        simulateLatency();
+        synchronized (this) {
+            record("UpdateWindow", hwnd);
+            return require(hwnd) != null;
+        }
+    }
+
+    @Override
+    public boolean subclassWindow(long hwnd, WindowProcHook hook) {
+        simulateLatency();
+        synchronized (this) {
+            record("SubclassWindow", hwnd);
+            SimulatedWindow window = require(hwnd);
+            if (window == null) {
+                return false;
+            }
+            window.hook = hook;
+            return true;
+        }
+    }
+
+    @Override
+    public boolean unsubclassWindow(long hwnd) {
+        simulateLatency();
+        synchronized (this) {
+            record("UnsubclassWindow", hwnd);
+            SimulatedWindow window = windows.get(hwnd);
+            if (window == null || window.hook == null) {
+                return false;
+            }
+            window.hook = null;
+            return true;
+        }
+    }
+
+    @Override
+    public long setWinEventHook(int eventMin, int eventMax, WinEventListener listener) {
+        simulateLatency();
+        synchronized (this) {
+            record("SetWinEventHook", 0);
+            if (listener == null) {
+                throw new IllegalArgumentException("事件回调不能为 null");
+            }
+            if (winEventThread == null) {
+                winEventThread = Executors.newSingleThreadExecutor(r -> {
+                    Thread thread = new Thread(r, "bfxwt-winevent-sim");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+            long hook = nextHook++;
+            winEventHooks.put(hook, new WinEventHook(eventMin, eventMax, listener));
+            return hook;
+        }
+    }
+
+    @Override
+    public boolean unhookWinEvent(long hook) {
+        simulateLatency();
+        synchronized (this) {
+            record("UnhookWinEvent", 0);
+            return winEventHooks.remove(hook) != null;
+        }
+    }
+
+    @Override
+    public synchronized int getLastError() {
+        return lastError;
+    }
+
+    @Override
+    public synchronized void setLastError(int error) {
+        lastError = error;
+    }
+
+    //  模拟消息源
+
+    /**
+     * 模拟系统向窗口投递一条消息：交给 {@link #subclassWindow(long, WindowProcHook)} 安装的钩子（不计入调用记录）
+     *
+     * <p>
+     * 钩子在锁外、在调用线程上执行；WM_NCDESTROY 与真实窗口一样会自动移除钩子。
+     * </p>
+     *
+     * @return 钩子的处理结果；没有钩子或钩子未处理时返回 0（模拟默认窗口过程）
+     */
+    public long simulateMessage(long hwnd, int msg, long wParam, long lParam) {
+        WindowProcHook hook;
+        synchronized (this) {
+            SimulatedWindow window = windows.get(hwnd);
+            if (window == null) {
+                return 0;
+            }
+            hook = window.hook;
+            if (msg == Win32Constants.WindowMessage.WM_NCDESTROY) {
+                window.hook = null;
+            }
+        }
+        if (hook == null) {
+            return 0;
+        }
+        long result = hook.onMessage(hwnd, msg, wParam, lParam);
+        return result == PASS_TO_ORIGINAL ? 0 : result;
+    }
+
+    /**
+     * 模拟系统产生一个事件（不计入调用记录），在事件线程上异步投递给范围匹配的钩子
+     */
+    public synchronized void simulateWinEvent(int event, long hwnd) {
+        postWinEvent(event, hwnd);
+    }
+
+    /**
+     * 等待此前产生的所有系统事件投递完毕（没有安装过钩子时立即返回）
+     */
+    public void flushWinEvents() {
+        ExecutorService thread;
+        synchronized (this) {
+            thread = winEventThread;
+        }
+        if (thread == null) {
+            return;
+        }
+        try {
+            thread.submit(() -> {
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    //  内部辅助
+
+    // 调用方持有锁；投递在事件线程上进行，回调中可以继续调用本后端
+    private void postWinEvent(int event, long hwnd) {
+        if (winEventHooks.isEmpty()) {
+            return;
+        }
+        List<WinEventListener> targets = new ArrayList<>();
+        for (WinEventHook hook : winEventHooks.values()) {
+            if (event >= hook.eventMin() && event <= hook.eventMax()) {
+                targets.add(hook.listener());
+            }
+        }
+        if (!targets.isEmpty()) {
+            winEventThread.execute(() -> {
+                for (WinEventListener listener : targets) {
+                    listener.onEvent(event, hwnd, Win32Constants.WinEvent.OBJID_WINDOW,
+                            Win32Constants.WinEvent.CHILDID_SELF);
+                }
+            });
+        }
+    }
+
+    private void record(String function, long hwnd) {
+        if (calls.size() >= callLimit) {
+            calls.removeFirst();
+        }
+        calls.addLast(new NativeCall(function, hwnd, System.nanoTime(), Thread.currentThread().getName()));
+        functionCounts.merge(function, 1L, Long::sum);
+        totalCalls++;
+    }
+
+    /*
+     * 在进入监视器之前等待，模拟阻塞的原生调用：调用本身（记录 + 状态变化）仍在锁内原子完成，
+     * 不同线程的调用可以并行等待
+     */
+    private void simulateLatency() {
+        long deadline = System.nanoTime() + latencyNanos;
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(this, remaining);
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+        }
+    }
+
+    private SimulatedWindow require(long hwnd) {
+        SimulatedWindow window = windows.get(hwnd);
+        if (window == null) {
+            lastError = 1400; // ERROR_INVALID_WINDOW_HANDLE
+        }
+        return window;
+    }
+
+    private void removeRecursively(long hwnd) {
+        if (windows.remove(hwnd) != null) {
+            postWinEvent(Win32Constants.WinEvent.EVENT_OBJECT_DESTROY, hwnd);
+        }
+        List<Long> children = windows.values().stream().filter(w -> w.parent == hwnd).map(w -> w.hwnd).toList();
+        children.forEach(this::removeRecursively);
+    }
+
+    // 子窗口坐标相对于父窗口客户区，累加得到屏幕坐标
+    private int[] screenOrigin(SimulatedWindow window) {
+        int x = window.x;
+        int y = window.y;
+        SimulatedWindow parent = windows.get(window.parent);
+        while (parent != null) {
+            x += parent.x;
+            y += parent.y;
+            parent = windows.get(parent.parent);
+        }
+        return new int[]{x, y};
+    }
+
+    private static int currentSimulatedThreadId() {
+        return (int) Thread.currentThread().getId();
+    }
+
+    /**
+     * 一次原生调用记录
+     *
+     * @param function       Win32 函数名
+     * @param hwnd           目标窗口句柄（无目标窗口时为 0）
+     * @param timestampNanos 调用时刻（{@link System#nanoTime()}）
+     * @param thread         调用线程名
+     */
+    public record NativeCall(String function, long hwnd, long timestampNanos, String thread) {
+    }
+
+    private record WinEventHook(int eventMin, int eventMax, WinEventListener listener) {
+    }
+
+    private record DeferredPos(long hwnd, long insertAfter, int x, int y, int cx, int cy, int flags) {
+    }
+
+    /**
+     * 模拟窗口状态
+     */
+    public static final class SimulatedWindow {
+        private final long hwnd;
+        private final int processId;
+        private final int threadId;
+        private final String className;
+        private final Map<Integer, Integer> dwmAttributes = new HashMap<>();
+        private final Map<Integer, Long> longs = new HashMap<>();
+        private String title = "";
+        private long style;
+        private long exStyle;
+        private long parent;
+        private int x, y, width, height;
+        private boolean visible, zoomed, iconic, topmost, focused;
+        private int alpha = 255;
+        private int frameChanges;
+        private int[] frameMargins;
+        private int lastMessage;
+        private long lastMessageWParam;
+        private WindowProcHook hook;
+
+        private SimulatedWindow(long hwnd, int processId, int threadId, String className) {
+            this.hwnd = hwnd;
+            this.processId = processId;
+            this.threadId = threadId;
+            this.className = className == null ? "" : className;
+        }
+
+        public long hwnd() {
+            return hwnd;
+        }
+
+        public int processId() {
+            return processId;
+        }
+
+        public int threadId() {
+            return threadId;
+        }
+
+        public String className() {
+            return className;
+        }
+
+        public String title() {
+            return title;
+        }
+
+        public long style() {
+            return style;
+        }
+
+        public long exStyle() {
+            return exStyle;
+        }
+
+        public long parent() {
+            return parent;
+        }
+
+        public int x() {
+            return x;
+        }
+
+        public int y() {
+            return y;
+        }
+
+        public int width() {
+            return width;
+        }
+
+        public int height() {
+            return height;
+        }
+
+        public boolean visible() {
+            return visible;
+        }
+
+        public boolean zoomed() {
+            return zoomed;
+        }
+
+        public boolean iconic() {
+            return iconic;
+        }
+
+        public boolean topmost() {
+            return topmost;
+        }
+
+        public boolean focused() {
+            return focused;
+        }
+
+        public int alpha() {
+            return alpha;
+        }
+
+        /**
+         * SWP_FRAMECHANGED 刷新次数
+         */
+        public int frameChanges() {
+            return frameChanges;
+        }
+
+        /**
+         * DwmExtendFrameIntoClientArea 设置的边距（left, right, top, bottom），未设置返回 null
+         */
+        public int[] frameMargins() {
+            return frameMargins == null ? null : frameMargins.clone();
+        }
+
+        public Integer dwmAttribute(int attribute) {
+            return dwmAttributes.get(attribute);
+        }
+
+        public int lastMessage() {
+            return lastMessage;
+        }
+
+        public boolean subclassed() {
+            return hook != null;
+        }
+
+        public long lastMessageWParam() {
+            return lastMessageWParam;
+        }
+    }
+}
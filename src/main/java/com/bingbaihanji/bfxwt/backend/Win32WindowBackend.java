@@ -0,0 +1,517 @@
+package com.bingbaihanji.bfxwt.backend;
+
+import com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.DwmApi;
+import com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Kernel32Api;
+import com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.User32Api;
+import com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants;
+import com.sun.jna.CallbackReference;
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+import com.sun.jna.platform.win32.BaseTSD;
+import com.sun.jna.platform.win32.WinDef;
+import com.sun.jna.platform.win32.WinNT;
+import com.sun.jna.platform.win32.WinUser;
+import com.sun.jna.ptr.IntByReference;
+import com.sun.jna.win32.StdCallLibrary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 基于 JNA 的 Win32 原生窗口后端（默认实现）
+ *
+ * <p>
+ * 将 {@link NativeWindowBackend} 的调用直接转发到 user32.dll / dwmapi.dll / kernel32.dll。
+ * </p>
+ *
+ * @author bingbaihanji
+ * @date 2026-01-21
+ */
+public class Win32WindowBackend implements NativeWindowBackend {
+
+    private static final Logger log = LoggerFactory.getLogger(Win32WindowBackend.class);
+
+    // 已子类化的窗口；同时持有回调的强引用，防止回调被 GC 后窗口过程指向无效地址
+    private final Map<Long, Subclass> subclasses = new ConcurrentHashMap<>();
+    // 已安装的系统事件钩子（钩子句柄 → 事件线程）
+    private final Map<Long, WinEventThread> winEventThreads = new ConcurrentHashMap<>();
+
+    // 每个线程复用一个枚举回调：JNA 为每个新的回调对象生成原生跳板，每次枚举都新建 lambda 会重复这一开销
+    private static final ThreadLocal<EnumCallback> ENUM_CALLBACK = ThreadLocal.withInitial(EnumCallback::new);
+
+    private static WinDef.HWND hwnd(long handle) {
+        return handle == 0 ? null : new WinDef.HWND(new Pointer(handle));
+    }
+
+    private static long handle(WinDef.HWND hwnd) {
+        return hwnd == null ? 0 : Pointer.nativeValue(hwnd.getPointer());
+    }
+
+    @Override
+    public long getWindowLongPtr(long hwnd, int index) {
+        return User32Api.INSTANCE.GetWindowLongPtr(hwnd(hwnd), index).longValue();
+    }
+
+    @Override
+    public long setWindowLongPtr(long hwnd, int index, long value) {
+        Pointer previous = User32Api.INSTANCE.SetWindowLongPtr(hwnd(hwnd), index, new BaseTSD.LONG_PTR(value).toPointer());
+        return Pointer.nativeValue(previous);
+    }
+
+    @Override
+    public boolean setLayeredWindowAttributes(long hwnd, int colorKey, byte alpha, int flags) {
+        return User32Api.INSTANCE.SetLayeredWindowAttributes(hwnd(hwnd), colorKey, alpha, flags);
+    }
+
+    @Override
+    public boolean setWindowPos(long hwnd, long insertAfter, int x, int y, int cx, int cy, int flags) {
+        return User32Api.INSTANCE.SetWindowPos(hwnd(hwnd), hwnd(insertAfter), x, y, cx, cy, flags);
+    }
+
+    @Override
+    public boolean getWindowRect(long hwnd, int[] rect) {
+        NativeScratch scratch = NativeScratch.acquire();
+        try {
+            WinDef.RECT r = scratch.rect;
+            boolean ok = User32Api.INSTANCE.GetWindowRect(hwnd(hwnd), r);
+            rect[0] = r.left;
+            rect[1] = r.top;
+            rect[2] = r.right;
+            rect[3] = r.bottom;
+            return ok;
+        } finally {
+            scratch.release();
+        }
+    }
+
+    @Override
+    public long beginDeferWindowPos(int count) {
+        WinNT.HANDLE hdwp = User32Api.INSTANCE.BeginDeferWindowPos(count);
+        return hdwp == null ? 0 : Pointer.nativeValue(hdwp.getPointer());
+    }
+
+    @Override
+    public long deferWindowPos(long hdwp, long hwnd, long insertAfter, int x, int y, int cx, int cy, int flags) {
+        WinNT.HANDLE result = User32Api.INSTANCE.DeferWindowPos(
+                new WinNT.HANDLE(new Pointer(hdwp)), hwnd(hwnd), hwnd(insertAfter), x, y, cx, cy, flags);
+        return result == null ? 0 : Pointer.nativeValue(result.getPointer());
+    }
+
+    @Override
+    public boolean endDeferWindowPos(long hdwp) {
+        return User32Api.INSTANCE.EndDeferWindowPos(new WinNT.HANDLE(new Pointer(hdwp)));
+    }
+
+    @Override
+    public boolean showWindow(long hwnd, int cmdShow) {
+        return User32Api.INSTANCE.ShowWindow(hwnd(hwnd), cmdShow);
+    }
+
+    @Override
+    public boolean isZoomed(long hwnd) {
+        return User32Api.INSTANCE.IsZoomed(hwnd(hwnd));
+    }
+
+    @Override
+    public boolean isIconic(long hwnd) {
+        return User32Api.INSTANCE.IsIconic(hwnd(hwnd));
+    }
+
+    @Override
+    public boolean releaseCapture() {
+        return User32Api.INSTANCE.ReleaseCapture();
+    }
+
+    @Override
+    public long sendMessage(long hwnd, int msg, long wParam, long lParam) {
+        WinDef.LRESULT result = User32Api.INSTANCE.SendMessage(
+                hwnd(hwnd), msg, new WinDef.WPARAM(wParam), new WinDef.LPARAM(lParam));
+        return result == null ? 0 : result.longValue();
+    }
+
+    @Override
+    public boolean screenToClient(long hwnd, int[] point) {
+        NativeScratch scratch = NativeScratch.acquire();
+        try {
+            WinDef.POINT p = scratch.point;
+            p.x = point[0];
+            p.y = point[1];
+            boolean ok = User32Api.INSTANCE.ScreenToClient(hwnd(hwnd), p);
+            point[0] = p.x;
+            point[1] = p.y;
+            return ok;
+        } finally {
+            scratch.release();
+        }
+    }
+
+    @Override
+    public int dwmSetWindowAttribute(long hwnd, int attribute, int value) {
+        NativeScratch scratch = NativeScratch.acquire();
+        try {
+            scratch.intRef.setValue(value);
+            return DwmApi.INSTANCE.DwmSetWindowAttribute(hwnd(hwnd), attribute, scratch.intRef, Integer.BYTES);
+        } finally {
+            scratch.release();
+        }
+    }
+
+    @Override
+    public int dwmGetWindowAttribute(long hwnd, int attribute, int[] value) {
+        NativeScratch scratch = NativeScratch.acquire();
+        try {
+            IntByReference ref = scratch.intRef;
+            ref.setValue(0);
+            int result = DwmApi.INSTANCE.DwmGetWindowAttribute(hwnd(hwnd), attribute, ref, Integer.BYTES);
+            value[0] = ref.getValue();
+            return result;
+        } finally {
+            scratch.release();
+        }
+    }
+
+    @Override
+    public int dwmExtendFrameIntoClientArea(long hwnd, int left, int right, int top, int bottom) {
+        NativeScratch scratch = NativeScratch.acquire();
+        try {
+            DwmApi.MARGINS margins = scratch.margins();
+            margins.cxLeftWidth = left;
+            margins.cxRightWidth = right;
+            margins.cyTopHeight = top;
+            margins.cyBottomHeight = bottom;
+            return DwmApi.INSTANCE.DwmExtendFrameIntoClientArea(hwnd(hwnd), margins);
+        } finally {
+            scratch.release();
+        }
+    }
+
+    @Override
+    public int getCurrentProcessId() {
+        return Kernel32Api.INSTANCE.GetCurrentProcessId();
+    }
+
+    @Override
+    public int getCurrentThreadId() {
+        return Kernel32Api.INSTANCE.GetCurrentThreadId();
+    }
+
+    @Override
+    public int getWindowProcessId(long hwnd) {
+        NativeScratch scratch = NativeScratch.acquire();
+        try {
+            IntByReference pid = scratch.intRef;
+            pid.setValue(0);
+            User32Api.INSTANCE.GetWindowThreadProcessId(hwnd(hwnd), pid);
+            return pid.getValue();
+        } finally {
+            scratch.release();
+        }
+    }
+
+    @Override
+    public void enumWindows(WindowVisitor visitor) {
+        EnumCallback callback = ENUM_CALLBACK.get();
+        WindowVisitor previous = callback.enter(visitor);
+        try {
+            User32Api.INSTANCE.EnumWindows(callback, null);
+        } finally {
+            callback.visitor = previous;
+        }
+    }
+
+    @Override
+    public void enumThreadWindows(int threadId, WindowVisitor visitor) {
+        EnumCallback callback = ENUM_CALLBACK.get();
+        WindowVisitor previous = callback.enter(visitor);
+        try {
+            User32Api.INSTANCE.EnumThreadWindows(threadId, callback, null);
+        } finally {
+            callback.visitor = previous;
+        }
+    }
+
+    @Override
+    public String getClassName(long hwnd) {
+        NativeScratch scratch = NativeScratch.acquire();
+        try {
+            char[] className = scratch.text;
+            int length = User32Api.INSTANCE.GetClassName(hwnd(hwnd), className, className.length);
+            return new String(className, 0, Math.max(0, length));
+        } finally {
+            scratch.release();
+        }
+    }
+
+    @Override
+    public String getWindowText(long hwnd) {
+        NativeScratch scratch = NativeScratch.acquire();
+        try {
+            char[] text = scratch.text;
+            int length = User32Api.INSTANCE.GetWindowText(hwnd(hwnd), text, text.length);
+            return new String(text, 0, Math.max(0, length));
+        } finally {
+            scratch.release();
+        }
+    }
+
+    @Override
+    public long findWindow(String className, String windowName) {
+        return handle(User32Api.INSTANCE.FindWindow(className, windowName));
+    }
+
+    @Override
+    public long createWindowEx(int exStyle, String className, String windowName, int style,
+                               int x, int y, int width, int height, long parent) {
+        return handle(User32Api.INSTANCE.CreateWindowEx(
+                exStyle, className, windowName, style, x, y, width, height, hwnd(parent), null, null, null));
+    }
+
+    @Override
+    public boolean destroyWindow(long hwnd) {
+        return User32Api.INSTANCE.DestroyWindow(hwnd(hwnd));
+    }
+
+    @Override
+    public long setParent(long child, long newParent) {
+        return handle(User32Api.INSTANCE.SetParent(hwnd(child), hwnd(newParent)));
+    }
+
+    @Override
+    public long getParent(long hwnd) {
+        return handle(User32Api.INSTANCE.GetParent(hwnd(hwnd)));
+    }
+
+    @Override
+    public long setFocus(long hwnd) {
+        return handle(User32Api.INSTANCE.SetFocus(hwnd(hwnd)));
+    }
+
+    @Override
+    public boolean invalidateRect(long hwnd, boolean erase) {
+        return User32Api.INSTANCE.InvalidateRect(hwnd(hwnd), null, erase);
+    }
+
+    @Override
+    public boolean updateWindow(long hwnd) {
+        return User32Api.INSTANCE.UpdateWindow(hwnd(hwnd));
+    }
+
+    @Override
+    public boolean subclassWindow(long hwnd, WindowProcHook hook) {
+        if (hook == null) {
+            throw new IllegalArgumentException("窗口过程钩子不能为 null");
+        }
+        // 回调参数按 64 位传递 WPARAM / LPARAM，32 位 JVM 不支持
+        if (Native.POINTER_SIZE != 8 || hwnd == 0) {
+            return false;
+        }
+        Subclass existing = subclasses.get(hwnd);
+        if (existing != null) {
+            existing.hook = hook;
+            return true;
+        }
+        Subclass subclass = new Subclass(hwnd, hook);
+        long procAddress = Pointer.nativeValue(CallbackReference.getFunctionPointer(subclass.proc));
+        long original = setWindowLongPtr(hwnd, Win32Constants.WindowLongIndex.GWL_WNDPROC, procAddress);
+        if (original == 0) {
+            return false;
+        }
+        subclass.original = original;
+        subclass.address = procAddress;
+        subclasses.put(hwnd, subclass);
+        return true;
+    }
+
+    @Override
+    public boolean unsubclassWindow(long hwnd) {
+        Subclass subclass = subclasses.get(hwnd);
+        if (subclass == null) {
+            return false;
+        }
+        subclass.hook = null;
+        // 只有窗口过程仍是我们的回调时才能恢复；否则之后又有人子类化，恢复会截断其调用链，
+        // 此时保留回调（钩子已清空，只做透传）直到窗口销毁
+        if (getWindowLongPtr(hwnd, Win32Constants.WindowLongIndex.GWL_WNDPROC) == subclass.address) {
+            setWindowLongPtr(hwnd, Win32Constants.WindowLongIndex.GWL_WNDPROC, subclass.original);
+            subclasses.remove(hwnd);
+        }
+        return true;
+    }
+
+    @Override
+    public long setWinEventHook(int eventMin, int eventMax, WinEventListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("事件回调不能为 null");
+        }
+        WinEventThread thread = new WinEventThread(eventMin, eventMax, listener);
+        long hook = thread.install();
+        if (hook != 0) {
+            winEventThreads.put(hook, thread);
+        }
+        return hook;
+    }
+
+    @Override
+    public boolean unhookWinEvent(long hook) {
+        WinEventThread thread = winEventThreads.remove(hook);
+        if (thread == null) {
+            return false;
+        }
+        thread.quit();
+        return true;
+    }
+
+    /**
+     * 调用原窗口过程
+     */
+    protected long callWindowProc(long proc, long hwnd, int msg, long wParam, long lParam) {
+        return User32Api.INSTANCE.CallWindowProc(new Pointer(proc), hwnd(hwnd), msg,
+                new WinDef.WPARAM(wParam), new WinDef.LPARAM(lParam)).longValue();
+    }
+
+    @Override
+    public int getLastError() {
+        return Native.getLastError();
+    }
+
+    @Override
+    public void setLastError(int error) {
+        Native.setLastError(error);
+    }
+
+    /**
+     * 基本类型签名的窗口过程回调（64 位），避免每条消息封装 HWND / WPARAM / LPARAM 对象
+     */
+    public interface RawWindowProc extends StdCallLibrary.StdCallCallback {
+        long callback(long hwnd, int msg, long wParam, long lParam);
+    }
+
+    private final class Subclass {
+        private final long hwnd;
+        private final RawWindowProc proc = this::dispatch;
+        private volatile WindowProcHook hook;
+        private volatile long original;
+        private volatile long address;
+
+        private Subclass(long hwnd, WindowProcHook hook) {
+            this.hwnd = hwnd;
+            this.hook = hook;
+        }
+
+        private long dispatch(long hwnd, int msg, long wParam, long lParam) {
+            WindowProcHook current = hook;
+            if (current != null) {
+                long result;
+                try {
+                    result = current.onMessage(hwnd, msg, wParam, lParam);
+                } catch (Throwable t) {
+                    // 异常不能穿过原生栈帧，按未处理交给原窗口过程
+                    result = PASS_TO_ORIGINAL;
+                }
+                if (result != PASS_TO_ORIGINAL && msg != Win32Constants.WindowMessage.WM_NCDESTROY) {
+                    return result;
+                }
+            }
+            long original = this.original;
+            if (msg == Win32Constants.WindowMessage.WM_NCDESTROY) {
+                // 窗口销毁前恢复原窗口过程，释放回调
+                setWindowLongPtr(this.hwnd, Win32Constants.WindowLongIndex.GWL_WNDPROC, original);
+                subclasses.remove(this.hwnd, this);
+            }
+            return callWindowProc(original, hwnd, msg, wParam, lParam);
+        }
+    }
+
+    /*
+     * 线程私有的枚举回调，转发给当前的访问器；
+     * 访问器中再次枚举（同一线程重入）时保存并恢复外层的访问器
+     */
+    private static final class EnumCallback implements WinUser.WNDENUMPROC {
+        private WindowVisitor visitor;
+
+        private WindowVisitor enter(WindowVisitor next) {
+            WindowVisitor previous = visitor;
+            visitor = next;
+            return previous;
+        }
+
+        @Override
+        public boolean callback(WinDef.HWND hWnd, Pointer data) {
+            return visitor.visit(handle(hWnd));
+        }
+    }
+
+    /*
+     * 一个系统事件钩子及其消息循环线程：
+     * WINEVENT_OUTOFCONTEXT 的事件只在安装钩子的线程取消息时投递，因此每个钩子一个守护线程
+     */
+    private static final class WinEventThread implements Runnable {
+        private final int eventMin;
+        private final int eventMax;
+        private final WinEventListener listener;
+        // 持有回调的强引用，防止回调被 GC 后钩子指向无效地址
+        private final WinUser.WinEventProc proc;
+        private final CompletableFuture<Long> installed = new CompletableFuture<>();
+        private volatile int threadId;
+
+        private WinEventThread(int eventMin, int eventMax, WinEventListener listener) {
+            this.eventMin = eventMin;
+            this.eventMax = eventMax;
+            this.listener = listener;
+            this.proc = (hook, event, hwnd, idObject, idChild, eventThread, time) -> {
+                try {
+                    listener.onEvent(event.intValue(), handle(hwnd), idObject.intValue(), idChild.intValue());
+                } catch (Throwable t) {
+                    // 异常不能穿过原生栈帧
+                    log.warn("系统事件监听器异常: event=0x{}", Integer.toHexString(event.intValue()), t);
+                }
+            };
+        }
+
+        /*
+         * 启动线程并等待钩子安装完成
+         */
+        private long install() {
+            Thread thread = new Thread(this, "bfxwt-winevent");
+            thread.setDaemon(true);
+            thread.start();
+            return installed.join();
+        }
+
+        private void quit() {
+            User32Api.INSTANCE.PostThreadMessage(threadId, Win32Constants.WindowMessage.WM_QUIT,
+                    new WinDef.WPARAM(0), new WinDef.LPARAM(0));
+        }
+
+        @Override
+        public void run() {
+            WinNT.HANDLE hook;
+            try {
+                threadId = Kernel32Api.INSTANCE.GetCurrentThreadId();
+                hook = User32Api.INSTANCE.SetWinEventHook(eventMin, eventMax, null, proc, 0, 0,
+                        Win32Constants.WinEvent.WINEVENT_OUTOFCONTEXT);
+            } catch (Throwable t) {
+                installed.complete(0L);
+                return;
+            }
+            long value = hook == null ? 0 : Pointer.nativeValue(hook.getPointer());
+            // SetWinEventHook 已创建本线程的消息队列，之后投递的 WM_QUIT 不会丢失
+            installed.complete(value);
+            if (value == 0) {
+                return;
+            }
+            WinUser.MSG msg = new WinUser.MSG();
+            try {
+                while (User32Api.INSTANCE.GetMessage(msg, null, 0, 0) > 0) {
+                    User32Api.INSTANCE.TranslateMessage(msg);
+                    User32Api.INSTANCE.DispatchMessage(msg);
+                }
+            } finally {
+                User32Api.INSTANCE.UnhookWinEvent(hook);
+            }
+        }
+    }
+}
@@ -0,0 +1,912 @@
+package com.bingbaihanji.bfxwt.backend;
+
+import com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants;
+import com.sun.jna.Callback;
+import com.sun.jna.Function;
+import com.sun.jna.Memory;
+import com.sun.jna.Native;
+import com.sun.jna.NativeLibrary;
+import com.sun.jna.Pointer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基于 JNA 直接映射 libX11 的 Linux / X11 后端
+ *
+ * <p>
+ * 把 {@link NativeWindowBackend} 的 Win32 语义翻译为 X11 / EWMH 操作，窗口句柄即 X Window ID：
+ * </p>
+ * <ul>
+ *   <li>WM_NCLBUTTONDOWN(HT*) → {@code _NET_WM_MOVERESIZE}，由窗口管理器接管拖动 / 边缘调整大小</li>
+ *   <li>SetLayeredWindowAttributes → {@code _NET_WM_WINDOW_OPACITY}</li>
+ *   <li>ShowWindow(SW_MAXIMIZE / SW_RESTORE)、HWND_TOPMOST → {@code _NET_WM_STATE}（MAXIMIZED_* / ABOVE）；
+ *       SW_MINIMIZE → XIconifyWindow</li>
+ *   <li>EnumWindows / GetWindowThreadProcessId → {@code _NET_CLIENT_LIST} / {@code _NET_WM_PID}</li>
+ *   <li>SetWindowPos / GetWindowRect / ScreenToClient → XMoveResizeWindow / XGetGeometry / XTranslateCoordinates</li>
+ * </ul>
+ * <p>
+ * X11 没有对应物的功能按「不支持」返回：DWM 属性返回 {@link #E_NOTIMPL}，窗口过程子类化和系统事件钩子
+ * 返回失败（调用方会退回各自的非原生实现）；窗口样式只在本后端内记录，不影响真实窗口。
+ * </p>
+ *
+ * <p>
+ * 后端使用自己的 Display 连接（{@code $DISPLAY}），所有方法在该连接上串行执行。
+ * 在 Linux 上默认启用，也可以通过 {@code -Dbfxwt.backend=x11} 指定；
+ * 无图形环境的 CI 可以启动 Xvfb 并设置 {@code DISPLAY} 后运行。
+ * </p>
+ *
+ * @author bingbaihanji
+ * @date 2026-01-24
+ * @implNote 仅支持 64 位 JVM（X 资源 ID 与 C long 均按 64 位传递）。
+ * X 请求大多是异步的，移动、属性修改等调用只保证已发出（XFlush），不等待服务器确认；
+ * 协议错误由本后端的错误处理器记录到 {@link #getLastError()}，不会终止进程。
+ */
+public class X11WindowBackend implements NativeWindowBackend {
+
+    /**
+     * E_NOTIMPL，X11 不支持的 DWM 调用返回该错误码
+     */
+    public static final int E_NOTIMPL = 0x80004001;
+
+    // _NET_WM_MOVERESIZE 方向
+    private static final int MOVERESIZE_SIZE_TOPLEFT = 0;
+    private static final int MOVERESIZE_SIZE_TOP = 1;
+    private static final int MOVERESIZE_SIZE_TOPRIGHT = 2;
+    private static final int MOVERESIZE_SIZE_RIGHT = 3;
+    private static final int MOVERESIZE_SIZE_BOTTOMRIGHT = 4;
+    private static final int MOVERESIZE_SIZE_BOTTOM = 5;
+    private static final int MOVERESIZE_SIZE_BOTTOMLEFT = 6;
+    private static final int MOVERESIZE_SIZE_LEFT = 7;
+    private static final int MOVERESIZE_MOVE = 8;
+
+    // _NET_WM_STATE 动作
+    private static final int STATE_REMOVE = 0;
+    private static final int STATE_ADD = 1;
+
+    // 预定义原子与常量
+    private static final long XA_ATOM = 4;
+    private static final long XA_CARDINAL = 6;
+    private static final long XA_WINDOW = 33;
+    private static final int PROP_MODE_REPLACE = 0;
+    private static final long SUBSTRUCTURE_MASK = (1L << 19) | (1L << 20);
+    private static final int CLIENT_MESSAGE = 33;
+    private static final int REVERT_TO_PARENT = 2;
+    // XEvent 联合体大小（24 个 long）
+    private static final int XEVENT_SIZE = 192;
+    // XWindowAttributes（LP64）的大小与 map_state 偏移
+    private static final int XWINDOWATTRIBUTES_SIZE = 136;
+    private static final int XWINDOWATTRIBUTES_MAP_STATE_OFFSET = 92;
+
+    private final Pointer display;
+    private final long root;
+    private final int screen;
+    private final Map<String, Long> atoms = new HashMap<>();
+    // 记录的窗口样式（X11 没有对应物）
+    private final Map<Long, long[]> styles = new HashMap<>();
+    // 进行中的 DeferWindowPos 批次
+    private final Map<Long, List<long[]>> deferredBatches = new HashMap<>();
+    // 复用的 ClientMessage 事件缓冲区
+    private final Memory event = new Memory(XEVENT_SIZE);
+    private long nextBatch = 1;
+
+    // 输出参数缓冲区（所有调用都在 this 上串行）
+    private final long[] longOut = new long[1];
+    private final long[] longOut2 = new long[1];
+    private final long[] longOut3 = new long[1];
+    private final int[] intOut = new int[1];
+    private final int[] intOut2 = new int[1];
+    private final int[] intOut3 = new int[1];
+    private final int[] intOut4 = new int[1];
+    private final int[] intOut5 = new int[1];
+    private final int[] intOut6 = new int[1];
+
+    public X11WindowBackend() {
+        Pointer opened = XLib.AVAILABLE ? XLib.XOpenDisplay(null) : null;
+        this.display = opened;
+        if (opened != null) {
+            ErrorHandler.install();
+            this.screen = XLib.XDefaultScreen(opened);
+            this.root = XLib.XDefaultRootWindow(opened);
+            ErrorHandler.track(opened);
+        } else {
+            this.screen = 0;
+            this.root = 0;
+        }
+    }
+
+    /**
+     * libX11 是否加载成功且 Display 连接已打开
+     */
+    public boolean isAvailable() {
+        return display != null;
+    }
+
+    //  窗口样式
+
+    @Override
+    public synchronized long getWindowLongPtr(long hwnd, int index) {
+        if (index == Win32Constants.WindowLongIndex.GWL_STYLE) {
+            long[] style = styleOf(hwnd);
+            boolean visible = ready(hwnd) && isViewable(hwnd);
+            return visible ? style[0] | Win32Constants.WindowStyle.WS_VISIBLE
+                    : style[0] & ~Win32Constants.WindowStyle.WS_VISIBLE;
+        }
+        if (index == Win32Constants.WindowLongIndex.GWL_EXSTYLE) {
+            return styleOf(hwnd)[1];
+        }
+        return 0;
+    }
+
+    @Override
+    public synchronized long setWindowLongPtr(long hwnd, int index, long value) {
+        long[] style = styleOf(hwnd);
+        long previous;
+        if (index == Win32Constants.WindowLongIndex.GWL_STYLE) {
+            previous = style[0];
+            style[0] = value;
+        } else if (index == Win32Constants.WindowLongIndex.GWL_EXSTYLE) {
+            previous = style[1];
+            style[1] = value;
+        } else {
+            // GWL_WNDPROC 等：X11 没有窗口过程
+            return 0;
+        }
+        return previous;
+    }
+
+    @Override
+    public synchronized boolean setLayeredWindowAttributes(long hwnd, int colorKey, byte alpha, int flags) {
+        if (!ready(hwnd)) {
+            return false;
+        }
+        if ((flags & Win32Constants.LayeredWindowAttribute.LWA_ALPHA) == 0) {
+            return true;
+        }
+        long opacity = alpha == (byte) 0xFF ? 0xFFFFFFFFL : (Byte.toUnsignedLong(alpha) * 0xFFFFFFFFL) / 255;
+        longOut[0] = opacity;
+        XLib.XChangeProperty(display, hwnd, atom("_NET_WM_WINDOW_OPACITY"), XA_CARDINAL, 32,
+                PROP_MODE_REPLACE, longOut, 1);
+        XLib.XFlush(display);
+        return true;
+    }
+
+    /**
+     * 读取 _NET_WM_WINDOW_OPACITY（0 ~ 0xFFFFFFFF），未设置时返回 -1
+     */
+    synchronized long getWindowOpacity(long hwnd) {
+        if (!ready(hwnd)) {
+            return -1;
+        }
+        long[] opacity = readCardinals(hwnd, atom("_NET_WM_WINDOW_OPACITY"), XA_CARDINAL);
+        return opacity.length == 0 ? -1 : opacity[0];
+    }
+
+    //  位置与显示状态
+
+    @Override
+    public synchronized boolean setWindowPos(long hwnd, long insertAfter, int x, int y, int cx, int cy, int flags) {
+        if (!ready(hwnd)) {
+            return false;
+        }
+        applyWindowPos(hwnd, insertAfter, x, y, cx, cy, flags);
+        XLib.XFlush(display);
+        return true;
+    }
+
+    @Override
+    public synchronized boolean getWindowRect(long hwnd, int[] rect) {
+        if (!ready(hwnd) || XLib.XGetGeometry(display, hwnd, longOut, intOut, intOut2, intOut3, intOut4,
+                intOut5, intOut6) == 0) {
+            return false;
+        }
+        int width = intOut3[0];
+        int height = intOut4[0];
+        if (XLib.XTranslateCoordinates(display, hwnd, root, 0, 0, intOut, intOut2, longOut) == 0) {
+            return false;
+        }
+        rect[0] = intOut[0];
+        rect[1] = intOut2[0];
+        rect[2] = intOut[0] + width;
+        rect[3] = intOut2[0] + height;
+        return true;
+    }
+
+    @Override
+    public synchronized long beginDeferWindowPos(int count) {
+        if (display == null) {
+            return 0;
+        }
+        long hdwp = nextBatch++;
+        deferredBatches.put(hdwp, new ArrayList<>(Math.max(count, 1)));
+        return hdwp;
+    }
+
+    @Override
+    public synchronized long deferWindowPos(long hdwp, long hwnd, long insertAfter,
+                                            int x, int y, int cx, int cy, int flags) {
+        List<long[]> batch = deferredBatches.get(hdwp);
+        if (batch == null || !ready(hwnd)) {
+            deferredBatches.remove(hdwp);
+            return 0;
+        }
+        batch.add(new long[]{hwnd, insertAfter, x, y, cx, cy, flags});
+        return hdwp;
+    }
+
+    @Override
+    public synchronized boolean endDeferWindowPos(long hdwp) {
+        List<long[]> batch = deferredBatches.remove(hdwp);
+        if (batch == null) {
+            return false;
+        }
+        // 整批请求进入同一个输出缓冲区，一次 XFlush 发给服务器
+        for (long[] pos : batch) {
+            applyWindowPos(pos[0], pos[1], (int) pos[2], (int) pos[3], (int) pos[4], (int) pos[5], (int) pos[6]);
+        }
+        XLib.XFlush(display);
+        return true;
+    }
+
+    @Override
+    public synchronized boolean showWindow(long hwnd, int cmdShow) {
+        if (!ready(hwnd)) {
+            return false;
+        }
+        boolean wasVisible = isViewable(hwnd);
+        switch (cmdShow) {
+            case Win32Constants.ShowWindowCmd.SW_HIDE -> XLib.XUnmapWindow(display, hwnd);
+            case Win32Constants.ShowWindowCmd.SW_MINIMIZE,
+                 Win32Constants.ShowWindowCmd.SW_SHOWMINIMIZED,
+                 Win32Constants.ShowWindowCmd.SW_SHOWMINNOACTIVE,
+                 Win32Constants.ShowWindowCmd.SW_FORCEMINIMIZE -> XLib.XIconifyWindow(display, hwnd, screen);
+            case Win32Constants.ShowWindowCmd.SW_MAXIMIZE -> {
+                XLib.XMapRaised(display, hwnd);
+                changeState(hwnd, STATE_ADD, "_NET_WM_STATE_MAXIMIZED_VERT", "_NET_WM_STATE_MAXIMIZED_HORZ");
+            }
+            case Win32Constants.ShowWindowCmd.SW_RESTORE -> {
+                if (hasState(hwnd, "_NET_WM_STATE_HIDDEN")) {
+                    XLib.XMapRaised(display, hwnd);
+                } else {
+                    changeState(hwnd, STATE_REMOVE, "_NET_WM_STATE_MAXIMIZED_VERT", "_NET_WM_STATE_MAXIMIZED_HORZ");
+                }
+            }
+            default -> XLib.XMapWindow(display, hwnd);
+        }
+        XLib.XFlush(display);
+        return wasVisible;
+    }
+
+    @Override
+    public synchronized boolean isZoomed(long hwnd) {
+        return ready(hwnd) && hasState(hwnd, "_NET_WM_STATE_MAXIMIZED_VERT")
+                && hasState(hwnd, "_NET_WM_STATE_MAXIMIZED_HORZ");
+    }
+
+    @Override
+    public synchronized boolean isIconic(long hwnd) {
+        return ready(hwnd) && hasState(hwnd, "_NET_WM_STATE_HIDDEN");
+    }
+
+    //  输入与消息
+
+    /**
+     * 释放指针抓取：优先在 GTK 的 Display 连接上释放（JavaFX 在按下鼠标时持有隐式抓取，
+     * 只有抓取所属的连接能释放），否则在本后端的连接上释放
+     */
+    @Override
+    public synchronized boolean releaseCapture() {
+        if (display == null) {
+            return false;
+        }
+        Pointer gdkDisplay = GdkDisplay.get();
+        Pointer target = gdkDisplay != null ? gdkDisplay : display;
+        XLib.XUngrabPointer(target, 0);
+        XLib.XFlush(target);
+        return true;
+    }
+
+    @Override
+    public synchronized long sendMessage(long hwnd, int msg, long wParam, long lParam) {
+        if (!ready(hwnd)) {
+            return 0;
+        }
+        if (msg == Win32Constants.WindowMessage.WM_NCLBUTTONDOWN) {
+            int direction = moveResizeDirection((int) wParam);
+            if (direction >= 0 && XLib.XQueryPointer(display, root, longOut, longOut2,
+                    intOut, intOut2, intOut3, intOut4, intOut5) != 0) {
+                sendClientMessage(hwnd, atom("_NET_WM_MOVERESIZE"),
+                        intOut[0], intOut2[0], direction, 1 /* Button1 */, 1 /* 普通应用 */);
+                XLib.XFlush(display);
+            }
+        }
+        // 其它消息在 X11 上没有对应物
+        return 0;
+    }
+
+    @Override
+    public synchronized boolean screenToClient(long hwnd, int[] point) {
+        if (!ready(hwnd) || XLib.XTranslateCoordinates(display, root, hwnd, point[0], point[1],
+                intOut, intOut2, longOut) == 0) {
+            return false;
+        }
+        point[0] = intOut[0];
+        point[1] = intOut2[0];
+        return true;
+    }
+
+    //  DWM（X11 不支持）
+
+    @Override
+    public int dwmSetWindowAttribute(long hwnd, int attribute, int value) {
+        return E_NOTIMPL;
+    }
+
+    @Override
+    public int dwmGetWindowAttribute(long hwnd, int attribute, int[] value) {
+        return E_NOTIMPL;
+    }
+
+    @Override
+    public int dwmExtendFrameIntoClientArea(long hwnd, int left, int right, int top, int bottom) {
+        return E_NOTIMPL;
+    }
+
+    //  进程、线程与枚举
+
+    @Override
+    public int getCurrentProcessId() {
+        return (int) ProcessHandle.current().pid();
+    }
+
+    @Override
+    public int getCurrentThreadId() {
+        return (int) Thread.currentThread().getId();
+    }
+
+    @Override
+    public synchronized int getWindowProcessId(long hwnd) {
+        if (!ready(hwnd)) {
+            return 0;
+        }
+        long[] pid = readCardinals(hwnd, atom("_NET_WM_PID"), XA_CARDINAL);
+        return pid.length == 0 ? 0 : (int) pid[0];
+    }
+
+    @Override
+    public void enumWindows(WindowVisitor visitor) {
+        long[] clients;
+        synchronized (this) {
+            clients = display == null ? new long[0] : readCardinals(root, atom("_NET_CLIENT_LIST"), XA_WINDOW);
+        }
+        // 回调在锁外执行，允许回调中继续调用本后端
+        for (long hwnd : clients) {
+            if (!visitor.visit(hwnd)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * X11 不记录窗口所属线程：枚举当前进程的所有顶层窗口
+     */
+    @Override
+    public void enumThreadWindows(int threadId, WindowVisitor visitor) {
+        int pid = getCurrentProcessId();
+        enumWindows(hwnd -> getWindowProcessId(hwnd) != pid || visitor.visit(hwnd));
+    }
+
+    /**
+     * WM_CLASS 的 res_class
+     */
+    @Override
+    public synchronized String getClassName(long hwnd) {
+        if (!ready(hwnd)) {
+            return "";
+        }
+        Memory hint = new Memory(2L * Native.POINTER_SIZE);
+        hint.clear();
+        if (XLib.XGetClassHint(display, hwnd, hint) == 0) {
+            return "";
+        }
+        Pointer resName = hint.getPointer(0);
+        Pointer resClass = hint.getPointer(Native.POINTER_SIZE);
+        String className = resClass == null ? "" : resClass.getString(0);
+        if (resName != null) {
+            XLib.XFree(resName);
+        }
+        if (resClass != null) {
+            XLib.XFree(resClass);
+        }
+        return className;
+    }
+
+    /**
+     * _NET_WM_NAME（UTF-8），没有时读取 WM_NAME
+     */
+    @Override
+    public synchronized String getWindowText(long hwnd) {
+        if (!ready(hwnd)) {
+            return "";
+        }
+        byte[] name = readBytes(hwnd, atom("_NET_WM_NAME"), atom("UTF8_STRING"));
+        if (name != null) {
+            return new String(name, StandardCharsets.UTF_8);
+        }
+        longOut[0] = 0;
+        if (XLib.XFetchName(display, hwnd, longOut) != 0 && longOut[0] != 0) {
+            Pointer value = new Pointer(longOut[0]);
+            String text = value.getString(0);
+            XLib.XFree(value);
+            return text;
+        }
+        return "";
+    }
+
+    @Override
+    public long findWindow(String className, String windowName) {
+        long[] found = {0};
+        enumWindows(hwnd -> {
+            if ((className == null || className.equals(getClassName(hwnd)))
+                    && (windowName == null || windowName.equals(getWindowText(hwnd)))) {
+                found[0] = hwnd;
+                return false;
+            }
+            return true;
+        });
+        return found[0];
+    }
+
+    //  窗口创建与父子关系
+
+    /**
+     * XCreateSimpleWindow（类名被忽略，窗口标题写入 WM_NAME）
+     */
+    @Override
+    public synchronized long createWindowEx(int exStyle, String className, String windowName, int style,
+                                            int x, int y, int width, int height, long parent) {
+        if (display == null) {
+            return 0;
+        }
+        long window = XLib.XCreateSimpleWindow(display, parent == 0 ? root : parent, x, y,
+                Math.max(1, width), Math.max(1, height), 0, 0, 0);
+        if (window == 0) {
+            return 0;
+        }
+        styles.put(window, new long[]{style & 0xFFFFFFFFL, exStyle});
+        if (windowName != null) {
+            XLib.XStoreName(display, window, windowName);
+        }
+        if ((style & Win32Constants.WindowStyle.WS_VISIBLE) != 0) {
+            XLib.XMapWindow(display, window);
+        }
+        XLib.XFlush(display);
+        return window;
+    }
+
+    @Override
+    public synchronized boolean destroyWindow(long hwnd) {
+        if (!ready(hwnd)) {
+            return false;
+        }
+        styles.remove(hwnd);
+        XLib.XDestroyWindow(display, hwnd);
+        XLib.XFlush(display);
+        return true;
+    }
+
+    @Override
+    public synchronized long setParent(long child, long newParent) {
+        if (!ready(child)) {
+            return 0;
+        }
+        long previous = parentOf(child);
+        XLib.XReparentWindow(display, child, newParent == 0 ? root : newParent, 0, 0);
+        XLib.XFlush(display);
+        return previous;
+    }
+
+    /**
+     * 父窗口；顶层窗口（包括被窗口管理器加了外框的窗口）返回 0
+     */
+    @Override
+    public synchronized long getParent(long hwnd) {
+        return ready(hwnd) ? parentOf(hwnd) : 0;
+    }
+
+    @Override
+    public synchronized long setFocus(long hwnd) {
+        if (!ready(hwnd)) {
+            return 0;
+        }
+        XLib.XGetInputFocus(display, longOut, intOut);
+        long previous = longOut[0];
+        XLib.XSetInputFocus(display, hwnd, REVERT_TO_PARENT, 0);
+        XLib.XFlush(display);
+        return previous;
+    }
+
+    @Override
+    public synchronized boolean invalidateRect(long hwnd, boolean erase) {
+        if (!ready(hwnd)) {
+            return false;
+        }
+        XLib.XClearArea(display, hwnd, 0, 0, 0, 0, 1);
+        XLib.XFlush(display);
+        return true;
+    }
+
+    @Override
+    public synchronized boolean updateWindow(long hwnd) {
+        if (!ready(hwnd)) {
+            return false;
+        }
+        XLib.XFlush(display);
+        return true;
+    }
+
+    /**
+     * 最近一次 X 协议错误码（0 表示没有错误）
+     */
+    @Override
+    public int getLastError() {
+        return ErrorHandler.lastError;
+    }
+
+    @Override
+    public void setLastError(int error) {
+        ErrorHandler.lastError = error;
+    }
+
+    //  窗口过程与系统事件（X11 不支持）
+
+    @Override
+    public boolean subclassWindow(long hwnd, WindowProcHook hook) {
+        return false;
+    }
+
+    @Override
+    public boolean unsubclassWindow(long hwnd) {
+        return false;
+    }
+
+    @Override
+    public long setWinEventHook(int eventMin, int eventMax, WinEventListener listener) {
+        return 0;
+    }
+
+    @Override
+    public boolean unhookWinEvent(long hook) {
+        return false;
+    }
+
+    //  内部实现
+
+    private boolean ready(long hwnd) {
+        return display != null && hwnd != 0;
+    }
+
+    private long[] styleOf(long hwnd) {
+        return styles.computeIfAbsent(hwnd, key -> new long[]{Win32Constants.WindowStyle.WS_POPUP, 0});
+    }
+
+    private boolean isViewable(long hwnd) {
+        // map_state 为 IsViewable(2)
+        Memory attributes = new Memory(XWINDOWATTRIBUTES_SIZE);
+        return XLib.XGetWindowAttributes(display, hwnd, attributes) != 0
+                && attributes.getInt(XWINDOWATTRIBUTES_MAP_STATE_OFFSET) == 2;
+    }
+
+    private void applyWindowPos(long hwnd, long insertAfter, int x, int y, int cx, int cy, int flags) {
+        boolean move = (flags & Win32Constants.SetWindowPosFlags.SWP_NOMOVE) == 0;
+        boolean size = (flags & Win32Constants.SetWindowPosFlags.SWP_NOSIZE) == 0;
+        if (move && size) {
+            XLib.XMoveResizeWindow(display, hwnd, x, y, Math.max(1, cx), Math.max(1, cy));
+        } else if (move) {
+            XLib.XMoveWindow(display, hwnd, x, y);
+        } else if (size) {
+            XLib.XResizeWindow(display, hwnd, Math.max(1, cx), Math.max(1, cy));
+        }
+        if ((flags & Win32Constants.SetWindowPosFlags.SWP_NOZORDER) == 0) {
+            if (insertAfter == -1) {
+                changeState(hwnd, STATE_ADD, "_NET_WM_STATE_ABOVE", null);
+            } else if (insertAfter == -2) {
+                changeState(hwnd, STATE_REMOVE, "_NET_WM_STATE_ABOVE", null);
+            } else if (insertAfter == 0) {
+                XLib.XRaiseWindow(display, hwnd);
+            } else if (insertAfter == 1) {
+                XLib.XLowerWindow(display, hwnd);
+            }
+        }
+        if ((flags & Win32Constants.SetWindowPosFlags.SWP_SHOWWINDOW) != 0) {
+            XLib.XMapWindow(display, hwnd);
+        } else if ((flags & Win32Constants.SetWindowPosFlags.SWP_HIDEWINDOW) != 0) {
+            XLib.XUnmapWindow(display, hwnd);
+        }
+    }
+
+    private long parentOf(long hwnd) {
+        longOut3[0] = 0;
+        if (XLib.XQueryTree(display, hwnd, longOut, longOut2, longOut3, intOut) == 0) {
+            return 0;
+        }
+        if (longOut3[0] != 0) {
+            XLib.XFree(new Pointer(longOut3[0]));
+        }
+        long parent = longOut2[0];
+        if (parent == root) {
+            return 0;
+        }
+        // 被窗口管理器加了外框的顶层窗口，父窗口是外框而不是应用窗口
+        for (long client : readCardinals(root, atom("_NET_CLIENT_LIST"), XA_WINDOW)) {
+            if (client == hwnd) {
+                return 0;
+            }
+        }
+        return parent;
+    }
+
+    /*
+     * 通过根窗口向窗口管理器发送 _NET_WM_STATE 请求（EWMH 规定的方式）
+     */
+    private void changeState(long hwnd, int action, String first, String second) {
+        sendClientMessage(hwnd, atom("_NET_WM_STATE"), action, atom(first),
+                second == null ? 0 : atom(second), 1, 0);
+    }
+
+    private boolean hasState(long hwnd, String state) {
+        long wanted = atom(state);
+        for (long value : readCardinals(hwnd, atom("_NET_WM_STATE"), XA_ATOM)) {
+            if (value == wanted) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void sendClientMessage(long hwnd, long messageType, long d0, long d1, long d2, long d3, long d4) {
+        event.clear();
+        event.setInt(0, CLIENT_MESSAGE);       // type
+        event.setInt(16, 1);                   // send_event
+        event.setPointer(24, display);         // display
+        event.setLong(32, hwnd);               // window
+        event.setLong(40, messageType);        // message_type
+        event.setInt(48, 32);                  // format
+        event.setLong(56, d0);
+        event.setLong(64, d1);
+        event.setLong(72, d2);
+        event.setLong(80, d3);
+        event.setLong(88, d4);
+        XLib.XSendEvent(display, root, 0, SUBSTRUCTURE_MASK, event);
+    }
+
+    private int moveResizeDirection(int hitTestCode) {
+        return switch (hitTestCode) {
+            case Win32Constants.HitTestCode.HTCAPTION -> MOVERESIZE_MOVE;
+            case Win32Constants.HitTestCode.HTTOPLEFT -> MOVERESIZE_SIZE_TOPLEFT;
+            case Win32Constants.HitTestCode.HTTOP -> MOVERESIZE_SIZE_TOP;
+            case Win32Constants.HitTestCode.HTTOPRIGHT -> MOVERESIZE_SIZE_TOPRIGHT;
+            case Win32Constants.HitTestCode.HTRIGHT -> MOVERESIZE_SIZE_RIGHT;
+            case Win32Constants.HitTestCode.HTBOTTOMRIGHT -> MOVERESIZE_SIZE_BOTTOMRIGHT;
+            case Win32Constants.HitTestCode.HTBOTTOM -> MOVERESIZE_SIZE_BOTTOM;
+            case Win32Constants.HitTestCode.HTBOTTOMLEFT -> MOVERESIZE_SIZE_BOTTOMLEFT;
+            case Win32Constants.HitTestCode.HTLEFT -> MOVERESIZE_SIZE_LEFT;
+            default -> -1;
+        };
+    }
+
+    private long atom(String name) {
+        Long cached = atoms.get(name);
+        if (cached == null) {
+            cached = XLib.XInternAtom(display, name, 0);
+            atoms.put(name, cached);
+        }
+        return cached;
+    }
+
+    /*
+     * 读取 32 位格式的属性（CARDINAL / WINDOW / ATOM 列表），服务器端按 C long 返回
+     */
+    private long[] readCardinals(long hwnd, long property, long type) {
+        longOut3[0] = 0;
+        if (XLib.XGetWindowProperty(display, hwnd, property, 0, Integer.MAX_VALUE, 0, type,
+                longOut, intOut, longOut2, new long[1], longOut3) != 0 || longOut3[0] == 0) {
+            return new long[0];
+        }
+        Pointer data = new Pointer(longOut3[0]);
+        try {
+            if (intOut[0] != 32) {
+                return new long[0];
+            }
+            int count = (int) longOut2[0];
+            long[] values = data.getLongArray(0, count);
+            for (int i = 0; i < count; i++) {
+                values[i] &= 0xFFFFFFFFL;
+            }
+            return values;
+        } finally {
+            XLib.XFree(data);
+        }
+    }
+
+    /*
+     * 读取 8 位格式的属性，不存在时返回 null
+     */
+    private byte[] readBytes(long hwnd, long property, long type) {
+        longOut3[0] = 0;
+        if (XLib.XGetWindowProperty(display, hwnd, property, 0, Integer.MAX_VALUE, 0, type,
+                longOut, intOut, longOut2, new long[1], longOut3) != 0 || longOut3[0] == 0) {
+            return null;
+        }
+        Pointer data = new Pointer(longOut3[0]);
+        try {
+            return intOut[0] == 8 ? data.getByteArray(0, (int) longOut2[0]) : null;
+        } finally {
+            XLib.XFree(data);
+        }
+    }
+
+    /**
+     * libX11 直接映射（窗口 / 原子按 64 位 long 传递）
+     */
+    static final class XLib {
+
+        static final boolean AVAILABLE;
+
+        static {
+            boolean available = false;
+            if (Native.POINTER_SIZE == 8 && Native.LONG_SIZE == 8 && com.sun.jna.Platform.isX11()) {
+                try {
+                    Native.register(XLib.class, NativeLibrary.getInstance("X11"));
+                    available = true;
+                } catch (LinkageError | RuntimeException e) {
+                    // 没有 libX11
+                }
+            }
+            AVAILABLE = available;
+        }
+
+        private XLib() {
+        }
+
+        static native Pointer XOpenDisplay(String name);
+
+        static native int XDefaultScreen(Pointer display);
+
+        static native long XDefaultRootWindow(Pointer display);
+
+        static native long XInternAtom(Pointer display, String name, int onlyIfExists);
+
+        static native int XGetWindowProperty(Pointer display, long w, long property, long offset, long length,
+                                             int delete, long reqType, long[] actualType, int[] actualFormat,
+                                             long[] nitems, long[] bytesAfter, long[] prop);
+
+        static native int XChangeProperty(Pointer display, long w, long property, long type, int format,
+                                          int mode, long[] data, int nelements);
+
+        static native int XFree(Pointer data);
+
+        static native int XSendEvent(Pointer display, long w, int propagate, long eventMask, Pointer event);
+
+        static native int XMoveWindow(Pointer display, long w, int x, int y);
+
+        static native int XResizeWindow(Pointer display, long w, int width, int height);
+
+        static native int XMoveResizeWindow(Pointer display, long w, int x, int y, int width, int height);
+
+        static native int XRaiseWindow(Pointer display, long w);
+
+        static native int XLowerWindow(Pointer display, long w);
+
+        static native int XGetGeometry(Pointer display, long d, long[] root, int[] x, int[] y, int[] width,
+                                       int[] height, int[] border, int[] depth);
+
+        static native int XTranslateCoordinates(Pointer display, long src, long dest, int x, int y,
+                                                int[] destX, int[] destY, long[] child);
+
+        static native int XQueryPointer(Pointer display, long w, long[] root, long[] child, int[] rootX,
+                                        int[] rootY, int[] winX, int[] winY, int[] mask);
+
+        static native int XGetWindowAttributes(Pointer display, long w, Pointer attributes);
+
+        static native int XUngrabPointer(Pointer display, long time);
+
+        static native int XMapWindow(Pointer display, long w);
+
+        static native int XMapRaised(Pointer display, long w);
+
+        static native int XUnmapWindow(Pointer display, long w);
+
+        static native int XIconifyWindow(Pointer display, long w, int screen);
+
+        static native int XQueryTree(Pointer display, long w, long[] root, long[] parent, long[] children,
+                                     int[] count);
+
+        static native int XReparentWindow(Pointer display, long w, long parent, int x, int y);
+
+        static native long XCreateSimpleWindow(Pointer display, long parent, int x, int y, int width, int height,
+                                               int borderWidth, long border, long background);
+
+        static native int XDestroyWindow(Pointer display, long w);
+
+        static native int XStoreName(Pointer display, long w, String name);
+
+        static native int XFetchName(Pointer display, long w, long[] name);
+
+        static native int XGetClassHint(Pointer display, long w, Pointer classHint);
+
+        static native int XGetInputFocus(Pointer display, long[] focus, int[] revertTo);
+
+        static native int XSetInputFocus(Pointer display, long w, int revertTo, long time);
+
+        static native int XClearArea(Pointer display, long w, int x, int y, int width, int height, int exposures);
+
+        static native int XFlush(Pointer display);
+
+        static native Pointer XSetErrorHandler(Callback handler);
+    }
+
+    /*
+     * X 错误处理器：Xlib 默认的处理器遇到错误会终止进程。
+     * 只处理本后端连接上的错误，其它连接（GTK）的错误交给之前的处理器
+     */
+    private static final class ErrorHandler {
+        private static final List<Pointer> DISPLAYS = new ArrayList<>();
+        private static final Handler HANDLER = ErrorHandler::handle;
+        private static Function previous;
+        private static boolean installed;
+        private static volatile int lastError;
+
+        private interface Handler extends Callback {
+            int callback(Pointer display, Pointer errorEvent);
+        }
+
+        private static synchronized void install() {
+            if (!installed) {
+                installed = true;
+                Pointer old = XLib.XSetErrorHandler(HANDLER);
+                previous = old == null ? null : Function.getFunction(old);
+            }
+        }
+
+        private static synchronized void track(Pointer display) {
+            DISPLAYS.add(display);
+        }
+
+        private static int handle(Pointer display, Pointer errorEvent) {
+            Function chained;
+            synchronized (ErrorHandler.class) {
+                if (DISPLAYS.contains(display)) {
+                    // XErrorEvent（LP64）：error_code 位于偏移 32
+                    lastError = Byte.toUnsignedInt(errorEvent.getByte(32));
+                    return 0;
+                }
+                chained = previous;
+            }
+            return chained == null ? 0 : chained.invokeInt(new Object[]{display, errorEvent});
+        }
+    }
+
+    /*
+     * GTK 使用的 Display 连接（通过 libgdk-3 获取，取不到时为 null）
+     */
+    private static final class GdkDisplay {
+        private static final Pointer DISPLAY = lookup();
+
+        private static Pointer get() {
+            return DISPLAY;
+        }
+
+        private static Pointer lookup() {
+            try {
+                Function function = NativeLibrary.getInstance("gdk-3").getFunction("gdk_x11_get_default_xdisplay");
+                return function.invokePointer(new Object[0]);
+            } catch (LinkageError | RuntimeException e) {
+                return null;
+            }
+        }
+    }
+}
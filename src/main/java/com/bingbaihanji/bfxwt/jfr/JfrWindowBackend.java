@@ -0,0 +1,333 @@
+package com.bingbaihanji.bfxwt.jfr;
+
+import com.bingbaihanji.bfxwt.backend.NativeWindowBackend;
+
+/**
+ * 为每次原生调用提交 {@link NativeCallEvent} 的后端包装层
+ *
+ * <p>
+ * {@code NativeWindowBackends} 创建默认后端时自动安装（{@code -Dbfxwt.jfr=false} 可关闭）。
+ * {@link NativeCallEvent} 未启用时事件对象会被 JIT 消除，只剩一次启用状态检查。
+ * </p>
+ *
+ * @author bingbaihanji
+ * @date 2026-01-22
+ */
+public class JfrWindowBackend implements NativeWindowBackend {
+
+    /**
+     * 关闭 JFR 包装层的系统属性
+     */
+    public static final String JFR_PROPERTY = "bfxwt.jfr";
+
+    private final NativeWindowBackend delegate;
+
+    public JfrWindowBackend(NativeWindowBackend delegate) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("被包装的后端不能为 null");
+        }
+        this.delegate = delegate;
+    }
+
+    /**
+     * 被包装的后端
+     */
+    public NativeWindowBackend delegate() {
+        return delegate;
+    }
+
+    private static NativeCallEvent begin() {
+        NativeCallEvent event = new NativeCallEvent();
+        event.begin();
+        return event;
+    }
+
+    private void commit(NativeCallEvent event, String function, long hwnd, boolean success, int errorCode) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.function = function;
+            event.hwnd = hwnd;
+            event.success = success;
+            event.errorCode = success ? 0 : errorCode;
+            event.commit();
+        }
+    }
+
+    private boolean bool(NativeCallEvent event, String function, long hwnd, boolean ok) {
+        commit(event, function, hwnd, ok, ok ? 0 : delegate.getLastError());
+        return ok;
+    }
+
+    private int hresult(NativeCallEvent event, String function, long hwnd, int result) {
+        commit(event, function, hwnd, result == 0, result);
+        return result;
+    }
+
+    @Override
+    public long getWindowLongPtr(long hwnd, int index) {
+        NativeCallEvent event = begin();
+        long result = delegate.getWindowLongPtr(hwnd, index);
+        commit(event, "GetWindowLongPtr", hwnd, true, 0);
+        return result;
+    }
+
+    @Override
+    public long setWindowLongPtr(long hwnd, int index, long value) {
+        NativeCallEvent event = begin();
+        // 返回 0 既可能是失败，也可能是旧值本来为 0；先清零错误码才能区分
+        delegate.setLastError(0);
+        long result = delegate.setWindowLongPtr(hwnd, index, value);
+        int error = result == 0 ? delegate.getLastError() : 0;
+        commit(event, "SetWindowLongPtr", hwnd, error == 0, error);
+        return result;
+    }
+
+    @Override
+    public boolean setLayeredWindowAttributes(long hwnd, int colorKey, byte alpha, int flags) {
+        NativeCallEvent event = begin();
+        return bool(event, "SetLayeredWindowAttributes", hwnd,
+                delegate.setLayeredWindowAttributes(hwnd, colorKey, alpha, flags));
+    }
+
+    @Override
+    public boolean setWindowPos(long hwnd, long insertAfter, int x, int y, int cx, int cy, int flags) {
+        NativeCallEvent event = begin();
+        return bool(event, "SetWindowPos", hwnd, delegate.setWindowPos(hwnd, insertAfter, x, y, cx, cy, flags));
+    }
+
+    @Override
+    public boolean getWindowRect(long hwnd, int[] rect) {
+        NativeCallEvent event = begin();
+        return bool(event, "GetWindowRect", hwnd, delegate.getWindowRect(hwnd, rect));
+    }
+
+    @Override
+    public long beginDeferWindowPos(int count) {
+        NativeCallEvent event = begin();
+        long result = delegate.beginDeferWindowPos(count);
+        commit(event, "BeginDeferWindowPos", 0, result != 0, result != 0 ? 0 : delegate.getLastError());
+        return result;
+    }
+
+    @Override
+    public long deferWindowPos(long hdwp, long hwnd, long insertAfter, int x, int y, int cx, int cy, int flags) {
+        NativeCallEvent event = begin();
+        long result = delegate.deferWindowPos(hdwp, hwnd, insertAfter, x, y, cx, cy, flags);
+        commit(event, "DeferWindowPos", hwnd, result != 0, result != 0 ? 0 : delegate.getLastError());
+        return result;
+    }
+
+    @Override
+    public boolean endDeferWindowPos(long hdwp) {
+        NativeCallEvent event = begin();
+        return bool(event, "EndDeferWindowPos", 0, delegate.endDeferWindowPos(hdwp));
+    }
+
+    @Override
+    public boolean showWindow(long hwnd, int cmdShow) {
+        NativeCallEvent event = begin();
+        boolean result = delegate.showWindow(hwnd, cmdShow);
+        commit(event, "ShowWindow", hwnd, true, 0);
+        return result;
+    }
+
+    @Override
+    public boolean isZoomed(long hwnd) {
+        NativeCallEvent event = begin();
+        boolean result = delegate.isZoomed(hwnd);
+        commit(event, "IsZoomed", hwnd, true, 0);
+        return result;
+    }
+
+    @Override
+    public boolean isIconic(long hwnd) {
+        NativeCallEvent event = begin();
+        boolean result = delegate.isIconic(hwnd);
+        commit(event, "IsIconic", hwnd, true, 0);
+        return result;
+    }
+
+    @Override
+    public boolean releaseCapture() {
+        NativeCallEvent event = begin();
+        return bool(event, "ReleaseCapture", 0, delegate.releaseCapture());
+    }
+
+    @Override
+    public long sendMessage(long hwnd, int msg, long wParam, long lParam) {
+        NativeCallEvent event = begin();
+        long result = delegate.sendMessage(hwnd, msg, wParam, lParam);
+        commit(event, "SendMessage", hwnd, true, 0);
+        return result;
+    }
+
+    @Override
+    public boolean screenToClient(long hwnd, int[] point) {
+        NativeCallEvent event = begin();
+        return bool(event, "ScreenToClient", hwnd, delegate.screenToClient(hwnd, point));
+    }
+
+    @Override
+    public int dwmSetWindowAttribute(long hwnd, int attribute, int value) {
+        NativeCallEvent event = begin();
+        return hresult(event, "DwmSetWindowAttribute", hwnd, delegate.dwmSetWindowAttribute(hwnd, attribute, value));
+    }
+
+    @Override
+    public int dwmGetWindowAttribute(long hwnd, int attribute, int[] value) {
+        NativeCallEvent event = begin();
+        return hresult(event, "DwmGetWindowAttribute", hwnd, delegate.dwmGetWindowAttribute(hwnd, attribute, value));
+    }
+
+    @Override
+    public int dwmExtendFrameIntoClientArea(long hwnd, int left, int right, int top, int bottom) {
+        NativeCallEvent event = begin();
+        return hresult(event, "DwmExtendFrameIntoClientArea", hwnd,
+                delegate.dwmExtendFrameIntoClientArea(hwnd, left, right, top, bottom));
+    }
+
+    @Override
+    public int getCurrentProcessId() {
+        return delegate.getCurrentProcessId();
+    }
+
+    @Override
+    public int getCurrentThreadId() {
+        return delegate.getCurrentThreadId();
+    }
+
+    @Override
+    public int getWindowProcessId(long hwnd) {
+        NativeCallEvent event = begin();
+        int result = delegate.getWindowProcessId(hwnd);
+        commit(event, "GetWindowThreadProcessId", hwnd, result != 0, result != 0 ? 0 : delegate.getLastError());
+        return result;
+    }
+
+    @Override
+    public void enumWindows(WindowVisitor visitor) {
+        NativeCallEvent event = begin();
+        delegate.enumWindows(visitor);
+        commit(event, "EnumWindows", 0, true, 0);
+    }
+
+    @Override
+    public void enumThreadWindows(int threadId, WindowVisitor visitor) {
+        NativeCallEvent event = begin();
+        delegate.enumThreadWindows(threadId, visitor);
+        commit(event, "EnumThreadWindows", 0, true, 0);
+    }
+
+    @Override
+    public String getClassName(long hwnd) {
+        NativeCallEvent event = begin();
+        String result = delegate.getClassName(hwnd);
+        commit(event, "GetClassName", hwnd, !result.isEmpty(), result.isEmpty() ? delegate.getLastError() : 0);
+        return result;
+    }
+
+    @Override
+    public String getWindowText(long hwnd) {
+        NativeCallEvent event = begin();
+        String result = delegate.getWindowText(hwnd);
+        commit(event, "GetWindowText", hwnd, true, 0);
+        return result;
+    }
+
+    @Override
+    public long findWindow(String className, String windowName) {
+        NativeCallEvent event = begin();
+        long result = delegate.findWindow(className, windowName);
+        commit(event, "FindWindow", result, true, 0);
+        return result;
+    }
+
+    @Override
+    public long createWindowEx(int exStyle, String className, String windowName, int style,
+                               int x, int y, int width, int height, long parent) {
+        NativeCallEvent event = begin();
+        long result = delegate.createWindowEx(exStyle, className, windowName, style, x, y, width, height, parent);
+        commit(event, "CreateWindowEx", result, result != 0, result != 0 ? 0 : delegate.getLastError());
+        return result;
+    }
+
+    @Override
+    public boolean destroyWindow(long hwnd) {
+        NativeCallEvent event = begin();
+        return bool(event, "DestroyWindow", hwnd, delegate.destroyWindow(hwnd));
+    }
+
+    @Override
+    public long setParent(long child, long newParent) {
+        NativeCallEvent event = begin();
+        long result = delegate.setParent(child, newParent);
+        commit(event, "SetParent", child, true, 0);
+        return result;
+    }
+
+    @Override
+    public long getParent(long hwnd) {
+        NativeCallEvent event = begin();
+        long result = delegate.getParent(hwnd);
+        commit(event, "GetParent", hwnd, true, 0);
+        return result;
+    }
+
+    @Override
+    public long setFocus(long hwnd) {
+        NativeCallEvent event = begin();
+        long result = delegate.setFocus(hwnd);
+        commit(event, "SetFocus", hwnd, true, 0);
+        return result;
+    }
+
+    @Override
+    public boolean invalidateRect(long hwnd, boolean erase) {
+        NativeCallEvent event = begin();
+        return bool(event, "InvalidateRect", hwnd, delegate.invalidateRect(hwnd, erase));
+    }
+
+    @Override
+    public boolean updateWindow(long hwnd) {
+        NativeCallEvent event = begin();
+        return bool(event, "UpdateWindow", hwnd, delegate.updateWindow(hwnd));
+    }
+
+    @Override
+    public boolean subclassWindow(long hwnd, WindowProcHook hook) {
+        NativeCallEvent event = begin();
+        return bool(event, "SubclassWindow", hwnd, delegate.subclassWindow(hwnd, hook));
+    }
+
+    @Override
+    public boolean unsubclassWindow(long hwnd) {
+        NativeCallEvent event = begin();
+        boolean result = delegate.unsubclassWindow(hwnd);
+        commit(event, "UnsubclassWindow", hwnd, true, 0);
+        return result;
+    }
+
+    @Override
+    public long setWinEventHook(int eventMin, int eventMax, WinEventListener listener) {
+        NativeCallEvent event = begin();
+        long result = delegate.setWinEventHook(eventMin, eventMax, listener);
+        commit(event, "SetWinEventHook", 0, result != 0, result != 0 ? 0 : delegate.getLastError());
+        return result;
+    }
+
+    @Override
+    public boolean unhookWinEvent(long hook) {
+        NativeCallEvent event = begin();
+        return bool(event, "UnhookWinEvent", 0, delegate.unhookWinEvent(hook));
+    }
+
+    @Override
+    public int getLastError() {
+        return delegate.getLastError();
+    }
+
+    @Override
+    public void setLastError(int error) {
+        delegate.setLastError(error);
+    }
+}
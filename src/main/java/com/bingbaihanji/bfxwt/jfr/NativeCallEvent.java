@@ -0,0 +1,44 @@
+package com.bingbaihanji.bfxwt.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * 原生窗口调用事件
+ *
+ * <p>
+ * 由 {@link JfrWindowBackend} 为每次原生调用提交。调用频率很高，默认关闭；
+ * {@code bfxwt.jfc} 以 1 ms 阈值开启，只记录慢调用，需要逐次跟踪时把阈值设为 0 ms。
+ * </p>
+ *
+ * @author bingbaihanji
+ * @date 2026-01-22
+ */
+@Name("bfxwt.NativeCall")
+@Label("Native Window Call")
+@Description("Win32 / DWM call issued by FXWindowKit")
+@Category({"FXWindowKit", "Native"})
+@Enabled(false)
+@Threshold("1 ms")
+@StackTrace(false)
+public class NativeCallEvent extends Event {
+
+    @Label("Function")
+    String function;
+
+    @Label("HWND")
+    long hwnd;
+
+    @Label("Success")
+    boolean success;
+
+    @Label("Error Code")
+    @Description("HRESULT or GetLastError of a failed call")
+    int errorCode;
+}
@@ -0,0 +1,52 @@
+package com.bingbaihanji.bfxwt.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 截图阶段事件（FxTools.screenshots）
+ *
+ * <p>
+ * 每次截图按阶段分别提交：{@link #SNAPSHOT} 节点快照、{@link #ENCODE} 转换为 BufferedImage、
+ * {@link #WRITE} 写入 PNG 文件。
+ * </p>
+ *
+ * @author bingbaihanji
+ * @date 2026-01-22
+ */
+@Name("bfxwt.ScreenshotPhase")
+@Label("Screenshot Phase")
+@Description("One phase of FxTools.screenshots")
+@Category({"FXWindowKit", "Screenshot"})
+@StackTrace(false)
+public class ScreenshotPhaseEvent extends Event {
+
+    public static final String SNAPSHOT = "snapshot";
+    public static final String ENCODE = "encode";
+    public static final String WRITE = "write";
+
+    @Label("Phase")
+    public String phase;
+
+    @Label("Width")
+    public int width;
+
+    @Label("Height")
+    public int height;
+
+    @Label("Bytes Written")
+    @DataAmount
+    public long bytes;
+
+    public ScreenshotPhaseEvent() {
+    }
+
+    public ScreenshotPhaseEvent(String phase) {
+        this.phase = phase;
+    }
+}
@@ -0,0 +1,37 @@
+package com.bingbaihanji.bfxwt.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 主题切换事件（setTheme / toggleTheme）
+ *
+ * @author bingbaihanji
+ * @date 2026-01-22
+ */
+@Name("bfxwt.ThemeSwitch")
+@Label("Theme Switch")
+@Description("Window theme applied to the custom window chrome")
+@Category({"FXWindowKit", "Theme"})
+@StackTrace(false)
+public class ThemeSwitchEvent extends Event {
+
+    @Label("Dark")
+    public boolean dark;
+
+    @Label("Restyled Nodes")
+    @Description("Number of chrome nodes restyled directly (DIRECT chrome styling; 0 for a stylesheet swap)")
+    public int nodeCount;
+
+    @Label("Stylesheet Compiled")
+    @Description("The theme stylesheet was compiled for this switch instead of reused from the cache")
+    public boolean compiled;
+
+    @Label("Toggle")
+    @Description("Triggered by the theme toggle button")
+    public boolean toggle;
+}
@@ -0,0 +1,51 @@
+package com.bingbaihanji.bfxwt.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * 主题过渡动画事件（旧外观快照淡出）
+ *
+ * <p>
+ * 事件时长为从快照到淡出结束；帧间隔字段反映过渡期间的帧时间。
+ * </p>
+ *
+ * @author bingbaihanji
+ * @date 2026-01-24
+ */
+@Name("bfxwt.ThemeTransition")
+@Label("Theme Transition")
+@Description("Cross-fade from a snapshot of the old theme to the new theme")
+@Category({"FXWindowKit", "Theme"})
+@StackTrace(false)
+public class ThemeTransitionEvent extends Event {
+
+    @Label("Snapshot Time")
+    @Description("Time spent rendering the old window into the cached image")
+    @Timespan(Timespan.NANOSECONDS)
+    public long snapshotNanos;
+
+    @Label("Snapshot Reused")
+    @Description("The cached image of a previous transition was reused")
+    public boolean reused;
+
+    @Label("Frames")
+    public int frames;
+
+    @Label("Max Frame Interval")
+    @Timespan(Timespan.NANOSECONDS)
+    public long maxFrameNanos;
+
+    @Label("Average Frame Interval")
+    @Timespan(Timespan.NANOSECONDS)
+    public long averageFrameNanos;
+
+    @Label("Interrupted")
+    @Description("Replaced by another theme switch before the fade finished")
+    public boolean interrupted;
+}
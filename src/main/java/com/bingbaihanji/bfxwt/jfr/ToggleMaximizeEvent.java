@@ -0,0 +1,32 @@
+package com.bingbaihanji.bfxwt.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 最大化 / 还原切换事件
+ *
+ * @author bingbaihanji
+ * @date 2026-01-22
+ */
+@Name("bfxwt.ToggleMaximize")
+@Label("Toggle Maximize")
+@Description("Custom window maximized or restored")
+@Category({"FXWindowKit", "Window"})
+@StackTrace(false)
+public class ToggleMaximizeEvent extends Event {
+
+    @Label("Maximized")
+    @Description("State after the toggle")
+    public boolean maximized;
+
+    @Label("Width")
+    public double width;
+
+    @Label("Height")
+    public double height;
+}
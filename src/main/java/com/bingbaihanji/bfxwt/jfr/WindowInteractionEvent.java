@@ -0,0 +1,106 @@
+package com.bingbaihanji.bfxwt.jfr;
+
+import javafx.stage.Stage;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 窗口拖拽移动 / 边缘缩放会话事件
+ *
+ * <p>
+ * 从鼠标按下开始，到鼠标释放结束，记录期间的拖拽事件数量和窗口边界变化量。
+ * </p>
+ *
+ * <p><b>使用示例：</b></p>
+ * <pre>{@code
+ * // 鼠标按下
+ * session = WindowInteractionEvent.begin(WindowInteractionEvent.MOVE, stage);
+ * // 每次拖拽
+ * if (session != null) session.onDrag();
+ * // 鼠标释放
+ * if (session != null) session.end(stage);
+ * }</pre>
+ *
+ * @author bingbaihanji
+ * @date 2026-01-22
+ */
+@Name("bfxwt.WindowInteraction")
+@Label("Window Drag / Resize")
+@Description("Title bar drag or edge resize session of a custom window")
+@Category({"FXWindowKit", "Window"})
+@StackTrace(false)
+public class WindowInteractionEvent extends Event {
+
+    /**
+     * 拖拽移动
+     */
+    public static final String MOVE = "move";
+    /**
+     * 边缘缩放
+     */
+    public static final String RESIZE = "resize";
+
+    @Label("Kind")
+    String kind;
+
+    @Label("Drag Events")
+    int eventCount;
+
+    @Label("Delta X")
+    double deltaX;
+
+    @Label("Delta Y")
+    double deltaY;
+
+    @Label("Delta Width")
+    double deltaWidth;
+
+    @Label("Delta Height")
+    double deltaHeight;
+
+    /**
+     * 开始一个会话
+     *
+     * @return 会话事件，事件未启用时返回 null
+     */
+    public static WindowInteractionEvent begin(String kind, Stage stage) {
+        WindowInteractionEvent event = new WindowInteractionEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.kind = kind;
+        // 先记录起始边界，结束时换算为变化量
+        event.deltaX = stage.getX();
+        event.deltaY = stage.getY();
+        event.deltaWidth = stage.getWidth();
+        event.deltaHeight = stage.getHeight();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * 记录一次拖拽事件
+     */
+    public void onDrag() {
+        eventCount++;
+    }
+
+    /**
+     * 结束会话并提交（没有发生拖拽时不提交）
+     */
+    public void end(Stage stage) {
+        end();
+        if (eventCount == 0 || !shouldCommit()) {
+            return;
+        }
+        deltaX = stage.getX() - deltaX;
+        deltaY = stage.getY() - deltaY;
+        deltaWidth = stage.getWidth() - deltaWidth;
+        deltaHeight = stage.getHeight() - deltaHeight;
+        commit();
+    }
+}
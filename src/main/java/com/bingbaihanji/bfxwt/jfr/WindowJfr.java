@@ -0,0 +1,107 @@
+package com.bingbaihanji.bfxwt.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.text.ParseException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * FXWindowKit 的 JFR 配置入口
+ *
+ * <p>
+ * 本库的事件定义在 jar 内的 {@code /jfr/bfxwt.jfc} 中（事件名均以 {@code bfxwt.} 开头）。
+ * 命令行方式需要先把配置写到磁盘上（{@link #exportConfiguration(Path)}，或 {@code jar xf} 解压）：
+ * </p>
+ * <pre>{@code
+ * WindowJfr.exportConfiguration(Path.of("bfxwt.jfc"));
+ * // 之后启动应用时
+ * -XX:StartFlightRecording:settings=default,settings=bfxwt.jfc,filename=app.jfr
+ * }</pre>
+ *
+ * <p><b>代码方式：</b></p>
+ * <pre>{@code
+ * try (Recording recording = WindowJfr.newRecording()) {
+ *     recording.start();
+ *     // ... 复现卡顿
+ *     recording.dump(Path.of("window.jfr"));
+ * }
+ * }</pre>
+ *
+ * @author bingbaihanji
+ * @date 2026-01-22
+ */
+public final class WindowJfr {
+
+    /**
+     * 配置文件在类路径中的位置
+     */
+    public static final String CONFIGURATION_RESOURCE = "/jfr/bfxwt.jfc";
+
+    private WindowJfr() {
+    }
+
+    /**
+     * 读取本库的 JFR 配置
+     */
+    public static Configuration configuration() {
+        try (InputStream in = WindowJfr.class.getResourceAsStream(CONFIGURATION_RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException("找不到 JFR 配置: " + CONFIGURATION_RESOURCE);
+            }
+            try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+                return Configuration.create(reader);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ParseException e) {
+            throw new IllegalStateException("JFR 配置格式错误: " + CONFIGURATION_RESOURCE, e);
+        }
+    }
+
+    /**
+     * 把 jar 内的 JFR 配置写到磁盘上，供 {@code -XX:StartFlightRecording:settings=...} 或 JMC 使用
+     *
+     * @param target 目标文件（已存在时覆盖）；为目录时写到其中的 {@code bfxwt.jfc}
+     * @return 写出的文件
+     * @throws UncheckedIOException 写入失败
+     */
+    public static Path exportConfiguration(Path target) {
+        Path file = Files.isDirectory(target) ? target.resolve("bfxwt.jfc") : target;
+        try (InputStream in = WindowJfr.class.getResourceAsStream(CONFIGURATION_RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException("找不到 JFR 配置: " + CONFIGURATION_RESOURCE);
+            }
+            Files.copy(in, file, StandardCopyOption.REPLACE_EXISTING);
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException("无法写出 JFR 配置: " + file, e);
+        }
+    }
+
+    /**
+     * 创建一个同时启用 JDK 默认事件和本库事件的记录（未启动）
+     */
+    public static Recording newRecording() {
+        Map<String, String> settings = new HashMap<>();
+        try {
+            settings.putAll(Configuration.getConfiguration("default").getSettings());
+        } catch (IOException | ParseException e) {
+            // 没有 default 配置时只记录本库事件
+        }
+        settings.putAll(configuration().getSettings());
+        Recording recording = new Recording(settings);
+        recording.setName("FXWindowKit");
+        return recording;
+    }
+}
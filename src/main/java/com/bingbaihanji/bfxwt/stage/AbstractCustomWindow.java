@@ -1,9 +1,24 @@
 package com.bingbaihanji.bfxwt.stage;
 
+import com.bingbaihanji.bfxwt.backend.NativeWindowBackend;
+import com.bingbaihanji.bfxwt.backend.NativeWindowBackends;
+import com.bingbaihanji.bfxwt.jfr.ThemeSwitchEvent;
+import com.bingbaihanji.bfxwt.jfr.ToggleMaximizeEvent;
+import com.bingbaihanji.bfxwt.jfr.WindowInteractionEvent;
 import com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools;
+import com.bingbaihanji.bfxwt.tools.HitTestRegionMap;
+import com.bingbaihanji.bfxwt.tools.ImageCache;
+import com.bingbaihanji.bfxwt.tools.NativeWarmup;
+import com.bingbaihanji.bfxwt.tools.ResizeHitTester;
+import com.bingbaihanji.bfxwt.tools.ResizeZone;
+import com.bingbaihanji.bfxwt.tools.StageBoundsUpdater;
+import com.bingbaihanji.bfxwt.tools.StartupTimeline;
+import com.bingbaihanji.bfxwt.tools.WindowGroup;
+import com.bingbaihanji.bfxwt.tools.WindowMessageStream;
 import com.sun.jna.platform.win32.WinDef;
 import javafx.application.Application;
 import javafx.application.Platform;
+import javafx.geometry.Insets;
 import javafx.geometry.Rectangle2D;
 import javafx.scene.Cursor;
 import javafx.scene.Parent;
@@ -16,15 +31,17 @@ import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.HBox;
-import javafx.scene.layout.Priority;
-import javafx.scene.layout.Region;
 import javafx.scene.paint.Color;
 import javafx.stage.Screen;
 import javafx.stage.Stage;
 import javafx.stage.StageStyle;
+import javafx.util.Duration;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.Stack;
 
 /**
  * 自定义无边框窗口基类
@@ -44,6 +61,16 @@ public abstract class AbstractCustomWindow extends Application {
     private static final double WINDOW_BTN_ICON_SIZE = 12.0;
     private static final double APP_ICON_SIZE = 16.0;
 
+    // 内置标题栏组件在槽位中的优先级（小的靠左）
+    private static final int PRIORITY_APP_ICON = 0;
+    private static final int PRIORITY_TITLE = 100;
+    private static final int PRIORITY_MENU_BAR = 200;
+    private static final int PRIORITY_THEME = 100;
+    private static final int PRIORITY_TO_TOP = 200;
+    private static final int PRIORITY_MINIMIZE = 300;
+    private static final int PRIORITY_MAXIMIZE = 400;
+    private static final int PRIORITY_CLOSE = 500;
+
     // 窗口尺寸
     private static final double DEFAULT_WINDOW_WIDTH = 1000.0;
     private static final double DEFAULT_WINDOW_HEIGHT = 700.0;
@@ -53,6 +80,17 @@ public abstract class AbstractCustomWindow extends Application {
     // 边缘拖拽区域宽度
     private static final int RESIZE_MARGIN = 6;
 
+    // 窗口按钮图标（启动时在后台按按钮尺寸预先解码）
+    private static final String[] CHROME_ICONS = {
+            "/icons/close.png", "/icons/max.png", "/icons/restoreIcon.png", "/icons/min.png",
+            "/icons/top.png", "/icons/openTop.png", "/icons/lightTheme.png", "/icons/darkTheme.png"
+    };
+
+    // 子类（应用主类）初始化时即开始后台预热原生绑定，与 FX 工具包初始化并行
+    static {
+        NativeWarmup.startIfEnabled();
+    }
+
     // 窗口控制按钮类型枚举
     // 窗口状态变量
     private Stage stage;              // 主舞台
@@ -62,15 +100,11 @@ public abstract class AbstractCustomWindow extends Application {
     private BorderPane root;          // 主布局容器
     private HBox titleBar;            // 标题栏容器
     private MenuBar menuBar;          // 标题栏菜单栏
-    private Region spacer;            // 标题栏弹性空白区域（用于左右分隔）
     private Label titleLabel;         // 标题文字标签（用于主题切换时更新样式）
     private Scene scene;              // 场景对象（用于动态更新CSS）
 
     // 标题栏左右两侧组件管理
-    private Stack<javafx.scene.Node> leftComponentsStack;   // 左侧组件栈（按入栈顺序从左往右显示）
-    private Stack<javafx.scene.Node> rightComponentsStack;  // 右侧组件栈（按出栈顺序从左往右显示）
-    private HBox leftBox;             // 左侧组件容器
-    private HBox rightBox;            // 右侧组件容器
+    private TitleBarSlots titleBarSlots;  // 标题栏组件槽位（左侧 / 中间 / 右侧）
 
     // 当前主题
     private WindowTheme currentTheme;
@@ -84,12 +118,43 @@ public abstract class AbstractCustomWindow extends Application {
     private ImageView maxBtnIcon;  // 最大化按钮的图标（用于动态切换）
     private ImageView toTopBtnIcon;  // 置顶按钮的图标（用于动态切换）
     private ImageView themeBtnIcon;  // 主题切换按钮的图标（用于动态切换）
+    // 场景中当前主题的样式表 URI
+    private String themeStylesheet;
+    // 窗口外观实现方式（start 时取一次）
+    private ChromeStyling chromeStyling = ChromeStyling.STYLESHEET;
+    // 主题切换的淡出过渡（旧外观快照）
+    private ThemeTransition themeTransition;
+    // DIRECT 方式下的窗口按钮（主题切换时重新赋背景）
+    private final List<Button> directButtons = new ArrayList<>();
+    // 应用图标（start 时取一次）
+    private Image appIconImage;
+    // 窗口按钮图标 → 资源路径（输出缩放变化时按新缩放重新取图）
+    private final Map<ImageView, String> chromeIconPaths = new HashMap<>();
+    // 边缘调整大小的点击测试（光标只在区域变化时更新）
+    private ResizeHitTester resizeHitTester;
     // 调整大小时的初始位置和尺寸
     private double resizeStartX;
     private double resizeStartY;
     private double resizeStartW;
     private double resizeStartH;
 
+    // 进行中的 JFR 拖拽 / 缩放会话（事件未启用时为 null）
+    private WindowInteractionEvent dragSession;
+    private WindowInteractionEvent resizeSession;
+
+    // 随主窗口一起拖动的附属窗口（首次访问时创建）
+    private WindowGroup windowGroup;
+
+    // 窗口所在屏幕的缓存：只有原生消息流可用时才缓存，收到移动 / DPI / 显示器变化消息时失效
+    private Screen cachedScreen;
+    private boolean screenCacheEnabled;
+
+    // 实际生效的拖动 / 调整大小方式（请求的方式不可用时回退为 JAVA）
+    private InteractionMode activeInteractionMode = InteractionMode.JAVA;
+    // NATIVE_HIT_TEST 方式下回答 WM_NCHITTEST 的区域表
+    private HitTestRegionMap hitTestRegions;
+    private ImageView appIconView;  // 标题栏应用图标（属于可拖动区域）
+
 
     // 窗口是否始终置顶
     private boolean alwaysOnTop = false;
@@ -124,45 +189,105 @@ public abstract class AbstractCustomWindow extends Application {
         return WindowTheme.dark();
     }
 
+    // 返回标题栏拖动和边缘调整大小的实现方式（默认 Java 实现，子类可重写以交给系统处理）
+    protected InteractionMode interactionMode() {
+        return InteractionMode.JAVA;
+    }
+
+    // 返回标题栏、标题文字和窗口按钮的外观实现方式（默认主题样式表，子类可重写为直接赋值）
+    protected ChromeStyling chromeStyling() {
+        return ChromeStyling.STYLESHEET;
+    }
+
+    // 返回主题切换的淡出过渡时长（默认 200 ms，返回 Duration.ZERO 时直接切换）
+    protected Duration themeTransitionDuration() {
+        return Duration.millis(200);
+    }
+
+    // 返回 Java 实现下边缘点击测试的方式（默认按坐标计算，子类可重写为边缘节点）
+    protected ResizeHitTester.Strategy resizeHitTestStrategy() {
+        return ResizeHitTester.Strategy.COMPUTED;
+    }
+
     /*
      * 切换窗口主题
      * 更新标题栏、窗口背景、按钮样式、菜单栏样式等
      * @param theme 新主题
      */
     protected final void setTheme(WindowTheme theme) {
-        this.currentTheme = theme;
-
-        // 更新窗口背景色
-        root.setStyle("-fx-background-color: " + theme.windowBgColor() + ";");
-        // 更新标题栏背景色
-        titleBar.setStyle("""
-                -fx-background-color: %s;
-                -fx-alignment: center-left;
-                -fx-padding: 0 6;
-                """.formatted(theme.titleBarBgColor()));
+        themeTransition.run(themeTransitionDuration(), () -> applyTheme(theme, false));
+    }
 
-        // 更新标题文字颜色
-        titleLabel.setStyle("-fx-text-fill: " + theme.titleTextColor() + "; -fx-padding: 0 8;");
+    /*
+     * 应用主题并提交 JFR 主题切换事件
+     * @param toggle 是否由主题切换按钮触发
+     */
+    private void applyTheme(WindowTheme theme, boolean toggle) {
+        ThemeSwitchEvent event = new ThemeSwitchEvent();
+        event.begin();
+        this.currentTheme = theme;
 
-        // 更新菜单栏中所有菜单的文字颜色
-        updateMenuBarTheme();
+        // 整个窗口的外观由一张主题样式表描述，切换主题只替换这一张样式表
+        long compiles = ThemeStylesheet.getCompileCount();
+        String stylesheet = ThemeStylesheet.of(theme);
+        int index = scene.getStylesheets().indexOf(themeStylesheet);
+        if (index >= 0) {
+            scene.getStylesheets().set(index, stylesheet);
+        } else {
+            scene.getStylesheets().add(stylesheet);
+        }
+        themeStylesheet = stylesheet;
+        int restyled = applyChromePalette();
+        if (themeBtnIcon != null) {
+            // 暗色主题显示亮色图标（表示可以切换到亮色），亮色主题显示暗色图标
+            setChromeIcon(themeBtnIcon, theme.isDark() ? "/icons/lightTheme.png" : "/icons/darkTheme.png");
+        }
+        if (event.isEnabled()) {
+            // 记录事件时同步完成 CSS 处理，事件时长即包含本次切换的 CSS 耗时（否则在下一个脉冲中完成）
+            root.applyCss();
+        }
 
-        // 更新菜单项的CSS样式
-        applyMenuThemeCSS();
+        event.end();
+        if (event.shouldCommit()) {
+            event.dark = theme.isDark();
+            event.nodeCount = restyled;
+            event.compiled = ThemeStylesheet.getCompileCount() != compiles;
+            event.toggle = toggle;
+            event.commit();
+        }
+    }
 
-        // 更新所有窗口按钮样式
-        updateButtonTheme(minBtn, WindowButtonType.MINIMIZE);
-        updateButtonTheme(maxBtn, WindowButtonType.MAXIMIZE);
-        updateButtonTheme(closeBtn, WindowButtonType.CLOSE);
+    /*
+     * 由 ThemeManager 在切换脉冲中调用：应用主题并同步完成 CSS 处理和布局
+     * 窗口已是该主题时不做任何处理
+     */
+    void applyManagedTheme(WindowTheme theme, boolean toggle) {
+        if (scene == null || theme.equals(currentTheme)) {
+            return;
+        }
+        themeTransition.run(themeTransitionDuration(), () -> applyTheme(theme, toggle));
+        root.applyCss();
+        root.layout();
+    }
 
-        // 如果启用了置顶按钮，也更新其样式
-        if (isAlwaysOnTopEnabled() && toTopBtn != null) {
-            updateButtonTheme(toTopBtn, WindowButtonType.TO_TOP);
+    /*
+     * DIRECT 方式：把主题的共享 Background / Color 直接赋给窗口根节点、标题栏、标题文字和窗口按钮
+     * @return 直接赋值的节点数（STYLESHEET 方式为 0）
+     */
+    private int applyChromePalette() {
+        if (chromeStyling != ChromeStyling.DIRECT) {
+            return 0;
         }
-        // 如果启用了主题切换按钮，也更新其样式
-        if (isThemeSwitchEnabled() && ThemeBtn != null) {
-            updateButtonTheme(ThemeBtn, WindowButtonType.THEME_SWITCHING);
+        ThemePalette palette = ThemePalette.of(currentTheme);
+        root.setBackground(palette.windowBackground());
+        titleBar.setBackground(palette.titleBarBackground());
+        titleBar.setBorder(palette.chromeBorder());
+        titleLabel.setTextFill(palette.titleText());
+        for (Button btn : directButtons) {
+            btn.setBorder(palette.chromeBorder());
+            btn.setBackground(palette.buttonBackground(btn == closeBtn, btn.isHover(), btn.isPressed()));
         }
+        return 3 + directButtons.size();
     }
 
     // 标题栏创建完成后的回调（可选，用于子类进行额外初始化）
@@ -177,15 +302,26 @@ public abstract class AbstractCustomWindow extends Application {
      */
     @Override
     public final void start(Stage stage) {
+        long phaseStart = StartupTimeline.now();
         this.stage = stage;
         stage.initStyle(StageStyle.UNDECORATED);  // 移除系统默认边框
+        // 后台解码窗口按钮图标，与下面的布局构建并行
+        ImageCache.preload(AbstractCustomWindow.class, WINDOW_BTN_ICON_SIZE, WINDOW_BTN_ICON_SIZE,
+                ImageCache.outputScale(null), CHROME_ICONS);
+        appIconImage = appIcon();
 
         // 1. 初始化主题
-        currentTheme = getTheme();
+        // 已通过 ThemeManager 切换过主题时使用当前的共用主题
+        currentTheme = Objects.requireNonNullElseGet(ThemeManager.getTheme(), this::getTheme);
+        chromeStyling = Objects.requireNonNullElse(chromeStyling(), ChromeStyling.STYLESHEET);
 
         // 2. 创建主布局容器
         root = new BorderPane();
-        root.setStyle("-fx-background-color: " + currentTheme.windowBgColor() + ";");
+        if (chromeStyling == ChromeStyling.STYLESHEET) {
+            root.getStyleClass().add(ThemeStylesheet.WINDOW);
+        }
+
+        themeTransition = new ThemeTransition(root);
 
         // 3. 创建标题栏（必须在创建内容之前，因为子类可能在 createContent 中需要访问标题栏状态）
         titleBar = createTitleBar();
@@ -202,16 +338,19 @@ public abstract class AbstractCustomWindow extends Application {
         scene = new Scene(root, DEFAULT_WINDOW_WIDTH, DEFAULT_WINDOW_HEIGHT);
         scene.setFill(Color.TRANSPARENT);
 
-        // 6. 应用菜单主题CSS
-        applyMenuThemeCSS();
+        // 6. 应用主题样式表（已编译的主题直接复用）
+        themeStylesheet = ThemeStylesheet.of(currentTheme);
+        scene.getStylesheets().add(themeStylesheet);
+        applyChromePalette();
+        ThemeManager.register(this);
 
         // 7. 启用窗口拖拽和边缘调整大小功能
         enableDrag();
         enableResize(scene);
 
         // 8. 配置窗口属性并显示
-        if (Objects.nonNull(appIcon())) {
-            stage.getIcons().add(appIcon());
+        if (Objects.nonNull(appIconImage)) {
+            stage.getIcons().add(appIconImage);
         }
 
         if (!appTitle().isEmpty()) {
@@ -223,13 +362,24 @@ public abstract class AbstractCustomWindow extends Application {
         stage.setMinHeight(MIN_WINDOW_HEIGHT);
 
         stage.setScene(scene);
+        // 窗口移到其它缩放比例的屏幕时按新缩放重新取按钮图标
+        stage.outputScaleXProperty().addListener((obs, oldScale, newScale) ->
+                Map.copyOf(chromeIconPaths).forEach(this::setChromeIcon));
+        StartupTimeline.markFirstFrame(scene);
+        StartupTimeline.record("window:build", phaseStart);
+        phaseStart = StartupTimeline.now();
         stage.show();
+        StartupTimeline.record("window:show", phaseStart);
 
         // 9. 延迟执行的 Windows 平台特定设置（设置窗口圆角）
         Platform.runLater(() -> {
-            WinDef.HWND hWnd = FXNativeWindowsTools.getHWndByEnumeration();
+            long nativeStart = StartupTimeline.now();
+            WinDef.HWND hWnd = FXNativeWindowsTools.getHWnd(stage);
             // 设置窗口圆角样式
             FXNativeWindowsTools.setWindowCornerPreference(hWnd, FXNativeWindowsTools.DwmWindowCornerPreference.ROUND);
+            enableScreenCache();
+            enableInteractionMode();
+            StartupTimeline.record("window:native-style", nativeStart);
         });
 
         // 10. 触发子类自定义初始化回调
@@ -238,94 +388,75 @@ public abstract class AbstractCustomWindow extends Application {
 
     /*
      * 创建自定义标题栏
-     * 使用栈结构管理左右两侧组件，方便后续动态添加按钮
-     * 左侧栈：按入栈顺序从左往右显示（如：titleLabel -> menuBar）
-     * 右侧栈：按出栈顺序从左往右显示（如：入栈顺序 closeBtn -> maxBtn -> minBtn，显示顺序 minBtn -> maxBtn -> closeBtn）
+     * 组件放入左侧 / 中间 / 右侧槽位，区域内按优先级从左往右显示，方便后续动态添加、移除组件
+     * 左侧：图标 -> 标题 -> 菜单栏；右侧：主题切换 -> 置顶 -> 最小化 -> 最大化 -> 关闭
      */
     private HBox createTitleBar() {
         HBox bar = new HBox();
         bar.setPrefHeight(TITLE_BAR_HEIGHT);
         bar.setMinHeight(TITLE_BAR_HEIGHT);
         bar.setMaxHeight(TITLE_BAR_HEIGHT);
-        bar.setStyle("""
-                    -fx-background-color: %s;
-                    -fx-alignment: center-left;
-                    -fx-padding: 0 6;
-                """.formatted(currentTheme.titleBarBgColor()));
+        if (chromeStyling == ChromeStyling.STYLESHEET) {
+            bar.getStyleClass().add(ThemeStylesheet.TITLE_BAR);
+        } else {
+            bar.setAlignment(javafx.geometry.Pos.CENTER_LEFT);
+            bar.setPadding(new Insets(0, 6, 0, 6));
+        }
 
         // 标题栏整体使用默认光标（避免边缘调整大小光标影响）
         bar.setCursor(Cursor.DEFAULT);
 
-        // 初始化左右两侧的栈和容器
-        leftComponentsStack = new Stack<>();
-        rightComponentsStack = new Stack<>();
-        leftBox = new HBox();
-        leftBox.setAlignment(javafx.geometry.Pos.CENTER_LEFT);  // 左侧组件垂直居中对齐
-        rightBox = new HBox();
-        rightBox.setAlignment(javafx.geometry.Pos.CENTER_RIGHT);  // 右侧组件垂直居中对齐
+        // 组装标题栏：左侧区域 + 弹性空白 + 中间区域 + 弹性空白 + 右侧区域
+        titleBarSlots = new TitleBarSlots(bar);
 
         //  左侧组件区域 
         // 应用图标（可选）
-        if (Objects.nonNull(appIcon())) {
-            ImageView icon = new ImageView(appIcon());
+        if (Objects.nonNull(appIconImage)) {
+            ImageView icon = new ImageView(appIconImage);
             icon.setFitWidth(APP_ICON_SIZE);
             icon.setFitHeight(APP_ICON_SIZE);
             icon.setCursor(Cursor.DEFAULT);
-            leftComponentsStack.push(icon);  // 图标入栈
+            appIconView = icon;
+            titleBarSlots.add(TitleBarSlots.Slot.LEADING, icon, PRIORITY_APP_ICON);
         }
 
         // 标题文字
         titleLabel = new Label(appTitle());
-        titleLabel.setStyle("-fx-text-fill: " + currentTheme.titleTextColor() + "; -fx-padding: 0 8;");
+        if (chromeStyling == ChromeStyling.STYLESHEET) {
+            titleLabel.getStyleClass().add(ThemeStylesheet.TITLE_LABEL);
+        } else {
+            // 去掉 label 样式类，不匹配任何样式规则
+            titleLabel.getStyleClass().clear();
+            titleLabel.setPadding(new Insets(0, 8, 0, 8));
+        }
         titleLabel.setCursor(Cursor.DEFAULT);
-        leftComponentsStack.push(titleLabel);  // 标题入栈
+        titleBarSlots.add(TitleBarSlots.Slot.LEADING, titleLabel, PRIORITY_TITLE);
 
         // 菜单栏
         menuBar = new MenuBar();
-        menuBar.setStyle("""
-                -fx-background-color: transparent;
-                -fx-text-fill: %s;
-                -fx-text-base-color: %s;
-                """.formatted(currentTheme.titleTextColor(), currentTheme.titleTextColor()));
+        menuBar.getStyleClass().add(ThemeStylesheet.MENU_BAR);
         menuBar.setCursor(Cursor.DEFAULT);
         menuBar.setOnMouseEntered(e -> {
             scene.setCursor(Cursor.DEFAULT);
             menuBar.setCursor(Cursor.DEFAULT);
         });
-        leftComponentsStack.push(menuBar);  // 菜单栏入栈
-
-        // 从左侧栈中按入栈顺序取出组件并添加到左侧HBox（保持入栈顺序：图标 -> 标题 -> 菜单栏）
-        Stack<javafx.scene.Node> tempStack = new Stack<>();
-        while (!leftComponentsStack.isEmpty()) {
-            tempStack.push(leftComponentsStack.pop());
-        }
-        while (!tempStack.isEmpty()) {
-            javafx.scene.Node node = tempStack.pop();
-            leftBox.getChildren().add(node);
-            leftComponentsStack.push(node);  // 重新压回栈以便后续管理
-        }
-
-
-        //  中间弹性空白区域 
-        spacer = new Region();
-        HBox.setHgrow(spacer, Priority.ALWAYS);
-        spacer.setCursor(Cursor.DEFAULT);
+        titleBarSlots.add(TitleBarSlots.Slot.LEADING, menuBar, PRIORITY_MENU_BAR);
 
         //  右侧组件区域 
-        // 窗口控制按钮（按照期望的显示顺序反向入栈）
+        // 窗口控制按钮（显示顺序由优先级决定：minBtn -> maxBtn -> closeBtn）
         closeBtn = createWindowButton("/icons/close.png", WindowButtonType.CLOSE);
-        rightComponentsStack.push(closeBtn);  // 关闭按钮先入栈（最后显示）
+        titleBarSlots.add(TitleBarSlots.Slot.TRAILING, closeBtn, PRIORITY_CLOSE);
 
         maxBtn = createWindowButton("/icons/max.png", WindowButtonType.MAXIMIZE);
-        rightComponentsStack.push(maxBtn);    // 最大化按钮入栈
+        titleBarSlots.add(TitleBarSlots.Slot.TRAILING, maxBtn, PRIORITY_MAXIMIZE);
 
         minBtn = createWindowButton("/icons/min.png", WindowButtonType.MINIMIZE);
-        rightComponentsStack.push(minBtn);    // 最小化按钮入栈
+        titleBarSlots.add(TitleBarSlots.Slot.TRAILING, minBtn, PRIORITY_MINIMIZE);
 
         // 如果启用置顶功能，添加置顶按钮
         if (isAlwaysOnTopEnabled()) {
             toTopBtn = createWindowButton("/icons/top.png", WindowButtonType.TO_TOP);
-            rightComponentsStack.push(toTopBtn);  // 置顶按钮入栈
+            titleBarSlots.add(TitleBarSlots.Slot.TRAILING, toTopBtn, PRIORITY_TO_TOP);
         }
 
         // 如果启用主题切换功能，添加主题切换按钮
@@ -333,49 +464,31 @@ public abstract class AbstractCustomWindow extends Application {
             // 默认暗色主题，显示切换到亮色主题的图标
             String themeIconPath = currentTheme.isDark() ? "/icons/lightTheme.png" : "/icons/darkTheme.png";
             ThemeBtn = createWindowButton(themeIconPath, WindowButtonType.THEME_SWITCHING);
-            rightComponentsStack.push(ThemeBtn);  // 主题切换按钮入栈
+            titleBarSlots.add(TitleBarSlots.Slot.TRAILING, ThemeBtn, PRIORITY_THEME);
         }
 
-
-        // 从右侧栈中按出栈顺序取出组件并添加到右侧HBox（显示顺序：minBtn -> maxBtn -> closeBtn）
-        while (!rightComponentsStack.isEmpty()) {
-            rightBox.getChildren().add(rightComponentsStack.pop());
-        }
-
-        rightBox.setMinWidth(computeHBoxMinWidth(rightBox));
-        leftBox.setMinWidth(computeHBoxMinWidth(leftBox));
-        // 组装标题栏：左侧区域 + 弹性空白 + 右侧区域
-        bar.getChildren().addAll(leftBox, spacer, rightBox);
-
         return bar;
     }
 
-    private double computeHBoxMinWidth(HBox box) {
-        double width = 0;
-
-        for (javafx.scene.Node node : box.getChildren()) {
-            if (node instanceof Region region) {
-                width += region.getMinWidth();
-            } else {
-                width += node.prefWidth(-1);
-            }
-        }
-
-        // 加上 HBox spacing
-        width += box.getSpacing() * Math.max(0, box.getChildren().size() - 1);
+    // 窗口控制按钮创建
 
-        return width;
+    /*
+     * 设置窗口按钮图标：取缓存中按按钮尺寸和当前输出缩放解码的共享实例
+     */
+    private void setChromeIcon(ImageView view, String iconPath) {
+        chromeIconPaths.put(view, iconPath);
+        view.setImage(ImageCache.get(AbstractCustomWindow.class, iconPath,
+                WINDOW_BTN_ICON_SIZE, WINDOW_BTN_ICON_SIZE, ImageCache.outputScale(stage)));
     }
 
-    // 窗口控制按钮创建
-
     /*
      * 创建窗口控制按钮（最小化、最大化、关闭、置顶、主题切换）
      * 包含图标、固定尺寸、点击行为、鼠标悬停/按下效果
      */
     private Button createWindowButton(String iconPath, WindowButtonType type) {
         // 加载按钮图标
-        ImageView iv = new ImageView(new Image(getClass().getResourceAsStream(iconPath)));
+        ImageView iv = new ImageView();
+        setChromeIcon(iv, iconPath);
         iv.setFitWidth(WINDOW_BTN_ICON_SIZE);
         iv.setFitHeight(WINDOW_BTN_ICON_SIZE);
         iv.setPreserveRatio(true);
@@ -401,7 +514,24 @@ public abstract class AbstractCustomWindow extends Application {
         btn.setMinSize(WINDOW_BTN_WIDTH, WINDOW_BTN_HEIGHT);
         btn.setMaxSize(WINDOW_BTN_WIDTH, WINDOW_BTN_HEIGHT);
         btn.setFocusTraversable(false);  // 禁用 Tab 键焦点
-        btn.setStyle(currentTheme.btnStyleTransparent());
+        if (chromeStyling == ChromeStyling.STYLESHEET) {
+            // 默认 / 悬停 / 按下的背景由主题样式表的 :hover、:pressed 伪类完成
+            btn.getStyleClass().add(ThemeStylesheet.WINDOW_BUTTON);
+            if (type == WindowButtonType.CLOSE) {
+                btn.getStyleClass().add(ThemeStylesheet.CLOSE_BUTTON);
+            }
+        } else {
+            // 去掉 button 样式类，悬停 / 按下直接换成预先构建的共享背景，不触发 CSS 处理
+            btn.getStyleClass().clear();
+            btn.setPadding(Insets.EMPTY);
+            btn.setAlignment(javafx.geometry.Pos.CENTER);
+            boolean close = type == WindowButtonType.CLOSE;
+            javafx.beans.InvalidationListener state = obs -> btn.setBackground(
+                    ThemePalette.of(currentTheme).buttonBackground(close, btn.isHover(), btn.isPressed()));
+            btn.hoverProperty().addListener(state);
+            btn.pressedProperty().addListener(state);
+            directButtons.add(btn);
+        }
 
         // 设置按钮的光标为默认样式（确保鼠标移到按钮上时总是显示标准箭头）
         btn.setCursor(Cursor.DEFAULT);
@@ -415,31 +545,12 @@ public abstract class AbstractCustomWindow extends Application {
             case THEME_SWITCHING -> btn.setOnAction(e -> toggleTheme());           // 切换主题
         }
 
-        // 配置鼠标悬停效果
+        // 鼠标进入时强制将光标设置为默认样式（覆盖边缘调整大小的光标）
         btn.setOnMouseEntered(e -> {
-            // 强制将光标设置为默认样式（覆盖边缘调整大小的光标）
             scene.setCursor(Cursor.DEFAULT);
             btn.setCursor(Cursor.DEFAULT);
-
-            if (type == WindowButtonType.CLOSE) {
-                btn.setStyle(currentTheme.closeBtnStyleHover());  // 关闭按钮悬停显示红色
-            } else {
-                btn.setStyle(currentTheme.btnStyleHover());       // 其他按钮悬停显示半透明
-            }
         });
 
-        // 配置鼠标按下效果
-        btn.setOnMousePressed(e -> {
-            if (type == WindowButtonType.CLOSE) {
-                btn.setStyle(currentTheme.closeBtnStylePressed());  // 关闭按钮按下显示深红色
-            } else {
-                btn.setStyle(currentTheme.btnStylePressed());       // 其他按钮按下显示更明显
-            }
-        });
-
-        // 鼠标移出恢复透明背景
-        btn.setOnMouseExited(e -> btn.setStyle(currentTheme.btnStyleTransparent()));
-
         return btn;
     }
 
@@ -452,13 +563,22 @@ public abstract class AbstractCustomWindow extends Application {
      * @param menu 要添加的菜单
      */
     protected final void addTitleEventTarget(Menu menu) {
-        // 为菜单设置主题样式
-        applyMenuStyle(menu);
-
-        // 添加到菜单栏
+        // 添加到菜单栏（文字颜色由主题样式表的菜单栏规则提供）
         menuBar.getMenus().add(menu);
     }
 
+    /*
+     * 获取主窗口的窗口组
+     * 加入窗口组的附属窗口（工具面板、调色板等）在拖动标题栏时保持相对位置一起移动
+     * @return 窗口组（同一窗口始终返回同一实例）
+     */
+    protected final WindowGroup getWindowGroup() {
+        if (windowGroup == null) {
+            windowGroup = new WindowGroup(stage);
+        }
+        return windowGroup;
+    }
+
     /*
      * 向标题栏左侧添加组件
      * 新添加的组件会显示在左侧最右边（追加到左侧HBox末尾）
@@ -467,8 +587,10 @@ public abstract class AbstractCustomWindow extends Application {
      */
     protected final void addLeftComponent(javafx.scene.Node node) {
         node.setCursor(Cursor.DEFAULT);  // 设置默认光标
-        leftBox.getChildren().add(node);
-        leftComponentsStack.push(node);  // 同步到栈中以便管理
+        titleBarSlots.addLast(TitleBarSlots.Slot.LEADING, node);
+        if (hitTestRegions != null) {
+            hitTestRegions.addClient(node);  // 自定义组件需要接收鼠标事件，不参与拖动
+        }
     }
 
     /*
@@ -479,18 +601,41 @@ public abstract class AbstractCustomWindow extends Application {
      */
     protected final void addRightComponent(javafx.scene.Node node) {
         node.setCursor(Cursor.DEFAULT);  // 设置默认光标
-        rightBox.getChildren().add(0, node);  // 插入到最前面
-        rightComponentsStack.push(node);      // 同步到栈中以便管理
+        titleBarSlots.addFirst(TitleBarSlots.Slot.TRAILING, node);  // 插入到最前面
+    }
+
+    /*
+     * 按槽位和优先级向标题栏添加组件（节点已在标题栏中时移动到新位置）
+     * 区域内优先级小的组件靠左；内置组件的优先级：左侧 图标 0 / 标题 100 / 菜单栏 200，
+     * 右侧 主题切换 100 / 置顶 200 / 最小化 300 / 最大化 400 / 关闭 500
+     * @param slot     左侧 / 中间 / 右侧
+     * @param node     要添加的节点
+     * @param priority 区域内的排序值
+     */
+    protected final void addTitleBarComponent(TitleBarSlots.Slot slot, javafx.scene.Node node, int priority) {
+        node.setCursor(Cursor.DEFAULT);  // 设置默认光标
+        titleBarSlots.add(slot, node, priority);
+        if (hitTestRegions != null && slot != TitleBarSlots.Slot.TRAILING) {
+            hitTestRegions.addClient(node);  // 自定义组件需要接收鼠标事件，不参与拖动
+        }
+    }
+
+    /*
+     * 从标题栏移除组件
+     * @return 组件原本是否在标题栏中
+     */
+    protected final boolean removeTitleBarComponent(javafx.scene.Node node) {
+        if (hitTestRegions != null) {
+            hitTestRegions.removeClient(node);
+        }
+        return titleBarSlots.remove(node);
     }
 
     /*
-     * 为单个菜单应用主题样式
+     * 显示或隐藏标题栏组件（隐藏时不占位置，只触发一次标题栏布局）
      */
-    private void applyMenuStyle(Menu menu) {
-        menu.setStyle("""
-                -fx-text-fill: %s;
-                -fx-text-base-color: %s;
-                """.formatted(currentTheme.titleTextColor(), currentTheme.titleTextColor()));
+    protected final void setTitleBarComponentVisible(javafx.scene.Node node, boolean visible) {
+        titleBarSlots.setVisible(node, visible);
     }
 
     // 窗口拖拽功能
@@ -508,6 +653,21 @@ public abstract class AbstractCustomWindow extends Application {
 
             dragOffsetX = e.getSceneX();
             dragOffsetY = e.getSceneY();
+            dragSession = WindowInteractionEvent.begin(WindowInteractionEvent.MOVE, stage);
+
+            // 交给系统移动循环（有附属窗口时仍使用 Java 拖动，保证整组一起移动）
+            if (activeInteractionMode == InteractionMode.SYSTEM_LOOP && e.isPrimaryButtonDown()
+                    && (windowGroup == null || windowGroup.isEmpty())) {
+                if (e.getClickCount() == 2) {
+                    // 系统循环吞掉了松开事件，双击在按下时处理
+                    toggleMaximize();
+                } else if (!maximized) {
+                    // 松开鼠标后才返回
+                    FXNativeWindowsTools.startSystemMoveResize(FXNativeWindowsTools.getHWnd(stage),
+                            FXNativeWindowsTools.Win32Constants.HitTestCode.HTCAPTION);
+                }
+                endDragSession();
+            }
         });
 
         // 拖拽过程中更新窗口位置
@@ -518,44 +678,92 @@ public abstract class AbstractCustomWindow extends Application {
             if (isResizeCursor()) return;
 
             // 计算新的窗口位置（屏幕坐标 - 鼠标在窗口内的偏移）
-            stage.setX(e.getScreenX() - dragOffsetX);
-            stage.setY(e.getScreenY() - dragOffsetY);
+            if (windowGroup != null && !windowGroup.isEmpty()) {
+                // 有附属窗口时整组在同一帧内移动
+                windowGroup.moveTo(e.getScreenX() - dragOffsetX, e.getScreenY() - dragOffsetY);
+            } else {
+                // 每帧合并为一次原生移动
+                StageBoundsUpdater.of(stage).moveTo(e.getScreenX() - dragOffsetX, e.getScreenY() - dragOffsetY);
+            }
+            if (dragSession != null) {
+                dragSession.onDrag();
+            }
         });
 
-        // 双击标题栏切换最大化
+        // 拖拽结束，提交 JFR 拖拽会话事件
+        titleBar.setOnMouseReleased(e -> {
+            StageBoundsUpdater.of(stage).flush();
+            endDragSession();
+        });
+
+        // 双击标题栏切换最大化（SYSTEM_LOOP 方式在按下时处理）
         titleBar.setOnMouseClicked(e -> {
-            if (e.getClickCount() == 2 && !isResizeCursor()) {
+            if (e.getClickCount() == 2 && !isResizeCursor()
+                    && activeInteractionMode != InteractionMode.SYSTEM_LOOP) {
                 toggleMaximize();
             }
         });
     }
 
+    private void endDragSession() {
+        if (dragSession != null) {
+            dragSession.end(stage);
+            dragSession = null;
+        }
+    }
+
     /*
-     * 检查当前鼠标光标是否为调整大小状态
-     * 用于区分拖拽移动和边缘调整大小操作
+     * 启用子类请求的拖动 / 调整大小方式
+     * NATIVE_HIT_TEST 无法安装时退回 SYSTEM_LOOP；没有可用原生后端的平台保持 Java 实现
      */
-    private boolean isResizeCursor() {
-        Cursor c = stage.getScene().getCursor();
-        return c == Cursor.E_RESIZE
-                || c == Cursor.W_RESIZE
-                || c == Cursor.N_RESIZE
-                || c == Cursor.S_RESIZE
-                || c == Cursor.NE_RESIZE
-                || c == Cursor.NW_RESIZE
-                || c == Cursor.SE_RESIZE
-                || c == Cursor.SW_RESIZE;
+    private void enableInteractionMode() {
+        InteractionMode requested = interactionMode();
+        if (requested == null || requested == InteractionMode.JAVA
+                || !NativeWindowBackends.isUsable() || FXNativeWindowsTools.getHWnd(stage) == null) {
+            return;
+        }
+        if (requested == InteractionMode.NATIVE_HIT_TEST) {
+            HitTestRegionMap regions = new HitTestRegionMap(resizeHitTester.getEffectiveMargin())
+                    .addCaption(titleBar)
+                    .addClient(titleBarSlots.box(TitleBarSlots.Slot.TRAILING))
+                    .setResizable(!maximized)
+                    .setMovable(!maximized);
+            // 左侧除图标和标题外的组件（菜单栏、自定义组件）和中间组件需要接收鼠标事件
+            for (javafx.scene.Node node : titleBarSlots.nodes(TitleBarSlots.Slot.LEADING)) {
+                if (node != titleLabel && node != appIconView) {
+                    regions.addClient(node);
+                }
+            }
+            titleBarSlots.nodes(TitleBarSlots.Slot.CENTER).forEach(regions::addClient);
+            if (regions.install(stage) != null) {
+                // 标题区域现在是非客户区，双击由系统发送 WM_NCLBUTTONDBLCLK
+                WindowMessageStream.of(stage).intercept(
+                        FXNativeWindowsTools.Win32Constants.WindowMessage.WM_NCLBUTTONDBLCLK,
+                        (hwnd, msg, wParam, lParam) -> {
+                            if (wParam != FXNativeWindowsTools.Win32Constants.HitTestCode.HTCAPTION) {
+                                return NativeWindowBackend.PASS_TO_ORIGINAL;
+                            }
+                            toggleMaximize();
+                            return 0;
+                        });
+                hitTestRegions = regions;
+                // 光标和边缘调整大小都由系统完成，Java 侧不再处理鼠标移动
+                resizeHitTester.setStrategy(ResizeHitTester.Strategy.NATIVE);
+                activeInteractionMode = InteractionMode.NATIVE_HIT_TEST;
+                return;
+            }
+        }
+        activeInteractionMode = InteractionMode.SYSTEM_LOOP;
     }
 
     /*
-     * 更新标题栏所有组件的光标样式
-     * 用于在边缘调整大小时，让标题栏组件的光标与场景光标保持一致
+     * 鼠标是否位于调整大小区域
+     * 用于区分拖拽移动和边缘调整大小操作
      */
-    private void updateTitleBarCursor(Cursor cursor) {
-        titleBar.setCursor(cursor);
-        titleBar.getChildren().forEach(node -> node.setCursor(cursor));
+    private boolean isResizeCursor() {
+        return resizeHitTester.getZone().isResize();
     }
 
-
     // 窗口最大化功能
 
     /*
@@ -563,6 +771,8 @@ public abstract class AbstractCustomWindow extends Application {
      * 最大化时填充当前屏幕的可视区域，还原时恢复到之前的位置和尺寸
      */
     private void toggleMaximize() {
+        ToggleMaximizeEvent event = new ToggleMaximizeEvent();
+        event.begin();
         if (!maximized) {
             // 保存当前窗口位置和尺寸，用于还原
             lastX = stage.getX();
@@ -581,12 +791,14 @@ public abstract class AbstractCustomWindow extends Application {
             stage.setHeight(bounds.getHeight());
 
             maximized = true;
+            updateHitTestRegions();
 
             // 切换到还原图标
-            maxBtnIcon.setImage(new Image(getClass().getResourceAsStream("/icons/restoreIcon.png")));
+            setChromeIcon(maxBtnIcon, "/icons/restoreIcon.png");
         } else {
             // 先设置状态为非最大化
             maximized = false;
+            updateHitTestRegions();
 
             // 使用 Platform.runLater 确保状态更新后再设置尺寸
             Platform.runLater(() -> {
@@ -598,10 +810,27 @@ public abstract class AbstractCustomWindow extends Application {
             });
 
             // 切换到最大化图标
-            maxBtnIcon.setImage(new Image(getClass().getResourceAsStream("/icons/max.png")));
+            setChromeIcon(maxBtnIcon, "/icons/max.png");
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.maximized = maximized;
+            event.width = maximized ? stage.getWidth() : lastW;
+            event.height = maximized ? stage.getHeight() : lastH;
+            event.commit();
         }
     }
 
+    /*
+     * 最大化时关闭系统拖动和边缘调整大小（与 Java 实现一致）
+     */
+    private void updateHitTestRegions() {
+        if (hitTestRegions != null) {
+            hitTestRegions.setResizable(!maximized).setMovable(!maximized);
+        }
+        resizeHitTester.setEnabled(!maximized);
+    }
+
     /*
      * 切换窗口置顶状态
      * 切换窗口是否始终显示在其他窗口之上，并更新按钮图标
@@ -612,30 +841,56 @@ public abstract class AbstractCustomWindow extends Application {
 
         // 根据置顶状态切换图标
         String iconPath = alwaysOnTop ? "/icons/openTop.png" : "/icons/top.png";
-        toTopBtnIcon.setImage(new Image(getClass().getResourceAsStream(iconPath)));
+        setChromeIcon(toTopBtnIcon, iconPath);
     }
 
     /*
-     * 切换窗口主题
-     * 在暗色主题和亮色主题之间切换，并更新主题切换按钮的图标
+     * 切换主题：暗色 <-> 亮色
+     * 通过 ThemeManager 作用于所有窗口，在下一个脉冲中统一应用（主题切换按钮图标随主题更新）
      */
     private void toggleTheme() {
-        // 切换主题：暗色 <-> 亮色
-        WindowTheme newTheme = currentTheme.isDark() ? WindowTheme.light() : WindowTheme.dark();
-        setTheme(newTheme);
-
-        // 根据新主题切换按钮图标
-        // 暗色主题显示亮色图标（表示可以切换到亮色）
-        // 亮色主题显示暗色图标（表示可以切换到暗色）
-        String iconPath = newTheme.isDark() ? "/icons/lightTheme.png" : "/icons/darkTheme.png";
-        themeBtnIcon.setImage(new Image(getClass().getResourceAsStream(iconPath)));
+        ThemeManager.toggle(currentTheme);
     }
 
     /*
      * 获取窗口当前所在的屏幕
-     * 通过窗口中心点坐标判断位于哪个显示器
+     * 原生消息流可用时优先返回缓存
      */
     private Screen getScreenForStage(Stage stage) {
+        if (cachedScreen != null) {
+            return cachedScreen;
+        }
+        Screen screen = findScreenForStage(stage);
+        if (screenCacheEnabled) {
+            cachedScreen = screen;
+        }
+        return screen;
+    }
+
+    /*
+     * 订阅原生窗口消息，使屏幕缓存在窗口移动、DPI 变化、显示器配置变化时失效
+     * 非 Windows 平台订阅不会生效，此时每次重新计算
+     */
+    private void enableScreenCache() {
+        WindowMessageStream stream = WindowMessageStream.of(stage);
+        if (stream == null) {
+            return;
+        }
+        stream.subscribe(WindowMessageStream.MOVE | WindowMessageStream.DPI_CHANGED
+                        | WindowMessageStream.DISPLAY_CHANGE | WindowMessageStream.DESTROY,
+                (hwnd, msg, wParam, lParam) -> {
+                    cachedScreen = null;
+                    if (WindowMessageStream.maskOf(msg) == WindowMessageStream.DESTROY) {
+                        screenCacheEnabled = false;
+                    }
+                });
+        screenCacheEnabled = stream.isAttached();
+    }
+
+    /*
+     * 通过窗口中心点坐标判断位于哪个显示器
+     */
+    private Screen findScreenForStage(Stage stage) {
         // 计算窗口中心点坐标
         double centerX = stage.getX() + stage.getWidth() / 2;
         double centerY = stage.getY() + stage.getHeight() / 2;
@@ -660,50 +915,17 @@ public abstract class AbstractCustomWindow extends Application {
      * 按下并拖拽可调整窗口尺寸（支持八个方向：上下左右及四个角）
      */
     private void enableResize(Scene scene) {
-        // 鼠标移动时检测是否靠近边缘，更新光标样式
-        scene.setOnMouseMoved(e -> {
-            // 最大化状态下禁用边缘调整大小
-            if (maximized) {
-                scene.setCursor(Cursor.DEFAULT);
-                updateTitleBarCursor(Cursor.DEFAULT);
-                return;
-            }
-
-            double x = e.getSceneX();
-            double y = e.getSceneY();
-            double w = scene.getWidth();
-            double h = scene.getHeight();
-
-            // 判断鼠标是否在各个边缘区域内
-            boolean left = x < RESIZE_MARGIN;
-            boolean right = x > w - RESIZE_MARGIN;
-            boolean top = y < RESIZE_MARGIN;
-            boolean bottom = y > h - RESIZE_MARGIN;
-
-            // 如果鼠标在标题栏主体区域（不在边缘），使用默认光标
-            // 标题栏主体区域 = 标题栏范围内 && 不在上边缘 && 不在左右边缘
-            if (y >= RESIZE_MARGIN && y < TITLE_BAR_HEIGHT && !left && !right) {
-                scene.setCursor(Cursor.DEFAULT);
-                updateTitleBarCursor(Cursor.DEFAULT);
-                return;
-            }
-
-            // 根据边缘位置设置对应的光标样式
-            Cursor cursor = Cursor.DEFAULT;
-
-            if (left && top) cursor = Cursor.NW_RESIZE;         // 左上角
-            else if (left && bottom) cursor = Cursor.SW_RESIZE;  // 左下角
-            else if (right && top) cursor = Cursor.NE_RESIZE;    // 右上角
-            else if (right && bottom) cursor = Cursor.SE_RESIZE; // 右下角
-            else if (left) cursor = Cursor.W_RESIZE;             // 左边
-            else if (right) cursor = Cursor.E_RESIZE;            // 右边
-            else if (top) cursor = Cursor.N_RESIZE;              // 上边
-            else if (bottom) cursor = Cursor.S_RESIZE;           // 下边
-
-            scene.setCursor(cursor);
-            // 同步更新标题栏组件的光标，让边缘调整大小光标能够正确显示
-            updateTitleBarCursor(cursor);
-        });
+        // 鼠标移动到边缘时切换光标（只在区域变化时写光标，标题栏组件的光标同步切换）
+        resizeHitTester = new ResizeHitTester(scene)
+                .setMargin(RESIZE_MARGIN)
+                .addCursorTarget(titleBar);
+        ResizeHitTester.Strategy strategy = resizeHitTestStrategy();
+        if (strategy == ResizeHitTester.Strategy.EDGE_NODES) {
+            // 边缘节点位于所有内容之上（非托管，不参与 BorderPane 布局）
+            root.getChildren().add(resizeHitTester.getEdgeOverlay());
+        }
+        resizeHitTester.setStrategy(strategy == null || strategy == ResizeHitTester.Strategy.NATIVE
+                ? ResizeHitTester.Strategy.COMPUTED : strategy);
 
         // 记录拖拽开始时的窗口位置和尺寸
         scene.setOnMousePressed(e -> {
@@ -711,6 +933,21 @@ public abstract class AbstractCustomWindow extends Application {
             resizeStartY = stage.getY();
             resizeStartW = stage.getWidth();
             resizeStartH = stage.getHeight();
+            if (isResizeCursor()) {
+                resizeSession = WindowInteractionEvent.begin(WindowInteractionEvent.RESIZE, stage);
+                if (activeInteractionMode == InteractionMode.SYSTEM_LOOP && e.isPrimaryButtonDown() && !maximized) {
+                    // 交给系统缩放循环，松开鼠标后才返回（JavaFX 收不到松开事件）
+                    FXNativeWindowsTools.startSystemMoveResize(FXNativeWindowsTools.getHWnd(stage),
+                            resizeHitTester.getZone().hitTestCode());
+                    endResizeSession();
+                }
+            }
+        });
+
+        // 调整大小结束，提交 JFR 缩放会话事件
+        scene.setOnMouseReleased(e -> {
+            StageBoundsUpdater.of(stage).flush();
+            endResizeSession();
         });
 
         // 根据当前光标类型执行相应的调整大小操作
@@ -718,109 +955,58 @@ public abstract class AbstractCustomWindow extends Application {
             // 最大化状态下禁止调整大小
             if (maximized) return;
 
-            Cursor c = scene.getCursor();
+            ResizeZone zone = resizeHitTester.getZone();
+            if (!zone.isResize()) return;
+            if (resizeSession != null) {
+                resizeSession.onDrag();
+            }
+
+            // 以按下时的窗口边界为基准计算新边界，移动和缩放在下一帧作为一次原生调用应用
+            double x = resizeStartX;
+            double y = resizeStartY;
+            double w = resizeStartW;
+            double h = resizeStartH;
 
-            //  调整右边或右侧相关边缘 
-            if (c == Cursor.E_RESIZE || c == Cursor.NE_RESIZE || c == Cursor.SE_RESIZE) {
+            //  调整右边或右侧相关边缘
+            if (zone.movesRight()) {
                 // 新宽度 = 鼠标X坐标 - 窗口左边界
-                stage.setWidth(Math.max(MIN_WINDOW_WIDTH, e.getScreenX() - resizeStartX));
+                w = Math.max(MIN_WINDOW_WIDTH, e.getScreenX() - resizeStartX);
             }
 
-            //  调整下边或下侧相关边缘 
-            if (c == Cursor.S_RESIZE || c == Cursor.SE_RESIZE || c == Cursor.SW_RESIZE) {
+            //  调整下边或下侧相关边缘
+            if (zone.movesBottom()) {
                 // 新高度 = 鼠标Y坐标 - 窗口上边界
-                stage.setHeight(Math.max(MIN_WINDOW_HEIGHT, e.getScreenY() - resizeStartY));
+                h = Math.max(MIN_WINDOW_HEIGHT, e.getScreenY() - resizeStartY);
             }
 
-            //  调整左边或左侧相关边缘 
-            if (c == Cursor.W_RESIZE || c == Cursor.NW_RESIZE || c == Cursor.SW_RESIZE) {
-                double newX = e.getScreenX();
-                double newW = resizeStartX + resizeStartW - newX;  // 计算新宽度
-                // 只有新宽度满足最小宽度限制时才更新
-                if (newW >= MIN_WINDOW_WIDTH) {
-                    stage.setX(newX);      // 同步移动窗口左边界
-                    stage.setWidth(newW);
-                }
+            //  调整左边或左侧相关边缘（右边界保持不动）
+            if (zone.movesLeft()) {
+                w = Math.max(MIN_WINDOW_WIDTH, resizeStartX + resizeStartW - e.getScreenX());
+                x = resizeStartX + resizeStartW - w;
             }
 
-            //  调整上边或上侧相关边缘
-            if (c == Cursor.N_RESIZE || c == Cursor.NW_RESIZE || c == Cursor.NE_RESIZE) {
-                double newY = e.getScreenY();
-                double newH = resizeStartY + resizeStartH - newY;  // 计算新高度
-                // 只有新高度满足最小高度限制时才更新
-                if (newH >= MIN_WINDOW_HEIGHT) {
-                    stage.setY(newY);      // 同步移动窗口上边界
-                    stage.setHeight(newH);
-                }
+            //  调整上边或上侧相关边缘（下边界保持不动）
+            if (zone.movesTop()) {
+                h = Math.max(MIN_WINDOW_HEIGHT, resizeStartY + resizeStartH - e.getScreenY());
+                y = resizeStartY + resizeStartH - h;
             }
+
+            StageBoundsUpdater.of(stage).setBounds(x, y, w, h);
         });
     }
 
-    // 主题切换功能
-
-    /*
-     * 更新菜单栏主题样式
-     * 遍历所有菜单并应用新主题的文字颜色
-     */
-    private void updateMenuBarTheme() {
-        // 更新 MenuBar 本身的样式
-        menuBar.setStyle("""
-                -fx-background-color: transparent;
-                -fx-text-fill: %s;
-                -fx-text-base-color: %s;
-                """.formatted(currentTheme.titleTextColor(), currentTheme.titleTextColor()));
-
-        // 更新所有菜单的样式
-        for (Menu menu : menuBar.getMenus()) {
-            applyMenuStyle(menu);
+    private void endResizeSession() {
+        if (resizeSession != null) {
+            resizeSession.end(stage);
+            resizeSession = null;
         }
     }
 
-    /*
-     * 应用菜单项主题CSS
-     * 将当前主题的菜单CSS动态添加到场景的样式表中
+    /**
+     * 主题切换过渡（过渡帧时间统计见 {@link ThemeTransition#stats()}）
      */
-    private void applyMenuThemeCSS() {
-        // 移除旧的菜单CSS（如果存在）
-        scene.getStylesheets().removeIf(s -> s.startsWith("data:text/css"));
-
-        // 生成新的菜单CSS
-        String menuCSS = currentTheme.generateMenuCSS();
-
-        // 使用data URI将CSS添加到场景
-        String dataUri = "data:text/css," + menuCSS.replace("\n", "").replace(" ", "%20");
-        scene.getStylesheets().add(dataUri);
-    }
-
-    /*
-     * 更新单个按钮的主题样式
-     * 重新绑定鼠标事件处理器以使用新主题的样式
-     */
-    private void updateButtonTheme(Button btn, WindowButtonType type) {
-        // 重置为默认样式
-        btn.setStyle(currentTheme.btnStyleTransparent());
-
-        // 重新绑定鼠标悬停效果
-        btn.setOnMouseEntered(e -> {
-            if (type == WindowButtonType.CLOSE) {
-                btn.setStyle(currentTheme.closeBtnStyleHover());
-            } else {
-                btn.setStyle(currentTheme.btnStyleHover());
-            }
-        });
-
-        // 重新绑定鼠标按下效果
-        btn.setOnMousePressed(e -> {
-            if (type == WindowButtonType.CLOSE) {
-                btn.setStyle(currentTheme.closeBtnStylePressed());
-            } else {
-                btn.setStyle(currentTheme.btnStylePressed());
-            }
-        });
-
-
-        // 重新绑定鼠标移出效果
-        btn.setOnMouseExited(e -> btn.setStyle(currentTheme.btnStyleTransparent()));
+    public ThemeTransition getThemeTransition() {
+        return themeTransition;
     }
 
     public Stage getStage() {
@@ -831,6 +1017,42 @@ public abstract class AbstractCustomWindow extends Application {
         this.stage = stage;
     }
 
+    /**
+     * 窗口根节点、标题栏、标题文字和窗口按钮的外观实现方式
+     */
+    public enum ChromeStyling {
+        /**
+         * CSS 样式表：节点带样式类，颜色来自编译后的主题样式表（{@link ThemeStylesheet}），
+         * 悬停 / 按下由伪类完成；切换主题时替换一张样式表，由 CSS 引擎重新匹配这些节点
+         */
+        STYLESHEET,
+        /**
+         * 类型化调色板直接赋值：{@link ThemePalette} 中预先构建的 Background / Color 直接赋给这些节点，
+         * 悬停 / 按下时换成对应状态的共享背景；节点不带样式类、不参与 CSS 匹配
+         * （菜单栏和弹出菜单仍使用主题样式表）
+         */
+        DIRECT
+    }
+
+    /**
+     * 标题栏拖动和边缘调整大小的实现方式
+     */
+    public enum InteractionMode {
+        /**
+         * Java 实现：按鼠标事件逐像素设置窗口位置和尺寸（所有平台可用）
+         */
+        JAVA,
+        /**
+         * 按下鼠标时发送 WM_NCLBUTTONDOWN + HT* 代码，交给系统的模态移动 / 缩放循环（仅 Windows）
+         */
+        SYSTEM_LOOP,
+        /**
+         * 子类化窗口过程，按区域表回答 WM_NCHITTEST，由系统完成光标、拖动和调整大小（仅 Windows，
+         * 无法安装时退回 SYSTEM_LOOP）
+         */
+        NATIVE_HIT_TEST
+    }
+
     private enum WindowButtonType {
         MINIMIZE,   // 最小化按钮
         MAXIMIZE,   // 最大化/还原按钮
@@ -1,5 +1,6 @@
 package com.bingbaihanji.bfxwt.stage;
 
+import com.bingbaihanji.bfxwt.tools.ImageCache;
 import javafx.scene.Node;
 import javafx.scene.Parent;
 import javafx.scene.SubScene;
@@ -33,7 +34,8 @@ public abstract class DefaultLayout extends AbstractCustomWindow {
      */
     @Override
     protected Image appIcon() {
-        return new Image(getClass().getResourceAsStream("/icons/app.png"));
+        // 共享缓存中的实例，多次调用不重复解码
+        return ImageCache.get(DefaultLayout.class, "/icons/app.png");
     }
 
     /**
@@ -0,0 +1,226 @@
+package com.bingbaihanji.bfxwt.stage;
+
+import javafx.animation.AnimationTimer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * 进程级主题管理：所有自定义窗口共用一个主题，切换时在同一个脉冲中重新设置全部窗口
+ *
+ * <p>
+ * 每个 {@link AbstractCustomWindow} 在 {@code start} 时自动登记（弱引用，窗口被回收后自动移除），
+ * 之后打开的窗口直接使用当前主题。{@link #setTheme} 只记录目标主题，由下一个脉冲统一应用：
+ * 主题样式表和调色板只编译一次、所有窗口共享，然后依次替换各窗口的样式表并同步完成 CSS 处理和布局，
+ * 所有窗口在同一帧中完成切换；同一帧内的多次切换请求合并为一次。
+ * 窗口的主题切换按钮也通过本类切换，作用于所有窗口。
+ * </p>
+ *
+ * <p><b>使用示例：</b></p>
+ * <pre>{@code
+ * ThemeManager.setTheme(WindowTheme.light());   // 下一帧所有窗口切换为亮色
+ * ThemeManager.toggle();                        // 暗色 <-> 亮色
+ *
+ * System.out.println(ThemeManager.stats());     // 窗口数与切换耗时
+ * }</pre>
+ *
+ * @author bingbaihanji
+ * @date 2026-01-24
+ * @implNote {@link AbstractCustomWindow#setTheme} 仍只作用于单个窗口，不改变本类的当前主题；
+ * 所有方法都应在 JavaFX Application Thread 上调用。
+ */
+public final class ThemeManager {
+
+    private static final Map<AbstractCustomWindow, Boolean> WINDOWS = new WeakHashMap<>();
+    private static final AnimationTimer PULSE = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            flush();
+        }
+    };
+
+    private static WindowTheme theme;
+    private static WindowTheme pendingTheme;
+    // 尚未应用的主题是否由主题切换按钮触发
+    private static boolean pendingToggle;
+    private static long requestedAt;
+    private static boolean running;
+
+    // 统计
+    private static long switchCount;
+    private static long coalescedCount;
+    private static int lastWindowCount;
+    private static long lastApplyNanos;
+    private static long lastLatencyNanos;
+    private static long maxLatencyNanos;
+    private static long totalLatencyNanos;
+
+    private ThemeManager() {
+    }
+
+    /**
+     * 当前主题；尚未通过本类设置过主题时返回 null（窗口使用各自的 {@code getTheme()}）
+     */
+    public static WindowTheme getTheme() {
+        return pendingTheme != null ? pendingTheme : theme;
+    }
+
+    /**
+     * 切换所有窗口的主题（下一个脉冲中应用）
+     */
+    public static void setTheme(WindowTheme newTheme) {
+        if (newTheme == null) {
+            throw new IllegalArgumentException("主题不能为 null");
+        }
+        if (pendingTheme != null) {
+            coalescedCount++;
+        } else {
+            requestedAt = System.nanoTime();
+        }
+        pendingTheme = newTheme;
+        pendingToggle = false;
+        if (!running) {
+            running = true;
+            PULSE.start();
+        }
+    }
+
+    /**
+     * 在暗色主题和亮色主题之间切换所有窗口
+     *
+     * @param current 当前主题尚未设置时作为切换依据
+     */
+    static void toggle(WindowTheme current) {
+        WindowTheme base = getTheme() != null ? getTheme() : current;
+        setTheme(base.isDark() ? WindowTheme.light() : WindowTheme.dark());
+        pendingToggle = true;
+    }
+
+    /**
+     * 在暗色主题和亮色主题之间切换所有窗口（尚未设置主题时从暗色切换为亮色）
+     */
+    public static void toggle() {
+        toggle(WindowTheme.dark());
+    }
+
+    /**
+     * 立即应用尚未应用的主题（不等待下一个脉冲）
+     */
+    public static void flush() {
+        stopPulse();
+        WindowTheme target = pendingTheme;
+        if (target == null) {
+            return;
+        }
+        boolean toggle = pendingToggle;
+        pendingTheme = null;
+        theme = target;
+
+        long start = System.nanoTime();
+        // 样式表和调色板只编译一次，所有窗口共享同一个实例
+        ThemeStylesheet.of(target);
+        ThemePalette.of(target);
+        List<AbstractCustomWindow> windows = new ArrayList<>(WINDOWS.keySet());
+        for (AbstractCustomWindow window : windows) {
+            window.applyManagedTheme(target, toggle);
+        }
+        long end = System.nanoTime();
+
+        switchCount++;
+        lastWindowCount = windows.size();
+        lastApplyNanos = end - start;
+        lastLatencyNanos = end - requestedAt;
+        maxLatencyNanos = Math.max(maxLatencyNanos, lastLatencyNanos);
+        totalLatencyNanos += lastLatencyNanos;
+    }
+
+    /**
+     * 是否有尚未应用的主题
+     */
+    public static boolean isPending() {
+        return pendingTheme != null;
+    }
+
+    /**
+     * 已登记的窗口数
+     */
+    public static int getWindowCount() {
+        return WINDOWS.size();
+    }
+
+    /**
+     * 统计快照
+     */
+    public static Stats stats() {
+        return new Stats(switchCount, coalescedCount, WINDOWS.size(), lastWindowCount,
+                lastApplyNanos, lastLatencyNanos, maxLatencyNanos, totalLatencyNanos);
+    }
+
+    /**
+     * 清零统计
+     */
+    public static void resetStats() {
+        switchCount = 0;
+        coalescedCount = 0;
+        lastWindowCount = 0;
+        lastApplyNanos = 0;
+        lastLatencyNanos = 0;
+        maxLatencyNanos = 0;
+        totalLatencyNanos = 0;
+    }
+
+    /*
+     * 登记窗口（AbstractCustomWindow.start 中调用）
+     */
+    static void register(AbstractCustomWindow window) {
+        WINDOWS.put(window, Boolean.TRUE);
+    }
+
+    private static void stopPulse() {
+        if (running) {
+            running = false;
+            PULSE.stop();
+        }
+    }
+
+    /**
+     * 主题切换统计
+     *
+     * @param switches          已完成的切换次数
+     * @param coalesced         被同一帧内后续请求合并掉的切换请求数
+     * @param windows           当前登记的窗口数
+     * @param lastWindows       最近一次切换重新设置的窗口数
+     * @param lastApplyNanos    最近一次切换中重新设置全部窗口（含 CSS 处理和布局）的耗时
+     * @param lastLatencyNanos  最近一次切换从请求到全部窗口完成的耗时（含等待脉冲）
+     * @param maxLatencyNanos   单次切换的最大耗时
+     * @param totalLatencyNanos 所有切换的总耗时
+     */
+    public record Stats(long switches, long coalesced, int windows, int lastWindows,
+                        long lastApplyNanos, long lastLatencyNanos, long maxLatencyNanos,
+                        long totalLatencyNanos) {
+
+        /**
+         * 平均每次切换耗时（毫秒）
+         */
+        public double averageLatencyMillis() {
+            return switches == 0 ? 0 : totalLatencyNanos / 1e6 / switches;
+        }
+
+        /**
+         * 最近一次切换中平均每个窗口的重新设置耗时（微秒）
+         */
+        public double lastMicrosPerWindow() {
+            return lastWindows == 0 ? 0 : lastApplyNanos / 1000.0 / lastWindows;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("ThemeManager[%d 次切换, 合并 %d, %d 个窗口, 最近 %d 个窗口 %.2f ms（每窗口 %.1f µs）,"
+                            + " 总延迟 %.2f ms, 平均 %.2f ms, 最大 %.2f ms]",
+                    switches, coalesced, windows, lastWindows, lastApplyNanos / 1e6, lastMicrosPerWindow(),
+                    lastLatencyNanos / 1e6, averageLatencyMillis(), maxLatencyNanos / 1e6);
+        }
+    }
+}
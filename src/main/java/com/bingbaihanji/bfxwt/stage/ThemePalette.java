@@ -0,0 +1,100 @@
+package com.bingbaihanji.bfxwt.stage;
+
+import javafx.geometry.Insets;
+import javafx.scene.layout.Background;
+import javafx.scene.layout.BackgroundFill;
+import javafx.scene.layout.Border;
+import javafx.scene.layout.CornerRadii;
+import javafx.scene.paint.Color;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 主题的类型化表示：颜色只解析一次，背景 / 边框对象预先构建
+ *
+ * <p>
+ * {@link WindowTheme} 以 CSS 字符串保存颜色，每次交给 CSS 引擎都要重新解析。
+ * 本类把主题中的颜色解析为 {@link Color}，并预先构建标题栏、窗口、按钮各状态的 {@link Background}，
+ * 供 {@link AbstractCustomWindow.ChromeStyling#DIRECT} 模式直接赋给节点，完全绕过 CSS。
+ * 同一个主题只构建一次，所有窗口共享同一组实例（{@link Background}、{@link Border}、{@link Color} 都是不可变的）。
+ * </p>
+ *
+ * @param windowBg             窗口主体背景色
+ * @param titleBarBg           标题栏背景色
+ * @param titleText            标题文字颜色
+ * @param buttonHover          窗口按钮悬停背景色
+ * @param buttonPressed        窗口按钮按下背景色
+ * @param closeHover           关闭按钮悬停背景色
+ * @param closePressed         关闭按钮按下背景色
+ * @param windowBackground     窗口主体背景
+ * @param titleBarBackground   标题栏背景
+ * @param buttonBackground     窗口按钮默认背景（透明）
+ * @param buttonHoverBackground   窗口按钮悬停背景
+ * @param buttonPressedBackground 窗口按钮按下背景
+ * @param closeHoverBackground    关闭按钮悬停背景
+ * @param closePressedBackground  关闭按钮按下背景
+ * @param chromeBorder         标题栏与窗口按钮的边框（无边框）
+ * @author bingbaihanji
+ * @date 2026-01-24
+ */
+public record ThemePalette(Color windowBg, Color titleBarBg, Color titleText,
+                           Color buttonHover, Color buttonPressed, Color closeHover, Color closePressed,
+                           Background windowBackground, Background titleBarBackground,
+                           Background buttonBackground, Background buttonHoverBackground,
+                           Background buttonPressedBackground, Background closeHoverBackground,
+                           Background closePressedBackground, Border chromeBorder) {
+
+    // 从按钮样式字符串中取出背景色
+    private static final Pattern BACKGROUND_COLOR = Pattern.compile("-fx-background-color\\s*:\\s*([^;]+);?");
+
+    private static final Map<WindowTheme, ThemePalette> PALETTES = new ConcurrentHashMap<>();
+
+    /**
+     * 主题对应的调色板（首次调用时解析，之后返回同一实例）
+     *
+     * @throws IllegalArgumentException 主题中的颜色无法解析
+     */
+    public static ThemePalette of(WindowTheme theme) {
+        return PALETTES.computeIfAbsent(theme, ThemePalette::parse);
+    }
+
+    /**
+     * 按状态选择窗口按钮背景（不分配对象）
+     */
+    public Background buttonBackground(boolean close, boolean hover, boolean pressed) {
+        if (pressed) {
+            return close ? closePressedBackground : buttonPressedBackground;
+        }
+        if (hover) {
+            return close ? closeHoverBackground : buttonHoverBackground;
+        }
+        return buttonBackground;
+    }
+
+    private static ThemePalette parse(WindowTheme theme) {
+        Color windowBg = Color.web(theme.windowBgColor());
+        Color titleBarBg = Color.web(theme.titleBarBgColor());
+        Color titleText = Color.web(theme.titleTextColor());
+        Color button = backgroundOf(theme.btnStyleTransparent());
+        Color buttonHover = backgroundOf(theme.btnStyleHover());
+        Color buttonPressed = backgroundOf(theme.btnStylePressed());
+        Color closeHover = backgroundOf(theme.closeBtnStyleHover());
+        Color closePressed = backgroundOf(theme.closeBtnStylePressed());
+        return new ThemePalette(windowBg, titleBarBg, titleText, buttonHover, buttonPressed, closeHover, closePressed,
+                fill(windowBg), fill(titleBarBg), fill(button), fill(buttonHover), fill(buttonPressed),
+                fill(closeHover), fill(closePressed), Border.EMPTY);
+    }
+
+    private static Color backgroundOf(String style) {
+        Matcher matcher = BACKGROUND_COLOR.matcher(style);
+        return matcher.find() ? Color.web(matcher.group(1).trim()) : Color.TRANSPARENT;
+    }
+
+    private static Background fill(Color color) {
+        return color.getOpacity() == 0 ? Background.EMPTY
+                : new Background(new BackgroundFill(color, CornerRadii.EMPTY, Insets.EMPTY));
+    }
+}
@@ -0,0 +1,141 @@
+package com.bingbaihanji.bfxwt.stage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 主题样式表：把 {@link WindowTheme} 编译为一张样式表，按主题缓存
+ *
+ * <p>
+ * 窗口外观全部由样式类和伪类描述：场景根节点（{@code .root}）定义查找颜色
+ * （{@code -bfxwt-title-text} 等），窗口根节点、标题栏、标题文字、菜单栏、窗口按钮各自带一个样式类，
+ * 按钮的悬停 / 按下由 {@code :hover} / {@code :pressed} 伪类完成，鼠标进出不执行任何 Java 代码。
+ * 切换主题只需把场景中的一张样式表替换为另一张，不再逐个节点改写内联样式。
+ * </p>
+ *
+ * <p>
+ * 同一个主题（{@link WindowTheme} 是 record，按字段比较）只编译一次，
+ * 返回的 data URI 在进程内复用，JavaFX 也只解析一次。
+ * </p>
+ *
+ * @author bingbaihanji
+ * @date 2026-01-24
+ * @implNote 弹出菜单位于独立的弹出窗口中，不在窗口根节点之下，查找颜色无法继承，
+ * 菜单规则因此直接写入颜色值。
+ */
+public final class ThemeStylesheet {
+
+    /**
+     * 窗口根节点样式类（窗口背景）
+     */
+    public static final String WINDOW = "bfxwt-window";
+    /**
+     * 标题栏样式类
+     */
+    public static final String TITLE_BAR = "bfxwt-title-bar";
+    /**
+     * 标题文字样式类
+     */
+    public static final String TITLE_LABEL = "bfxwt-title-label";
+    /**
+     * 标题栏菜单栏样式类
+     */
+    public static final String MENU_BAR = "bfxwt-menu-bar";
+    /**
+     * 窗口控制按钮样式类
+     */
+    public static final String WINDOW_BUTTON = "bfxwt-window-button";
+    /**
+     * 关闭按钮附加样式类（悬停 / 按下为红色）
+     */
+    public static final String CLOSE_BUTTON = "bfxwt-close-button";
+
+    private static final Map<WindowTheme, String> STYLESHEETS = new ConcurrentHashMap<>();
+    private static final LongAdder COMPILES = new LongAdder();
+    private static final LongAdder LOOKUPS = new LongAdder();
+
+    private ThemeStylesheet() {
+    }
+
+    /**
+     * 主题对应的样式表 URI（首次调用时编译）
+     */
+    public static String of(WindowTheme theme) {
+        LOOKUPS.increment();
+        return STYLESHEETS.computeIfAbsent(theme, ThemeStylesheet::compile);
+    }
+
+    /**
+     * 主题编译次数（每个不同的主题一次）
+     */
+    public static long getCompileCount() {
+        return COMPILES.sum();
+    }
+
+    /**
+     * 样式表查询次数
+     */
+    public static long getLookupCount() {
+        return LOOKUPS.sum();
+    }
+
+    /**
+     * 生成主题的样式表文本
+     */
+    public static String css(WindowTheme theme) {
+        return """
+                .root {
+                    -bfxwt-window-bg: %3$s;
+                    -bfxwt-title-bar-bg: %4$s;
+                    -bfxwt-title-text: %5$s;
+                }
+                .%1$s {
+                    -fx-background-color: -bfxwt-window-bg;
+                }
+                .%2$s {
+                    -fx-background-color: -bfxwt-title-bar-bg;
+                    -fx-alignment: center-left;
+                    -fx-padding: 0 6;
+                }
+                .%6$s {
+                    -fx-text-fill: -bfxwt-title-text;
+                    -fx-padding: 0 8;
+                }
+                .%7$s {
+                    -fx-background-color: transparent;
+                    -fx-text-fill: -bfxwt-title-text;
+                    -fx-text-base-color: -bfxwt-title-text;
+                }
+                .%7$s .menu-button {
+                    -fx-text-base-color: -bfxwt-title-text;
+                }
+                .%7$s .menu-button > .label {
+                    -fx-text-fill: -bfxwt-title-text;
+                }
+                .%8$s {
+                %10$s}
+                .%8$s:hover {
+                %11$s}
+                .%8$s:pressed {
+                %12$s}
+                .%8$s.%9$s:hover {
+                %13$s}
+                .%8$s.%9$s:pressed {
+                %14$s}
+                """.formatted(WINDOW, TITLE_BAR,
+                theme.windowBgColor(), theme.titleBarBgColor(), theme.titleTextColor(),
+                TITLE_LABEL, MENU_BAR, WINDOW_BUTTON, CLOSE_BUTTON,
+                theme.btnStyleTransparent(), theme.btnStyleHover(), theme.btnStylePressed(),
+                theme.closeBtnStyleHover(), theme.closeBtnStylePressed())
+                + theme.generateMenuCSS();
+    }
+
+    private static String compile(WindowTheme theme) {
+        COMPILES.increment();
+        return "data:text/css;base64,"
+                + Base64.getEncoder().encodeToString(css(theme).getBytes(StandardCharsets.UTF_8));
+    }
+}
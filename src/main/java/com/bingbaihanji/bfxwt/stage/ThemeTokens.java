@@ -0,0 +1,271 @@
+package com.bingbaihanji.bfxwt.stage;
+
+import javafx.scene.paint.Color;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 主题令牌：由少量基础颜色推导出完整的 {@link WindowTheme}
+ *
+ * <p>
+ * 只需给出窗口背景色，标题栏、文字、按钮悬停 / 按下、菜单各状态的颜色都按亮度和对比度计算：
+ * 背景与白色的对比度高于与黑色的对比度时为暗色主题，标题栏在背景上提亮（暗色）或压暗（亮色），
+ * 未指定的文字颜色由背景向白色 / 黑色混合，并保证与标题栏的对比度不低于 {@value #MIN_TEXT_CONTRAST}。
+ * 推导结果按令牌缓存（record 按字段比较），同一组令牌只推导一次，
+ * 之后的样式表（{@link ThemeStylesheet}）和调色板（{@link ThemePalette}）也各只编译一次。
+ * </p>
+ *
+ * <p>
+ * 主题文件为 properties 格式，颜色写法与 CSS 相同（{@code #rrggbb}、{@code rgba(...)}、颜色名）：
+ * </p>
+ * <pre>{@code
+ * # 必填
+ * background = #1e1f22
+ * # 以下可选，不写时自动推导 / 使用默认值
+ * titleBar   = #2b2d30
+ * foreground = #dfe1e5
+ * accent     = #3574f0
+ * danger     = #c42b1c
+ * }</pre>
+ *
+ * <p><b>使用示例：</b></p>
+ * <pre>{@code
+ * WindowTheme brand = new ThemeTokens(Color.web("#14213d"), null, null, Color.web("#fca311"), null).toTheme();
+ * WindowTheme fromFile = ThemeTokens.load(Path.of("themes/brand.properties")).toTheme();
+ * ThemeManager.setTheme(fromFile);
+ * }</pre>
+ *
+ * @param background 窗口背景色（必填）
+ * @param titleBar   标题栏背景色，为 null 时由背景推导
+ * @param foreground 标题和菜单文字颜色，为 null 时由背景推导
+ * @param accent     强调色（亮色主题的菜单项悬停），为 null 时使用 {@link #DEFAULT_ACCENT}
+ * @param danger     关闭按钮悬停颜色，为 null 时使用 {@link #DEFAULT_DANGER}
+ * @author bingbaihanji
+ * @date 2026-01-24
+ */
+public record ThemeTokens(Color background, Color titleBar, Color foreground, Color accent, Color danger) {
+
+    /**
+     * 默认强调色
+     */
+    public static final Color DEFAULT_ACCENT = Color.web("#0078d4");
+    /**
+     * 默认关闭按钮颜色
+     */
+    public static final Color DEFAULT_DANGER = Color.web("#c42b1c");
+    /**
+     * 推导的文字颜色与标题栏的最低对比度（WCAG AA 正文标准）
+     */
+    public static final double MIN_TEXT_CONTRAST = 4.5;
+
+    private static final Map<ThemeTokens, WindowTheme> THEMES = new ConcurrentHashMap<>();
+    private static final Map<Path, Loaded> FILES = new ConcurrentHashMap<>();
+
+    public ThemeTokens {
+        if (background == null) {
+            throw new IllegalArgumentException("background 不能为 null");
+        }
+        accent = accent != null ? accent : DEFAULT_ACCENT;
+        danger = danger != null ? danger : DEFAULT_DANGER;
+    }
+
+    /**
+     * 只指定背景色的令牌，其余颜色全部推导
+     */
+    public static ThemeTokens of(Color background) {
+        return new ThemeTokens(background, null, null, null, null);
+    }
+
+    /**
+     * 从主题文件读取令牌（文件内容未变化时返回上次读取的结果）
+     *
+     * <p>
+     * 按内容摘要而不是修改时间 / 大小判断文件是否变化：修改时间精度较粗（部分文件系统为 1~2 秒），
+     * 同一时间粒度内保存的等长修改（例如只改了一位颜色值）按修改时间和大小无法区分。
+     * 内容未变化时跳过解析。
+     * </p>
+     *
+     * @throws UncheckedIOException     文件无法读取
+     * @throws IllegalArgumentException 缺少 background 或颜色无法解析
+     */
+    public static ThemeTokens load(Path file) {
+        Path key = file.toAbsolutePath().normalize();
+        try {
+            byte[] content = Files.readAllBytes(key);
+            byte[] digest = digest(content);
+            Loaded loaded = FILES.get(key);
+            if (loaded != null && MessageDigest.isEqual(loaded.digest(), digest)) {
+                return loaded.tokens();
+            }
+            Properties properties = new Properties();
+            properties.load(new StringReader(new String(content, StandardCharsets.UTF_8)));
+            ThemeTokens tokens = parse(properties, key);
+            FILES.put(key, new Loaded(digest, tokens));
+            return tokens;
+        } catch (IOException e) {
+            throw new UncheckedIOException("无法读取主题文件: " + key, e);
+        }
+    }
+
+    /**
+     * 从 properties 解析令牌
+     *
+     * @throws IllegalArgumentException 缺少 background 或颜色无法解析
+     */
+    public static ThemeTokens parse(Properties properties) {
+        return parse(properties, null);
+    }
+
+    /**
+     * 推导出的完整主题（同一组令牌返回同一实例）
+     */
+    public WindowTheme toTheme() {
+        return THEMES.computeIfAbsent(this, ThemeTokens::derive);
+    }
+
+    /**
+     * 颜色的相对亮度（WCAG 2.x，0~1）
+     */
+    public static double luminance(Color color) {
+        return 0.2126 * linear(color.getRed()) + 0.7152 * linear(color.getGreen()) + 0.0722 * linear(color.getBlue());
+    }
+
+    /**
+     * 两个颜色的对比度（WCAG 2.x，1~21）
+     */
+    public static double contrast(Color a, Color b) {
+        double la = luminance(a);
+        double lb = luminance(b);
+        return (Math.max(la, lb) + 0.05) / (Math.min(la, lb) + 0.05);
+    }
+
+    /**
+     * 颜色是否为暗色（与白色的对比度高于与黑色的对比度）
+     */
+    public static boolean isDark(Color color) {
+        return contrast(color, Color.WHITE) > contrast(color, Color.BLACK);
+    }
+
+    private static WindowTheme derive(ThemeTokens tokens) {
+        Color background = tokens.background();
+        boolean dark = isDark(background);
+        Color extreme = dark ? Color.WHITE : Color.BLACK;
+
+        Color titleBar = tokens.titleBar() != null ? tokens.titleBar()
+                : dark ? mix(background, Color.WHITE, 0.07) : mix(background, Color.BLACK, 0.06);
+        // 文字按标题栏选择靠近白色还是黑色：中灰背景时两者都接近阈值，只有对比度更高的一侧能达到要求
+        Color textExtreme = isDark(titleBar) ? Color.WHITE : Color.BLACK;
+        Color text = tokens.foreground() != null ? tokens.foreground()
+                : readable(mix(background, textExtreme, dark ? 0.70 : 0.80), titleBar, textExtreme);
+
+        // 菜单：暗色主题沿用标题栏颜色，亮色主题沿用窗口背景；悬停项在菜单背景上提亮或混入强调色
+        Color menuBg = dark ? titleBar : background;
+        Color menuHoverBg = dark ? mix(menuBg, Color.WHITE, 0.10) : mix(menuBg, tokens.accent(), 0.10);
+        Color menuHoverText = contrast(menuHoverBg, Color.WHITE) > contrast(menuHoverBg, Color.BLACK)
+                ? Color.WHITE : Color.BLACK;
+
+        return new WindowTheme(
+                css(titleBar),
+                css(background),
+                css(text),
+                WindowTheme.createButtonStyle("transparent"),
+                // 按钮悬停 / 按下：在标题栏上叠加半透明的白色（暗色）或黑色（亮色）
+                WindowTheme.createButtonStyle(css(overlay(extreme, dark ? 0.10 : 0.06))),
+                WindowTheme.createButtonStyle(css(overlay(extreme, dark ? 0.18 : 0.12))),
+                WindowTheme.createButtonStyle(css(tokens.danger())),
+                WindowTheme.createButtonStyle(css(mix(tokens.danger(), Color.BLACK, 0.14))),
+                css(menuBg),
+                css(text),
+                css(menuHoverBg),
+                css(menuHoverText));
+    }
+
+    private static ThemeTokens parse(Properties properties, Path source) {
+        Color background = color(properties, "background", source);
+        if (background == null) {
+            throw new IllegalArgumentException("主题缺少 background" + (source != null ? ": " + source : ""));
+        }
+        return new ThemeTokens(background,
+                color(properties, "titleBar", source),
+                color(properties, "foreground", source),
+                color(properties, "accent", source),
+                color(properties, "danger", source));
+    }
+
+    private static Color color(Properties properties, String name, Path source) {
+        String value = properties.getProperty(name);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Color.web(value.trim());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("无法解析主题颜色 " + name + " = " + value
+                    + (source != null ? " (" + source + ")" : ""), e);
+        }
+    }
+
+    /*
+     * 文字颜色与背景对比度不足时逐步向白色 / 黑色靠近
+     * （按输出到 CSS 时的 8 位颜色计算，避免取整后低于阈值）
+     */
+    private static Color readable(Color text, Color background, Color extreme) {
+        Color target = Color.web(css(background));
+        Color result = Color.web(css(text));
+        for (int i = 0; i < 10 && contrast(result, target) < MIN_TEXT_CONTRAST; i++) {
+            result = Color.web(css(mix(result, extreme, 0.25)));
+        }
+        return contrast(result, target) < MIN_TEXT_CONTRAST ? extreme : result;
+    }
+
+    private static byte[] digest(byte[] content) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(content);
+        } catch (NoSuchAlgorithmException e) {
+            // 每个 Java 平台都必须提供 SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Color mix(Color from, Color to, double amount) {
+        return from.interpolate(to, amount);
+    }
+
+    private static Color overlay(Color color, double opacity) {
+        return new Color(color.getRed(), color.getGreen(), color.getBlue(), opacity);
+    }
+
+    private static double linear(double channel) {
+        return channel <= 0.03928 ? channel / 12.92 : Math.pow((channel + 0.055) / 1.055, 2.4);
+    }
+
+    /*
+     * CSS 颜色写法：不透明为 #rrggbb，半透明为 rgba(r,g,b,a)
+     */
+    static String css(Color color) {
+        int r = (int) Math.round(color.getRed() * 255);
+        int g = (int) Math.round(color.getGreen() * 255);
+        int b = (int) Math.round(color.getBlue() * 255);
+        if (color.getOpacity() >= 1.0) {
+            return String.format(Locale.ROOT, "#%02x%02x%02x", r, g, b);
+        }
+        return String.format(Locale.ROOT, "rgba(%d,%d,%d,%.2f)", r, g, b, color.getOpacity());
+    }
+
+    /*
+     * 已读取的主题文件（按内容的 SHA-256 摘要判断是否需要重新解析）
+     */
+    private record Loaded(byte[] digest, ThemeTokens tokens) {
+    }
+}
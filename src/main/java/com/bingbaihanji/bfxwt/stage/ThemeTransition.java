@@ -0,0 +1,226 @@
+package com.bingbaihanji.bfxwt.stage;
+
+import com.bingbaihanji.bfxwt.jfr.ThemeTransitionEvent;
+import javafx.animation.AnimationTimer;
+import javafx.animation.FadeTransition;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.WritableImage;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.transform.Transform;
+import javafx.stage.Window;
+import javafx.util.Duration;
+
+/**
+ * 主题切换的淡出过渡
+ *
+ * <p>
+ * 切换前把窗口的旧外观渲染为一张图片（按输出缩放取物理像素），放在窗口最上层，
+ * 新主题直接应用在下面，然后只对这张图片的不透明度做动画。
+ * 过渡期间每一帧只改变一个节点的不透明度，不涉及 CSS 处理、布局和样式重写；
+ * 窗口尺寸不变时，下一次过渡复用同一张图片。
+ * </p>
+ *
+ * <p>
+ * 过渡期间记录每帧的间隔，{@link #stats()} 汇总帧数、平均和最大帧间隔，
+ * 每次过渡同时提交一个 {@link ThemeTransitionEvent}。
+ * </p>
+ *
+ * @author bingbaihanji
+ * @date 2026-01-24
+ * @implNote 图片覆盖层不接收鼠标事件；过渡期间窗口内容的变化被旧外观遮住，直到淡出结束。
+ * 所有方法都应在 JavaFX Application Thread 上调用。
+ */
+public final class ThemeTransition {
+
+    private final Pane root;
+    private final ImageView overlay = new ImageView();
+    private final FadeTransition fade = new FadeTransition(Duration.ZERO, overlay);
+    private final AnimationTimer frameTimer;
+
+    // 最近一次快照（窗口尺寸不变时复用）
+    private WritableImage image;
+    private ThemeTransitionEvent event;
+
+    // 当前过渡的帧统计
+    private long lastFrame;
+    private int frames;
+    private long maxFrameNanos;
+    private long frameNanos;
+
+    // 累计统计
+    private long transitionCount;
+    private long interruptedCount;
+    private long reuseCount;
+    private long totalFrames;
+    private long totalFrameNanos;
+    private long worstFrameNanos;
+    private long lastSnapshotNanos;
+
+    ThemeTransition(Pane root) {
+        this.root = root;
+        overlay.setManaged(false);
+        overlay.setMouseTransparent(true);
+        fade.setFromValue(1);
+        fade.setToValue(0);
+        fade.setOnFinished(e -> finish(false));
+        frameTimer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                if (lastFrame != 0) {
+                    long interval = now - lastFrame;
+                    frames++;
+                    frameNanos += interval;
+                    maxFrameNanos = Math.max(maxFrameNanos, interval);
+                }
+                lastFrame = now;
+            }
+        };
+    }
+
+    /**
+     * 带淡出过渡地切换主题
+     *
+     * @param duration 过渡时长，不大于 0 或窗口未显示时直接切换
+     * @param apply    应用新主题
+     */
+    void run(Duration duration, Runnable apply) {
+        Window window = root.getScene() != null ? root.getScene().getWindow() : null;
+        if (duration == null || duration.lessThanOrEqualTo(Duration.ZERO) || window == null || !window.isShowing()
+                || root.getWidth() <= 0 || root.getHeight() <= 0) {
+            if (isRunning()) {
+                fade.stop();
+                finish(true);
+            }
+            apply.run();
+            return;
+        }
+        // 上一次过渡尚未结束时，快照包含半透明的旧覆盖层，画面不会跳变
+        boolean interrupted = isRunning();
+        if (interrupted) {
+            fade.stop();
+        }
+
+        ThemeTransitionEvent next = new ThemeTransitionEvent();
+        next.begin();
+        long start = System.nanoTime();
+        WritableImage snapshot = snapshot(window);
+        lastSnapshotNanos = System.nanoTime() - start;
+        if (interrupted) {
+            finish(true);
+        }
+        next.snapshotNanos = lastSnapshotNanos;
+        next.reused = snapshot == image;
+        if (next.reused) {
+            reuseCount++;
+        }
+        event = next;
+        image = snapshot;
+
+        overlay.setImage(snapshot);
+        overlay.setFitWidth(root.getWidth());
+        overlay.setFitHeight(root.getHeight());
+        overlay.relocate(0, 0);
+        overlay.setOpacity(1);
+        root.getChildren().add(overlay);
+
+        // 新主题应用在覆盖层下面
+        apply.run();
+
+        lastFrame = 0;
+        frames = 0;
+        maxFrameNanos = 0;
+        frameNanos = 0;
+        fade.setDuration(duration);
+        fade.playFromStart();
+        frameTimer.start();
+    }
+
+    /**
+     * 是否正在过渡
+     */
+    public boolean isRunning() {
+        return overlay.getParent() != null;
+    }
+
+    /**
+     * 累计统计快照
+     */
+    public Stats stats() {
+        return new Stats(transitionCount, interruptedCount, reuseCount, totalFrames, totalFrameNanos,
+                worstFrameNanos, lastSnapshotNanos);
+    }
+
+    /*
+     * 按窗口输出缩放渲染旧外观；尺寸相同时渲染到上一次的图片中
+     */
+    private WritableImage snapshot(Window window) {
+        double scaleX = window.getOutputScaleX() > 0 ? window.getOutputScaleX() : 1;
+        double scaleY = window.getOutputScaleY() > 0 ? window.getOutputScaleY() : 1;
+        SnapshotParameters params = new SnapshotParameters();
+        params.setFill(Color.TRANSPARENT);
+        params.setTransform(Transform.scale(scaleX, scaleY));
+        int width = (int) Math.ceil(root.getWidth() * scaleX);
+        int height = (int) Math.ceil(root.getHeight() * scaleY);
+        boolean reusable = image != null && !isRunning()
+                && (int) image.getWidth() == width && (int) image.getHeight() == height;
+        return root.snapshot(params, reusable ? image : null);
+    }
+
+    private void finish(boolean interrupted) {
+        frameTimer.stop();
+        root.getChildren().remove(overlay);
+        overlay.setImage(null);
+
+        transitionCount++;
+        if (interrupted) {
+            interruptedCount++;
+        }
+        totalFrames += frames;
+        totalFrameNanos += frameNanos;
+        worstFrameNanos = Math.max(worstFrameNanos, maxFrameNanos);
+
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.frames = frames;
+                event.maxFrameNanos = maxFrameNanos;
+                event.averageFrameNanos = frames == 0 ? 0 : frameNanos / frames;
+                event.interrupted = interrupted;
+                event.commit();
+            }
+            event = null;
+        }
+    }
+
+    /**
+     * 主题过渡统计
+     *
+     * @param transitions       完成（含被打断）的过渡次数
+     * @param interrupted       被下一次切换打断的次数
+     * @param snapshotReuses    复用上一次快照图片的次数
+     * @param frames            过渡期间的总帧数
+     * @param frameNanos        过渡期间的总帧间隔
+     * @param maxFrameNanos     过渡期间的最大帧间隔
+     * @param lastSnapshotNanos 最近一次快照耗时
+     */
+    public record Stats(long transitions, long interrupted, long snapshotReuses, long frames, long frameNanos,
+                        long maxFrameNanos, long lastSnapshotNanos) {
+
+        /**
+         * 过渡期间的平均帧间隔（毫秒）
+         */
+        public double averageFrameMillis() {
+            return frames == 0 ? 0 : frameNanos / 1e6 / frames;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("ThemeTransition[%d 次过渡, 打断 %d, 复用快照 %d, %d 帧, 平均 %.2f ms, 最大 %.2f ms,"
+                            + " 最近快照 %.2f ms]",
+                    transitions, interrupted, snapshotReuses, frames, averageFrameMillis(),
+                    maxFrameNanos / 1e6, lastSnapshotNanos / 1e6);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.bingbaihanji.bfxwt.stage;
+
+import javafx.application.Platform;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 主题文件热重载：监视主题文件，修改后重新推导主题并应用到所有窗口
+ *
+ * <p>
+ * 在后台守护线程上通过 {@link WatchService} 监视主题文件所在目录，
+ * 文件被修改（编辑器保存时通常产生多个事件，在 {@value #SETTLE_MILLIS} ms 内合并为一次）后
+ * 重新读取令牌（{@link ThemeTokens#load}）并推导主题；推导结果与当前主题相同时（例如只改了注释）不做任何处理，
+ * 否则在 FX 线程上交给 {@link ThemeManager#setTheme}，由其在一个脉冲中应用到所有窗口，
+ * 各窗口中主题未变化的部分不会重新设置。文件内容无效时保留当前主题并记录警告。
+ * </p>
+ *
+ * <p><b>使用示例：</b></p>
+ * <pre>{@code
+ * ThemeWatcher watcher = ThemeWatcher.watch(Path.of("themes/brand.properties"));
+ * // 应用退出时
+ * watcher.close();
+ * }</pre>
+ *
+ * @author bingbaihanji
+ * @date 2026-01-24
+ * @implNote 启动监视时立即应用一次文件中的主题。
+ */
+public final class ThemeWatcher implements AutoCloseable {
+
+    /**
+     * 同一次保存产生的多个文件事件的合并时间（毫秒）
+     */
+    public static final long SETTLE_MILLIS = 100;
+
+    private static final Logger log = LoggerFactory.getLogger(ThemeWatcher.class);
+
+    private final Path file;
+    private final WatchService watchService;
+    private final Consumer<WindowTheme> sink;
+    private final Thread thread;
+
+    private volatile WindowTheme lastTheme;
+
+    // 统计
+    private final AtomicLong reloadCount = new AtomicLong();
+    private final AtomicLong unchangedCount = new AtomicLong();
+    private final AtomicLong errorCount = new AtomicLong();
+
+    private ThemeWatcher(Path file, Consumer<WindowTheme> sink) throws IOException {
+        this.file = file;
+        this.sink = sink;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        Path directory = file.getParent() != null ? file.getParent() : Path.of(".");
+        directory.register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        this.thread = new Thread(this::run, "bfxwt-theme-watch");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * 监视主题文件，修改后通过 {@link ThemeManager} 应用到所有窗口
+     *
+     * @throws UncheckedIOException     无法监视文件所在目录
+     * @throws IllegalArgumentException 文件当前内容无效
+     */
+    public static ThemeWatcher watch(Path file) {
+        return watch(file, theme -> Platform.runLater(() -> ThemeManager.setTheme(theme)));
+    }
+
+    /**
+     * 监视主题文件，修改后把新主题交给指定的接收者（在监视线程上调用）
+     *
+     * @throws UncheckedIOException     无法监视文件所在目录
+     * @throws IllegalArgumentException 文件当前内容无效
+     */
+    public static ThemeWatcher watch(Path file, Consumer<WindowTheme> sink) {
+        Path target = file.toAbsolutePath().normalize();
+        WindowTheme initial = ThemeTokens.load(target).toTheme();
+        ThemeWatcher watcher;
+        try {
+            watcher = new ThemeWatcher(target, sink);
+        } catch (IOException e) {
+            throw new UncheckedIOException("无法监视主题文件: " + target, e);
+        }
+        watcher.lastTheme = initial;
+        sink.accept(initial);
+        watcher.thread.start();
+        return watcher;
+    }
+
+    /**
+     * 监视的主题文件
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * 最近一次应用的主题
+     */
+    public WindowTheme getTheme() {
+        return lastTheme;
+    }
+
+    /**
+     * 重新读取并应用了新主题的次数
+     */
+    public long getReloadCount() {
+        return reloadCount.get();
+    }
+
+    /**
+     * 文件被修改但推导出的主题没有变化的次数
+     */
+    public long getUnchangedCount() {
+        return unchangedCount.get();
+    }
+
+    /**
+     * 文件内容无效或读取失败的次数
+     */
+    public long getErrorCount() {
+        return errorCount.get();
+    }
+
+    /**
+     * 停止监视
+     */
+    @Override
+    public void close() {
+        try {
+            watchService.close();
+        } catch (IOException ignored) {
+            // 关闭失败时监视线程仍会因中断而退出
+        }
+        thread.interrupt();
+    }
+
+    private void run() {
+        Path name = file.getFileName();
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = watchService.take();
+                boolean changed = drain(key, name);
+                // 合并同一次保存产生的后续事件
+                WatchKey next;
+                while ((next = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    changed |= drain(next, name);
+                }
+                if (changed) {
+                    reload();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // 监视已停止
+        }
+    }
+
+    private static boolean drain(WatchKey key, Path name) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (name.equals(event.context())) {
+                changed = true;
+            }
+        }
+        key.reset();
+        return changed;
+    }
+
+    private void reload() {
+        WindowTheme theme;
+        try {
+            theme = ThemeTokens.load(file).toTheme();
+        } catch (RuntimeException e) {
+            errorCount.incrementAndGet();
+            log.warn("主题文件无效，保留当前主题: {}", file, e);
+            return;
+        }
+        if (theme.equals(lastTheme)) {
+            unchangedCount.incrementAndGet();
+            return;
+        }
+        lastTheme = theme;
+        reloadCount.incrementAndGet();
+        sink.accept(theme);
+    }
+}
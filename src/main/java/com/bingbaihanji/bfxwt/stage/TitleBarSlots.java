@@ -0,0 +1,307 @@
+package com.bingbaihanji.bfxwt.stage;
+
+import javafx.beans.value.ChangeListener;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.Region;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * 标题栏组件槽位：左侧（LEADING）、中间（CENTER）、右侧（TRAILING）三个区域，区域内按优先级排序
+ *
+ * <p>
+ * 每个区域用一个按「优先级 + 添加顺序」排序的 {@link TreeSet} 维护组件顺序，
+ * 添加 / 移除时通过相邻组件定位，只在对应 {@link HBox} 中插入或移除这一个节点，不重建整个区域。
+ * 隐藏组件只修改它自身的 visible / managed，标题栏只重新布局一次。
+ * 各区域的最小宽度（显式最小宽度之和 + 间距）随添加、移除、显示 / 隐藏和组件最小宽度变化增量更新，
+ * 不再重新遍历所有组件。
+ * </p>
+ *
+ * <p>
+ * 标题栏的结构为：左侧区域、弹性空白、中间区域、弹性空白、右侧区域；
+ * 优先级数值小的组件在区域内靠左显示，优先级相同时按添加顺序。
+ * </p>
+ *
+ * @author bingbaihanji
+ * @date 2026-01-24
+ * @implNote 所有方法都应在 JavaFX Application Thread 上调用。
+ */
+public final class TitleBarSlots {
+
+    private static final Comparator<Entry> ORDER =
+            Comparator.<Entry>comparingInt(entry -> entry.priority).thenComparingLong(entry -> entry.sequence);
+
+    private final Map<Slot, Area> areas = new EnumMap<>(Slot.class);
+    private final Map<Node, Entry> entries = new HashMap<>();
+    private long sequence;
+
+    TitleBarSlots(HBox bar) {
+        for (Slot slot : Slot.values()) {
+            areas.put(slot, new Area(slot));
+        }
+        Region leadingSpacer = new Region();
+        Region trailingSpacer = new Region();
+        HBox.setHgrow(leadingSpacer, Priority.ALWAYS);
+        HBox.setHgrow(trailingSpacer, Priority.ALWAYS);
+        bar.getChildren().addAll(box(Slot.LEADING), leadingSpacer, box(Slot.CENTER), trailingSpacer,
+                box(Slot.TRAILING));
+    }
+
+    /**
+     * 按优先级添加组件（节点已在标题栏中时先移除）
+     *
+     * @param priority 区域内的排序值，小的靠左
+     */
+    public void add(Slot slot, Node node, int priority) {
+        if (slot == null || node == null) {
+            throw new IllegalArgumentException("slot 和 node 不能为 null");
+        }
+        remove(node);
+        Area area = areas.get(slot);
+        Entry entry = new Entry(node, area, priority, sequence++);
+        area.insert(entry);
+        entries.put(node, entry);
+    }
+
+    /**
+     * 添加到区域最左边
+     */
+    public void addFirst(Slot slot, Node node) {
+        Entry first = areas.get(slot).isEmpty() ? null : areas.get(slot).order.first();
+        add(slot, node, first == null ? 0 : first.priority - 1);
+    }
+
+    /**
+     * 添加到区域最右边
+     */
+    public void addLast(Slot slot, Node node) {
+        Entry last = areas.get(slot).isEmpty() ? null : areas.get(slot).order.last();
+        add(slot, node, last == null ? 0 : last.priority);
+    }
+
+    /**
+     * 移除组件
+     *
+     * @return 组件原本是否在标题栏中
+     */
+    public boolean remove(Node node) {
+        Entry entry = entries.remove(node);
+        if (entry == null) {
+            return false;
+        }
+        entry.area.delete(entry);
+        return true;
+    }
+
+    /**
+     * 显示或隐藏组件（隐藏时不占位置）
+     */
+    public void setVisible(Node node, boolean visible) {
+        Entry entry = entries.get(node);
+        if (entry == null || entry.visible == visible) {
+            return;
+        }
+        entry.area.setVisible(entry, visible);
+    }
+
+    /**
+     * 组件是否在标题栏中
+     */
+    public boolean contains(Node node) {
+        return entries.containsKey(node);
+    }
+
+    /**
+     * 组件所在的区域，不在标题栏中时返回 null
+     */
+    public Slot slotOf(Node node) {
+        Entry entry = entries.get(node);
+        return entry == null ? null : entry.area.slot;
+    }
+
+    /**
+     * 区域中的组件（按显示顺序，包括隐藏的组件）
+     */
+    public List<Node> nodes(Slot slot) {
+        List<Node> nodes = new ArrayList<>(areas.get(slot).order.size());
+        for (Entry entry : areas.get(slot).order) {
+            nodes.add(entry.node);
+        }
+        return nodes;
+    }
+
+    /**
+     * 区域的容器
+     */
+    public HBox box(Slot slot) {
+        return areas.get(slot).box;
+    }
+
+    /**
+     * 区域当前的最小宽度
+     */
+    public double getMinWidth(Slot slot) {
+        return areas.get(slot).box.getMinWidth();
+    }
+
+    /*
+     * 组件对所在区域最小宽度的贡献：Region 取显式最小宽度，其它节点取首选宽度
+     */
+    private static double widthOf(Node node) {
+        if (node instanceof Region region) {
+            return Math.max(0, region.getMinWidth());
+        }
+        return Math.max(0, node.prefWidth(-1));
+    }
+
+    /**
+     * 标题栏区域
+     */
+    public enum Slot {
+        /**
+         * 左侧（应用图标、标题、菜单栏）
+         */
+        LEADING,
+        /**
+         * 中间（两侧弹性空白之间）
+         */
+        CENTER,
+        /**
+         * 右侧（窗口控制按钮）
+         */
+        TRAILING
+    }
+
+    /*
+     * 一个区域：有序组件集合 + 容器 + 最小宽度累计
+     */
+    private static final class Area {
+        private final Slot slot;
+        private final HBox box = new HBox();
+        private final NavigableSet<Entry> order = new TreeSet<>(ORDER);
+        private double widthSum;
+        private int visibleCount;
+
+        Area(Slot slot) {
+            this.slot = slot;
+            box.setAlignment(switch (slot) {
+                case LEADING -> Pos.CENTER_LEFT;
+                case CENTER -> Pos.CENTER;
+                case TRAILING -> Pos.CENTER_RIGHT;
+            });
+            box.spacingProperty().addListener((obs, oldValue, newValue) -> updateMinWidth());
+            // 从 0 开始累计（HBox 默认的 USE_COMPUTED_SIZE 为 -1，空区域的 getMinWidth 会返回 -1）
+            updateMinWidth();
+        }
+
+        boolean isEmpty() {
+            return order.isEmpty();
+        }
+
+        void insert(Entry entry) {
+            order.add(entry);
+            // 插入到下一个组件之前（没有下一个时追加到末尾）
+            Entry next = order.higher(entry);
+            if (next == null) {
+                box.getChildren().add(entry.node);
+            } else {
+                box.getChildren().add(box.getChildren().indexOf(next.node), entry.node);
+            }
+            entry.width = widthOf(entry.node);
+            entry.visible = entry.node.isVisible();
+            entry.originalVisible = entry.visible;
+            entry.originalManaged = entry.node.isManaged();
+            if (entry.node instanceof Region region) {
+                entry.minWidthListener = (obs, oldValue, newValue) -> resize(entry);
+                region.minWidthProperty().addListener(entry.minWidthListener);
+            }
+            if (entry.visible) {
+                widthSum += entry.width;
+                visibleCount++;
+                updateMinWidth();
+            } else {
+                entry.node.setManaged(false);
+            }
+        }
+
+        void delete(Entry entry) {
+            order.remove(entry);
+            box.getChildren().remove(entry.node);
+            if (entry.minWidthListener != null) {
+                ((Region) entry.node).minWidthProperty().removeListener(entry.minWidthListener);
+            }
+            if (entry.visible) {
+                widthSum -= entry.width;
+                visibleCount--;
+                updateMinWidth();
+            }
+            // 还原加入标题栏之前的 visible / managed，而不是一律设为 true
+            entry.node.setVisible(entry.originalVisible);
+            entry.node.setManaged(entry.originalManaged);
+        }
+
+        void setVisible(Entry entry, boolean visible) {
+            entry.visible = visible;
+            entry.node.setVisible(visible);
+            entry.node.setManaged(visible);
+            if (visible) {
+                entry.width = widthOf(entry.node);
+                widthSum += entry.width;
+                visibleCount++;
+            } else {
+                widthSum -= entry.width;
+                visibleCount--;
+            }
+            updateMinWidth();
+        }
+
+        void resize(Entry entry) {
+            double width = widthOf(entry.node);
+            if (entry.visible) {
+                widthSum += width - entry.width;
+                updateMinWidth();
+            }
+            entry.width = width;
+        }
+
+        void updateMinWidth() {
+            double minWidth = Math.max(0, widthSum) + box.getSpacing() * Math.max(0, visibleCount - 1);
+            if (minWidth != box.getMinWidth()) {
+                box.setMinWidth(minWidth);
+            }
+        }
+    }
+
+    /*
+     * 区域中的一个组件
+     */
+    private static final class Entry {
+        private final Node node;
+        private final Area area;
+        private final int priority;
+        private final long sequence;
+        private double width;
+        private boolean visible;
+        // 加入标题栏之前节点自身的 visible / managed，移除时还原
+        private boolean originalVisible;
+        private boolean originalManaged;
+        private ChangeListener<Number> minWidthListener;
+
+        Entry(Node node, Area area, int priority, long sequence) {
+            this.node = node;
+            this.area = area;
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package com.bingbaihanji.bfxwt.stage;
 
+import javafx.scene.paint.Color;
+
 /**
  * 窗口主题配置类
  * 定义窗口标题栏、背景、按钮、菜单等的颜色和样式
+ * 除内置的暗色 / 亮色主题外，可由 {@link ThemeTokens} 从少量基础颜色推导或从主题文件加载
  *
  * @param titleBarBgColor      标题栏背景颜色
  * @param windowBgColor        窗口主体背景颜色
@@ -69,7 +72,7 @@ public record WindowTheme(String titleBarBgColor, String windowBgColor, String t
     /*
      * 创建窗口按钮样式字符串
      */
-    private static String createButtonStyle(String backgroundColor) {
+    static String createButtonStyle(String backgroundColor) {
         return """
                 -fx-background-color: %s;
                 -fx-padding: 0;
@@ -117,10 +120,10 @@ public record WindowTheme(String titleBarBgColor, String windowBgColor, String t
 
     /*
      * 判断当前主题是否为暗色主题
-     * 通过标题栏背景色判断：暗色主题的标题栏背景色为 "#3c3f41"
+     * 通过标题栏背景色的相对亮度判断：与白色的对比度高于与黑色的对比度即为暗色
      */
     public boolean isDark() {
-        return "#3c3f41".equalsIgnoreCase(titleBarBgColor);
+        return ThemeTokens.isDark(Color.web(titleBarBgColor));
     }
 
 }
@@ -0,0 +1,131 @@
+package com.bingbaihanji.bfxwt.tools;
+
+import javafx.scene.Scene;
+
+/**
+ * 统计场景每个脉冲中 CSS 处理占布局阶段的耗时比例
+ *
+ * <p>
+ * JavaFX 在每个脉冲中依次执行 CSS 处理和布局，二者之间没有回调。
+ * 本类在布局前的回调中主动对根节点执行 {@code applyCss()} 并计时，
+ * 场景自身的 CSS 处理随后发现没有脏节点而立即返回；
+ * 从该回调到布局后回调的时间即为「CSS + 布局」，其中 CSS 部分单独计入。
+ * 打开多个窗口时为每个场景安装一个监视器，对比不同窗口外观方式（样式表 / 直接赋值）下的 CSS 占比。
+ * </p>
+ *
+ * <p><b>使用示例：</b></p>
+ * <pre>{@code
+ * CssPassMonitor monitor = CssPassMonitor.install(scene);
+ * // 操作一段时间后
+ * System.out.println(monitor.stats());
+ * monitor.uninstall();
+ * }</pre>
+ *
+ * @author bingbaihanji
+ * @date 2026-01-24
+ * @implNote 只统计布局脉冲（场景有变化时才会发生），不包括渲染和同步到渲染线程的时间；
+ * 所有方法都应在 JavaFX Application Thread 上调用。
+ */
+public final class CssPassMonitor {
+
+    private final Scene scene;
+    private final Runnable preLayout = this::beforeLayout;
+    private final Runnable postLayout = this::afterLayout;
+
+    private long pulseStart;
+    private long pulses;
+    private long cssNanos;
+    private long totalNanos;
+    private long maxCssNanos;
+
+    private CssPassMonitor(Scene scene) {
+        this.scene = scene;
+    }
+
+    /**
+     * 为场景安装监视器
+     */
+    public static CssPassMonitor install(Scene scene) {
+        if (scene == null) {
+            throw new IllegalArgumentException("scene 不能为 null");
+        }
+        CssPassMonitor monitor = new CssPassMonitor(scene);
+        scene.addPreLayoutPulseListener(monitor.preLayout);
+        scene.addPostLayoutPulseListener(monitor.postLayout);
+        return monitor;
+    }
+
+    /**
+     * 卸载监视器（统计保留）
+     */
+    public void uninstall() {
+        scene.removePreLayoutPulseListener(preLayout);
+        scene.removePostLayoutPulseListener(postLayout);
+    }
+
+    /**
+     * 统计快照
+     */
+    public Stats stats() {
+        return new Stats(pulses, cssNanos, totalNanos, maxCssNanos);
+    }
+
+    /**
+     * 清零统计
+     */
+    public void reset() {
+        pulses = 0;
+        cssNanos = 0;
+        totalNanos = 0;
+        maxCssNanos = 0;
+    }
+
+    private void beforeLayout() {
+        pulseStart = System.nanoTime();
+        if (scene.getRoot() != null) {
+            scene.getRoot().applyCss();
+        }
+        long css = System.nanoTime() - pulseStart;
+        cssNanos += css;
+        maxCssNanos = Math.max(maxCssNanos, css);
+    }
+
+    private void afterLayout() {
+        if (pulseStart != 0) {
+            totalNanos += System.nanoTime() - pulseStart;
+            pulseStart = 0;
+            pulses++;
+        }
+    }
+
+    /**
+     * CSS 处理统计
+     *
+     * @param pulses      统计的布局脉冲数
+     * @param cssNanos    CSS 处理总耗时
+     * @param totalNanos  CSS 处理 + 布局总耗时
+     * @param maxCssNanos 单个脉冲中 CSS 处理的最大耗时
+     */
+    public record Stats(long pulses, long cssNanos, long totalNanos, long maxCssNanos) {
+
+        /**
+         * CSS 处理占「CSS + 布局」的比例（0~1）
+         */
+        public double cssShare() {
+            return totalNanos == 0 ? 0 : (double) cssNanos / totalNanos;
+        }
+
+        /**
+         * 每个脉冲的平均 CSS 处理耗时（微秒）
+         */
+        public double averageCssMicros() {
+            return pulses == 0 ? 0 : cssNanos / 1000.0 / pulses;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("CssPass[%d 个脉冲, CSS 平均 %.1f µs, 最大 %.1f µs, 占 %.1f%%]",
+                    pulses, averageCssMicros(), maxCssNanos / 1000.0, cssShare() * 100);
+        }
+    }
+}
@@ -1,21 +1,28 @@
 package com.bingbaihanji.bfxwt.tools;
 
 
+import com.bingbaihanji.bfxwt.backend.NativeWindowBackend;
+import com.bingbaihanji.bfxwt.backend.NativeWindowBackends;
 import com.sun.jna.Library;
 import com.sun.jna.Native;
+import com.sun.jna.NativeLibrary;
 import com.sun.jna.Pointer;
-import com.sun.jna.platform.win32.BaseTSD;
 import com.sun.jna.platform.win32.Kernel32;
 import com.sun.jna.platform.win32.User32;
 import com.sun.jna.platform.win32.WinDef;
 import com.sun.jna.ptr.IntByReference;
+import com.sun.jna.win32.W32APIFunctionMapper;
 import com.sun.jna.win32.W32APIOptions;
 import javafx.scene.Node;
 import javafx.stage.Stage;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * JavaFX 原生窗口工具类
@@ -36,7 +43,8 @@ public class FXNativeWindowsTools {
      * --add-exports javafx.graphics/com.sun.glass.ui=com.bingbaihanji
      *
      * 推荐使用下面的新方法替代（无需 JVM 参数）：
-     * - getHWndByEnumeration() - 推荐
+     * - getHWnd(Stage stage) - 推荐，按 Stage 缓存句柄（见 FXWindowHandleRegistry）
+     * - getHWndByEnumeration()
      * - getHWndByTitle(Stage stage)
      * - getAllHWndByEnumeration()
      */
@@ -94,39 +102,49 @@ public class FXNativeWindowsTools {
 //    }
 
 
-    // 通过反射获取javafx窗口句柄
+    // 通过反射获取javafx窗口句柄（MethodHandle 只解析一次，见 GlassWindowHandles）
     public static WinDef.HWND getHWndOfReflection() {
+        if (!GlassWindowHandles.AVAILABLE) {
+            return null;
+        }
         try {
-            // 使用反射访问 com.sun.glass.ui.Window 类
-            Class<?> windowClass = Class.forName("com.sun.glass.ui.Window");
-
             // 调用静态方法 getWindows() 获取所有窗口列表
-            Method getWindowsMethod = windowClass.getMethod("getWindows");
-            getWindowsMethod.setAccessible(true);
-
             @SuppressWarnings("unchecked")
-            List<Object> windows = (List<Object>) getWindowsMethod.invoke(null);
-
-            // 获取 getNativeWindow() 方法
-            Method getNativeWindowMethod = windowClass.getMethod("getNativeWindow");
-            getNativeWindowMethod.setAccessible(true);
+            List<Object> windows = (List<Object>) GlassWindowHandles.GET_WINDOWS.invokeExact();
 
             // 遍历窗口列表，找到第一个有效的原生窗口句柄
             for (Object window : windows) {
-                Long nativeHandle = (Long) getNativeWindowMethod.invoke(window);
-                if (nativeHandle != null && nativeHandle != 0) {
+                long nativeHandle = (long) GlassWindowHandles.GET_NATIVE_WINDOW.invokeExact(window);
+                if (nativeHandle != 0) {
                     return new WinDef.HWND(new Pointer(nativeHandle));
                 }
             }
 
             return null;
-        } catch (Exception e) {
+        } catch (Throwable e) {
             e.printStackTrace();
             return null;
         }
     }
 
 
+    /**
+     * 获取指定 Stage 的原生窗口句柄（推荐，带缓存）
+     *
+     * <p>
+     * 委托给 {@link FXWindowHandleRegistry}：首次查找后按 Stage 缓存，
+     * 之后的调用为 O(1)；Stage 隐藏或关闭时缓存自动失效。
+     * </p>
+     *
+     * @param stage JavaFX Stage（必须已显示）
+     * @return 窗口句柄，未找到返回 null
+     * @see FXWindowHandleRegistry
+     */
+    public static WinDef.HWND getHWnd(Stage stage) {
+        return FXWindowHandleRegistry.get(stage);
+    }
+
+
     /**
      * 通过窗口标题查找 JavaFX 窗口句柄（不需要 JVM 参数）
      *
@@ -173,7 +191,7 @@ public class FXNativeWindowsTools {
         if (windowTitle == null || windowTitle.isEmpty()) {
             return null;
         }
-        return User32.INSTANCE.FindWindow(null, windowTitle);
+        return hwndOf(NativeWindowBackends.get().findWindow(null, windowTitle));
     }
 
 
@@ -250,34 +268,26 @@ public class FXNativeWindowsTools {
      * </ul>
      */
     public static WinDef.HWND getHWndByEnumeration() {
+        NativeWindowBackend backend = NativeWindowBackends.get();
         // 获取当前进程 ID
-        int currentPid = Kernel32Api.INSTANCE.GetCurrentProcessId();
+        int currentPid = backend.getCurrentProcessId();
         // 存储找到的窗口句柄
-        List<WinDef.HWND> result = new ArrayList<>();
+        long[] result = {0};
 
         // 枚举所有窗口
-        User32.INSTANCE.EnumWindows((hWnd, lParam) -> {
-            // 获取窗口所属的进程 ID
-            IntByReference windowPid = new IntByReference();
-            User32.INSTANCE.GetWindowThreadProcessId(hWnd, windowPid);
-
+        backend.enumWindows(hWnd -> {
             // 检查是否属于当前进程
-            if (windowPid.getValue() == currentPid) {
-                // 获取窗口类名
-                char[] className = new char[256];
-                User32.INSTANCE.GetClassName(hWnd, className, className.length);
-                String classNameStr = new String(className).trim();
-
+            if (backend.getWindowProcessId(hWnd) == currentPid) {
                 // JavaFX 窗口的类名通常是 "GlassWndClass-GlassWindowClass-*"
-                if (classNameStr.startsWith("GlassWndClass")) {
-                    result.add(hWnd);
+                if (backend.getClassName(hWnd).startsWith("GlassWndClass")) {
+                    result[0] = hWnd;
                     return false; // 停止枚举，找到第一个就返回
                 }
             }
             return true; // 继续枚举
-        }, null);
+        });
 
-        return result.isEmpty() ? null : result.get(0);
+        return hwndOf(result[0]);
     }
 
 
@@ -292,24 +302,17 @@ public class FXNativeWindowsTools {
      * @return JavaFX 窗口句柄列表，如果没有找到则返回空列表
      */
     public static List<WinDef.HWND> getAllHWndByEnumeration() {
-        int currentPid = Kernel32Api.INSTANCE.GetCurrentProcessId();
+        NativeWindowBackend backend = NativeWindowBackends.get();
+        int currentPid = backend.getCurrentProcessId();
         List<WinDef.HWND> result = new ArrayList<>();
 
-        User32.INSTANCE.EnumWindows((hWnd, lParam) -> {
-            IntByReference windowPid = new IntByReference();
-            User32.INSTANCE.GetWindowThreadProcessId(hWnd, windowPid);
-
-            if (windowPid.getValue() == currentPid) {
-                char[] className = new char[256];
-                User32.INSTANCE.GetClassName(hWnd, className, className.length);
-                String classNameStr = new String(className).trim();
-
-                if (classNameStr.startsWith("GlassWndClass")) {
-                    result.add(hWnd);
-                }
+        backend.enumWindows(hWnd -> {
+            if (backend.getWindowProcessId(hWnd) == currentPid
+                    && backend.getClassName(hWnd).startsWith("GlassWndClass")) {
+                result.add(hwndOf(hWnd));
             }
             return true; // 继续枚举所有窗口
-        }, null);
+        });
 
         return result;
     }
@@ -330,17 +333,35 @@ public class FXNativeWindowsTools {
     public static void enableWindowDrag(WinDef.HWND hwnd, Node dragArea) {
         dragArea.setOnMousePressed(e -> {
             if (e.isPrimaryButtonDown()) {
-                User32Api.INSTANCE.ReleaseCapture();
-                User32Api.INSTANCE.SendMessage(
-                        hwnd,
-                        Win32Constants.WindowMessage.WM_NCLBUTTONDOWN,
-                        new WinDef.WPARAM(Win32Constants.HitTestCode.HTCAPTION),
-                        new WinDef.LPARAM(0)
-                );
+                startSystemMoveResize(hwnd, Win32Constants.HitTestCode.HTCAPTION);
             }
         });
     }
 
+    /**
+     * 把拖动或边缘调整大小交给系统的模态移动 / 缩放循环
+     *
+     * <p>
+     * 模拟在非客户区按下鼠标左键（WM_NCLBUTTONDOWN），系统接管后续鼠标移动，
+     * 直到松开鼠标才返回；期间窗口以原生延迟移动或缩放，Java 不会收到逐像素事件。
+     * 应在鼠标左键按下的事件处理中调用。
+     * </p>
+     *
+     * @param hwnd        窗口句柄
+     * @param hitTestCode HTCAPTION 表示移动；HTLEFT ~ HTBOTTOMRIGHT 表示从对应边缘调整大小
+     */
+    public static void startSystemMoveResize(WinDef.HWND hwnd, int hitTestCode) {
+        if (hwnd == null) return;
+        NativeWindowBackend backend = NativeWindowBackends.get();
+        backend.releaseCapture();
+        backend.sendMessage(
+                handleOf(hwnd),
+                Win32Constants.WindowMessage.WM_NCLBUTTONDOWN,
+                hitTestCode,
+                0
+        );
+    }
+
     /**
      * 设置窗口系统背景样式（Acrylic / Mica）
      *
@@ -355,13 +376,8 @@ public class FXNativeWindowsTools {
     public static void setSystemStageStyle(
             WinDef.HWND hwnd,
             SystemBackdropType backdropType) {
-        IntByReference backdrop = new IntByReference(backdropType.getValue());
-        DwmApi.INSTANCE.DwmSetWindowAttribute(
-                hwnd,
-                Win32Constants.DwmAttribute.DWMWA_SYSTEMBACKDROP_TYPE,
-                backdrop,
-                Integer.BYTES
-        );
+        if (hwnd == null) return;
+        beginTransaction(hwnd).systemBackdrop(backdropType).commit();
     }
 
 
@@ -378,48 +394,15 @@ public class FXNativeWindowsTools {
      *                <li>1.0 = 完全不透明（正常显示）</li>
      *              </ul>
      * @throws IllegalArgumentException 如果 value 不在 (0, 1) 范围内
-     * @implNote 仅适用于 Windows 平台，依赖 User32.dll API
+     * @implNote 仅适用于 Windows 平台，依赖 User32.dll API。
+     * 滑块、渐变动画等高频场景请使用 {@link WindowAlphaController}，按帧合并调用
      */
     public static void setWindowAlpha(WinDef.HWND hwnd, float value) {
         if (hwnd == null) return;
 
-        if (value <= 0 || value > 1) {
-            throw new IllegalArgumentException("Alpha value must be in range (0, 1], received: " + value);
-        }
-
-        byte alpha = (byte) (value * 255);
-
-        // 步骤1: 获取窗口的当前扩展样式（Extended Style）
-        BaseTSD.LONG_PTR exStyle = User32Api.INSTANCE.GetWindowLongPtr(
-                hwnd,
-                Win32Constants.WindowLongIndex.GWL_EXSTYLE
-        );
-
-        // 步骤2: 将当前样式与 WS_EX_LAYERED 进行按位或操作
-        // WS_EX_LAYERED 是启用分层窗口的必要标志
-        // 分层窗口可以支持透明度、alpha 混合等高级视觉效果
-        long style = exStyle.longValue();
-        long newStyle = style | Win32Constants.WindowStyleEx.WS_EX_LAYERED;
-
-        // 步骤3: 设置新的扩展样式到窗口
-        User32Api.INSTANCE.SetWindowLongPtr(
-                hwnd,
-                Win32Constants.WindowLongIndex.GWL_EXSTYLE,
-                new BaseTSD.LONG_PTR(newStyle).toPointer()
-        );
-
-        // 步骤4: 调用 SetLayeredWindowAttributes 设置透明度
-        // 参数说明：
-        // - hwnd: 目标窗口句柄
-        // - 0: crKey（色键），此处不使用颜色透明，设为 0
-        // - (byte) alpha: 透明度值，0=全透明，255=不透明
-        // - LWA_ALPHA: 标志，表示使用 alpha 值来控制透明度
-        User32Api.INSTANCE.SetLayeredWindowAttributes(
-                hwnd,
-                0,
-                (byte) alpha,
-                Win32Constants.LayeredWindowAttribute.LWA_ALPHA
-        );
+        // WS_EX_LAYERED 是启用分层窗口的必要标志，分层窗口可以支持透明度、alpha 混合等高级视觉效果
+        // 状态镜像会记住该位和上一次的透明度，重复设置相同的值不会产生原生调用
+        beginTransaction(hwnd).alpha(value).commit();
     }
 
 
@@ -435,13 +418,8 @@ public class FXNativeWindowsTools {
      * @implNote 需要 Windows 11 及以上版本
      */
     public static void setWindowCornerPreference(WinDef.HWND hwnd, DwmWindowCornerPreference cornerPreference) {
-        IntByReference value = new IntByReference(cornerPreference.getValue());
-        DwmApi.INSTANCE.DwmSetWindowAttribute(
-                hwnd,
-                Win32Constants.DwmAttribute.DWMWA_WINDOW_CORNER_PREFERENCE,
-                value,
-                Integer.BYTES
-        );
+        if (hwnd == null) return;
+        beginTransaction(hwnd).cornerPreference(cornerPreference).commit();
     }
 
     /**
@@ -456,18 +434,10 @@ public class FXNativeWindowsTools {
      * @implNote 需要 Windows 11 及以上版本
      */
     public static DwmWindowCornerPreference getWindowCornerPreference(WinDef.HWND hwnd) {
-        IntByReference value = new IntByReference();
-        int result = DwmApi.INSTANCE.DwmGetWindowAttribute(
-                hwnd,
-                Win32Constants.DwmAttribute.DWMWA_WINDOW_CORNER_PREFERENCE,
-                value,
-                Integer.BYTES
-        );
-
-        if (result == 0) { // S_OK
-            return DwmWindowCornerPreference.fromValue(value.getValue());
-        }
-        return null;
+        if (hwnd == null) return null;
+        // 优先从状态镜像缓存应答
+        Integer value = WindowStateMirror.of(hwnd).dwmAttribute(Win32Constants.DwmAttribute.DWMWA_WINDOW_CORNER_PREFERENCE);
+        return value == null ? null : DwmWindowCornerPreference.fromValue(value);
     }
 
     /**
@@ -482,13 +452,8 @@ public class FXNativeWindowsTools {
      * @implNote 需要 Windows 10 1809 (Build 17763) 及以上版本
      */
     public static void setWindowDarkMode(WinDef.HWND hwnd, boolean useDarkMode) {
-        IntByReference value = new IntByReference(useDarkMode ? 1 : 0);
-        DwmApi.INSTANCE.DwmSetWindowAttribute(
-                hwnd,
-                Win32Constants.DwmAttribute.DWMWA_USE_IMMERSIVE_DARK_MODE,
-                value,
-                Integer.BYTES
-        );
+        if (hwnd == null) return;
+        beginTransaction(hwnd).darkMode(useDarkMode).commit();
     }
 
 
@@ -504,18 +469,10 @@ public class FXNativeWindowsTools {
      * @implNote 需要 Windows 10 1809 (Build 17763) 及以上版本
      */
     public static Boolean getWindowDarkMode(WinDef.HWND hwnd) {
-        IntByReference value = new IntByReference();
-        int result = DwmApi.INSTANCE.DwmGetWindowAttribute(
-                hwnd,
-                Win32Constants.DwmAttribute.DWMWA_USE_IMMERSIVE_DARK_MODE,
-                value,
-                Integer.BYTES
-        );
-
-        if (result == 0) { // S_OK
-            return value.getValue() != 0;
-        }
-        return null;
+        if (hwnd == null) return null;
+        // 优先从状态镜像缓存应答
+        Integer value = WindowStateMirror.of(hwnd).dwmAttribute(Win32Constants.DwmAttribute.DWMWA_USE_IMMERSIVE_DARK_MODE);
+        return value == null ? null : value != 0;
     }
 
     /**
@@ -530,9 +487,9 @@ public class FXNativeWindowsTools {
         WinDef.HWND insertAfter = alwaysOnTop ? Win32Constants.HWndInsertAfter.HWND_TOPMOST :
                 Win32Constants.HWndInsertAfter.HWND_NOTOPMOST;
 
-        User32Api.INSTANCE.SetWindowPos(
-                hwnd,
-                insertAfter,
+        NativeWindowBackends.get().setWindowPos(
+                handleOf(hwnd),
+                Pointer.nativeValue(insertAfter.getPointer()),
                 0, 0, 0, 0,
                 Win32Constants.SetWindowPosFlags.SWP_NOMOVE
                         | Win32Constants.SetWindowPosFlags.SWP_NOSIZE
@@ -547,7 +504,7 @@ public class FXNativeWindowsTools {
      */
     public static void minimizeWindow(WinDef.HWND hwnd) {
         if (hwnd == null) return;
-        User32Api.INSTANCE.ShowWindow(hwnd, Win32Constants.ShowWindowCmd.SW_MINIMIZE);
+        NativeWindowBackends.get().showWindow(handleOf(hwnd), Win32Constants.ShowWindowCmd.SW_MINIMIZE);
     }
 
     /**
@@ -557,7 +514,7 @@ public class FXNativeWindowsTools {
      */
     public static void maximizeWindow(WinDef.HWND hwnd) {
         if (hwnd == null) return;
-        User32Api.INSTANCE.ShowWindow(hwnd, Win32Constants.ShowWindowCmd.SW_MAXIMIZE);
+        NativeWindowBackends.get().showWindow(handleOf(hwnd), Win32Constants.ShowWindowCmd.SW_MAXIMIZE);
     }
 
     /**
@@ -567,7 +524,7 @@ public class FXNativeWindowsTools {
      */
     public static void restoreWindow(WinDef.HWND hwnd) {
         if (hwnd == null) return;
-        User32Api.INSTANCE.ShowWindow(hwnd, Win32Constants.ShowWindowCmd.SW_RESTORE);
+        NativeWindowBackends.get().showWindow(handleOf(hwnd), Win32Constants.ShowWindowCmd.SW_RESTORE);
     }
 
     /**
@@ -578,7 +535,7 @@ public class FXNativeWindowsTools {
      */
     public static boolean isWindowMaximized(WinDef.HWND hwnd) {
         if (hwnd == null) return false;
-        return User32Api.INSTANCE.IsZoomed(hwnd);
+        return NativeWindowBackends.get().isZoomed(handleOf(hwnd));
     }
 
     /**
@@ -589,7 +546,7 @@ public class FXNativeWindowsTools {
      */
     public static boolean isWindowMinimized(WinDef.HWND hwnd) {
         if (hwnd == null) return false;
-        return User32Api.INSTANCE.IsIconic(hwnd);
+        return NativeWindowBackends.get().isIconic(handleOf(hwnd));
     }
 
     /**
@@ -600,28 +557,8 @@ public class FXNativeWindowsTools {
      */
     public static void disableMaximize(WinDef.HWND hwnd, boolean disable) {
         if (hwnd == null) return;
-
-        BaseTSD.LONG_PTR style = User32Api.INSTANCE.GetWindowLongPtr(
-                hwnd,
-                Win32Constants.WindowLongIndex.GWL_STYLE
-        );
-
-        long currentStyle = style.longValue();
-        long newStyle;
-
-        if (disable) {
-            newStyle = currentStyle & ~Win32Constants.WindowStyle.WS_MAXIMIZEBOX;
-        } else {
-            newStyle = currentStyle | Win32Constants.WindowStyle.WS_MAXIMIZEBOX;
-        }
-
-        User32Api.INSTANCE.SetWindowLongPtr(
-                hwnd,
-                Win32Constants.WindowLongIndex.GWL_STYLE,
-                new BaseTSD.LONG_PTR(newStyle).toPointer()
-        );
-
-        refreshWindowFrame(hwnd);
+        // 样式未变化时不会写入，也不会刷新非客户区
+        beginTransaction(hwnd).disableMaximize(disable).commit();
     }
 
     /**
@@ -632,30 +569,7 @@ public class FXNativeWindowsTools {
      */
     public static void disableResize(WinDef.HWND hwnd, boolean disable) {
         if (hwnd == null) return;
-
-        BaseTSD.LONG_PTR style = User32Api.INSTANCE.GetWindowLongPtr(
-                hwnd,
-                Win32Constants.WindowLongIndex.GWL_STYLE
-        );
-
-        long currentStyle = style.longValue();
-        long newStyle;
-
-        if (disable) {
-            newStyle = currentStyle & ~Win32Constants.WindowStyle.WS_THICKFRAME;
-            newStyle = newStyle & ~Win32Constants.WindowStyle.WS_MAXIMIZEBOX;
-        } else {
-            newStyle = currentStyle | Win32Constants.WindowStyle.WS_THICKFRAME;
-            newStyle = newStyle | Win32Constants.WindowStyle.WS_MAXIMIZEBOX;
-        }
-
-        User32Api.INSTANCE.SetWindowLongPtr(
-                hwnd,
-                Win32Constants.WindowLongIndex.GWL_STYLE,
-                new BaseTSD.LONG_PTR(newStyle).toPointer()
-        );
-
-        refreshWindowFrame(hwnd);
+        beginTransaction(hwnd).disableResize(disable).commit();
     }
 
 
@@ -680,26 +594,8 @@ public class FXNativeWindowsTools {
     public static void enableAeroSnap(WinDef.HWND hwnd) {
         if (hwnd == null) return;
 
-        BaseTSD.LONG_PTR style = User32Api.INSTANCE.GetWindowLongPtr(
-                hwnd,
-                Win32Constants.WindowLongIndex.GWL_STYLE
-        );
-
-        long currentStyle = style.longValue();
-
-        // 移除 WS_POPUP 样式（JavaFX 默认样式）
-        long newStyle = currentStyle & ~Win32Constants.WindowStyle.WS_POPUP;
-
-        // 添加标准窗口样式，这是 Aero Snap 所必需的
-        newStyle = newStyle | Win32Constants.WindowStyle.WS_OVERLAPPEDWINDOW;
-
-        User32Api.INSTANCE.SetWindowLongPtr(
-                hwnd,
-                Win32Constants.WindowLongIndex.GWL_STYLE,
-                new BaseTSD.LONG_PTR(newStyle).toPointer()
-        );
-
-        refreshWindowFrame(hwnd);
+        // 移除 WS_POPUP 样式（JavaFX 默认样式），添加标准窗口样式，这是 Aero Snap 所必需的
+        beginTransaction(hwnd).enableAeroSnap().commit();
     }
 
     /**
@@ -731,27 +627,10 @@ public class FXNativeWindowsTools {
     public static void enableAeroSnapForBorderless(WinDef.HWND hwnd) {
         if (hwnd == null) return;
 
-        BaseTSD.LONG_PTR style = User32Api.INSTANCE.GetWindowLongPtr(
-                hwnd,
-                Win32Constants.WindowLongIndex.GWL_STYLE
-        );
-
-        long currentStyle = style.longValue();
-
         // 添加 WS_THICKFRAME（可调整大小的边框，Aero Snap 必需）
-        long newStyle = currentStyle | Win32Constants.WindowStyle.WS_THICKFRAME;
-
         // 移除 WS_CAPTION（标题栏），保持无边框外观
         // 注意：WS_CAPTION 包含了 WS_BORDER 和 WS_DLGFRAME
-        newStyle = newStyle & ~Win32Constants.WindowStyle.WS_CAPTION;
-
-        User32Api.INSTANCE.SetWindowLongPtr(
-                hwnd,
-                Win32Constants.WindowLongIndex.GWL_STYLE,
-                new BaseTSD.LONG_PTR(newStyle).toPointer()
-        );
-
-        refreshWindowFrame(hwnd);
+        beginTransaction(hwnd).enableAeroSnapForBorderless().commit();
     }
 
 
@@ -799,14 +678,7 @@ public class FXNativeWindowsTools {
      */
     public static void extendFrameIntoClientArea(WinDef.HWND hwnd, int left, int right, int top, int bottom) {
         if (hwnd == null) return;
-
-        DwmApi.MARGINS margins = new DwmApi.MARGINS();
-        margins.cxLeftWidth = left;
-        margins.cxRightWidth = right;
-        margins.cyTopHeight = top;
-        margins.cyBottomHeight = bottom;
-
-        DwmApi.INSTANCE.DwmExtendFrameIntoClientArea(hwnd, margins);
+        NativeWindowBackends.get().dwmExtendFrameIntoClientArea(handleOf(hwnd), left, right, top, bottom);
     }
 
     /**
@@ -822,13 +694,38 @@ public class FXNativeWindowsTools {
         extendFrameIntoClientArea(hwnd, -1, -1, -1, -1);
     }
 
+    /**
+     * 开始一个窗口样式事务
+     *
+     * <p>
+     * 合并多个样式 / DWM / 透明度修改，提交时 GWL_STYLE 最多写入一次、
+     * 非客户区最多刷新一次，未产生变化的修改不会发起原生调用。
+     * </p>
+     *
+     * <p><b>使用示例：</b></p>
+     * <pre>{@code
+     * FXNativeWindowsTools.beginTransaction(hwnd)
+     *         .enableAeroSnapForBorderless()
+     *         .darkMode(true)
+     *         .cornerPreference(DwmWindowCornerPreference.ROUND)
+     *         .commit();
+     * }</pre>
+     *
+     * @param hwnd 窗口句柄
+     * @return 样式事务
+     * @see WindowStateMirror
+     */
+    public static WindowStateMirror.Transaction beginTransaction(WinDef.HWND hwnd) {
+        return WindowStateMirror.of(hwnd).edit();
+    }
+
     /**
      * 刷新窗口非客户区（样式变更后必须调用）
      */
-    private static void refreshWindowFrame(WinDef.HWND hwnd) {
-        User32Api.INSTANCE.SetWindowPos(
-                hwnd,
-                null,
+    static void refreshWindowFrame(WinDef.HWND hwnd) {
+        NativeWindowBackends.get().setWindowPos(
+                handleOf(hwnd),
+                0,
                 0, 0, 0, 0,
                 Win32Constants.SetWindowPosFlags.SWP_NOMOVE
                         | Win32Constants.SetWindowPosFlags.SWP_NOSIZE
@@ -837,6 +734,55 @@ public class FXNativeWindowsTools {
         );
     }
 
+    /**
+     * HWND 转换为后端使用的句柄数值，null 返回 0
+     */
+    static long handleOf(WinDef.HWND hwnd) {
+        return hwnd == null ? 0 : Pointer.nativeValue(hwnd.getPointer());
+    }
+
+    /**
+     * 后端句柄数值转换为 HWND，0 返回 null
+     */
+    static WinDef.HWND hwndOf(long handle) {
+        return handle == 0 ? null : new WinDef.HWND(new Pointer(handle));
+    }
+
+    /*
+     * com.sun.glass.ui.Window 的反射访问句柄（类加载时解析一次）
+     * 需要 --add-opens javafx.graphics/com.sun.glass.ui=com.bingbaihanji.bfxwt
+     */
+    private static final class GlassWindowHandles {
+        private static final MethodHandle GET_WINDOWS;
+        private static final MethodHandle GET_NATIVE_WINDOW;
+        private static final boolean AVAILABLE;
+
+        static {
+            MethodHandle getWindows = null;
+            MethodHandle getNativeWindow = null;
+            try {
+                Class<?> windowClass = Class.forName("com.sun.glass.ui.Window");
+                Method getWindowsMethod = windowClass.getMethod("getWindows");
+                getWindowsMethod.setAccessible(true);
+                Method getNativeWindowMethod = windowClass.getMethod("getNativeWindow");
+                getNativeWindowMethod.setAccessible(true);
+
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                getWindows = lookup.unreflect(getWindowsMethod)
+                        .asType(MethodType.methodType(List.class));
+                getNativeWindow = lookup.unreflect(getNativeWindowMethod)
+                        .asType(MethodType.methodType(long.class, Object.class));
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                e.printStackTrace();
+                getWindows = null;
+                getNativeWindow = null;
+            }
+            GET_WINDOWS = getWindows;
+            GET_NATIVE_WINDOW = getNativeWindow;
+            AVAILABLE = getWindows != null;
+        }
+    }
+
     //  Windows API 接口定义
 
     /**
@@ -845,32 +791,26 @@ public class FXNativeWindowsTools {
      * @implNote 仅适用于 Windows 平台
      */
     public static void printAllWindowsInfo() {
-        int currentPid = Kernel32Api.INSTANCE.GetCurrentProcessId();
+        NativeWindowBackend backend = NativeWindowBackends.get();
+        int currentPid = backend.getCurrentProcessId();
         System.out.println("\n========== 当前进程的所有窗口 ==========");
         System.out.println("进程 ID: " + currentPid);
         System.out.println();
 
         final int[] windowCount = {0};
 
-        User32.INSTANCE.EnumWindows((hWnd, lParam) -> {
-            IntByReference windowPid = new IntByReference();
-            User32.INSTANCE.GetWindowThreadProcessId(hWnd, windowPid);
-
-            if (windowPid.getValue() == currentPid) {
+        backend.enumWindows(hWnd -> {
+            if (backend.getWindowProcessId(hWnd) == currentPid) {
                 windowCount[0]++;
 
                 // 获取窗口类名
-                char[] className = new char[256];
-                User32.INSTANCE.GetClassName(hWnd, className, className.length);
-                String classNameStr = new String(className).trim();
+                String classNameStr = backend.getClassName(hWnd).trim();
 
                 // 获取窗口标题
-                char[] windowText = new char[256];
-                User32.INSTANCE.GetWindowText(hWnd, windowText, windowText.length);
-                String windowTitle = new String(windowText).trim();
+                String windowTitle = backend.getWindowText(hWnd).trim();
 
                 // 获取窗口句柄
-                long hwndValue = Pointer.nativeValue(hWnd.getPointer());
+                long hwndValue = hWnd;
 
                 System.out.println("窗口 " + windowCount[0] + ":");
                 System.out.println("  句柄: 0x" + Long.toHexString(hwndValue).toUpperCase());
@@ -879,7 +819,7 @@ public class FXNativeWindowsTools {
                 System.out.println();
             }
             return true;
-        }, null);
+        });
 
         if (windowCount[0] == 0) {
             System.out.println("未找到任何窗口");
@@ -1188,6 +1128,39 @@ public class FXNativeWindowsTools {
          * @return 最小化返回 true，否则返回 false
          */
         boolean IsIconic(HWND hwnd);
+
+        /**
+         * 为多窗口位置结构分配内存，开始一次批量移动
+         *
+         * @param nNumWindows 预计的窗口数量
+         * @return 批量移动句柄（HDWP），失败返回 null
+         */
+        HANDLE BeginDeferWindowPos(int nNumWindows);
+
+        /**
+         * 向批量移动中添加一个窗口（参数与 SetWindowPos 相同）
+         *
+         * @param hWinPosInfo BeginDeferWindowPos / 上一次 DeferWindowPos 返回的句柄
+         * @return 更新后的批量移动句柄，失败返回 null（此时整个批次作废）
+         */
+        HANDLE DeferWindowPos(
+                HANDLE hWinPosInfo,
+                HWND hwnd,
+                HWND hWndInsertAfter,
+                int x,
+                int y,
+                int cx,
+                int cy,
+                int uFlags
+        );
+
+        /**
+         * 在一次屏幕刷新中同时移动批次中的所有窗口
+         *
+         * @param hWinPosInfo 批量移动句柄
+         * @return 成功返回 true，失败返回 false
+         */
+        boolean EndDeferWindowPos(HANDLE hWinPosInfo);
     }
 
     // Win32 常量定义（统一管理）
@@ -1210,6 +1183,97 @@ public class FXNativeWindowsTools {
         int GetCurrentProcessId();
     }
 
+    /**
+     * User32 热点函数的直接映射绑定（{@code Native.register}）
+     *
+     * <p>
+     * 与 {@link User32Api} 的接口映射不同，直接映射的 native 方法不经过 JNA 的动态代理和反射分发；
+     * 参数全部使用基本类型（句柄用 {@code long}，POINT 用 {@code int[2]}），调用时没有额外的对象封装和结构体同步。
+     * 只覆盖按输入频率调用的函数：SetWindowPos、SetLayeredWindowAttributes、SendMessage、ScreenToClient、CallWindowProc。
+     * </p>
+     *
+     * <p>
+     * 绑定的库名默认为 {@code user32}，可通过系统属性 {@code -Dbfxwt.direct.library=...}
+     * 指向签名相同的其他库（例如在 Linux 上对比调用开销时使用的桩库）。
+     * </p>
+     *
+     * @implNote 句柄按 64 位传递，仅在 64 位 JVM 上启用；绑定失败时 {@link #isAvailable()} 返回 false，
+     * 调用方应回退到 {@link User32Api}。
+     * @see com.bingbaihanji.bfxwt.backend.DirectWin32WindowBackend
+     */
+    public static final class User32Direct {
+
+        /**
+         * 指定直接映射库名的系统属性
+         */
+        public static final String LIBRARY_PROPERTY = "bfxwt.direct.library";
+
+        private static final boolean AVAILABLE;
+
+        static {
+            boolean available = false;
+            if (Native.POINTER_SIZE == 8) {
+                try {
+                    NativeLibrary library = NativeLibrary.getInstance(
+                            System.getProperty(LIBRARY_PROPERTY, "user32"),
+                            Map.of(Library.OPTION_FUNCTION_MAPPER, W32APIFunctionMapper.UNICODE));
+                    Native.register(User32Direct.class, library);
+                    available = true;
+                } catch (LinkageError | RuntimeException e) {
+                    // 非 Windows 平台或库中缺少函数
+                }
+            }
+            AVAILABLE = available;
+        }
+
+        private User32Direct() {
+        }
+
+        /**
+         * 直接映射是否可用
+         */
+        public static boolean isAvailable() {
+            return AVAILABLE;
+        }
+
+        /**
+         * SetWindowPos
+         *
+         * @return 非 0 表示成功
+         */
+        public static native int SetWindowPos(long hwnd, long hWndInsertAfter, int X, int Y, int cx, int cy, int uFlags);
+
+        /**
+         * SetLayeredWindowAttributes
+         *
+         * @return 非 0 表示成功
+         */
+        public static native int SetLayeredWindowAttributes(long hwnd, int crKey, byte bAlpha, int dwFlags);
+
+        /**
+         * SendMessage
+         *
+         * @return 消息处理结果
+         */
+        public static native long SendMessage(long hwnd, int msg, long wParam, long lParam);
+
+        /**
+         * ScreenToClient
+         *
+         * @param lpPoint 长度为 2 的数组（POINT 结构的 x, y）
+         * @return 非 0 表示成功
+         */
+        public static native int ScreenToClient(long hwnd, int[] lpPoint);
+
+        /**
+         * CallWindowProc（子类化窗口过程中转发到原窗口过程）
+         *
+         * @param lpPrevWndFunc 原窗口过程地址
+         * @return 消息处理结果
+         */
+        public static native long CallWindowProc(long lpPrevWndFunc, long hwnd, int msg, long wParam, long lParam);
+    }
+
     /**
      * Win32 API 常量统一管理类
      *
@@ -1411,12 +1475,14 @@ public class FXNativeWindowsTools {
             public static final int WM_ERASEBKGND = 0x0014;
             public static final int WM_SYSCOLORCHANGE = 0x0015;
             public static final int WM_SHOWWINDOW = 0x0018;
+            public static final int WM_SETTINGCHANGE = 0x001A;
             public static final int WM_ACTIVATEAPP = 0x001C;
             public static final int WM_SETCURSOR = 0x0020;
             public static final int WM_MOUSEACTIVATE = 0x0021;
             public static final int WM_GETMINMAXINFO = 0x0024;
             public static final int WM_WINDOWPOSCHANGING = 0x0046;
             public static final int WM_WINDOWPOSCHANGED = 0x0047;
+            public static final int WM_DISPLAYCHANGE = 0x007E;
             public static final int WM_NCCREATE = 0x0081;
             public static final int WM_NCDESTROY = 0x0082;
             public static final int WM_NCCALCSIZE = 0x0083;
@@ -1451,6 +1517,7 @@ public class FXNativeWindowsTools {
             public static final int WM_MBUTTONDBLCLK = 0x0209;
             public static final int WM_MOUSEWHEEL = 0x020A;
             public static final int WM_MOUSEHWHEEL = 0x020E;
+            public static final int WM_DPICHANGED = 0x02E0;
             public static final int WM_DWMCOMPOSITIONCHANGED = 0x031E;
         }
 
@@ -1489,6 +1556,24 @@ public class FXNativeWindowsTools {
             public static final int HTHELP = 21;
         }
 
+        /**
+         * 系统事件常量（SetWinEventHook）
+         */
+        public static class WinEvent {
+            public static final int EVENT_OBJECT_CREATE = 0x8000;
+            public static final int EVENT_OBJECT_DESTROY = 0x8001;
+            public static final int EVENT_OBJECT_SHOW = 0x8002;
+            public static final int EVENT_OBJECT_HIDE = 0x8003;
+            public static final int EVENT_OBJECT_NAMECHANGE = 0x800C;
+
+            public static final int WINEVENT_OUTOFCONTEXT = 0x0000;
+            public static final int WINEVENT_SKIPOWNTHREAD = 0x0001;
+            public static final int WINEVENT_SKIPOWNPROCESS = 0x0002;
+
+            public static final int OBJID_WINDOW = 0;
+            public static final int CHILDID_SELF = 0;
+        }
+
         /**
          * 分层窗口属性标志（位掩码，可用 | 组合）
          *
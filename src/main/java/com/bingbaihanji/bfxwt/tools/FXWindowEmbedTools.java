@@ -1,8 +1,6 @@
 package com.bingbaihanji.bfxwt.tools;
 
-import com.sun.jna.Pointer;
-import com.sun.jna.platform.win32.BaseTSD;
-import com.sun.jna.platform.win32.User32;
+import com.bingbaihanji.bfxwt.backend.NativeWindowBackends;
 import com.sun.jna.platform.win32.WinDef;
 import javafx.geometry.Bounds;
 import javafx.scene.Node;
@@ -54,7 +52,25 @@ public class FXWindowEmbedTools {
      * @return 包含转换后坐标的 WinDef.POINT 对象
      */
     public static WinDef.POINT convertNodeToNativeClientCoordinates(Node node, Stage stage, WinDef.HWND fxWindowHwnd) {
-        if (node == null || stage == null || fxWindowHwnd == null) {
+        int[] point = new int[2];
+        convertNodeToNativeClientCoordinates(node, stage, fxWindowHwnd, point);
+        return new WinDef.POINT(point[0], point[1]);
+    }
+
+    /**
+     * 将 JavaFX Node 的 Scene 坐标转换为 Windows 原生窗口客户区坐标（结果写入调用方提供的数组）
+     *
+     * <p>
+     * 与返回 {@code WinDef.POINT} 的版本相同，但不创建 JNA 结构体（不分配原生内存），适合在尺寸变化等高频路径上调用。
+     * </p>
+     *
+     * @param node         JavaFX 节点
+     * @param stage        JavaFX 舞台
+     * @param fxWindowHwnd JavaFX 窗口的原生句柄
+     * @param point        长度至少为 2 的数组，返回时为客户区坐标 {x, y}
+     */
+    public static void convertNodeToNativeClientCoordinates(Node node, Stage stage, WinDef.HWND fxWindowHwnd, int[] point) {
+        if (node == null || stage == null || fxWindowHwnd == null || point == null) {
             throw new IllegalArgumentException("参数不能为 null");
         }
 
@@ -65,13 +81,10 @@ public class FXWindowEmbedTools {
         double screenX = stage.getX() + boundsInScene.getMinX() + node.getScene().getX();
         double screenY = stage.getY() + boundsInScene.getMinY() + node.getScene().getY();
 
-        // 创建屏幕坐标点
-        WinDef.POINT screenPoint = new WinDef.POINT((int) screenX, (int) screenY);
-
         // 将屏幕坐标转换为窗口客户区坐标
-        FXNativeWindowsTools.User32Api.INSTANCE.ScreenToClient(fxWindowHwnd, screenPoint);
-
-        return screenPoint;
+        point[0] = (int) screenX;
+        point[1] = (int) screenY;
+        NativeWindowBackends.get().screenToClient(FXNativeWindowsTools.handleOf(fxWindowHwnd), point);
     }
 
     /**
@@ -154,14 +167,15 @@ public class FXWindowEmbedTools {
         }
 
         // 转换坐标
-        WinDef.POINT nativePos = convertNodeToNativeClientCoordinates(container, stage, fxWindowHwnd);
+        int[] nativePos = new int[2];
+        convertNodeToNativeClientCoordinates(container, stage, fxWindowHwnd, nativePos);
 
         // 获取容器的大小
         int width = (int) container.getLayoutBounds().getWidth();
         int height = (int) container.getLayoutBounds().getHeight();
 
         // 更新窗口
-        updateHostWindow(hostHwnd, externalHwnd, nativePos.x, nativePos.y, width, height);
+        updateHostWindow(hostHwnd, externalHwnd, nativePos[0], nativePos[1], width, height);
     }
 
 
@@ -187,25 +201,22 @@ public class FXWindowEmbedTools {
 
         try {
             // 使用 "STATIC" 窗口类创建一个简单的子窗口
-            WinDef.HWND hostHwnd = User32.INSTANCE.CreateWindowEx(
+            long hostHandle = NativeWindowBackends.get().createWindowEx(
                     0,                              // dwExStyle
                     "STATIC",                       // lpClassName - 使用系统预定义的 STATIC 类
                     "FX_HOST",                      // lpWindowName
                     (int) (WS_CHILD | WS_VISIBLE),  // dwStyle
                     x, y, width, height,            // 位置和大小
-                    parentHwnd,                     // hWndParent
-                    null,                           // hMenu
-                    null,                           // hInstance
-                    null                            // lpParam
+                    FXNativeWindowsTools.handleOf(parentHwnd) // hWndParent
             );
 
-            if (hostHwnd == null || Pointer.nativeValue(hostHwnd.getPointer()) == 0) {
+            if (hostHandle == 0) {
                 System.err.println("创建 Host 窗口失败");
                 return null;
             }
 
-            System.out.println("✓ 创建 Host 窗口: 0x" + Long.toHexString(Pointer.nativeValue(hostHwnd.getPointer())));
-            return hostHwnd;
+            System.out.println("✓ 创建 Host 窗口: 0x" + Long.toHexString(hostHandle));
+            return FXNativeWindowsTools.hwndOf(hostHandle);
         } catch (Exception e) {
             e.printStackTrace();
             return null;
@@ -256,20 +267,20 @@ public class FXWindowEmbedTools {
         embedToParent(externalHwnd, hostHwnd);
 
         // 步骤3: 调整外部窗口大小以填充 Host 窗口
-        User32.INSTANCE.SetWindowPos(
-                externalHwnd,
-                null,
+        NativeWindowBackends.get().setWindowPos(
+                FXNativeWindowsTools.handleOf(externalHwnd),
+                0,
                 0, 0,           // 相对于 Host 窗口的位置
                 width, height,
                 0x0040 | 0x0004 | 0x0020  // SWP_SHOWWINDOW | SWP_NOZORDER | SWP_FRAMECHANGED
         );
 
         // 步骤4: 设置焦点到外部窗口，确保可以接收键盘输入
-        User32.INSTANCE.SetFocus(externalHwnd);
+        NativeWindowBackends.get().setFocus(FXNativeWindowsTools.handleOf(externalHwnd));
 
         // 步骤5: 强制刷新窗口显示
-        User32.INSTANCE.InvalidateRect(externalHwnd, null, true);
-        User32.INSTANCE.UpdateWindow(externalHwnd);
+        NativeWindowBackends.get().invalidateRect(FXNativeWindowsTools.handleOf(externalHwnd), true);
+        NativeWindowBackends.get().updateWindow(FXNativeWindowsTools.handleOf(externalHwnd));
 
         System.out.println("✓ 外部窗口已嵌入到三层结构中");
         return hostHwnd;
@@ -295,29 +306,29 @@ public class FXWindowEmbedTools {
         }
 
         // 更新 Host 窗口位置和大小
-        User32.INSTANCE.SetWindowPos(
-                hostHwnd,
-                null,
+        NativeWindowBackends.get().setWindowPos(
+                FXNativeWindowsTools.handleOf(hostHwnd),
+                0,
                 x, y, width, height,
                 0x0040 | 0x0004  // SWP_SHOWWINDOW | SWP_NOZORDER
         );
 
         // 同步更新外部窗口大小，确保填充整个 Host 窗口
         if (externalHwnd != null) {
-            User32.INSTANCE.SetWindowPos(
-                    externalHwnd,
-                    null,
+            NativeWindowBackends.get().setWindowPos(
+                    FXNativeWindowsTools.handleOf(externalHwnd),
+                    0,
                     0, 0,  // 相对于 Host 窗口的位置
                     width, height,
                     0x0040 | 0x0004 | 0x0020  // SWP_SHOWWINDOW | SWP_NOZORDER | SWP_FRAMECHANGED
             );
 
             // 设置焦点，确保可以接收输入
-            User32.INSTANCE.SetFocus(externalHwnd);
+            NativeWindowBackends.get().setFocus(FXNativeWindowsTools.handleOf(externalHwnd));
 
             // 刷新显示
-            User32.INSTANCE.InvalidateRect(externalHwnd, null, true);
-            User32.INSTANCE.UpdateWindow(externalHwnd);
+            NativeWindowBackends.get().invalidateRect(FXNativeWindowsTools.handleOf(externalHwnd), true);
+            NativeWindowBackends.get().updateWindow(FXNativeWindowsTools.handleOf(externalHwnd));
         }
     }
 
@@ -339,7 +350,8 @@ public class FXWindowEmbedTools {
 
         if (hostHwnd != null) {
             // 销毁 Host 窗口
-            User32.INSTANCE.DestroyWindow(hostHwnd);
+            NativeWindowBackends.get().destroyWindow(FXNativeWindowsTools.handleOf(hostHwnd));
+            WindowStateMirror.invalidate(hostHwnd);
             System.out.println("✓ Host 窗口已销毁");
         }
     }
@@ -369,16 +381,15 @@ public class FXWindowEmbedTools {
         }
 
         // 步骤1: 设置父窗口关系
-        User32.INSTANCE.SetParent(childHwnd, parentHwnd);
+        NativeWindowBackends.get().setParent(
+                FXNativeWindowsTools.handleOf(childHwnd), FXNativeWindowsTools.handleOf(parentHwnd));
 
         // 步骤2: 获取当前窗口样式（GWL_STYLE，不是 GWL_EXSTYLE）
-        BaseTSD.LONG_PTR currentStyle = FXNativeWindowsTools.User32Api.INSTANCE.GetWindowLongPtr(
-                childHwnd,
+        long newStyle = NativeWindowBackends.get().getWindowLongPtr(
+                FXNativeWindowsTools.handleOf(childHwnd),
                 GWL_STYLE
         );
 
-        long newStyle = currentStyle.longValue();
-
         // 步骤3: 移除顶层窗口特性
         // WS_POPUP - 弹出窗口样式
         // WS_CAPTION - 标题栏
@@ -394,16 +405,19 @@ public class FXWindowEmbedTools {
         newStyle |= FXNativeWindowsTools.Win32Constants.WindowStyle.WS_VISIBLE;
 
         // 步骤5: 应用新的窗口样式
-        FXNativeWindowsTools.User32Api.INSTANCE.SetWindowLongPtr(
-                childHwnd,
+        NativeWindowBackends.get().setWindowLongPtr(
+                FXNativeWindowsTools.handleOf(childHwnd),
                 GWL_STYLE,
-                new BaseTSD.LONG_PTR(newStyle).toPointer()
+                newStyle
         );
 
+        // 外部修改了样式，丢弃状态镜像中的旧值
+        WindowStateMirror.invalidate(childHwnd);
+
         // 步骤6: 刷新窗口以应用样式变化
-        User32.INSTANCE.SetWindowPos(
-                childHwnd,
-                null,
+        NativeWindowBackends.get().setWindowPos(
+                FXNativeWindowsTools.handleOf(childHwnd),
+                0,
                 0, 0, 0, 0,
                 0x0001 | 0x0002 | 0x0004 | 0x0020 // SWP_NOSIZE | SWP_NOMOVE | SWP_NOZORDER | SWP_FRAMECHANGED
         );
@@ -426,16 +440,14 @@ public class FXWindowEmbedTools {
         }
 
         // 步骤1: 移除父窗口关系（设置为桌面窗口）
-        User32.INSTANCE.SetParent(childHwnd, null);
+        NativeWindowBackends.get().setParent(FXNativeWindowsTools.handleOf(childHwnd), 0);
 
         // 步骤2: 获取当前窗口样式
-        BaseTSD.LONG_PTR currentStyle = FXNativeWindowsTools.User32Api.INSTANCE.GetWindowLongPtr(
-                childHwnd,
+        long newStyle = NativeWindowBackends.get().getWindowLongPtr(
+                FXNativeWindowsTools.handleOf(childHwnd),
                 GWL_STYLE
         );
 
-        long newStyle = currentStyle.longValue();
-
         // 步骤3: 移除子窗口样式
         newStyle &= ~WS_CHILD;
 
@@ -444,16 +456,19 @@ public class FXWindowEmbedTools {
         newStyle |= WS_VISIBLE;
 
         // 步骤5: 应用新的窗口样式
-        FXNativeWindowsTools.User32Api.INSTANCE.SetWindowLongPtr(
-                childHwnd,
+        NativeWindowBackends.get().setWindowLongPtr(
+                FXNativeWindowsTools.handleOf(childHwnd),
                 GWL_STYLE,
-                new BaseTSD.LONG_PTR(newStyle).toPointer()
+                newStyle
         );
 
+        // 外部修改了样式，丢弃状态镜像中的旧值
+        WindowStateMirror.invalidate(childHwnd);
+
         // 步骤6: 刷新窗口以应用样式变化
-        User32.INSTANCE.SetWindowPos(
-                childHwnd,
-                null,
+        NativeWindowBackends.get().setWindowPos(
+                FXNativeWindowsTools.handleOf(childHwnd),
+                0,
                 0, 0, 0, 0,
                 0x0001 | 0x0002 | 0x0004 | 0x0020 // SWP_NOSIZE | SWP_NOMOVE | SWP_NOZORDER | SWP_FRAMECHANGED
         );
@@ -475,11 +490,7 @@ public class FXWindowEmbedTools {
             return null;
         }
 
-        WinDef.HWND parent = User32.INSTANCE.GetParent(hwnd);
-        // GetParent 返回 null 或 0 表示没有父窗口
-        if (parent == null || Pointer.nativeValue(parent.getPointer()) == 0) {
-            return null;
-        }
-        return parent;
+        // GetParent 返回 0 表示没有父窗口
+        return FXNativeWindowsTools.hwndOf(NativeWindowBackends.get().getParent(FXNativeWindowsTools.handleOf(hwnd)));
     }
 }
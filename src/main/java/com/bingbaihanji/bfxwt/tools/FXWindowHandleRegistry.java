@@ -0,0 +1,451 @@
+package com.bingbaihanji.bfxwt.tools;
+
+import com.bingbaihanji.bfxwt.backend.NativeWindowBackend;
+import com.bingbaihanji.bfxwt.backend.NativeWindowBackends;
+import com.sun.jna.Pointer;
+import com.sun.jna.platform.win32.WinDef;
+import javafx.application.Platform;
+import javafx.stage.Stage;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stage → HWND 句柄注册表
+ *
+ * <p>
+ * 为每个 {@link Stage} 缓存其原生窗口句柄，重复查询为 O(1)，
+ * 避免每次都通过 EnumWindows 遍历系统中的全部顶层窗口。
+ * Stage 隐藏或关闭时（{@code showing} 变为 false）自动失效，同时丢弃该窗口的 {@link WindowStateMirror}。
+ * </p>
+ *
+ * <p><b>查找策略（按开销从低到高）：</b></p>
+ * <ol>
+ *   <li>{@link LookupStrategy#GLASS_PEER}：通过缓存的 {@link MethodHandle} 读取 Stage 的 Glass 对等体句柄，精确且无需枚举</li>
+ *   <li>{@link LookupStrategy#THREAD_ENUMERATION}：仅在 JavaFX Application Thread 上，使用 EnumThreadWindows 只枚举 FX 线程创建的窗口</li>
+ *   <li>{@link LookupStrategy#GLOBAL_ENUMERATION}：EnumWindows 全局扫描（最后的兜底）</li>
+ * </ol>
+ * 第一次成功的策略会被记住，后续查找优先使用；Glass 对等体不可访问时会被永久跳过。
+ *
+ * <p>
+ * 使用 {@link LookupStrategy#GLASS_PEER} 需要以下 JVM 参数，缺失时自动退化到枚举策略：
+ * </p>
+ * <pre>
+ * --add-opens javafx.graphics/javafx.stage=com.bingbaihanji.bfxwt
+ * --add-exports javafx.graphics/com.sun.javafx.tk=com.bingbaihanji.bfxwt
+ * </pre>
+ *
+ * <p>
+ * 命中率与查找耗时可通过 {@link #stats()} 获取。
+ * </p>
+ *
+ * @author bingbaihanji
+ * @date 2026-01-20
+ */
+public final class FXWindowHandleRegistry {
+
+    // JavaFX 窗口类名前缀
+    private static final String GLASS_CLASS_PREFIX = "GlassWndClass";
+
+    // Stage → 缓存项（WeakHashMap：Stage 未重写 equals/hashCode，按对象身份比较）
+    private static final Map<Stage, Entry> ENTRIES = new WeakHashMap<>();
+
+    // 统计数据
+    private static final LongAdder LOOKUPS = new LongAdder();
+    private static final LongAdder HITS = new LongAdder();
+    private static final LongAdder FAILURES = new LongAdder();
+    private static final Map<LookupStrategy, LongAdder> STRATEGY_SUCCESS = new EnumMap<>(LookupStrategy.class);
+    private static final Map<LookupStrategy, LongAdder> STRATEGY_NANOS = new EnumMap<>(LookupStrategy.class);
+
+    static {
+        for (LookupStrategy strategy : LookupStrategy.values()) {
+            STRATEGY_SUCCESS.put(strategy, new LongAdder());
+            STRATEGY_NANOS.put(strategy, new LongAdder());
+        }
+    }
+
+    // 上一次成功的策略（下次优先尝试）
+    private static volatile LookupStrategy preferredStrategy = LookupStrategy.GLASS_PEER;
+
+    private FXWindowHandleRegistry() {
+    }
+
+    /**
+     * 获取 Stage 对应的原生窗口句柄
+     *
+     * @param stage JavaFX Stage（必须已显示）
+     * @return 窗口句柄，Stage 未显示或查找失败返回 null
+     */
+    public static WinDef.HWND get(Stage stage) {
+        if (stage == null || !stage.isShowing()) {
+            return null;
+        }
+        LOOKUPS.increment();
+
+        Entry entry;
+        synchronized (ENTRIES) {
+            entry = ENTRIES.get(stage);
+            if (entry != null && entry.hwnd != null) {
+                HITS.increment();
+                return entry.hwnd;
+            }
+        }
+
+        WinDef.HWND hwnd = resolve(stage);
+        if (hwnd == null) {
+            FAILURES.increment();
+            return null;
+        }
+
+        // 新解析到的原生窗口：句柄可能被已销毁的窗口用过，丢弃残留的状态镜像
+        WindowStateMirror.invalidate(hwnd);
+
+        boolean installListener = false;
+        synchronized (ENTRIES) {
+            entry = ENTRIES.get(stage);
+            if (entry == null) {
+                entry = new Entry();
+                ENTRIES.put(stage, entry);
+                installListener = true;
+            }
+            entry.hwnd = hwnd;
+        }
+        if (installListener) {
+            // Stage 隐藏或关闭后原生窗口会被销毁，句柄随之失效
+            stage.showingProperty().addListener((obs, wasShowing, showing) -> {
+                if (!showing) {
+                    invalidate(stage);
+                }
+            });
+        }
+        return hwnd;
+    }
+
+    /**
+     * 使指定 Stage 的缓存句柄失效（下次查询时重新查找）
+     *
+     * @param stage JavaFX Stage
+     */
+    public static void invalidate(Stage stage) {
+        WinDef.HWND stale = null;
+        synchronized (ENTRIES) {
+            Entry entry = ENTRIES.get(stage);
+            if (entry != null) {
+                stale = entry.hwnd;
+                entry.hwnd = null;
+            }
+        }
+        // 原生窗口已销毁，同时丢弃其状态镜像
+        WindowStateMirror.invalidate(stale);
+    }
+
+    /**
+     * 清空所有缓存句柄
+     */
+    public static void clear() {
+        List<WinDef.HWND> stale = new ArrayList<>();
+        synchronized (ENTRIES) {
+            ENTRIES.values().forEach(entry -> {
+                if (entry.hwnd != null) {
+                    stale.add(entry.hwnd);
+                    entry.hwnd = null;
+                }
+            });
+        }
+        stale.forEach(WindowStateMirror::invalidate);
+    }
+
+    /**
+     * 当前优先使用的查找策略
+     */
+    public static LookupStrategy preferredStrategy() {
+        return preferredStrategy;
+    }
+
+    /**
+     * 获取查找统计快照
+     */
+    public static Stats stats() {
+        Map<LookupStrategy, Long> successes = new EnumMap<>(LookupStrategy.class);
+        Map<LookupStrategy, Long> nanos = new EnumMap<>(LookupStrategy.class);
+        for (LookupStrategy strategy : LookupStrategy.values()) {
+            successes.put(strategy, STRATEGY_SUCCESS.get(strategy).sum());
+            nanos.put(strategy, STRATEGY_NANOS.get(strategy).sum());
+        }
+        return new Stats(LOOKUPS.sum(), HITS.sum(), FAILURES.sum(), successes, nanos);
+    }
+
+    /**
+     * 重置查找统计
+     */
+    public static void resetStats() {
+        LOOKUPS.reset();
+        HITS.reset();
+        FAILURES.reset();
+        STRATEGY_SUCCESS.values().forEach(LongAdder::reset);
+        STRATEGY_NANOS.values().forEach(LongAdder::reset);
+    }
+
+    //  查找策略
+
+    /*
+     * 按「上次成功的策略 → 其余策略（按开销顺序）」依次尝试
+     */
+    private static WinDef.HWND resolve(Stage stage) {
+        LookupStrategy preferred = preferredStrategy;
+        WinDef.HWND hwnd = tryStrategy(preferred, stage);
+        if (hwnd != null) {
+            return hwnd;
+        }
+        for (LookupStrategy strategy : LookupStrategy.values()) {
+            if (strategy == preferred) {
+                continue;
+            }
+            hwnd = tryStrategy(strategy, stage);
+            if (hwnd != null) {
+                preferredStrategy = strategy;
+                return hwnd;
+            }
+        }
+        return null;
+    }
+
+    private static WinDef.HWND tryStrategy(LookupStrategy strategy, Stage stage) {
+        if (!strategy.isApplicable()) {
+            return null;
+        }
+        long start = System.nanoTime();
+        WinDef.HWND hwnd = switch (strategy) {
+            case GLASS_PEER -> GlassPeer.lookup(stage);
+            case THREAD_ENUMERATION -> enumerateThreadWindows(stage);
+            case GLOBAL_ENUMERATION -> enumerateAllWindows(stage);
+        };
+        STRATEGY_NANOS.get(strategy).add(System.nanoTime() - start);
+        if (hwnd != null) {
+            STRATEGY_SUCCESS.get(strategy).increment();
+        }
+        return hwnd;
+    }
+
+    /*
+     * 仅枚举 FX 线程创建的顶层窗口（Glass 窗口均在 FX 线程上创建）
+     */
+    private static WinDef.HWND enumerateThreadWindows(Stage stage) {
+        NativeWindowBackend backend = NativeWindowBackends.get();
+        List<Long> candidates = new ArrayList<>();
+        backend.enumThreadWindows(backend.getCurrentThreadId(), hWnd -> {
+            if (isGlassWindow(backend, hWnd)) {
+                candidates.add(hWnd);
+            }
+            return true;
+        });
+        return select(backend, stage, candidates);
+    }
+
+    /*
+     * 枚举系统全部顶层窗口，筛选出当前进程的 JavaFX 窗口
+     */
+    private static WinDef.HWND enumerateAllWindows(Stage stage) {
+        NativeWindowBackend backend = NativeWindowBackends.get();
+        int currentPid = backend.getCurrentProcessId();
+        List<Long> candidates = new ArrayList<>();
+        backend.enumWindows(hWnd -> {
+            if (backend.getWindowProcessId(hWnd) == currentPid && isGlassWindow(backend, hWnd)) {
+                candidates.add(hWnd);
+            }
+            return true;
+        });
+        return select(backend, stage, candidates);
+    }
+
+    private static boolean isGlassWindow(NativeWindowBackend backend, long hWnd) {
+        // X11 上 WM_CLASS 由应用决定，本进程的顶层窗口即为 Glass 窗口（调用方已按进程筛选）
+        if (NativeWindowBackends.isX11()) {
+            return true;
+        }
+        return backend.getClassName(hWnd).startsWith(GLASS_CLASS_PREFIX);
+    }
+
+    /*
+     * 从候选窗口中挑选属于该 Stage 的句柄
+     */
+    private static WinDef.HWND select(NativeWindowBackend backend, Stage stage, List<Long> candidates) {
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        List<Long> taken = new ArrayList<>();
+        synchronized (ENTRIES) {
+            ENTRIES.forEach((other, entry) -> {
+                if (other != stage && entry.hwnd != null) {
+                    taken.add(FXNativeWindowsTools.handleOf(entry.hwnd));
+                }
+            });
+        }
+        long hWnd = select(backend, Target.of(stage), candidates, taken);
+        return hWnd == 0 ? null : FXNativeWindowsTools.hwndOf(hWnd);
+    }
+
+    /*
+     * 排除已登记给其他 Stage 的句柄，以及所属关系或位置尺寸与 Stage 不符的窗口（弹出菜单、提示框等），
+     * 剩余窗口中优先选择标题一致的；没有符合条件的窗口时返回 0，不缓存猜测的结果，下次查询时重新查找
+     */
+    static long select(NativeWindowBackend backend, Target target, List<Long> candidates, List<Long> taken) {
+        int[] rect = new int[4];
+        long firstMatch = 0;
+        for (long candidate : candidates) {
+            if (taken.contains(candidate) || !target.matches(backend, candidate, rect)) {
+                continue;
+            }
+            if (target.title().equals(backend.getWindowText(candidate))) {
+                return candidate;
+            }
+            if (firstMatch == 0) {
+                firstMatch = candidate;
+            }
+        }
+        return firstMatch;
+    }
+
+    /**
+     * 句柄查找策略
+     */
+    public enum LookupStrategy {
+        /**
+         * 通过 Glass 对等体直接读取原生句柄
+         */
+        GLASS_PEER,
+        /**
+         * EnumThreadWindows 枚举 FX 线程窗口（仅 FX 线程可用）
+         */
+        THREAD_ENUMERATION,
+        /**
+         * EnumWindows 全局扫描
+         */
+        GLOBAL_ENUMERATION;
+
+        boolean isApplicable() {
+            return switch (this) {
+                case GLASS_PEER -> GlassPeer.AVAILABLE;
+                case THREAD_ENUMERATION -> Platform.isFxApplicationThread();
+                case GLOBAL_ENUMERATION -> true;
+            };
+        }
+    }
+
+    /**
+     * 查找统计快照
+     *
+     * @param lookups          查询总次数
+     * @param hits             缓存命中次数
+     * @param failures         所有策略均失败的次数
+     * @param strategySuccess  各策略成功次数
+     * @param strategyNanos    各策略累计耗时（纳秒）
+     */
+    public record Stats(long lookups, long hits, long failures,
+                        Map<LookupStrategy, Long> strategySuccess,
+                        Map<LookupStrategy, Long> strategyNanos) {
+
+        /**
+         * 缓存命中率（0~1）
+         */
+        public double hitRate() {
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+    }
+
+    /**
+     * 挑选句柄时比较的 Stage 属性（位置和尺寸为物理像素）
+     *
+     * @param title 窗口标题
+     * @param owned 是否有所有者窗口
+     */
+    record Target(String title, boolean owned, int x, int y, int width, int height) {
+
+        /**
+         * 候选窗口每条边与 Stage 外框的最大偏差（物理像素，容纳系统边框和标题栏）
+         */
+        static final int BOUNDS_TOLERANCE = 64;
+
+        static Target of(Stage stage) {
+            double scaleX = stage.getOutputScaleX() > 0 ? stage.getOutputScaleX() : 1;
+            double scaleY = stage.getOutputScaleY() > 0 ? stage.getOutputScaleY() : 1;
+            return new Target(stage.getTitle() == null ? "" : stage.getTitle(), stage.getOwner() != null,
+                    (int) Math.round(stage.getX() * scaleX), (int) Math.round(stage.getY() * scaleY),
+                    (int) Math.round(stage.getWidth() * scaleX), (int) Math.round(stage.getHeight() * scaleY));
+        }
+
+        boolean matches(NativeWindowBackend backend, long hWnd, int[] rect) {
+            // Win32 上 GetParent 返回所有者窗口；X11 上为窗口管理器的框架窗口，不能据此判断所属关系
+            if (!owned && !NativeWindowBackends.isX11() && backend.getParent(hWnd) != 0) {
+                return false;
+            }
+            if (!backend.getWindowRect(hWnd, rect)) {
+                return false;
+            }
+            return Math.abs(rect[0] - x) <= BOUNDS_TOLERANCE
+                    && Math.abs(rect[1] - y) <= BOUNDS_TOLERANCE
+                    && Math.abs(rect[2] - (x + width)) <= BOUNDS_TOLERANCE
+                    && Math.abs(rect[3] - (y + height)) <= BOUNDS_TOLERANCE;
+        }
+    }
+
+    // 缓存项（hwnd 为 null 表示已失效，但 showing 监听器已安装）
+    private static final class Entry {
+        private volatile WinDef.HWND hwnd;
+    }
+
+    /*
+     * Glass 对等体访问：Window.getPeer() → TKStage.getRawHandle()
+     * MethodHandle 只解析一次，无法访问时 AVAILABLE 为 false
+     */
+    private static final class GlassPeer {
+        private static final MethodHandle GET_PEER;
+        private static final MethodHandle GET_RAW_HANDLE;
+        private static final boolean AVAILABLE;
+
+        static {
+            MethodHandle getPeer = null;
+            MethodHandle getRawHandle = null;
+            try {
+                Method peerMethod = javafx.stage.Window.class.getDeclaredMethod("getPeer");
+                peerMethod.setAccessible(true);
+                Method rawHandleMethod = Class.forName("com.sun.javafx.tk.TKStage").getMethod("getRawHandle");
+                rawHandleMethod.setAccessible(true);
+
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                getPeer = lookup.unreflect(peerMethod)
+                        .asType(MethodType.methodType(Object.class, javafx.stage.Window.class));
+                getRawHandle = lookup.unreflect(rawHandleMethod)
+                        .asType(MethodType.methodType(long.class, Object.class));
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                // 缺少 --add-opens / --add-exports 参数，退化到枚举策略
+                getPeer = null;
+                getRawHandle = null;
+            }
+            GET_PEER = getPeer;
+            GET_RAW_HANDLE = getRawHandle;
+            AVAILABLE = getPeer != null;
+        }
+
+        static WinDef.HWND lookup(Stage stage) {
+            try {
+                Object peer = GET_PEER.invokeExact((javafx.stage.Window) stage);
+                if (peer == null) {
+                    return null;
+                }
+                long handle = (long) GET_RAW_HANDLE.invokeExact(peer);
+                return handle == 0 ? null : new WinDef.HWND(new Pointer(handle));
+            } catch (Throwable e) {
+                return null;
+            }
+        }
+    }
+}
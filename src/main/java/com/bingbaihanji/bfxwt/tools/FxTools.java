@@ -1,5 +1,6 @@
 package com.bingbaihanji.bfxwt.tools;
 
+import com.bingbaihanji.bfxwt.jfr.ScreenshotPhaseEvent;
 import javafx.application.Platform;
 import javafx.embed.swing.SwingFXUtils;
 import javafx.geometry.Rectangle2D;
@@ -56,18 +57,17 @@ public class FxTools {
                 double mouseXRatio = e.getSceneX() / stage.getWidth();
                 double mouseYRatio = e.getSceneY() / stage.getHeight();
                 stage.setMaximized(false);
-                stage.setWidth(restoreW);
-                stage.setHeight(restoreH);
-                stage.setX(e.getScreenX() - restoreW * mouseXRatio);
-                stage.setY(e.getScreenY() - restoreH * mouseYRatio);
                 dragOffsetX = restoreW * mouseXRatio;
                 dragOffsetY = restoreH * mouseYRatio;
+                // 还原尺寸与下面的移动在同一帧内一次应用
+                StageBoundsUpdater.of(stage).resizeTo(restoreW, restoreH);
             }
 
-            stage.setX(e.getScreenX() - dragOffsetX);
-            stage.setY(e.getScreenY() - dragOffsetY);
+            StageBoundsUpdater.of(stage).moveTo(e.getScreenX() - dragOffsetX, e.getScreenY() - dragOffsetY);
         });
 
+        node.setOnMouseReleased(e -> StageBoundsUpdater.of(stage).flush());
+
         node.setOnMouseClicked(e -> {
             if (e.getClickCount() == 2 && !isResizeCursor(node)) {
                 toggleMaximize(stage, e.getScreenX(), e.getScreenY());
@@ -139,15 +139,21 @@ public class FxTools {
     public static void screenshots(Stage primaryStage, Node node) {
 
         // 创建快照
+        ScreenshotPhaseEvent snapshotEvent = new ScreenshotPhaseEvent(ScreenshotPhaseEvent.SNAPSHOT);
+        snapshotEvent.begin();
         SnapshotParameters snapshotParameters = new SnapshotParameters();
         snapshotParameters.setFill(Color.TRANSPARENT); // 使用透明背景
         WritableImage image = node.snapshot(snapshotParameters, null);
+        commitScreenshotPhase(snapshotEvent, image, 0);
 
         // 保存截图到剪切板
         copyImageToClipboard(image);
 
         // 保存到文件
+        ScreenshotPhaseEvent encodeEvent = new ScreenshotPhaseEvent(ScreenshotPhaseEvent.ENCODE);
+        encodeEvent.begin();
         BufferedImage png = SwingFXUtils.fromFXImage(image, null);
+        commitScreenshotPhase(encodeEvent, image, 0);
         FileChooser fileChooser = new FileChooser();
         // 设置默认文件名：当前日期时间
         LocalDateTime now = LocalDateTime.now();
@@ -160,13 +166,27 @@ public class FxTools {
         File save = fileChooser.showSaveDialog(primaryStage);
         if (save != null) {
             try {
+                ScreenshotPhaseEvent writeEvent = new ScreenshotPhaseEvent(ScreenshotPhaseEvent.WRITE);
+                writeEvent.begin();
                 ImageIO.write(png, "png", save);
+                commitScreenshotPhase(writeEvent, image, save.length());
             } catch (IOException e) {
                 throw new RuntimeException(e);
             }
         }
     }
 
+    // 提交截图阶段 JFR 事件
+    private static void commitScreenshotPhase(ScreenshotPhaseEvent event, WritableImage image, long bytes) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.width = (int) image.getWidth();
+            event.height = (int) image.getHeight();
+            event.bytes = bytes;
+            event.commit();
+        }
+    }
+
     /**
      * 将图片复制到剪切板
      *
@@ -222,9 +242,10 @@ public class FxTools {
                 if (window instanceof Stage stage) {
                     try {
                         Class<?> loader = resourceClass != null ? resourceClass : FxTools.class;
-                        var iconUrl = loader.getResource(iconPath);
-                        if (iconUrl != null) {
-                            stage.getIcons().add(new Image(iconUrl.toExternalForm()));
+                        // 共享缓存中的实例，每次显示不重复解码，也不重复添加
+                        Image icon = ImageCache.get(loader, iconPath);
+                        if (icon != null && !stage.getIcons().contains(icon)) {
+                            stage.getIcons().add(icon);
                         }
                     } catch (Exception e) {
                         log.error("机子图标失败: {}", e.getMessage(), e);
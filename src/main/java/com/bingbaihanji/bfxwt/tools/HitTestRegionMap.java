@@ -0,0 +1,197 @@
+package com.bingbaihanji.bfxwt.tools;
+
+import com.bingbaihanji.bfxwt.backend.NativeWindowBackend;
+import com.bingbaihanji.bfxwt.backend.NativeWindowBackends;
+import com.sun.jna.platform.win32.WinDef;
+import javafx.geometry.Bounds;
+import javafx.scene.Node;
+import javafx.stage.Stage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.HitTestCode.HTCAPTION;
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.HitTestCode.HTCLIENT;
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.HitTestCode.HTNOWHERE;
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.WindowMessage.WM_NCHITTEST;
+
+/**
+ * 无边框窗口的点击测试区域表（回答 WM_NCHITTEST）
+ *
+ * <p>
+ * 把窗口内的点映射为 HT* 代码：边缘 → HTLEFT / HTTOPRIGHT 等，标题区域 → HTCAPTION，
+ * 标题区域中的交互控件（按钮、菜单等）→ HTCLIENT。安装到窗口后由系统直接完成拖动和边缘调整大小：
+ * 光标、模态移动 / 缩放循环都在原生层处理，拖动过程中 Java 不收到任何逐像素事件。
+ * </p>
+ *
+ * <p><b>使用示例：</b></p>
+ * <pre>{@code
+ * HitTestRegionMap regions = new HitTestRegionMap(6)
+ *         .addCaption(titleBar)
+ *         .addClient(menuBar)
+ *         .addClient(windowButtons);
+ * WindowMessageStream.Subscription installed = regions.install(stage);
+ * if (installed == null) {
+ *     // 不支持原生点击测试：继续使用 Java 实现的拖动和调整大小
+ * }
+ * }</pre>
+ *
+ * @author bingbaihanji
+ * @date 2026-01-23
+ * @implNote 区域按节点的场景坐标实时计算，节点移动或隐藏后无需重新注册；
+ * 所有方法都应在 JavaFX Application Thread 上调用。
+ */
+public final class HitTestRegionMap {
+
+    private final List<Node> captions = new ArrayList<>();
+    private final List<Node> clients = new ArrayList<>();
+    // 边缘调整大小区域宽度（逻辑像素）
+    private double resizeMargin;
+    private boolean resizable = true;
+    private boolean movable = true;
+
+    // 复用的窗口矩形缓冲区（窗口过程只在 FX 线程上调用）
+    private final int[] windowRect = new int[4];
+
+    public HitTestRegionMap(double resizeMargin) {
+        setResizeMargin(resizeMargin);
+    }
+
+    /**
+     * 设置边缘调整大小区域宽度（逻辑像素）
+     */
+    public HitTestRegionMap setResizeMargin(double resizeMargin) {
+        this.resizeMargin = Math.max(0, resizeMargin);
+        return this;
+    }
+
+    public double getResizeMargin() {
+        return resizeMargin;
+    }
+
+    /**
+     * 设置是否允许边缘调整大小（例如最大化时关闭）
+     */
+    public HitTestRegionMap setResizable(boolean resizable) {
+        this.resizable = resizable;
+        return this;
+    }
+
+    public boolean isResizable() {
+        return resizable;
+    }
+
+    /**
+     * 设置标题区域是否可拖动窗口（false 时标题区域按 HTCLIENT 处理，事件交给 JavaFX）
+     */
+    public HitTestRegionMap setMovable(boolean movable) {
+        this.movable = movable;
+        return this;
+    }
+
+    public boolean isMovable() {
+        return movable;
+    }
+
+    /**
+     * 注册标题区域（按住可拖动窗口）
+     */
+    public HitTestRegionMap addCaption(Node node) {
+        captions.add(node);
+        return this;
+    }
+
+    /**
+     * 注册交互区域（优先于标题区域，事件交给 JavaFX 处理）
+     */
+    public HitTestRegionMap addClient(Node node) {
+        clients.add(node);
+        return this;
+    }
+
+    public boolean removeCaption(Node node) {
+        return captions.remove(node);
+    }
+
+    public boolean removeClient(Node node) {
+        return clients.remove(node);
+    }
+
+    /**
+     * 点击测试
+     *
+     * @param x      窗口内 X 坐标（逻辑像素，即场景坐标）
+     * @param y      窗口内 Y 坐标
+     * @param width  窗口宽度
+     * @param height 窗口高度
+     * @return HT* 代码
+     */
+    public int hitTest(double x, double y, double width, double height) {
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return HTNOWHERE;
+        }
+        if (resizable) {
+            ResizeZone zone = ResizeHitTester.zoneAt(x, y, width, height, resizeMargin);
+            if (zone.isResize()) {
+                return zone.hitTestCode();
+            }
+        }
+        if (containsAny(clients, x, y)) {
+            return HTCLIENT;
+        }
+        if (movable && containsAny(captions, x, y)) {
+            return HTCAPTION;
+        }
+        return HTCLIENT;
+    }
+
+    /**
+     * 安装到窗口：拦截 WM_NCHITTEST 并按本区域表回答
+     *
+     * @return 拦截凭证（关闭即卸载）；不支持窗口过程子类化时返回 null
+     */
+    public WindowMessageStream.Subscription install(Stage stage) {
+        WindowMessageStream stream = WindowMessageStream.of(stage);
+        if (stream == null) {
+            return null;
+        }
+        WinDef.HWND hwnd = FXNativeWindowsTools.getHWnd(stage);
+        long handle = FXNativeWindowsTools.handleOf(hwnd);
+        WindowMessageStream.Subscription subscription = stream.intercept(WM_NCHITTEST,
+                (h, msg, wParam, lParam) -> onHitTest(stage, handle, lParam));
+        if (!stream.isAttached()) {
+            subscription.close();
+            return null;
+        }
+        return subscription;
+    }
+
+    /*
+     * lParam 为屏幕物理坐标，换算为窗口内的逻辑坐标后测试
+     */
+    private long onHitTest(Stage stage, long handle, long lParam) {
+        NativeWindowBackend backend = NativeWindowBackends.get();
+        if (!backend.getWindowRect(handle, windowRect)) {
+            return NativeWindowBackend.PASS_TO_ORIGINAL;
+        }
+        double scaleX = stage.getOutputScaleX();
+        double scaleY = stage.getOutputScaleY();
+        double x = (WindowMessageStream.signedLoWord(lParam) - windowRect[0]) / scaleX;
+        double y = (WindowMessageStream.signedHiWord(lParam) - windowRect[1]) / scaleY;
+        double width = (windowRect[2] - windowRect[0]) / scaleX;
+        double height = (windowRect[3] - windowRect[1]) / scaleY;
+        return hitTest(x, y, width, height);
+    }
+
+    private static boolean containsAny(List<Node> nodes, double sceneX, double sceneY) {
+        for (Node node : nodes) {
+            if (node.isVisible() && node.getScene() != null) {
+                Bounds bounds = node.localToScene(node.getBoundsInLocal());
+                if (bounds.contains(sceneX, sceneY)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,200 @@
+package com.bingbaihanji.bfxwt.tools;
+
+import javafx.scene.image.Image;
+import javafx.stage.Screen;
+import javafx.stage.Window;
+
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 进程级的图片缓存（窗口按钮、应用图标等小图标）
+ *
+ * <p>
+ * 按「资源 + 显示尺寸 + 输出缩放」缓存解码后的 {@link Image}，所有窗口共享同一个实例：
+ * 指定尺寸时直接按目标物理像素解码（{@code requestedWidth / requestedHeight}），
+ * 而不是按原图解码后再由 {@code ImageView.fitWidth} 缩小；切换图标只是取出已解码的实例。
+ * {@link #preload} 在后台线程上提前解码，与窗口构建并行；FX 线程取正在解码的图片时等待同一次解码，
+ * 不会重复解码。
+ * </p>
+ *
+ * <p><b>使用示例：</b></p>
+ * <pre>{@code
+ * double scale = ImageCache.outputScale(stage);
+ * ImageCache.preload(MyApp.class, 12, 12, scale, "/icons/close.png", "/icons/max.png");
+ *
+ * ImageView view = new ImageView(ImageCache.get(MyApp.class, "/icons/close.png", 12, 12, scale));
+ * view.setFitWidth(12);
+ * view.setFitHeight(12);
+ *
+ * System.out.println(ImageCache.stats());
+ * }</pre>
+ *
+ * @author bingbaihanji
+ * @date 2026-01-24
+ * @implNote 缓存为强引用、不淘汰，适合数量有限的界面图标；大图或数量不定的图片不应放入本缓存。
+ * 图片同步解码（非 backgroundLoading），可以在任意线程上调用。
+ */
+public final class ImageCache {
+
+    private static final Map<Key, Image> IMAGES = new ConcurrentHashMap<>();
+
+    // 统计
+    private static final LongAdder HITS = new LongAdder();
+    private static final LongAdder MISSES = new LongAdder();
+    private static final AtomicLong BYTES = new AtomicLong();
+
+    private ImageCache() {
+    }
+
+    /**
+     * 原始尺寸的图片
+     *
+     * @param owner 用于加载资源的类（决定所在模块 / 类加载器），为 null 时使用本类
+     * @param path  资源路径，例如 "/icons/app.png"
+     * @return 图片；资源不存在时返回 null
+     */
+    public static Image get(Class<?> owner, String path) {
+        return get(owner, path, 0, 0, 1.0);
+    }
+
+    /**
+     * 按显示尺寸和输出缩放解码的图片
+     *
+     * @param owner  用于加载资源的类，为 null 时使用本类
+     * @param path   资源路径
+     * @param width  显示宽度（逻辑像素），0 表示按高度等比或原始尺寸
+     * @param height 显示高度（逻辑像素），0 表示按宽度等比或原始尺寸
+     * @param scale  输出缩放（见 {@link #outputScale(Window)}）
+     * @return 图片（物理像素尺寸 = 显示尺寸 × 缩放）；资源不存在时返回 null
+     */
+    public static Image get(Class<?> owner, String path, double width, double height, double scale) {
+        URL url = (owner != null ? owner : ImageCache.class).getResource(path);
+        if (url == null) {
+            return null;
+        }
+        Key key = Key.of(url, width, height, scale);
+        Image image = IMAGES.get(key);
+        if (image != null) {
+            HITS.increment();
+            return image;
+        }
+        return IMAGES.computeIfAbsent(key, ImageCache::decode);
+    }
+
+    /**
+     * 在后台线程上预先解码一组同尺寸的图片
+     *
+     * @return 全部解码完成时完成
+     */
+    public static CompletableFuture<Void> preload(Class<?> owner, double width, double height, double scale,
+                                                  String... paths) {
+        return CompletableFuture.runAsync(() -> {
+            for (String path : paths) {
+                get(owner, path, width, height, scale);
+            }
+        }, Preloader.EXECUTOR);
+    }
+
+    /**
+     * 窗口的输出缩放；窗口为 null 或尚未显示时使用主屏幕的缩放（需要 FX 工具包已启动）
+     */
+    public static double outputScale(Window window) {
+        double scale = window != null && window.isShowing() ? window.getOutputScaleX() : 0;
+        if (scale <= 0) {
+            scale = Screen.getPrimary().getOutputScaleX();
+        }
+        return scale > 0 ? scale : 1.0;
+    }
+
+    /**
+     * 统计快照
+     */
+    public static Stats stats() {
+        return new Stats(HITS.sum(), MISSES.sum(), IMAGES.size(), BYTES.get());
+    }
+
+    /**
+     * 清零命中统计（不清空缓存）
+     */
+    public static void resetStats() {
+        HITS.reset();
+        MISSES.reset();
+    }
+
+    /**
+     * 清空缓存（已取出的实例仍然有效）
+     */
+    public static void clear() {
+        IMAGES.clear();
+        BYTES.set(0);
+    }
+
+    private static Image decode(Key key) {
+        MISSES.increment();
+        Image image = key.pixelWidth() > 0 || key.pixelHeight() > 0
+                ? new Image(key.url(), key.pixelWidth(), key.pixelHeight(), true, true, false)
+                : new Image(key.url(), false);
+        // 按 32 位 ARGB 估算解码后的像素数据大小
+        BYTES.addAndGet((long) image.getWidth() * (long) image.getHeight() * 4);
+        return image;
+    }
+
+    /*
+     * 缓存键：资源 URL 与目标物理像素尺寸（0 表示不限制）
+     */
+    record Key(String url, int pixelWidth, int pixelHeight) {
+
+        /*
+         * 显示尺寸（逻辑像素）按输出缩放换算为物理像素并向上取整，非法缩放按 1.0 处理
+         */
+        static Key of(URL url, double width, double height, double scale) {
+            double safeScale = scale > 0 ? scale : 1.0;
+            return new Key(url.toExternalForm(),
+                    (int) Math.ceil(Math.max(0, width) * safeScale),
+                    (int) Math.ceil(Math.max(0, height) * safeScale));
+        }
+    }
+
+    /*
+     * 后台解码线程（首次预加载时创建）
+     */
+    private static final class Preloader {
+        private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "bfxwt-image-preload");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 缓存统计
+     *
+     * @param hits    命中次数
+     * @param misses  未命中（实际解码）次数
+     * @param entries 缓存的图片数
+     * @param bytes   缓存图片的像素数据大小估计（字节）
+     */
+    public record Stats(long hits, long misses, int entries, long bytes) {
+
+        /**
+         * 命中率（0~1），没有查询时为 0
+         */
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("ImageCache[命中 %d, 解码 %d, 命中率 %.1f%%, %d 张, %.1f KB]",
+                    hits, misses, hitRate() * 100, entries, bytes / 1024.0);
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package com.bingbaihanji.bfxwt.tools;
+
+import com.bingbaihanji.bfxwt.backend.NativeWindowBackends;
+import com.sun.jna.platform.win32.WinDef;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.WindowLongIndex.GWL_EXSTYLE;
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.WindowStyleEx.WS_EX_LAYERED;
+
+/**
+ * 原生命令异步执行器（可选）
+ *
+ * <p>
+ * {@link FXNativeWindowsTools} 的方法在调用线程上同步执行，通常就是 JavaFX Application Thread；
+ * DwmSetWindowAttribute、跨进程 SetParent 等调用在 DWM 或外部进程响应慢时可能阻塞数十毫秒。
+ * 本执行器把原生命令放到后台线程执行：
+ * </p>
+ * <ul>
+ *   <li>每个窗口一条有序队列：同一窗口的命令严格按提交顺序执行，不同窗口之间并行</li>
+ *   <li>每个命令返回 {@link CompletableFuture}，执行完成（或失败）时完成</li>
+ *   <li>带合并键的命令：队列中尚未执行的同键命令被移除，新命令排到队尾，
+ *       被合并的命令的 Future 随新命令一起完成（例如连续三次设置透明度只执行最后一次）</li>
+ * </ul>
+ *
+ * <p><b>使用示例：</b></p>
+ * <pre>{@code
+ * NativeCommandExecutor executor = NativeCommandExecutor.shared();
+ * executor.setDwmAttribute(hwnd, DWMWA_SYSTEMBACKDROP_TYPE, DWMSBT_MAINWINDOW);
+ * executor.setWindowAlpha(hwnd, 0.8)
+ *         .thenRun(() -> Platform.runLater(() -> label.setText("已应用")));
+ *
+ * // 任意原生操作
+ * executor.run(childHwnd, null, () -> FXWindowEmbedTools.embedToParent(childHwnd, parentHwnd));
+ * }</pre>
+ *
+ * @author bingbaihanji
+ * @date 2026-01-23
+ * @implNote 不要在 JavaFX Application Thread 上 {@code join()} 这些 Future：
+ * 跨线程的 SetWindowPos 等调用会向窗口所属线程发送消息，等待它们会造成死锁。
+ * 结果需要回到 FX 线程时使用 {@code Platform.runLater}。
+ */
+public final class NativeCommandExecutor implements AutoCloseable {
+
+    private static volatile NativeCommandExecutor shared;
+
+    private final Executor executor;
+    // 由本实例创建、需要在 close 时关闭的线程池（使用外部 Executor 时为 null）
+    private final ExecutorService ownedExecutor;
+    private final Map<Long, Lane> lanes = new ConcurrentHashMap<>();
+
+    // 统计
+    private final LongAdder submittedCount = new LongAdder();
+    private final LongAdder executedCount = new LongAdder();
+    private final LongAdder coalescedCount = new LongAdder();
+
+    /**
+     * 使用自己的守护线程池
+     */
+    public NativeCommandExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+        this.ownedExecutor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "bfxwt-native-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor = ownedExecutor;
+    }
+
+    /**
+     * 使用指定的 Executor 执行命令（同一窗口的命令仍然按顺序串行执行）
+     */
+    public NativeCommandExecutor(Executor executor) {
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor 不能为 null");
+        }
+        this.executor = executor;
+        this.ownedExecutor = null;
+    }
+
+    /**
+     * 全局共享实例（首次访问时创建，使用守护线程）
+     */
+    public static NativeCommandExecutor shared() {
+        NativeCommandExecutor instance = shared;
+        if (instance == null) {
+            synchronized (NativeCommandExecutor.class) {
+                instance = shared;
+                if (instance == null) {
+                    instance = new NativeCommandExecutor();
+                    shared = instance;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 提交一个有返回值的原生命令
+     *
+     * @param hwnd        命令所属窗口（决定排入哪条队列）
+     * @param coalesceKey 合并键，null 表示不合并
+     * @param command     在后台线程执行的命令
+     * @return 命令完成时完成；命令抛出异常时异常完成
+     */
+    public <T> CompletableFuture<T> submit(WinDef.HWND hwnd, String coalesceKey, Supplier<T> command) {
+        if (hwnd == null) {
+            throw new IllegalArgumentException("窗口句柄不能为 null");
+        }
+        if (command == null) {
+            throw new IllegalArgumentException("命令不能为 null");
+        }
+        long handle = FXNativeWindowsTools.handleOf(hwnd);
+        Command<T> entry = new Command<>(coalesceKey, command);
+        submittedCount.increment();
+        while (true) {
+            Lane lane = lanes.computeIfAbsent(handle, Lane::new);
+            boolean schedule;
+            synchronized (lane) {
+                if (lane.retired) {
+                    // 队列刚被回收，重新获取
+                    continue;
+                }
+                if (coalesceKey != null) {
+                    coalesce(lane, entry);
+                }
+                lane.queue.add(entry);
+                schedule = !lane.draining;
+                lane.draining = true;
+            }
+            if (schedule) {
+                try {
+                    executor.execute(() -> drain(lane));
+                } catch (RejectedExecutionException e) {
+                    reject(lane, e);
+                }
+            }
+            return entry.future;
+        }
+    }
+
+    /**
+     * 提交一个无返回值的原生命令
+     *
+     * @see #submit(WinDef.HWND, String, Supplier)
+     */
+    public CompletableFuture<Void> run(WinDef.HWND hwnd, String coalesceKey, Runnable command) {
+        if (command == null) {
+            throw new IllegalArgumentException("命令不能为 null");
+        }
+        return submit(hwnd, coalesceKey, () -> {
+            command.run();
+            return null;
+        });
+    }
+
+    /**
+     * 异步设置窗口整体透明度（首次设置时写入 WS_EX_LAYERED），连续设置会被合并
+     *
+     * @param alpha 透明度，0 = 全透明，1 = 不透明（超出范围会被截断）
+     */
+    public CompletableFuture<Void> setWindowAlpha(WinDef.HWND hwnd, double alpha) {
+        byte value = (byte) Math.round(Math.max(0.0, Math.min(1.0, alpha)) * 255);
+        return run(hwnd, "alpha", () -> {
+            WindowStateMirror mirror = WindowStateMirror.of(hwnd);
+            mirror.applyStyleBits(GWL_EXSTYLE, WS_EX_LAYERED, 0);
+            mirror.applyLayeredAlpha(value);
+        });
+    }
+
+    /**
+     * 异步设置 DWM 整型属性，同一属性的连续设置会被合并
+     */
+    public CompletableFuture<Void> setDwmAttribute(WinDef.HWND hwnd, int attribute, int value) {
+        return run(hwnd, "dwm:" + attribute, () -> WindowStateMirror.of(hwnd).applyDwmAttribute(attribute, value));
+    }
+
+    /**
+     * 异步调用 SetWindowPos（物理像素），标志相同的连续设置会被合并
+     *
+     * <p>
+     * 合并键包含 flags：标志不同的调用（例如只移动 {@code SWP_NOSIZE} 与只改尺寸 {@code SWP_NOMOVE}）
+     * 改变的是窗口的不同部分，不能互相替代，都会被执行。
+     * </p>
+     *
+     * @return SetWindowPos 是否成功
+     */
+    public CompletableFuture<Boolean> setWindowPos(WinDef.HWND hwnd, int x, int y, int width, int height, int flags) {
+        long handle = FXNativeWindowsTools.handleOf(hwnd);
+        return submit(hwnd, "pos:" + flags,
+                () -> NativeWindowBackends.get().setWindowPos(handle, 0, x, y, width, height, flags));
+    }
+
+    /**
+     * 返回一个在该窗口当前所有已提交命令执行完后完成的 Future
+     */
+    public CompletableFuture<Void> flush(WinDef.HWND hwnd) {
+        return run(hwnd, null, () -> {
+        });
+    }
+
+    /**
+     * 已提交的命令数
+     */
+    public long getSubmittedCount() {
+        return submittedCount.sum();
+    }
+
+    /**
+     * 实际执行的命令数
+     */
+    public long getExecutedCount() {
+        return executedCount.sum();
+    }
+
+    /**
+     * 被合并（未执行）的命令数
+     */
+    public long getCoalescedCount() {
+        return coalescedCount.sum();
+    }
+
+    /**
+     * 关闭本实例创建的线程池（使用外部 Executor 时不做任何事），已排队的命令仍会执行完
+     */
+    @Override
+    public void close() {
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+        }
+    }
+
+    /*
+     * 移除队列中尚未执行的同键命令，其 Future 跟随新命令完成
+     */
+    @SuppressWarnings("unchecked")
+    private void coalesce(Lane lane, Command<?> entry) {
+        Iterator<Command<?>> it = lane.queue.iterator();
+        while (it.hasNext()) {
+            Command<?> pending = it.next();
+            if (entry.key.equals(pending.key)) {
+                it.remove();
+                coalescedCount.increment();
+                CompletableFuture<Object> superseded = (CompletableFuture<Object>) pending.future;
+                entry.future.whenComplete((result, error) -> {
+                    if (error != null) {
+                        superseded.completeExceptionally(error);
+                    } else {
+                        superseded.complete(result);
+                    }
+                });
+            }
+        }
+    }
+
+    /*
+     * 线程池已关闭：队列中的命令全部异常完成
+     */
+    private void reject(Lane lane, RejectedExecutionException error) {
+        synchronized (lane) {
+            Command<?> pending;
+            while ((pending = lane.queue.poll()) != null) {
+                pending.future.completeExceptionally(error);
+            }
+            lane.draining = false;
+            lane.retired = true;
+            lanes.remove(lane.handle, lane);
+        }
+    }
+
+    private void drain(Lane lane) {
+        while (true) {
+            Command<?> next;
+            synchronized (lane) {
+                next = lane.queue.poll();
+                if (next == null) {
+                    lane.draining = false;
+                    lane.retired = true;
+                    lanes.remove(lane.handle, lane);
+                    return;
+                }
+            }
+            next.execute();
+            executedCount.increment();
+        }
+    }
+
+    /*
+     * 一个窗口的命令队列；同一时刻最多一个线程在执行它
+     */
+    private static final class Lane {
+        private final long handle;
+        private final ArrayDeque<Command<?>> queue = new ArrayDeque<>();
+        private boolean draining;
+        // 已从映射中移除，不再接受新命令
+        private boolean retired;
+
+        private Lane(long handle) {
+            this.handle = handle;
+        }
+    }
+
+    private static final class Command<T> {
+        private final String key;
+        private final Supplier<T> action;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        private Command(String key, Supplier<T> action) {
+            this.key = key;
+            this.action = action;
+        }
+
+        private void execute() {
+            try {
+                future.complete(action.get());
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.bingbaihanji.bfxwt.tools;
+
+import com.bingbaihanji.bfxwt.backend.NativeWindowBackends;
+import com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.DwmApi;
+import com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Kernel32Api;
+import com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.User32Api;
+import com.sun.jna.Native;
+import com.sun.jna.Platform;
+import com.sun.jna.platform.win32.WinDef;
+import com.sun.jna.ptr.IntByReference;
+
+import java.util.concurrent.CompletableFuture;
+
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.DwmAttribute.DWMWA_WINDOW_CORNER_PREFERENCE;
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.WindowLongIndex.GWL_STYLE;
+
+/**
+ * 原生绑定的后台预热
+ *
+ * <p>
+ * {@link User32Api}、{@link DwmApi}、{@link Kernel32Api} 的 {@code INSTANCE} 是接口常量，
+ * 在第一次访问时才执行 {@code Native.load}（接口本身就是延迟初始化的 holder）。
+ * 不预热时，JNA 解压 jnidispatch、加载三个 DLL、为每个方法建立调用信息都发生在
+ * 第一次设置窗口圆角的 {@code Platform.runLater} 中，推迟第一帧的窗口样式。
+ * 预热在守护线程上提前完成这些工作，与 FX 工具包初始化并行；
+ * FX 线程在预热完成前访问绑定时由 JVM 类初始化锁等待，不会重复加载。
+ * </p>
+ *
+ * <p>
+ * {@code AbstractCustomWindow} 在类初始化时自动启动预热，
+ * 可通过 {@code -Dbfxwt.warmup=false} 关闭。每一步的耗时记录在 {@link StartupTimeline} 中。
+ * </p>
+ *
+ * @author bingbaihanji
+ * @date 2026-01-24
+ * @implNote 预热只调用无副作用的函数（空句柄的查询），非 Windows 平台不做任何事。
+ */
+public final class NativeWarmup {
+
+    /**
+     * 关闭自动预热的系统属性
+     */
+    public static final String WARMUP_PROPERTY = "bfxwt.warmup";
+
+    private static volatile CompletableFuture<Void> warmup;
+
+    private NativeWarmup() {
+    }
+
+    /**
+     * 启动预热（重复调用返回同一个 Future）
+     *
+     * @return 预热完成时完成；非 Windows 平台立即完成
+     */
+    public static CompletableFuture<Void> start() {
+        CompletableFuture<Void> current = warmup;
+        if (current == null) {
+            synchronized (NativeWarmup.class) {
+                current = warmup;
+                if (current == null) {
+                    current = new CompletableFuture<>();
+                    warmup = current;
+                    if (Platform.isWindows()) {
+                        CompletableFuture<Void> future = current;
+                        Thread thread = new Thread(() -> run(future), "bfxwt-warmup");
+                        thread.setDaemon(true);
+                        thread.start();
+                    } else {
+                        current.complete(null);
+                    }
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 未通过 {@code -Dbfxwt.warmup=false} 关闭时启动预热
+     */
+    public static void startIfEnabled() {
+        if (!"false".equals(System.getProperty(WARMUP_PROPERTY))) {
+            start();
+        }
+    }
+
+    /**
+     * 预热是否已完成
+     */
+    public static boolean isDone() {
+        CompletableFuture<Void> current = warmup;
+        return current != null && current.isDone();
+    }
+
+    private static void run(CompletableFuture<Void> future) {
+        long total = StartupTimeline.now();
+        try {
+            // 1. JNA 本身：解压并加载 jnidispatch
+            long start = StartupTimeline.now();
+            Native.getDefaultStringEncoding();
+            StartupTimeline.record("warmup:jna", start);
+
+            // 2. 三个 DLL 与热点方法的调用信息（空句柄调用，只会返回错误码）
+            start = StartupTimeline.now();
+            User32Api user32 = User32Api.INSTANCE;
+            user32.GetWindowLongPtr(null, GWL_STYLE);
+            user32.SetWindowPos(null, null, 0, 0, 0, 0, 0);
+            user32.GetWindowRect(null, new WinDef.RECT());
+            user32.IsZoomed(null);
+            user32.IsIconic(null);
+            StartupTimeline.record("warmup:user32", start);
+
+            start = StartupTimeline.now();
+            IntByReference value = new IntByReference();
+            DwmApi.INSTANCE.DwmGetWindowAttribute(null, DWMWA_WINDOW_CORNER_PREFERENCE, value, Integer.BYTES);
+            DwmApi.INSTANCE.DwmSetWindowAttribute(null, DWMWA_WINDOW_CORNER_PREFERENCE, value, Integer.BYTES);
+            StartupTimeline.record("warmup:dwmapi", start);
+
+            start = StartupTimeline.now();
+            Kernel32Api.INSTANCE.GetCurrentProcessId();
+            Kernel32Api.INSTANCE.GetCurrentThreadId();
+            StartupTimeline.record("warmup:kernel32", start);
+
+            // 3. 后端（-Dbfxwt.backend=win32-direct 时同时完成 User32Direct 的注册）
+            start = StartupTimeline.now();
+            NativeWindowBackends.get();
+            StartupTimeline.record("warmup:backend", start);
+            future.complete(null);
+        } catch (Throwable t) {
+            // 预热失败不影响功能，第一次真正调用时会再次加载并报告错误
+            future.completeExceptionally(t);
+        } finally {
+            StartupTimeline.record("warmup:total", total);
+        }
+    }
+}
@@ -0,0 +1,393 @@
+package com.bingbaihanji.bfxwt.tools;
+
+import javafx.event.EventHandler;
+import javafx.scene.Cursor;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.layout.Pane;
+import javafx.scene.layout.Region;
+import javafx.stage.Window;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 无边框窗口的边缘调整大小点击测试
+ *
+ * <p>
+ * 把场景中的点映射为 {@link ResizeZone}，并只在区域变化时更新光标。三种实现方式：
+ * </p>
+ * <ul>
+ *   <li>{@link Strategy#COMPUTED}：每次鼠标移动按坐标计算区域（无分配），区域变化时才写光标</li>
+ *   <li>{@link Strategy#EDGE_NODES}：八个透明的边缘节点，光标固定在节点上由 JavaFX 拾取，
+ *       鼠标移动时本类不做任何计算，只在进入 / 离开边缘时记录区域；
+ *       需要把 {@link #getEdgeOverlay()} 作为最后一个（非托管）子节点加到场景根节点上</li>
+ *   <li>{@link Strategy#NATIVE}：由系统回答 WM_NCHITTEST（配合 {@link HitTestRegionMap}），
+ *       光标和调整大小都在原生层完成，JavaFX 中始终为 {@link ResizeZone#NONE}</li>
+ * </ul>
+ * <p>
+ * 边缘宽度以逻辑像素配置，按窗口的输出缩放对齐到整数物理像素，且不小于
+ * {@link #setMinimumDeviceMargin(int)} 指定的物理像素数；缩放变化（窗口移到其它 DPI 的屏幕）时自动重新计算。
+ * </p>
+ *
+ * <p><b>使用示例：</b></p>
+ * <pre>{@code
+ * ResizeHitTester tester = new ResizeHitTester(scene)
+ *         .setMargin(6)
+ *         .addCursorTarget(titleBar);
+ * tester.setStrategy(ResizeHitTester.Strategy.COMPUTED);
+ *
+ * scene.setOnMousePressed(e -> {
+ *     if (tester.getZone().isResize()) {
+ *         // 开始调整大小
+ *     }
+ * });
+ *
+ * // 每次鼠标移动的平均开销
+ * System.out.println(tester.getAverageNanosPerMove() + " ns / move");
+ * }</pre>
+ *
+ * @author bingbaihanji
+ * @date 2026-01-24
+ * @implNote 按下鼠标期间区域保持不变（拖动越过边缘节点不会中断调整大小）；
+ * 所有方法都应在 JavaFX Application Thread 上调用。
+ */
+public final class ResizeHitTester {
+
+    private final Scene scene;
+    private final EventHandler<MouseEvent> movedHandler = this::onMouseMoved;
+    // 区域变化时同步光标的节点（例如标题栏：子节点自己的光标会遮住场景光标）
+    private final List<Node> cursorTargets = new ArrayList<>();
+
+    private Strategy strategy;
+    private double margin = 6;
+    private int minimumDeviceMargin = 2;
+    private boolean enabled = true;
+    private ResizeZone zone = ResizeZone.NONE;
+
+    // 按输出缩放对齐后的边缘宽度（缩放变化时重新计算）
+    private double cachedScale = Double.NaN;
+    private double effectiveMargin;
+
+    // EDGE_NODES 方式的边缘节点
+    private Pane edgeOverlay;
+    private final Map<ResizeZone, Region> edgeNodes = new EnumMap<>(ResizeZone.class);
+
+    // 统计
+    private long moveCount;
+    private long moveNanos;
+    private long transitionCount;
+    private long cursorWriteCount;
+
+    public ResizeHitTester(Scene scene) {
+        if (scene == null) {
+            throw new IllegalArgumentException("scene 不能为 null");
+        }
+        this.scene = scene;
+        scene.widthProperty().addListener((obs, oldValue, newValue) -> layoutEdges());
+        scene.heightProperty().addListener((obs, oldValue, newValue) -> layoutEdges());
+        // 窗口移到其它 DPI 的屏幕时重新对齐边缘宽度
+        if (scene.getWindow() != null) {
+            watchScale(scene.getWindow());
+        }
+        scene.windowProperty().addListener((obs, oldWindow, newWindow) -> {
+            if (newWindow != null) {
+                watchScale(newWindow);
+            }
+        });
+    }
+
+    /**
+     * 纯计算的点击测试（无分配）
+     *
+     * @param x      场景 X 坐标
+     * @param y      场景 Y 坐标
+     * @param width  场景宽度
+     * @param height 场景高度
+     * @param margin 边缘宽度
+     * @return 所在区域，窗口外或不在边缘时为 {@link ResizeZone#NONE}
+     */
+    public static ResizeZone zoneAt(double x, double y, double width, double height, double margin) {
+        if (margin <= 0 || x < 0 || y < 0 || x >= width || y >= height) {
+            return ResizeZone.NONE;
+        }
+        return ResizeZone.of(x < margin, x >= width - margin, y < margin, y >= height - margin);
+    }
+
+    /**
+     * 切换实现方式（先卸载当前方式）
+     */
+    public ResizeHitTester setStrategy(Strategy strategy) {
+        if (this.strategy == strategy) {
+            return this;
+        }
+        if (this.strategy == Strategy.COMPUTED) {
+            scene.removeEventHandler(MouseEvent.MOUSE_MOVED, movedHandler);
+        }
+        this.strategy = strategy;
+        setZone(ResizeZone.NONE, true);
+        if (strategy == Strategy.COMPUTED) {
+            scene.addEventHandler(MouseEvent.MOUSE_MOVED, movedHandler);
+        }
+        if (edgeOverlay != null) {
+            edgeOverlay.setVisible(strategy == Strategy.EDGE_NODES && enabled);
+        }
+        return this;
+    }
+
+    public Strategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * 设置边缘宽度（逻辑像素）
+     */
+    public ResizeHitTester setMargin(double margin) {
+        this.margin = Math.max(0, margin);
+        cachedScale = Double.NaN;
+        layoutEdges();
+        return this;
+    }
+
+    public double getMargin() {
+        return margin;
+    }
+
+    /**
+     * 设置边缘的最小物理像素宽度（高 DPI 屏幕上保证可点中）
+     */
+    public ResizeHitTester setMinimumDeviceMargin(int pixels) {
+        this.minimumDeviceMargin = Math.max(0, pixels);
+        cachedScale = Double.NaN;
+        layoutEdges();
+        return this;
+    }
+
+    public int getMinimumDeviceMargin() {
+        return minimumDeviceMargin;
+    }
+
+    /**
+     * 当前输出缩放下实际使用的边缘宽度（逻辑像素）
+     */
+    public double getEffectiveMargin() {
+        double scale = outputScale();
+        if (scale != cachedScale) {
+            cachedScale = scale;
+            double devicePixels = Math.max(Math.ceil(margin * scale), margin > 0 ? minimumDeviceMargin : 0);
+            effectiveMargin = devicePixels / scale;
+        }
+        return effectiveMargin;
+    }
+
+    /**
+     * 启用 / 禁用边缘调整大小（例如最大化时禁用），禁用时区域为 {@link ResizeZone#NONE}
+     */
+    public ResizeHitTester setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            setZone(ResizeZone.NONE, true);
+        }
+        if (edgeOverlay != null) {
+            edgeOverlay.setVisible(strategy == Strategy.EDGE_NODES && enabled);
+        }
+        return this;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 添加光标同步节点（节点及其直接子节点的光标随区域变化）
+     */
+    public ResizeHitTester addCursorTarget(Node node) {
+        cursorTargets.add(node);
+        return this;
+    }
+
+    /**
+     * 当前区域
+     */
+    public ResizeZone getZone() {
+        return zone;
+    }
+
+    /**
+     * EDGE_NODES 方式使用的边缘节点层（首次调用时创建）
+     *
+     * <p>
+     * 非托管、不拾取自身边界，只有八个边缘节点接收鼠标；应作为场景根节点的最后一个子节点加入，
+     * 保证位于其它内容之上。
+     * </p>
+     */
+    public Pane getEdgeOverlay() {
+        if (edgeOverlay == null) {
+            edgeOverlay = new Pane();
+            edgeOverlay.setManaged(false);
+            edgeOverlay.setPickOnBounds(false);
+            for (ResizeZone edge : ResizeZone.values()) {
+                if (edge.isResize()) {
+                    edgeNodes.put(edge, createEdgeNode(edge));
+                }
+            }
+            edgeOverlay.getChildren().addAll(edgeNodes.values());
+            edgeOverlay.setVisible(strategy == Strategy.EDGE_NODES && enabled);
+            layoutEdges();
+        }
+        return edgeOverlay;
+    }
+
+    /**
+     * 处理过的鼠标移动次数（COMPUTED 方式）
+     */
+    public long getMoveCount() {
+        return moveCount;
+    }
+
+    /**
+     * 每次鼠标移动的平均处理耗时（纳秒，COMPUTED 方式；其它方式鼠标移动时不执行任何代码）
+     */
+    public double getAverageNanosPerMove() {
+        return moveCount == 0 ? 0 : (double) moveNanos / moveCount;
+    }
+
+    /**
+     * 区域变化次数
+     */
+    public long getTransitionCount() {
+        return transitionCount;
+    }
+
+    /**
+     * 光标写入次数（区域变化或场景光标被其它代码改写时写一次场景和同步节点）
+     */
+    public long getCursorWriteCount() {
+        return cursorWriteCount;
+    }
+
+    /**
+     * 清零统计
+     */
+    public void resetStats() {
+        moveCount = 0;
+        moveNanos = 0;
+        transitionCount = 0;
+        cursorWriteCount = 0;
+    }
+
+    private void onMouseMoved(MouseEvent e) {
+        long start = System.nanoTime();
+        ResizeZone next = enabled
+                ? zoneAt(e.getSceneX(), e.getSceneY(), scene.getWidth(), scene.getHeight(), getEffectiveMargin())
+                : ResizeZone.NONE;
+        if (next != zone) {
+            setZone(next, true);
+        } else if (scene.getCursor() != next.cursor()) {
+            // 其它代码改写了场景光标（例如按钮悬停时恢复默认光标），重新同步
+            writeCursor(next.cursor());
+        }
+        moveNanos += System.nanoTime() - start;
+        moveCount++;
+    }
+
+    /*
+     * 切换区域；writeCursor 为 false 时光标由节点自身决定（EDGE_NODES）
+     */
+    private void setZone(ResizeZone next, boolean writeCursor) {
+        if (next == zone) {
+            return;
+        }
+        zone = next;
+        transitionCount++;
+        if (writeCursor) {
+            writeCursor(next.cursor());
+        }
+    }
+
+    private void writeCursor(Cursor cursor) {
+        scene.setCursor(cursor);
+        for (Node target : cursorTargets) {
+            target.setCursor(cursor);
+            if (target instanceof Parent parent) {
+                for (Node child : parent.getChildrenUnmodifiable()) {
+                    child.setCursor(cursor);
+                }
+            }
+        }
+        cursorWriteCount++;
+    }
+
+    private Region createEdgeNode(ResizeZone edge) {
+        Region node = new Region();
+        node.setCursor(edge.cursor());
+        node.setPickOnBounds(true);
+        node.setOnMouseEntered(e -> setZone(edge, false));
+        node.setOnMouseExited(e -> {
+            // 按下鼠标期间保持区域，松开后再按悬停状态更新
+            if (!e.isPrimaryButtonDown() && !e.isSecondaryButtonDown() && !e.isMiddleButtonDown() && zone == edge) {
+                setZone(ResizeZone.NONE, false);
+            }
+        });
+        node.setOnMouseReleased(e -> {
+            if (!node.isHover() && zone == edge) {
+                setZone(ResizeZone.NONE, false);
+            }
+        });
+        return node;
+    }
+
+    private void layoutEdges() {
+        if (edgeOverlay == null) {
+            return;
+        }
+        double m = getEffectiveMargin();
+        double w = scene.getWidth();
+        double h = scene.getHeight();
+        double innerW = Math.max(0, w - 2 * m);
+        double innerH = Math.max(0, h - 2 * m);
+        edgeNodes.get(ResizeZone.NORTH_WEST).resizeRelocate(0, 0, m, m);
+        edgeNodes.get(ResizeZone.NORTH).resizeRelocate(m, 0, innerW, m);
+        edgeNodes.get(ResizeZone.NORTH_EAST).resizeRelocate(w - m, 0, m, m);
+        edgeNodes.get(ResizeZone.WEST).resizeRelocate(0, m, m, innerH);
+        edgeNodes.get(ResizeZone.EAST).resizeRelocate(w - m, m, m, innerH);
+        edgeNodes.get(ResizeZone.SOUTH_WEST).resizeRelocate(0, h - m, m, m);
+        edgeNodes.get(ResizeZone.SOUTH).resizeRelocate(m, h - m, innerW, m);
+        edgeNodes.get(ResizeZone.SOUTH_EAST).resizeRelocate(w - m, h - m, m, m);
+    }
+
+    private void watchScale(Window window) {
+        window.outputScaleXProperty().addListener((obs, oldValue, newValue) -> {
+            cachedScale = Double.NaN;
+            layoutEdges();
+        });
+    }
+
+    private double outputScale() {
+        Window window = scene.getWindow();
+        double scale = window == null ? 1.0 : window.getOutputScaleX();
+        return scale > 0 ? scale : 1.0;
+    }
+
+    /**
+     * 点击测试实现方式
+     */
+    public enum Strategy {
+        /**
+         * 每次鼠标移动按坐标计算，区域变化时写光标
+         */
+        COMPUTED,
+        /**
+         * 八个光标固定的透明边缘节点，鼠标移动时不执行计算
+         */
+        EDGE_NODES,
+        /**
+         * 由系统点击测试完成（配合 {@link HitTestRegionMap}），JavaFX 中不做任何处理
+         */
+        NATIVE
+    }
+}
@@ -0,0 +1,136 @@
+package com.bingbaihanji.bfxwt.tools;
+
+import javafx.scene.Cursor;
+
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.HitTestCode.HTBOTTOM;
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.HitTestCode.HTBOTTOMLEFT;
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.HitTestCode.HTBOTTOMRIGHT;
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.HitTestCode.HTCLIENT;
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.HitTestCode.HTLEFT;
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.HitTestCode.HTRIGHT;
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.HitTestCode.HTTOP;
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.HitTestCode.HTTOPLEFT;
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.HitTestCode.HTTOPRIGHT;
+
+/**
+ * 窗口边缘调整大小区域
+ *
+ * <p>
+ * 每个区域携带对应的光标、WM_NCHITTEST 代码，以及拖动时移动的是哪几条边，
+ * 调用方用一次枚举比较代替逐个比较光标对象。
+ * </p>
+ *
+ * @author bingbaihanji
+ * @date 2026-01-24
+ */
+public enum ResizeZone {
+
+    /**
+     * 不在边缘（普通内容区域）
+     */
+    NONE(Cursor.DEFAULT, HTCLIENT, false, false, false, false),
+    NORTH(Cursor.N_RESIZE, HTTOP, false, false, true, false),
+    SOUTH(Cursor.S_RESIZE, HTBOTTOM, false, false, false, true),
+    EAST(Cursor.E_RESIZE, HTRIGHT, false, true, false, false),
+    WEST(Cursor.W_RESIZE, HTLEFT, true, false, false, false),
+    NORTH_EAST(Cursor.NE_RESIZE, HTTOPRIGHT, false, true, true, false),
+    NORTH_WEST(Cursor.NW_RESIZE, HTTOPLEFT, true, false, true, false),
+    SOUTH_EAST(Cursor.SE_RESIZE, HTBOTTOMRIGHT, false, true, false, true),
+    SOUTH_WEST(Cursor.SW_RESIZE, HTBOTTOMLEFT, true, false, false, true);
+
+    // 按「左 | 右 << 1 | 上 << 2 | 下 << 3」索引的查找表
+    private static final ResizeZone[] BY_EDGES = new ResizeZone[16];
+
+    static {
+        for (int bits = 0; bits < BY_EDGES.length; bits++) {
+            boolean left = (bits & 1) != 0;
+            boolean right = (bits & 2) != 0;
+            boolean top = (bits & 4) != 0;
+            boolean bottom = (bits & 8) != 0;
+            // 窗口小于两倍边距时左 / 上优先
+            ResizeZone zone;
+            if (top && left) zone = NORTH_WEST;
+            else if (top && right) zone = NORTH_EAST;
+            else if (bottom && left) zone = SOUTH_WEST;
+            else if (bottom && right) zone = SOUTH_EAST;
+            else if (left) zone = WEST;
+            else if (right) zone = EAST;
+            else if (top) zone = NORTH;
+            else if (bottom) zone = SOUTH;
+            else zone = NONE;
+            BY_EDGES[bits] = zone;
+        }
+    }
+
+    private final Cursor cursor;
+    private final int hitTestCode;
+    private final boolean left;
+    private final boolean right;
+    private final boolean top;
+    private final boolean bottom;
+
+    ResizeZone(Cursor cursor, int hitTestCode, boolean left, boolean right, boolean top, boolean bottom) {
+        this.cursor = cursor;
+        this.hitTestCode = hitTestCode;
+        this.left = left;
+        this.right = right;
+        this.top = top;
+        this.bottom = bottom;
+    }
+
+    /**
+     * 按鼠标所在的边缘得到区域（无分配）
+     */
+    public static ResizeZone of(boolean left, boolean right, boolean top, boolean bottom) {
+        return BY_EDGES[(left ? 1 : 0) | (right ? 2 : 0) | (top ? 4 : 0) | (bottom ? 8 : 0)];
+    }
+
+    /**
+     * 对应的调整大小光标（{@link #NONE} 为默认光标）
+     */
+    public Cursor cursor() {
+        return cursor;
+    }
+
+    /**
+     * 对应的 WM_NCHITTEST 代码（{@link #NONE} 为 HTCLIENT）
+     */
+    public int hitTestCode() {
+        return hitTestCode;
+    }
+
+    /**
+     * 是否为调整大小区域
+     */
+    public boolean isResize() {
+        return this != NONE;
+    }
+
+    /**
+     * 拖动时是否移动左边界
+     */
+    public boolean movesLeft() {
+        return left;
+    }
+
+    /**
+     * 拖动时是否移动右边界
+     */
+    public boolean movesRight() {
+        return right;
+    }
+
+    /**
+     * 拖动时是否移动上边界
+     */
+    public boolean movesTop() {
+        return top;
+    }
+
+    /**
+     * 拖动时是否移动下边界
+     */
+    public boolean movesBottom() {
+        return bottom;
+    }
+}
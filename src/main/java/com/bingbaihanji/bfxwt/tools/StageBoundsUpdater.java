@@ -0,0 +1,292 @@
+package com.bingbaihanji.bfxwt.tools;
+
+import com.bingbaihanji.bfxwt.backend.NativeWindowBackends;
+import com.sun.jna.platform.win32.WinDef;
+import javafx.animation.AnimationTimer;
+import javafx.stage.Stage;
+
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.SetWindowPosFlags.SWP_NOACTIVATE;
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.SetWindowPosFlags.SWP_NOMOVE;
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.SetWindowPosFlags.SWP_NOSIZE;
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.SetWindowPosFlags.SWP_NOZORDER;
+
+/**
+ * 按帧合并的窗口位置 / 尺寸更新
+ *
+ * <p>
+ * 拖动时先 {@code stage.setX} 再 {@code stage.setY}，或从左 / 上边缘调整大小时先 {@code setX} 再 {@code setWidth}，
+ * 每个 setter 都是一次独立的原生移动，中间状态会被绘制出来，窗口出现抖动。
+ * 本类只记录最新的目标位置和尺寸，由 FX 脉冲在下一帧统一应用：
+ * 原生后端可用时以一次 {@code SetWindowPos} 同时完成移动和缩放，
+ * 同一帧内的多次请求只应用最后一次；取不到句柄或调用失败时在同一帧内回退为 Stage 的 setter。
+ * </p>
+ *
+ * <p><b>使用示例：</b></p>
+ * <pre>{@code
+ * StageBoundsUpdater updater = StageBoundsUpdater.of(stage);
+ * titleBar.setOnMouseDragged(e -> updater.moveTo(e.getScreenX() - offsetX, e.getScreenY() - offsetY));
+ * titleBar.setOnMouseReleased(e -> updater.flush());
+ *
+ * // 合并效果：每帧最多一次原生调用
+ * System.out.println(updater.getRequestCount() + " 次请求 / " + updater.getNativeCount() + " 次 SetWindowPos");
+ * }</pre>
+ *
+ * @author bingbaihanji
+ * @date 2026-01-24
+ * @implNote 逻辑坐标按窗口的输出缩放（{@code getOutputScaleX/Y}）换算为物理像素，原生移动完成后
+ * JavaFX 通过窗口消息同步 {@code Stage} 的 x / y / width / height 属性。
+ * 所有方法都应在 JavaFX Application Thread 上调用。
+ */
+public final class StageBoundsUpdater {
+
+    // 更新器保存在 Stage 的属性表中：只被 Stage 引用，随 Stage 一起回收
+    // （放在静态 WeakHashMap 里时，值和脉冲计时器对 Stage 的强引用会让弱键永远无法回收）
+    private static final Object PROPERTY_KEY = new Object();
+
+    private final Stage stage;
+    private final AnimationTimer pulse;
+
+    private Mode mode = Mode.AUTO;
+    private boolean pendingMove;
+    private boolean pendingSize;
+    private double targetX;
+    private double targetY;
+    private double targetWidth;
+    private double targetHeight;
+    private boolean running;
+
+    // 统计
+    private long requestCount;
+    private long frameCount;
+    private long nativeCount;
+    private long fallbackCount;
+    private long setterCount;
+
+    private StageBoundsUpdater(Stage stage) {
+        this.stage = stage;
+        this.pulse = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                flush();
+            }
+        };
+    }
+
+    /**
+     * 获取 Stage 对应的更新器（每个 Stage 一个实例）
+     */
+    public static StageBoundsUpdater of(Stage stage) {
+        if (stage == null) {
+            throw new IllegalArgumentException("stage 不能为 null");
+        }
+        return (StageBoundsUpdater) stage.getProperties()
+                .computeIfAbsent(PROPERTY_KEY, key -> new StageBoundsUpdater(stage));
+    }
+
+    /**
+     * 设置应用方式（默认 {@link Mode#AUTO}）
+     */
+    public StageBoundsUpdater setMode(Mode mode) {
+        this.mode = mode == null ? Mode.AUTO : mode;
+        return this;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * 请求移动窗口（下一帧应用）
+     */
+    public void moveTo(double x, double y) {
+        targetX = x;
+        targetY = y;
+        pendingMove = true;
+        request();
+    }
+
+    /**
+     * 请求调整窗口尺寸（下一帧应用）
+     */
+    public void resizeTo(double width, double height) {
+        targetWidth = width;
+        targetHeight = height;
+        pendingSize = true;
+        request();
+    }
+
+    /**
+     * 请求同时移动和调整尺寸，下一帧作为一次原生调用应用
+     */
+    public void setBounds(double x, double y, double width, double height) {
+        targetX = x;
+        targetY = y;
+        targetWidth = width;
+        targetHeight = height;
+        pendingMove = true;
+        pendingSize = true;
+        request();
+    }
+
+    /**
+     * 是否有尚未应用的请求
+     */
+    public boolean isPending() {
+        return pendingMove || pendingSize;
+    }
+
+    /**
+     * 立即应用挂起的请求（通常由 FX 脉冲调用，拖动结束时可手动调用以确保最终位置）
+     */
+    public void flush() {
+        if (running) {
+            running = false;
+            pulse.stop();
+        }
+        if (!isPending()) {
+            return;
+        }
+        boolean move = pendingMove;
+        boolean size = pendingSize;
+        pendingMove = false;
+        pendingSize = false;
+        frameCount++;
+
+        if (!stage.isShowing()) {
+            applyWithStage(move, size);
+            return;
+        }
+        if (!useNative() || !applyNative(move, size)) {
+            fallbackCount++;
+            applyWithStage(move, size);
+        }
+    }
+
+    /**
+     * 收到的移动 / 缩放请求数
+     */
+    public long getRequestCount() {
+        return requestCount;
+    }
+
+    /**
+     * 已应用的帧数（每帧最多一次更新）
+     */
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * 合并掉的请求数（请求数 - 帧数）
+     */
+    public long getCoalescedCount() {
+        return requestCount - frameCount;
+    }
+
+    /**
+     * 成功的 SetWindowPos 调用数
+     */
+    public long getNativeCount() {
+        return nativeCount;
+    }
+
+    /**
+     * 回退为 Stage setter 的帧数
+     */
+    public long getFallbackCount() {
+        return fallbackCount;
+    }
+
+    /**
+     * 回退时调用的 Stage setter 次数（每次都是一次独立的原生移动 / 缩放）
+     */
+    public long getSetterCount() {
+        return setterCount;
+    }
+
+    /**
+     * 清零统计
+     */
+    public void resetStats() {
+        requestCount = 0;
+        frameCount = 0;
+        nativeCount = 0;
+        fallbackCount = 0;
+        setterCount = 0;
+    }
+
+    private void request() {
+        requestCount++;
+        if (!running) {
+            running = true;
+            pulse.start();
+        }
+    }
+
+    private boolean useNative() {
+        return mode == Mode.NATIVE || (mode == Mode.AUTO && NativeWindowBackends.isUsable());
+    }
+
+    /*
+     * 一次 SetWindowPos 同时完成移动和缩放
+     */
+    private boolean applyNative(boolean move, boolean size) {
+        WinDef.HWND hwnd = FXNativeWindowsTools.getHWnd(stage);
+        if (hwnd == null) {
+            return false;
+        }
+        double scaleX = stage.getOutputScaleX();
+        double scaleY = stage.getOutputScaleY();
+        int flags = SWP_NOZORDER | SWP_NOACTIVATE | (move ? 0 : SWP_NOMOVE) | (size ? 0 : SWP_NOSIZE);
+        boolean ok = NativeWindowBackends.get().setWindowPos(FXNativeWindowsTools.handleOf(hwnd), 0,
+                move ? (int) Math.round(targetX * scaleX) : 0,
+                move ? (int) Math.round(targetY * scaleY) : 0,
+                size ? (int) Math.round(targetWidth * scaleX) : 0,
+                size ? (int) Math.round(targetHeight * scaleY) : 0,
+                flags);
+        if (ok) {
+            nativeCount++;
+        }
+        return ok;
+    }
+
+    /*
+     * 只调用值发生变化的 setter
+     */
+    private void applyWithStage(boolean move, boolean size) {
+        if (move && stage.getX() != targetX) {
+            stage.setX(targetX);
+            setterCount++;
+        }
+        if (move && stage.getY() != targetY) {
+            stage.setY(targetY);
+            setterCount++;
+        }
+        if (size && stage.getWidth() != targetWidth) {
+            stage.setWidth(targetWidth);
+            setterCount++;
+        }
+        if (size && stage.getHeight() != targetHeight) {
+            stage.setHeight(targetHeight);
+            setterCount++;
+        }
+    }
+
+    /**
+     * 位置 / 尺寸的应用方式
+     */
+    public enum Mode {
+        /**
+         * 原生后端可用时使用 SetWindowPos，其它平台使用 Stage 的 setter
+         */
+        AUTO,
+        /**
+         * 强制使用 SetWindowPos（通过当前 NativeWindowBackend，可配合模拟后端使用）
+         */
+        NATIVE,
+        /**
+         * 强制使用 Stage 的 setter（仍按帧合并）
+         */
+        JAVAFX
+    }
+}
@@ -0,0 +1,194 @@
+package com.bingbaihanji.bfxwt.tools;
+
+import javafx.scene.Scene;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 启动时间线：记录从 JVM 启动到第一帧之间各阶段的耗时
+ *
+ * <p>
+ * 各阶段由库内部（{@link NativeWarmup}、{@code AbstractCustomWindow.start}）和应用自己记录，
+ * 阶段可以在不同线程上并行（例如后台预热与 FX 工具包初始化同时进行）。
+ * {@link #markFirstFrame(Scene)} 在场景第一次完成布局脉冲时记录第一帧时刻，
+ * {@link #report()} 给出每个阶段占首帧时间的比例。
+ * </p>
+ *
+ * <p><b>使用示例：</b></p>
+ * <pre>{@code
+ * long start = StartupTimeline.now();
+ * loadSettings();
+ * StartupTimeline.record("app:settings", start);
+ *
+ * // 第一帧之后
+ * System.out.println(StartupTimeline.report().format());
+ * }</pre>
+ *
+ * @author bingbaihanji
+ * @date 2026-01-24
+ * @implNote 时间原点为 JVM 进程启动时刻（取不到时为本类加载时刻）；所有方法都是线程安全的。
+ */
+public final class StartupTimeline {
+
+    // 时间原点对应的 System.nanoTime()
+    private static final long ORIGIN_NANOS = originNanos();
+
+    private static final List<Phase> PHASES = new ArrayList<>();
+    private static long firstFrameNanos = -1;
+
+    private StartupTimeline() {
+    }
+
+    /**
+     * 当前时刻（{@link System#nanoTime()}），用作 {@link #record(String, long)} 的起点
+     */
+    public static long now() {
+        return System.nanoTime();
+    }
+
+    /**
+     * 记录一个从 {@code startNanos} 到现在的阶段（在当前线程上）
+     *
+     * @param name       阶段名，约定以 "来源:" 作前缀，如 "warmup:user32"
+     * @param startNanos 阶段开始时的 {@link #now()}
+     */
+    public static void record(String name, long startNanos) {
+        Phase phase = new Phase(name, Thread.currentThread().getName(),
+                startNanos - ORIGIN_NANOS, System.nanoTime() - ORIGIN_NANOS);
+        synchronized (PHASES) {
+            PHASES.add(phase);
+        }
+    }
+
+    /**
+     * 在场景第一次完成布局脉冲时记录第一帧（只记录一次，需在 FX 线程上调用）
+     */
+    public static void markFirstFrame(Scene scene) {
+        synchronized (PHASES) {
+            if (firstFrameNanos >= 0) {
+                return;
+            }
+        }
+        Runnable[] listener = new Runnable[1];
+        listener[0] = () -> {
+            scene.removePostLayoutPulseListener(listener[0]);
+            synchronized (PHASES) {
+                if (firstFrameNanos < 0) {
+                    firstFrameNanos = System.nanoTime() - ORIGIN_NANOS;
+                }
+            }
+        };
+        scene.addPostLayoutPulseListener(listener[0]);
+    }
+
+    /**
+     * 第一帧是否已记录
+     */
+    public static boolean isFirstFrameRecorded() {
+        synchronized (PHASES) {
+            return firstFrameNanos >= 0;
+        }
+    }
+
+    /**
+     * 当前时间线报告（阶段按开始时刻排序）
+     */
+    public static Report report() {
+        List<Phase> phases;
+        long firstFrame;
+        synchronized (PHASES) {
+            phases = new ArrayList<>(PHASES);
+            firstFrame = firstFrameNanos;
+        }
+        phases.sort(Comparator.comparingLong(Phase::startNanos));
+        return new Report(firstFrame, List.copyOf(phases));
+    }
+
+    /**
+     * 清空已记录的阶段和第一帧（用于同一进程内多次测量）
+     */
+    public static void reset() {
+        synchronized (PHASES) {
+            PHASES.clear();
+            firstFrameNanos = -1;
+        }
+    }
+
+    private static long originNanos() {
+        long now = System.nanoTime();
+        try {
+            Instant started = ProcessHandle.current().info().startInstant().orElse(null);
+            if (started != null) {
+                long sinceStart = Duration.between(started, Instant.now()).toNanos();
+                if (sinceStart >= 0) {
+                    return now - sinceStart;
+                }
+            }
+        } catch (RuntimeException e) {
+            // 平台不支持读取进程信息
+        }
+        return now;
+    }
+
+    /**
+     * 一个启动阶段
+     *
+     * @param name       阶段名
+     * @param thread     执行线程名
+     * @param startNanos 相对时间原点的开始时刻
+     * @param endNanos   相对时间原点的结束时刻
+     */
+    public record Phase(String name, String thread, long startNanos, long endNanos) {
+
+        public long durationNanos() {
+            return endNanos - startNanos;
+        }
+    }
+
+    /**
+     * 时间线报告
+     *
+     * @param firstFrameNanos 相对时间原点的第一帧时刻，未记录时为 -1
+     * @param phases          所有阶段（按开始时刻排序）
+     */
+    public record Report(long firstFrameNanos, List<Phase> phases) {
+
+        /**
+         * 阶段耗时占首帧时间的比例（0~1），第一帧未记录时返回 NaN
+         */
+        public double shareOfFirstFrame(Phase phase) {
+            return firstFrameNanos > 0 ? (double) phase.durationNanos() / firstFrameNanos : Double.NaN;
+        }
+
+        /**
+         * 多行文本格式：阶段名、线程、开始时刻、耗时、占首帧比例
+         */
+        public String format() {
+            StringBuilder builder = new StringBuilder("启动时间线");
+            if (firstFrameNanos >= 0) {
+                builder.append("（首帧 ").append(millis(firstFrameNanos)).append(" ms）");
+            } else {
+                builder.append("（首帧未记录）");
+            }
+            builder.append('\n');
+            for (Phase phase : phases) {
+                builder.append(String.format("  %-24s %-24s @%9s ms  %9s ms", phase.name(), phase.thread(),
+                        millis(phase.startNanos()), millis(phase.durationNanos())));
+                double share = shareOfFirstFrame(phase);
+                if (!Double.isNaN(share)) {
+                    builder.append(String.format("  %5.1f%%", share * 100));
+                }
+                builder.append('\n');
+            }
+            return builder.toString();
+        }
+
+        private static String millis(long nanos) {
+            return String.format("%.1f", nanos / 1_000_000.0);
+        }
+    }
+}
@@ -0,0 +1,628 @@
+package com.bingbaihanji.bfxwt.tools;
+
+import com.bingbaihanji.bfxwt.backend.NativeWindowBackend;
+import com.bingbaihanji.bfxwt.backend.NativeWindowBackends;
+import com.sun.jna.platform.win32.WinDef;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.WinEvent.CHILDID_SELF;
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.WinEvent.EVENT_OBJECT_CREATE;
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.WinEvent.EVENT_OBJECT_DESTROY;
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.WinEvent.EVENT_OBJECT_HIDE;
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.WinEvent.EVENT_OBJECT_NAMECHANGE;
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.WinEvent.OBJID_WINDOW;
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.WindowLongIndex.GWL_STYLE;
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.WindowStyle.WS_CHILD;
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.WindowStyle.WS_VISIBLE;
+
+/**
+ * 系统顶层窗口索引（按进程 ID、类名、标题）
+ *
+ * <p>
+ * 启动时用 EnumWindows 建立一次完整索引，之后通过 SetWinEventHook 监听窗口的创建、销毁、
+ * 显示 / 隐藏和标题变化增量维护，查询不再调用原生 API。
+ * {@link #await(Predicate, Duration)} 在匹配的窗口出现时立即完成，
+ * 用于替代「启动外部程序 → sleep → FindWindow」的轮询写法。
+ * </p>
+ *
+ * <p><b>使用示例：</b></p>
+ * <pre>{@code
+ * SystemWindowIndex index = SystemWindowIndex.shared();
+ * Process process = new ProcessBuilder("notepad.exe").start();
+ * index.await(w -> w.processId() == process.pid() && w.visible(), Duration.ofSeconds(5))
+ *         .thenAccept(hwnd -> Platform.runLater(() -> FXWindowEmbedTools.embedExternalWindowInNode(...)));
+ *
+ * SystemWindowIndex.Snapshot before = index.snapshot();
+ * // ...
+ * SystemWindowIndex.Diff diff = before.diff(index.snapshot());
+ * diff.added().forEach(System.out::println);
+ * }</pre>
+ *
+ * @author bingbaihanji
+ * @date 2026-01-23
+ * @implNote 事件在后端的事件线程上处理，所有公开方法都是线程安全的。
+ * 后端不支持系统事件钩子时（{@link #isLive()} 为 false），索引只在 {@link #refresh()} 时更新，
+ * 此时 {@code await} 退化为按 {@link #FALLBACK_RESCAN_INTERVAL_MILLIS} 间隔重新枚举。
+ */
+public final class SystemWindowIndex implements AutoCloseable {
+
+    /**
+     * 不支持系统事件钩子时 await 重新枚举的间隔（毫秒）
+     */
+    public static final long FALLBACK_RESCAN_INTERVAL_MILLIS = 100;
+
+    private static volatile SystemWindowIndex shared;
+
+    private final NativeWindowBackend backend;
+
+    // 以下字段由 this 保护
+    private final Map<Long, WindowInfo> windows = new LinkedHashMap<>();
+    private final Map<Integer, Set<Long>> byProcessId = new HashMap<>();
+    private final Map<String, Set<Long>> byClassName = new HashMap<>();
+    private final Map<String, Set<Long>> byTitle = new HashMap<>();
+    private final List<Waiter> waiters = new ArrayList<>();
+    // 创建 / 销毁 / 显示 / 隐藏钩子，标题变化钩子（分开安装，避开高频的 EVENT_OBJECT_LOCATIONCHANGE）
+    private long lifecycleHook;
+    private long nameHook;
+    private boolean started;
+    private boolean closed;
+    private long version;
+    // 进行中的 refresh 数，以及期间每个窗口最后一次变化时的版本号（没有 refresh 进行时清空）
+    private int refreshing;
+    private final Map<Long, Long> changedAt = new HashMap<>();
+
+    // 统计
+    private final LongAdder eventCount = new LongAdder();
+    private final LongAdder nativeQueryCount = new LongAdder();
+
+    /**
+     * 使用当前的 {@link NativeWindowBackends#get()} 后端
+     */
+    public SystemWindowIndex() {
+        this(NativeWindowBackends.get());
+    }
+
+    public SystemWindowIndex(NativeWindowBackend backend) {
+        if (backend == null) {
+            throw new IllegalArgumentException("后端不能为 null");
+        }
+        this.backend = backend;
+    }
+
+    /**
+     * 全局共享实例（首次访问时创建并启动）
+     */
+    public static SystemWindowIndex shared() {
+        SystemWindowIndex instance = shared;
+        if (instance == null) {
+            synchronized (SystemWindowIndex.class) {
+                instance = shared;
+                if (instance == null) {
+                    instance = new SystemWindowIndex().start();
+                    shared = instance;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 安装系统事件钩子并建立完整索引（重复调用无效果）
+     *
+     * <p>
+     * 先安装钩子再枚举，枚举期间创建的窗口不会遗漏。
+     * </p>
+     */
+    public SystemWindowIndex start() {
+        synchronized (this) {
+            if (started || closed) {
+                return this;
+            }
+            started = true;
+            lifecycleHook = backend.setWinEventHook(EVENT_OBJECT_CREATE, EVENT_OBJECT_HIDE, this::onEvent);
+            nameHook = backend.setWinEventHook(EVENT_OBJECT_NAMECHANGE, EVENT_OBJECT_NAMECHANGE, this::onEvent);
+        }
+        refresh();
+        return this;
+    }
+
+    /**
+     * 是否通过系统事件实时维护（两个钩子都安装成功）
+     */
+    public synchronized boolean isLive() {
+        return lifecycleHook != 0 && nameHook != 0;
+    }
+
+    /**
+     * 用 EnumWindows 重新建立完整索引
+     *
+     * <p>
+     * 枚举在锁外进行，期间事件线程可能已经加入、更新或移除了窗口；
+     * 这些窗口以事件的结果为准，枚举结果只应用到枚举开始后没有变化的窗口。
+     * </p>
+     */
+    public void refresh() {
+        long startVersion;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            refreshing++;
+            startVersion = version;
+        }
+        Map<Long, WindowInfo> current = new LinkedHashMap<>();
+        List<Completion> completions = new ArrayList<>();
+        boolean enumerated = false;
+        try {
+            backend.enumWindows(hwnd -> {
+                WindowInfo info = query(hwnd);
+                if (info != null) {
+                    current.put(hwnd, info);
+                }
+                return true;
+            });
+            enumerated = true;
+        } finally {
+            synchronized (this) {
+                if (enumerated && !closed) {
+                    for (Long hwnd : new ArrayList<>(windows.keySet())) {
+                        if (!current.containsKey(hwnd) && !changedSince(hwnd, startVersion)) {
+                            remove(hwnd);
+                        }
+                    }
+                    for (WindowInfo info : current.values()) {
+                        if (!changedSince(info.handle(), startVersion)) {
+                            put(info, completions);
+                        }
+                    }
+                }
+                if (--refreshing == 0) {
+                    changedAt.clear();
+                }
+            }
+        }
+        completions.forEach(Completion::complete);
+    }
+
+    //  查询
+
+    /**
+     * 获取窗口信息，不在索引中返回 null
+     */
+    public synchronized WindowInfo get(WinDef.HWND hwnd) {
+        return hwnd == null ? null : windows.get(FXNativeWindowsTools.handleOf(hwnd));
+    }
+
+    /**
+     * 指定进程的所有顶层窗口（按发现顺序）
+     */
+    public synchronized List<WindowInfo> findByProcessId(long processId) {
+        return lookup(byProcessId.get((int) processId));
+    }
+
+    /**
+     * 指定类名的所有顶层窗口
+     */
+    public synchronized List<WindowInfo> findByClassName(String className) {
+        return lookup(byClassName.get(className));
+    }
+
+    /**
+     * 指定标题的所有顶层窗口
+     */
+    public synchronized List<WindowInfo> findByTitle(String title) {
+        return lookup(byTitle.get(title));
+    }
+
+    /**
+     * 满足条件的所有顶层窗口
+     */
+    public synchronized List<WindowInfo> find(Predicate<WindowInfo> predicate) {
+        List<WindowInfo> result = new ArrayList<>();
+        for (WindowInfo info : windows.values()) {
+            if (predicate.test(info)) {
+                result.add(info);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 第一个满足条件的顶层窗口，没有返回 null
+     */
+    public synchronized WindowInfo findFirst(Predicate<WindowInfo> predicate) {
+        for (WindowInfo info : windows.values()) {
+            if (predicate.test(info)) {
+                return info;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 等待满足条件的顶层窗口出现
+     *
+     * <p>
+     * 索引中已有匹配窗口时立即完成；否则在创建、显示或标题变化事件使窗口满足条件时完成。
+     * 超时后以 {@link java.util.concurrent.TimeoutException} 异常完成；
+     * 取消返回的 Future 会移除等待。
+     * </p>
+     *
+     * @param predicate 匹配条件（在事件线程上执行，应快速返回）
+     * @param timeout   超时时间，null 表示不超时
+     * @return 匹配窗口的句柄
+     */
+    public CompletableFuture<WinDef.HWND> await(Predicate<WindowInfo> predicate, Duration timeout) {
+        if (predicate == null) {
+            throw new IllegalArgumentException("匹配条件不能为 null");
+        }
+        start();
+        Waiter waiter = new Waiter(predicate);
+        boolean live;
+        synchronized (this) {
+            if (closed) {
+                waiter.future.completeExceptionally(new CancellationException("窗口索引已关闭"));
+                return waiter.future;
+            }
+            WindowInfo match = findFirst(predicate);
+            if (match != null) {
+                waiter.future.complete(match.hwnd());
+                return waiter.future;
+            }
+            waiters.add(waiter);
+            live = isLive();
+        }
+        waiter.future.whenComplete((hwnd, error) -> {
+            synchronized (this) {
+                waiters.remove(waiter);
+            }
+        });
+        if (timeout != null) {
+            waiter.future.orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        }
+        if (!live) {
+            scheduleRescan(waiter);
+        }
+        return waiter.future;
+    }
+
+    //  快照
+
+    /**
+     * 当前索引的不可变快照
+     */
+    public synchronized Snapshot snapshot() {
+        return new Snapshot(version, List.copyOf(windows.values()));
+    }
+
+    /**
+     * 索引版本号，每次有窗口加入、移除或信息变化时加一
+     */
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    /**
+     * 当前索引中的窗口数
+     */
+    public synchronized int size() {
+        return windows.size();
+    }
+
+    /**
+     * 收到的系统事件数
+     */
+    public long getEventCount() {
+        return eventCount.sum();
+    }
+
+    /**
+     * 为维护索引读取窗口信息的次数（每次读取包含进程 ID、样式、类名、标题四个原生调用）
+     */
+    public long getNativeQueryCount() {
+        return nativeQueryCount.sum();
+    }
+
+    /**
+     * 卸载系统事件钩子，所有等待以 {@link CancellationException} 结束
+     */
+    @Override
+    public void close() {
+        List<Waiter> pending;
+        long[] hooks;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            hooks = new long[]{lifecycleHook, nameHook};
+            lifecycleHook = 0;
+            nameHook = 0;
+            pending = new ArrayList<>(waiters);
+            waiters.clear();
+        }
+        for (long hook : hooks) {
+            if (hook != 0) {
+                backend.unhookWinEvent(hook);
+            }
+        }
+        for (Waiter waiter : pending) {
+            waiter.future.completeExceptionally(new CancellationException("窗口索引已关闭"));
+        }
+        synchronized (SystemWindowIndex.class) {
+            if (shared == this) {
+                shared = null;
+            }
+        }
+    }
+
+    //  事件处理
+
+    private void onEvent(int event, long hwnd, int idObject, int idChild) {
+        if (idObject != OBJID_WINDOW || idChild != CHILDID_SELF || hwnd == 0) {
+            return;
+        }
+        eventCount.increment();
+        if (event == EVENT_OBJECT_DESTROY) {
+            synchronized (this) {
+                if (!closed) {
+                    remove(hwnd);
+                }
+            }
+            return;
+        }
+        // 原生查询在锁外进行；窗口已销毁时 query 返回 null
+        WindowInfo info = query(hwnd);
+        List<Completion> completions = new ArrayList<>();
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            if (info == null) {
+                remove(hwnd);
+            } else {
+                put(info, completions);
+            }
+        }
+        completions.forEach(Completion::complete);
+    }
+
+    /*
+     * 读取顶层窗口信息；子窗口或已销毁的窗口返回 null
+     */
+    private WindowInfo query(long hwnd) {
+        nativeQueryCount.increment();
+        int processId = backend.getWindowProcessId(hwnd);
+        if (processId == 0) {
+            return null;
+        }
+        long style = backend.getWindowLongPtr(hwnd, GWL_STYLE);
+        if ((style & WS_CHILD) != 0) {
+            return null;
+        }
+        return new WindowInfo(hwnd, processId, backend.getClassName(hwnd), backend.getWindowText(hwnd),
+                (style & WS_VISIBLE) != 0);
+    }
+
+    // 调用方持有锁
+    private void put(WindowInfo info, List<Completion> completions) {
+        WindowInfo previous = windows.put(info.handle(), info);
+        if (info.equals(previous)) {
+            return;
+        }
+        if (previous != null) {
+            unindex(previous);
+        }
+        index(byProcessId, info.processId(), info.handle());
+        index(byClassName, info.className(), info.handle());
+        index(byTitle, info.title(), info.handle());
+        version++;
+        markChanged(info.handle());
+        for (Waiter waiter : waiters) {
+            if (!waiter.future.isDone() && waiter.predicate.test(info)) {
+                completions.add(new Completion(waiter, info));
+            }
+        }
+    }
+
+    // 调用方持有锁
+    private void remove(long hwnd) {
+        WindowInfo previous = windows.remove(hwnd);
+        if (previous != null) {
+            unindex(previous);
+            version++;
+            markChanged(hwnd);
+        }
+    }
+
+    // 调用方持有锁
+    private void markChanged(long hwnd) {
+        if (refreshing > 0) {
+            changedAt.put(hwnd, version);
+        }
+    }
+
+    // 调用方持有锁
+    private boolean changedSince(long hwnd, long startVersion) {
+        Long changed = changedAt.get(hwnd);
+        return changed != null && changed > startVersion;
+    }
+
+    private void unindex(WindowInfo info) {
+        unindex(byProcessId, info.processId(), info.handle());
+        unindex(byClassName, info.className(), info.handle());
+        unindex(byTitle, info.title(), info.handle());
+    }
+
+    private static <K> void index(Map<K, Set<Long>> map, K key, long hwnd) {
+        map.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(hwnd);
+    }
+
+    private static <K> void unindex(Map<K, Set<Long>> map, K key, long hwnd) {
+        Set<Long> handles = map.get(key);
+        if (handles != null && handles.remove(hwnd) && handles.isEmpty()) {
+            map.remove(key);
+        }
+    }
+
+    // 调用方持有锁
+    private List<WindowInfo> lookup(Set<Long> handles) {
+        if (handles == null) {
+            return Collections.emptyList();
+        }
+        List<WindowInfo> result = new ArrayList<>(handles.size());
+        for (Long hwnd : handles) {
+            result.add(windows.get(hwnd));
+        }
+        return result;
+    }
+
+    /*
+     * 没有系统事件时的退化路径：定时重新枚举直到等待结束
+     */
+    private void scheduleRescan(Waiter waiter) {
+        CompletableFuture.delayedExecutor(FALLBACK_RESCAN_INTERVAL_MILLIS, TimeUnit.MILLISECONDS).execute(() -> {
+            if (waiter.future.isDone()) {
+                return;
+            }
+            refresh();
+            scheduleRescan(waiter);
+        });
+    }
+
+    /**
+     * 顶层窗口信息
+     *
+     * @param handle    窗口句柄数值
+     * @param processId 所属进程 ID
+     * @param className 窗口类名
+     * @param title     窗口标题
+     * @param visible   是否具有 WS_VISIBLE 样式
+     */
+    public record WindowInfo(long handle, int processId, String className, String title, boolean visible) {
+
+        /**
+         * 窗口句柄
+         */
+        public WinDef.HWND hwnd() {
+            return FXNativeWindowsTools.hwndOf(handle);
+        }
+
+        @Override
+        public String toString() {
+            return "WindowInfo[hwnd=0x" + Long.toHexString(handle).toUpperCase()
+                    + ", pid=" + processId
+                    + ", class=" + className
+                    + ", title=" + (title.isEmpty() ? "(无标题)" : title)
+                    + ", visible=" + visible + "]";
+        }
+    }
+
+    /**
+     * 索引快照
+     *
+     * @param version 快照时的索引版本号
+     * @param windows 快照时的所有顶层窗口（按发现顺序）
+     */
+    public record Snapshot(long version, List<WindowInfo> windows) {
+
+        /**
+         * 与更新的快照比较
+         *
+         * @return 从本快照到 {@code newer} 新增、移除和信息变化的窗口
+         */
+        public Diff diff(Snapshot newer) {
+            Map<Long, WindowInfo> old = new HashMap<>();
+            for (WindowInfo info : windows) {
+                old.put(info.handle(), info);
+            }
+            List<WindowInfo> added = new ArrayList<>();
+            List<WindowInfo> changed = new ArrayList<>();
+            for (WindowInfo info : newer.windows()) {
+                WindowInfo previous = old.remove(info.handle());
+                if (previous == null) {
+                    added.add(info);
+                } else if (!previous.equals(info)) {
+                    changed.add(info);
+                }
+            }
+            List<WindowInfo> removed = new ArrayList<>();
+            for (WindowInfo info : windows) {
+                if (old.containsKey(info.handle())) {
+                    removed.add(info);
+                }
+            }
+            return new Diff(List.copyOf(added), List.copyOf(removed), List.copyOf(changed));
+        }
+
+        /**
+         * 多行文本格式（每个窗口一行）
+         */
+        public String format() {
+            StringBuilder builder = new StringBuilder("窗口快照 v").append(version)
+                    .append("（").append(windows.size()).append(" 个窗口）\n");
+            for (WindowInfo info : windows) {
+                builder.append("  ").append(info).append('\n');
+            }
+            return builder.toString();
+        }
+    }
+
+    /**
+     * 两个快照之间的差异
+     *
+     * @param added   新增的窗口
+     * @param removed 移除的窗口（旧快照中的信息）
+     * @param changed 标题、类名或可见性变化的窗口（新快照中的信息）
+     */
+    public record Diff(List<WindowInfo> added, List<WindowInfo> removed, List<WindowInfo> changed) {
+
+        public boolean isEmpty() {
+            return added.isEmpty() && removed.isEmpty() && changed.isEmpty();
+        }
+
+        /**
+         * 多行文本格式（+ 新增，- 移除，* 变化）
+         */
+        public String format() {
+            StringBuilder builder = new StringBuilder();
+            added.forEach(info -> builder.append("+ ").append(info).append('\n'));
+            removed.forEach(info -> builder.append("- ").append(info).append('\n'));
+            changed.forEach(info -> builder.append("* ").append(info).append('\n'));
+            return builder.toString();
+        }
+    }
+
+    private static final class Waiter {
+        private final Predicate<WindowInfo> predicate;
+        private final CompletableFuture<WinDef.HWND> future = new CompletableFuture<>();
+
+        private Waiter(Predicate<WindowInfo> predicate) {
+            this.predicate = Objects.requireNonNull(predicate);
+        }
+    }
+
+    /*
+     * 在锁外完成的等待（回调可能再次访问索引）
+     */
+    private record Completion(Waiter waiter, WindowInfo info) {
+        private void complete() {
+            waiter.future.complete(info.hwnd());
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package com.bingbaihanji.bfxwt.tools;
+
+import com.bingbaihanji.bfxwt.backend.NativeWindowBackends;
+import com.sun.jna.platform.win32.WinDef;
+import javafx.animation.AnimationTimer;
+import javafx.animation.Interpolator;
+import javafx.stage.Stage;
+import javafx.util.Duration;
+
+import java.util.concurrent.CompletableFuture;
+
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.WindowLongIndex.GWL_EXSTYLE;
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.WindowStyleEx.WS_EX_LAYERED;
+
+/**
+ * 窗口整体透明度控制器（按帧合并）
+ *
+ * <p>
+ * 每个 Stage 对应一个控制器：
+ * </p>
+ * <ul>
+ *   <li>WS_EX_LAYERED 只在第一次设置透明度时写入一次，之后由 {@link WindowStateMirror} 记住</li>
+ *   <li>{@link #setAlpha(double)} 只记录目标值，由 FX 脉冲（{@link AnimationTimer}）在下一帧统一应用，
+ *       同一帧内的多次设置合并为最多一次 SetLayeredWindowAttributes</li>
+ *   <li>支持按时长和插值曲线渐变（{@link #fadeTo(double, Duration, Interpolator)}）</li>
+ *   <li>非 Windows 平台或取不到窗口句柄时回退到 {@link Stage#setOpacity(double)}</li>
+ * </ul>
+ *
+ * <p><b>使用示例：</b></p>
+ * <pre>{@code
+ * // 滑块实时调整透明度（每帧最多一次原生调用）
+ * slider.valueProperty().addListener((obs, o, n) ->
+ *         WindowAlphaController.of(stage).setAlpha(n.doubleValue()));
+ *
+ * // 300ms 淡出后隐藏
+ * WindowAlphaController.of(stage)
+ *         .fadeTo(0, Duration.millis(300), Interpolator.EASE_OUT)
+ *         .thenRun(() -> Platform.runLater(stage::hide));
+ * }</pre>
+ *
+ * @author bingbaihanji
+ * @date 2026-01-23
+ * @implNote 所有方法都应在 JavaFX Application Thread 上调用。
+ */
+public final class WindowAlphaController {
+
+    // 控制器保存在 Stage 的属性表中：只被 Stage 引用，随 Stage 一起回收
+    // （放在静态 WeakHashMap 里时，值对 Stage 的强引用会让弱键永远无法回收）
+    private static final Object PROPERTY_KEY = new Object();
+
+    private final Stage stage;
+    private final AnimationTimer pulse;
+
+    private Mode mode = Mode.AUTO;
+    // 最近一次请求的透明度（下一帧应用）
+    private double requested;
+    // 最近一次实际应用的透明度（NaN 表示尚未应用）
+    private double applied = Double.NaN;
+    private boolean dirty;
+    private boolean running;
+
+    // 原生路径状态：窗口重新显示后句柄和分层位都需要重新确认
+    private WinDef.HWND hwnd;
+    private boolean layered;
+
+    // 进行中的渐变
+    private Fade fade;
+
+    // 统计：请求次数与实际应用次数
+    private long requestCount;
+    private long applyCount;
+
+    private WindowAlphaController(Stage stage) {
+        this.stage = stage;
+        this.requested = stage.getOpacity();
+        this.pulse = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                onPulse(now);
+            }
+        };
+        stage.showingProperty().addListener((obs, wasShowing, showing) -> {
+            hwnd = null;
+            layered = false;
+            applied = Double.NaN;
+            if (showing && requested != 1.0) {
+                markDirty();
+            }
+        });
+    }
+
+    /**
+     * 获取 Stage 的透明度控制器（同一 Stage 始终返回同一实例）
+     */
+    public static WindowAlphaController of(Stage stage) {
+        if (stage == null) {
+            throw new IllegalArgumentException("Stage 不能为 null");
+        }
+        return (WindowAlphaController) stage.getProperties()
+                .computeIfAbsent(PROPERTY_KEY, key -> new WindowAlphaController(stage));
+    }
+
+    /**
+     * 设置透明度应用方式（默认 {@link Mode#AUTO}）
+     */
+    public WindowAlphaController setMode(Mode mode) {
+        this.mode = mode == null ? Mode.AUTO : mode;
+        hwnd = null;
+        layered = false;
+        applied = Double.NaN;
+        markDirty();
+        return this;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * 设置透明度（下一帧应用），会打断进行中的渐变
+     *
+     * @param alpha 透明度，0 = 全透明，1 = 不透明（超出范围会被截断）
+     */
+    public void setAlpha(double alpha) {
+        cancelFade();
+        request(alpha);
+    }
+
+    /**
+     * 最近一次请求的透明度（渐变过程中为当前帧的值）
+     */
+    public double getAlpha() {
+        return requested;
+    }
+
+    /**
+     * 从当前透明度渐变到目标透明度
+     *
+     * @param target       目标透明度
+     * @param duration     渐变时长
+     * @param interpolator 插值曲线，null 表示线性
+     * @return 渐变完成时完成；被新的渐变或 {@link #setAlpha(double)} 打断时取消
+     */
+    public CompletableFuture<Void> fadeTo(double target, Duration duration, Interpolator interpolator) {
+        cancelFade();
+        Fade newFade = new Fade(requested, clamp(target), duration.toMillis() * 1_000_000L,
+                interpolator == null ? Interpolator.LINEAR : interpolator);
+        if (newFade.durationNanos <= 0) {
+            request(newFade.to);
+            newFade.completion.complete(null);
+            return newFade.completion;
+        }
+        fade = newFade;
+        ensureRunning();
+        return newFade.completion;
+    }
+
+    /**
+     * 淡入到不透明
+     */
+    public CompletableFuture<Void> fadeIn(Duration duration) {
+        return fadeTo(1.0, duration, Interpolator.EASE_OUT);
+    }
+
+    /**
+     * 淡出到全透明
+     */
+    public CompletableFuture<Void> fadeOut(Duration duration) {
+        return fadeTo(0.0, duration, Interpolator.EASE_IN);
+    }
+
+    /**
+     * 取消进行中的渐变（保持当前透明度）
+     */
+    public void cancelFade() {
+        if (fade != null) {
+            Fade cancelled = fade;
+            fade = null;
+            cancelled.completion.cancel(false);
+        }
+    }
+
+    /**
+     * 当前是否通过原生分层窗口应用透明度
+     */
+    public boolean isNative() {
+        return resolveHwnd() != null;
+    }
+
+    /**
+     * 请求次数（setAlpha 调用次数 + 渐变帧数）
+     */
+    public long getRequestCount() {
+        return requestCount;
+    }
+
+    /**
+     * 实际应用次数（原生调用或 Stage.setOpacity 次数）
+     */
+    public long getApplyCount() {
+        return applyCount;
+    }
+
+    private void request(double alpha) {
+        requestCount++;
+        requested = clamp(alpha);
+        markDirty();
+    }
+
+    private void markDirty() {
+        dirty = true;
+        ensureRunning();
+    }
+
+    private void ensureRunning() {
+        if (!running) {
+            running = true;
+            pulse.start();
+        }
+    }
+
+    private void onPulse(long now) {
+        Fade current = fade;
+        if (current != null) {
+            if (current.startNanos < 0) {
+                current.startNanos = now;
+            }
+            double fraction = Math.min(1.0, (double) (now - current.startNanos) / current.durationNanos);
+            requestCount++;
+            requested = current.interpolator.interpolate(current.from, current.to, fraction);
+            dirty = true;
+            if (fraction >= 1.0) {
+                fade = null;
+                requested = current.to;
+            }
+        }
+
+        if (dirty && stage.isShowing()) {
+            dirty = false;
+            apply(requested);
+        }
+
+        if (current != null && fade == null) {
+            current.completion.complete(null);
+        }
+        // 空闲时（或窗口隐藏时）停止脉冲，避免持续占用帧回调；窗口重新显示时会重新标记
+        if (fade == null && (!dirty || !stage.isShowing())) {
+            running = false;
+            pulse.stop();
+        }
+    }
+
+    private void apply(double alpha) {
+        if (alpha == applied) {
+            return;
+        }
+        WinDef.HWND target = resolveHwnd();
+        if (target != null) {
+            WindowStateMirror mirror = WindowStateMirror.of(target);
+            if (!layered) {
+                // 分层位只写一次，之后由状态镜像记住
+                mirror.applyStyleBits(GWL_EXSTYLE, WS_EX_LAYERED, 0);
+                layered = true;
+            }
+            mirror.applyLayeredAlpha((byte) Math.round(alpha * 255));
+        } else {
+            stage.setOpacity(alpha);
+        }
+        applied = alpha;
+        applyCount++;
+    }
+
+    private WinDef.HWND resolveHwnd() {
+        if (mode == Mode.STAGE_OPACITY || (mode == Mode.AUTO && !NativeWindowBackends.isUsable())) {
+            return null;
+        }
+        if (hwnd == null && stage.isShowing()) {
+            hwnd = FXNativeWindowsTools.getHWnd(stage);
+        }
+        return hwnd;
+    }
+
+    private static double clamp(double alpha) {
+        return Math.max(0.0, Math.min(1.0, alpha));
+    }
+
+    /**
+     * 透明度应用方式
+     */
+    public enum Mode {
+        /**
+         * 原生后端可用时（Windows 分层窗口 / X11 {@code _NET_WM_WINDOW_OPACITY}）走后端，其它平台使用 Stage.setOpacity
+         */
+        AUTO,
+        /**
+         * 强制使用分层窗口（通过当前 NativeWindowBackend，可配合模拟后端使用）
+         */
+        NATIVE,
+        /**
+         * 强制使用 Stage.setOpacity
+         */
+        STAGE_OPACITY
+    }
+
+    private static final class Fade {
+        private final double from;
+        private final double to;
+        private final long durationNanos;
+        private final Interpolator interpolator;
+        private final CompletableFuture<Void> completion = new CompletableFuture<>();
+        // 第一帧的脉冲时间戳（-1 表示尚未开始）
+        private long startNanos = -1;
+
+        private Fade(double from, double to, double durationNanos, Interpolator interpolator) {
+            this.from = from;
+            this.to = to;
+            this.durationNanos = (long) durationNanos;
+            this.interpolator = interpolator;
+        }
+    }
+}
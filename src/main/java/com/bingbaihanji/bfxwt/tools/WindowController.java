@@ -0,0 +1,460 @@
+package com.bingbaihanji.bfxwt.tools;
+
+import com.bingbaihanji.bfxwt.backend.NativeWindowBackends;
+import com.sun.jna.Platform;
+import com.sun.jna.platform.win32.Advapi32Util;
+import com.sun.jna.platform.win32.WinDef;
+import com.sun.jna.platform.win32.WinReg;
+import javafx.stage.Stage;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.DwmAttribute.DWMWA_SYSTEMBACKDROP_TYPE;
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.DwmAttribute.DWMWA_USE_IMMERSIVE_DARK_MODE;
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.DwmAttribute.DWMWA_WINDOW_CORNER_PREFERENCE;
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.WindowLongIndex.GWL_EXSTYLE;
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.WindowStyleEx.WS_EX_LAYERED;
+
+/**
+ * 与平台无关的窗口控制器
+ *
+ * <p>
+ * 每个 {@link Stage} 一个实例，提供透明度、圆角、暗色标题栏、系统背景、置顶、
+ * 最小化 / 最大化 / 还原和锁定尺寸。调用方不需要判断操作系统版本：
+ * </p>
+ * <ul>
+ *   <li>能力只探测一次并缓存：是否可用 Win32 后端、Windows 版本号（build）、
+ *       以及哪些 DWM 属性曾经调用失败——失败过的属性在本进程内不再重试</li>
+ *   <li>不支持原生实现时使用开销很小的 JavaFX 替代（如透明度 → {@code Stage.setOpacity}），
+ *       没有 JavaFX 等价物的视觉效果（圆角、暗色标题栏、系统背景）只记录期望值，不做任何调用</li>
+ *   <li>窗口尚未显示时只记录期望值，显示后一次性应用</li>
+ * </ul>
+ *
+ * <p><b>使用示例：</b></p>
+ * <pre>{@code
+ * WindowController controller = WindowController.of(stage);
+ * controller.setCornerStyle(CornerStyle.ROUND)
+ *         .setDarkMode(true)
+ *         .setAlpha(0.95);
+ * if (!controller.isNative(WindowController.Feature.BACKDROP)) {
+ *     root.setStyle("-fx-background-color: #202020;"); // 自行绘制背景
+ * }
+ * }</pre>
+ *
+ * @author bingbaihanji
+ * @date 2026-01-24
+ * @implNote 置顶和最小化 / 最大化 / 还原始终通过 JavaFX 的 Stage API 完成：
+ * JavaFX 在各平台上本身就以原生方式实现它们，并保持 {@code Stage} 的属性同步。
+ * 所有实例方法都应在 JavaFX Application Thread 上调用。
+ */
+public final class WindowController {
+
+    /**
+     * Windows 11 首个版本（圆角偏好）
+     */
+    public static final int BUILD_WINDOWS_11 = 22000;
+    /**
+     * Windows 11 22H2（DWMWA_SYSTEMBACKDROP_TYPE）
+     */
+    public static final int BUILD_SYSTEM_BACKDROP = 22621;
+    /**
+     * DWMWA_USE_IMMERSIVE_DARK_MODE 取值 20 的首个版本
+     */
+    public static final int BUILD_IMMERSIVE_DARK_MODE = 18985;
+
+    // 控制器保存在 Stage 的属性表中，只被 Stage 引用，随 Stage 一起回收
+    private static final Object PROPERTY_KEY = new Object();
+
+    // 进程级能力探测结果（首次使用时探测）
+    private static volatile Capabilities capabilities;
+    // 调用失败过的 DWM 属性（与窗口无关，系统不支持即对所有窗口都不支持）
+    private static final Set<Integer> FAILED_DWM_ATTRIBUTES = ConcurrentHashMap.newKeySet();
+
+    // 统计
+    private static final LongAdder NATIVE_CALLS = new LongAdder();
+    private static final LongAdder FALLBACKS = new LongAdder();
+    private static final LongAdder SKIPPED = new LongAdder();
+
+    private final Stage stage;
+    // 找不到原生句柄（窗口已显示）时置位，之后不再尝试
+    private boolean handleUnavailable;
+
+    // 期望状态（窗口显示时应用）
+    private Double alpha;
+    private CornerStyle cornerStyle;
+    private Boolean darkMode;
+    private Backdrop backdrop;
+    private boolean resizeLocked;
+
+    private WindowController(Stage stage) {
+        this.stage = stage;
+        stage.showingProperty().addListener((obs, wasShowing, showing) -> {
+            if (showing) {
+                applyPending();
+            }
+        });
+    }
+
+    /**
+     * 获取 Stage 的控制器（每个 Stage 一个实例）
+     */
+    public static WindowController of(Stage stage) {
+        if (stage == null) {
+            throw new IllegalArgumentException("Stage 不能为 null");
+        }
+        return (WindowController) stage.getProperties()
+                .computeIfAbsent(PROPERTY_KEY, key -> new WindowController(stage));
+    }
+
+    /**
+     * 进程级能力（首次调用时探测并缓存）
+     */
+    public static Capabilities capabilities() {
+        Capabilities current = capabilities;
+        if (current == null) {
+            synchronized (WindowController.class) {
+                current = capabilities;
+                if (current == null) {
+                    current = probe();
+                    capabilities = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 清除能力探测结果和失败记录（切换 {@link NativeWindowBackends} 后调用）
+     */
+    public static void resetCapabilities() {
+        synchronized (WindowController.class) {
+            capabilities = null;
+            FAILED_DWM_ATTRIBUTES.clear();
+        }
+    }
+
+    //  操作
+
+    /**
+     * 设置窗口整体透明度
+     *
+     * @param value 0 = 全透明，1 = 不透明（超出范围会被截断）
+     */
+    public WindowController setAlpha(double value) {
+        alpha = Math.max(0.0, Math.min(1.0, value));
+        applyAlpha();
+        return this;
+    }
+
+    /**
+     * 设置窗口圆角样式（Windows 11 原生支持，其它平台只记录）
+     */
+    public WindowController setCornerStyle(CornerStyle style) {
+        cornerStyle = style;
+        applyDwm(DWMWA_WINDOW_CORNER_PREFERENCE, style.value);
+        return this;
+    }
+
+    /**
+     * 设置暗色标题栏 / 边框（Windows 10 20H1+ 原生支持，其它平台只记录）
+     */
+    public WindowController setDarkMode(boolean dark) {
+        darkMode = dark;
+        applyDwm(DWMWA_USE_IMMERSIVE_DARK_MODE, dark ? 1 : 0);
+        return this;
+    }
+
+    /**
+     * 设置系统背景材质（Windows 11 22H2+ 原生支持，其它平台只记录）
+     */
+    public WindowController setBackdrop(Backdrop type) {
+        backdrop = type;
+        applyDwm(DWMWA_SYSTEMBACKDROP_TYPE, type.value);
+        return this;
+    }
+
+    /**
+     * 设置窗口置顶
+     */
+    public WindowController setAlwaysOnTop(boolean alwaysOnTop) {
+        stage.setAlwaysOnTop(alwaysOnTop);
+        return this;
+    }
+
+    /**
+     * 最小化
+     */
+    public WindowController minimize() {
+        stage.setIconified(true);
+        return this;
+    }
+
+    /**
+     * 最大化
+     */
+    public WindowController maximize() {
+        stage.setIconified(false);
+        stage.setMaximized(true);
+        return this;
+    }
+
+    /**
+     * 从最小化或最大化还原
+     */
+    public WindowController restore() {
+        if (stage.isIconified()) {
+            stage.setIconified(false);
+        } else {
+            stage.setMaximized(false);
+        }
+        return this;
+    }
+
+    /**
+     * 锁定 / 解锁窗口尺寸：始终同步 {@code Stage.resizable}，原生可用时同时移除边框的调整大小和最大化样式
+     */
+    public WindowController setResizeLocked(boolean locked) {
+        resizeLocked = locked;
+        stage.setResizable(!locked);
+        applyResizeLock();
+        return this;
+    }
+
+    //  查询
+
+    public Stage getStage() {
+        return stage;
+    }
+
+    /**
+     * 该功能在当前窗口上是否以原生方式实现
+     */
+    public boolean isNative(Feature feature) {
+        Capabilities caps = capabilities();
+        if (!caps.nativeWindows() || handleUnavailable) {
+            return false;
+        }
+        return switch (feature) {
+            case ALPHA, RESIZE_LOCK -> true;
+            case CORNER_STYLE -> caps.supportsDwmAttribute(DWMWA_WINDOW_CORNER_PREFERENCE);
+            case DARK_MODE -> caps.supportsDwmAttribute(DWMWA_USE_IMMERSIVE_DARK_MODE);
+            case BACKDROP -> caps.supportsDwmAttribute(DWMWA_SYSTEMBACKDROP_TYPE);
+            // 由 JavaFX 实现
+            case ALWAYS_ON_TOP, WINDOW_STATE -> false;
+        };
+    }
+
+    /**
+     * 期望的透明度（未设置时为 null）
+     */
+    public Double getAlpha() {
+        return alpha;
+    }
+
+    public CornerStyle getCornerStyle() {
+        return cornerStyle;
+    }
+
+    public Boolean getDarkMode() {
+        return darkMode;
+    }
+
+    public Backdrop getBackdrop() {
+        return backdrop;
+    }
+
+    public boolean isResizeLocked() {
+        return resizeLocked;
+    }
+
+    /**
+     * 实际发出的原生调用批次数（所有控制器）
+     */
+    public static long getNativeCallCount() {
+        return NATIVE_CALLS.sum();
+    }
+
+    /**
+     * 使用 JavaFX 替代实现的次数（所有控制器）
+     */
+    public static long getFallbackCount() {
+        return FALLBACKS.sum();
+    }
+
+    /**
+     * 因不支持而直接跳过（只记录期望值）的次数（所有控制器）
+     */
+    public static long getSkippedCount() {
+        return SKIPPED.sum();
+    }
+
+    //  内部实现
+
+    private void applyPending() {
+        if (alpha != null) {
+            applyAlpha();
+        }
+        if (cornerStyle != null) {
+            applyDwm(DWMWA_WINDOW_CORNER_PREFERENCE, cornerStyle.value);
+        }
+        if (darkMode != null) {
+            applyDwm(DWMWA_USE_IMMERSIVE_DARK_MODE, darkMode ? 1 : 0);
+        }
+        if (backdrop != null) {
+            applyDwm(DWMWA_SYSTEMBACKDROP_TYPE, backdrop.value);
+        }
+        if (resizeLocked) {
+            applyResizeLock();
+        }
+    }
+
+    private void applyAlpha() {
+        WindowStateMirror mirror = mirror();
+        if (mirror == null) {
+            if (stage.getOpacity() != alpha) {
+                FALLBACKS.increment();
+                stage.setOpacity(alpha);
+            }
+            return;
+        }
+        NATIVE_CALLS.increment();
+        mirror.applyStyleBits(GWL_EXSTYLE, WS_EX_LAYERED, 0);
+        mirror.applyLayeredAlpha((byte) Math.round(alpha * 255));
+    }
+
+    private void applyResizeLock() {
+        WindowStateMirror mirror = mirror();
+        if (mirror == null) {
+            // Stage.setResizable 已经完成
+            return;
+        }
+        NATIVE_CALLS.increment();
+        // 样式未变化时事务不产生原生调用，变化时刷新一次非客户区
+        mirror.edit().disableResize(resizeLocked).commit();
+    }
+
+    /*
+     * 不支持（版本不够或失败过）时跳过；调用失败时记住该属性
+     */
+    private void applyDwm(int attribute, int value) {
+        if (!capabilities().supportsDwmAttribute(attribute)) {
+            SKIPPED.increment();
+            return;
+        }
+        WindowStateMirror mirror = mirror();
+        if (mirror == null) {
+            SKIPPED.increment();
+            return;
+        }
+        NATIVE_CALLS.increment();
+        if (mirror.applyDwmAttribute(attribute, value) != 0) {
+            FAILED_DWM_ATTRIBUTES.add(attribute);
+        }
+    }
+
+    /*
+     * 原生可用且窗口已显示时返回状态镜像；否则返回 null（走替代实现或等待显示）
+     */
+    private WindowStateMirror mirror() {
+        if (!stage.isShowing() || handleUnavailable || !capabilities().nativeWindows()) {
+            return null;
+        }
+        WinDef.HWND hwnd = FXNativeWindowsTools.getHWnd(stage);
+        if (hwnd == null) {
+            handleUnavailable = true;
+            return null;
+        }
+        return WindowStateMirror.of(hwnd);
+    }
+
+    private static Capabilities probe() {
+        boolean nativeWindows = NativeWindowBackends.isUsable();
+        int build = 0;
+        if (nativeWindows && Platform.isWindows()) {
+            try {
+                build = Integer.parseInt(Advapi32Util.registryGetStringValue(WinReg.HKEY_LOCAL_MACHINE,
+                        "SOFTWARE\\Microsoft\\Windows NT\\CurrentVersion", "CurrentBuildNumber"));
+            } catch (RuntimeException | LinkageError e) {
+                // 读取失败时不按版本排除，只依赖调用失败记录
+            }
+        }
+        return new Capabilities(nativeWindows, build, Collections.unmodifiableSet(FAILED_DWM_ATTRIBUTES));
+    }
+
+    /**
+     * 进程级能力
+     *
+     * @param nativeWindows   当前后端是否可用（Windows，或模拟 / 自定义后端）
+     * @param osBuild         Windows 版本号（build），未知时为 0
+     * @param failedAttributes 调用失败过、不再重试的 DWM 属性（实时视图）
+     */
+    public record Capabilities(boolean nativeWindows, int osBuild, Set<Integer> failedAttributes) {
+
+        /**
+         * DWM 属性是否可能可用：后端可用、系统版本满足（版本未知时视为满足）、且没有失败过
+         */
+        public boolean supportsDwmAttribute(int attribute) {
+            if (!nativeWindows || failedAttributes.contains(attribute)) {
+                return false;
+            }
+            if (osBuild == 0) {
+                return true;
+            }
+            return switch (attribute) {
+                case DWMWA_WINDOW_CORNER_PREFERENCE -> osBuild >= BUILD_WINDOWS_11;
+                case DWMWA_SYSTEMBACKDROP_TYPE -> osBuild >= BUILD_SYSTEM_BACKDROP;
+                case DWMWA_USE_IMMERSIVE_DARK_MODE -> osBuild >= BUILD_IMMERSIVE_DARK_MODE;
+                default -> true;
+            };
+        }
+    }
+
+    /**
+     * 控制器功能
+     */
+    public enum Feature {
+        ALPHA,
+        CORNER_STYLE,
+        DARK_MODE,
+        BACKDROP,
+        ALWAYS_ON_TOP,
+        WINDOW_STATE,
+        RESIZE_LOCK
+    }
+
+    /**
+     * 圆角样式（对应 DWMWCP_*）
+     */
+    public enum CornerStyle {
+        DEFAULT(0),
+        SQUARE(1),
+        ROUND(2),
+        ROUND_SMALL(3);
+
+        private final int value;
+
+        CornerStyle(int value) {
+            this.value = value;
+        }
+    }
+
+    /**
+     * 系统背景材质（对应 DWMSBT_*）
+     */
+    public enum Backdrop {
+        AUTO(0),
+        NONE(1),
+        MICA(2),
+        ACRYLIC(3),
+        MICA_ALT(4);
+
+        private final int value;
+
+        Backdrop(int value) {
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package com.bingbaihanji.bfxwt.tools;
+
+import com.bingbaihanji.bfxwt.backend.NativeWindowBackend;
+import com.bingbaihanji.bfxwt.backend.NativeWindowBackends;
+import com.sun.jna.Platform;
+import com.sun.jna.platform.win32.WinDef;
+import javafx.animation.AnimationTimer;
+import javafx.geometry.Point2D;
+import javafx.stage.Stage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.SetWindowPosFlags.SWP_NOACTIVATE;
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.SetWindowPosFlags.SWP_NOSIZE;
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.SetWindowPosFlags.SWP_NOZORDER;
+
+/**
+ * 窗口组：主窗口移动时，附属窗口保持相对位置一起移动
+ *
+ * <p>
+ * 移动请求只记录目标位置，由 FX 脉冲在下一帧统一应用：Windows 上通过
+ * BeginDeferWindowPos / DeferWindowPos / EndDeferWindowPos 把主窗口和所有附属窗口
+ * 放进同一个批次，系统在一次刷新中同时移动，窗口之间不会出现错位；
+ * 同一帧内的多次移动请求合并为一个批次。
+ * 非 Windows 平台、取不到句柄或批次失败时，回退为在同一帧内逐个调用 Stage.setX / setY。
+ * </p>
+ *
+ * <p><b>使用示例：</b></p>
+ * <pre>{@code
+ * WindowGroup group = new WindowGroup(mainStage);
+ * group.add(toolStage);          // 按当前位置记录相对偏移
+ * group.add(paletteStage, 20, 40);
+ *
+ * // 在主窗口的拖拽处理器中
+ * group.moveTo(e.getScreenX() - dragOffsetX, e.getScreenY() - dragOffsetY);
+ * }</pre>
+ *
+ * @author bingbaihanji
+ * @date 2026-01-23
+ * @implNote 逻辑坐标按窗口的输出缩放（{@code getOutputScaleX/Y}）换算为物理像素，
+ * 适用于所有屏幕缩放比例相同的情况；所有方法都应在 JavaFX Application Thread 上调用。
+ */
+public final class WindowGroup {
+
+    private final Stage leader;
+    // 附属窗口相对主窗口左上角的偏移（逻辑坐标）
+    private final Map<Stage, Point2D> offsets = new LinkedHashMap<>();
+    // 下一帧需要应用的附属窗口尺寸
+    private final Map<Stage, double[]> pendingSizes = new HashMap<>();
+    private final AnimationTimer pulse;
+
+    private Mode mode = Mode.AUTO;
+    private boolean pendingMove;
+    private double targetX;
+    private double targetY;
+    private boolean running;
+
+    // 统计
+    private long frameCount;
+    private long batchCount;
+    private long fallbackCount;
+
+    public WindowGroup(Stage leader) {
+        if (leader == null) {
+            throw new IllegalArgumentException("主窗口不能为 null");
+        }
+        this.leader = leader;
+        this.pulse = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                flush();
+            }
+        };
+    }
+
+    /**
+     * 添加附属窗口，按两者当前位置记录相对偏移
+     */
+    public WindowGroup add(Stage member) {
+        return add(member, member.getX() - leader.getX(), member.getY() - leader.getY());
+    }
+
+    /**
+     * 添加附属窗口，使用指定的相对偏移（相对主窗口左上角）
+     */
+    public WindowGroup add(Stage member, double offsetX, double offsetY) {
+        if (member == null || member == leader) {
+            throw new IllegalArgumentException("附属窗口不能为 null 或主窗口本身");
+        }
+        offsets.put(member, new Point2D(offsetX, offsetY));
+        return this;
+    }
+
+    /**
+     * 移除附属窗口
+     */
+    public boolean remove(Stage member) {
+        pendingSizes.remove(member);
+        return offsets.remove(member) != null;
+    }
+
+    /**
+     * 按当前位置重新记录所有附属窗口的偏移（附属窗口被单独移动后调用）
+     */
+    public void refreshOffsets() {
+        offsets.replaceAll((member, offset) ->
+                new Point2D(member.getX() - leader.getX(), member.getY() - leader.getY()));
+    }
+
+    public Stage getLeader() {
+        return leader;
+    }
+
+    public List<Stage> getMembers() {
+        return Collections.unmodifiableList(new ArrayList<>(offsets.keySet()));
+    }
+
+    public boolean isEmpty() {
+        return offsets.isEmpty();
+    }
+
+    /**
+     * 设置移动方式（默认 {@link Mode#AUTO}）
+     */
+    public void setMode(Mode mode) {
+        this.mode = mode == null ? Mode.AUTO : mode;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * 请求把主窗口移动到指定位置，附属窗口保持偏移跟随（下一帧应用）
+     */
+    public void moveTo(double x, double y) {
+        targetX = x;
+        targetY = y;
+        pendingMove = true;
+        ensureRunning();
+    }
+
+    /**
+     * 请求调整附属窗口尺寸，与同一帧的移动放在同一个批次中（下一帧应用）
+     */
+    public void resizeMember(Stage member, double width, double height) {
+        if (!offsets.containsKey(member)) {
+            throw new IllegalArgumentException("不是该窗口组的附属窗口");
+        }
+        pendingSizes.put(member, new double[]{width, height});
+        if (!pendingMove) {
+            targetX = leader.getX();
+            targetY = leader.getY();
+            pendingMove = true;
+        }
+        ensureRunning();
+    }
+
+    /**
+     * 立即应用所有挂起的移动 / 尺寸请求（通常由 FX 脉冲调用）
+     */
+    public void flush() {
+        if (running) {
+            running = false;
+            pulse.stop();
+        }
+        if (!pendingMove) {
+            return;
+        }
+        pendingMove = false;
+        frameCount++;
+
+        List<Stage> stages = new ArrayList<>(offsets.size() + 1);
+        stages.add(leader);
+        for (Stage member : offsets.keySet()) {
+            if (member.isShowing()) {
+                stages.add(member);
+            }
+        }
+
+        if (!useNative() || !applyDeferred(stages)) {
+            fallbackCount++;
+            applyWithStage(stages);
+        }
+        pendingSizes.clear();
+    }
+
+    /**
+     * 已应用的帧数（每帧最多一个批次）
+     */
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * 成功提交的 DeferWindowPos 批次数
+     */
+    public long getBatchCount() {
+        return batchCount;
+    }
+
+    /**
+     * 回退为 Stage.setX / setY 的帧数
+     */
+    public long getFallbackCount() {
+        return fallbackCount;
+    }
+
+    private void ensureRunning() {
+        if (!running) {
+            running = true;
+            pulse.start();
+        }
+    }
+
+    private boolean useNative() {
+        return mode == Mode.NATIVE || (mode == Mode.AUTO && Platform.isWindows());
+    }
+
+    /*
+     * 一个批次移动所有窗口，任一步失败返回 false（系统会丢弃整个批次）
+     */
+    private boolean applyDeferred(List<Stage> stages) {
+        long[] handles = new long[stages.size()];
+        for (int i = 0; i < handles.length; i++) {
+            WinDef.HWND hwnd = stages.get(i).isShowing() ? FXNativeWindowsTools.getHWnd(stages.get(i)) : null;
+            if (hwnd == null) {
+                return false;
+            }
+            handles[i] = FXNativeWindowsTools.handleOf(hwnd);
+        }
+
+        NativeWindowBackend backend = NativeWindowBackends.get();
+        long hdwp = backend.beginDeferWindowPos(handles.length);
+        if (hdwp == 0) {
+            return false;
+        }
+        for (int i = 0; i < handles.length; i++) {
+            Stage stage = stages.get(i);
+            Point2D position = positionOf(stage);
+            double[] size = pendingSizes.get(stage);
+            double scaleX = stage.getOutputScaleX();
+            double scaleY = stage.getOutputScaleY();
+            int flags = SWP_NOZORDER | SWP_NOACTIVATE | (size == null ? SWP_NOSIZE : 0);
+            hdwp = backend.deferWindowPos(hdwp, handles[i], 0,
+                    (int) Math.round(position.getX() * scaleX),
+                    (int) Math.round(position.getY() * scaleY),
+                    size == null ? 0 : (int) Math.round(size[0] * scaleX),
+                    size == null ? 0 : (int) Math.round(size[1] * scaleY),
+                    flags);
+            if (hdwp == 0) {
+                return false;
+            }
+        }
+        if (!backend.endDeferWindowPos(hdwp)) {
+            return false;
+        }
+        batchCount++;
+        return true;
+    }
+
+    private void applyWithStage(List<Stage> stages) {
+        for (Stage stage : stages) {
+            Point2D position = positionOf(stage);
+            stage.setX(position.getX());
+            stage.setY(position.getY());
+            double[] size = pendingSizes.get(stage);
+            if (size != null) {
+                stage.setWidth(size[0]);
+                stage.setHeight(size[1]);
+            }
+        }
+    }
+
+    private Point2D positionOf(Stage stage) {
+        if (stage == leader) {
+            return new Point2D(targetX, targetY);
+        }
+        Point2D offset = offsets.get(stage);
+        return new Point2D(targetX + offset.getX(), targetY + offset.getY());
+    }
+
+    /**
+     * 窗口组移动方式
+     */
+    public enum Mode {
+        /**
+         * Windows 上使用 DeferWindowPos 批量移动，其它平台使用 Stage.setX / setY
+         */
+        AUTO,
+        /**
+         * 强制使用 DeferWindowPos（通过当前 NativeWindowBackend，可配合模拟后端使用）
+         */
+        NATIVE,
+        /**
+         * 强制使用 Stage.setX / setY
+         */
+        JAVAFX
+    }
+}
@@ -0,0 +1,370 @@
+package com.bingbaihanji.bfxwt.tools;
+
+import com.bingbaihanji.bfxwt.backend.NativeWindowBackend;
+import com.bingbaihanji.bfxwt.backend.NativeWindowBackends;
+import com.sun.jna.platform.win32.WinDef;
+import javafx.stage.Stage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.WindowMessage.WM_ACTIVATE;
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.WindowMessage.WM_DISPLAYCHANGE;
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.WindowMessage.WM_DPICHANGED;
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.WindowMessage.WM_MOVE;
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.WindowMessage.WM_NCDESTROY;
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.WindowMessage.WM_SETTINGCHANGE;
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.WindowMessage.WM_SIZE;
+
+/**
+ * 原生窗口消息流（基于窗口过程子类化）
+ *
+ * <p>
+ * 通过 GWL_WNDPROC 子类化窗口过程，把窗口真正收到的 WM_MOVE、WM_SIZE、WM_ACTIVATE、WM_DPICHANGED、
+ * WM_DISPLAYCHANGE、WM_SETTINGCHANGE 分发给订阅者，用于代替 JavaFX 属性监听或轮询 IsZoomed / IsIconic：
+ * 屏幕边界、主题、嵌入窗口几何等缓存只在真实事件发生时失效。
+ * </p>
+ *
+ * <ul>
+ *   <li>分发路径不分配对象：订阅者保存在数组中，按位掩码过滤，消息参数以基本类型传递</li>
+ *   <li>第一次订阅时才子类化窗口，最后一个订阅取消后恢复原窗口过程</li>
+ *   <li>{@link #intercept(int, MessageInterceptor)} 可以直接处理某条消息（如 WM_NCHITTEST）并返回结果</li>
+ *   <li>窗口销毁（WM_NCDESTROY）时通知 {@link #DESTROY} 订阅者并自动清理</li>
+ * </ul>
+ *
+ * <p><b>使用示例：</b></p>
+ * <pre>{@code
+ * WindowMessageStream stream = WindowMessageStream.of(stage);
+ * WindowMessageStream.Subscription subscription = stream.subscribe(
+ *         WindowMessageStream.MOVE | WindowMessageStream.DPI_CHANGED,
+ *         (hwnd, msg, wParam, lParam) -> cachedScreen = null);
+ * if (!stream.isAttached()) {
+ *     // 非 Windows 平台：回退到 JavaFX 属性监听
+ * }
+ * }</pre>
+ *
+ * <p>
+ * 在 Linux 上可配合 {@link com.bingbaihanji.bfxwt.backend.RecordingWindowBackend#simulateMessage(long, int, long, long)}
+ * 模拟系统消息。
+ * </p>
+ *
+ * @author bingbaihanji
+ * @date 2026-01-23
+ * @implNote 监听器在窗口所属线程上同步调用（JavaFX 窗口即 JavaFX Application Thread），
+ * 应尽快返回；subscribe / close 也应在该线程上调用。
+ */
+public final class WindowMessageStream {
+
+    // 订阅掩码
+    public static final int MOVE = 1;
+    public static final int SIZE = 1 << 1;
+    public static final int ACTIVATE = 1 << 2;
+    public static final int DPI_CHANGED = 1 << 3;
+    public static final int DISPLAY_CHANGE = 1 << 4;
+    public static final int SETTING_CHANGE = 1 << 5;
+    public static final int DESTROY = 1 << 6;
+    public static final int ALL = MOVE | SIZE | ACTIVATE | DPI_CHANGED | DISPLAY_CHANGE | SETTING_CHANGE | DESTROY;
+
+    private static final Logger log = LoggerFactory.getLogger(WindowMessageStream.class);
+
+    // 句柄 → 消息流：取消全部订阅后仍保留，直到窗口销毁（WM_NCDESTROY），
+    // 保证调用方持有的实例与 of() 返回的始终是同一个
+    private static final Map<Long, WindowMessageStream> STREAMS = new ConcurrentHashMap<>();
+    private static final Registration[] EMPTY = new Registration[0];
+    private static final Interception[] NO_INTERCEPTIONS = new Interception[0];
+
+    private final long handle;
+    private final NativeWindowBackend.WindowProcHook hook = this::onMessage;
+    // 写时复制：分发时直接遍历数组
+    private volatile Registration[] registrations = EMPTY;
+    // 所有订阅掩码的并集，快速跳过无人关心的消息
+    private volatile int subscribedMask;
+    private volatile Interception[] interceptions = NO_INTERCEPTIONS;
+    private boolean attached;
+    private long dispatchCount;
+
+    private WindowMessageStream(long handle) {
+        this.handle = handle;
+    }
+
+    /**
+     * 获取指定窗口的消息流（同一窗口始终返回同一实例）
+     */
+    public static WindowMessageStream of(WinDef.HWND hwnd) {
+        if (hwnd == null) {
+            throw new IllegalArgumentException("窗口句柄不能为 null");
+        }
+        return STREAMS.computeIfAbsent(FXNativeWindowsTools.handleOf(hwnd), WindowMessageStream::new);
+    }
+
+    /**
+     * 获取 Stage 的消息流
+     *
+     * @return 消息流；窗口未显示或取不到句柄时返回 null
+     */
+    public static WindowMessageStream of(Stage stage) {
+        if (stage == null || !stage.isShowing()) {
+            return null;
+        }
+        WinDef.HWND hwnd = FXNativeWindowsTools.getHWnd(stage);
+        return hwnd == null ? null : of(hwnd);
+    }
+
+    /**
+     * 订阅消息
+     *
+     * @param mask     订阅掩码（{@link #MOVE}、{@link #SIZE} 等的组合）
+     * @param listener 监听器
+     * @return 订阅凭证，{@link Subscription#close()} 取消订阅
+     */
+    public synchronized Subscription subscribe(int mask, WindowMessageListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("监听器不能为 null");
+        }
+        Registration registration = new Registration(mask & ALL, listener);
+        Registration[] current = registrations;
+        Registration[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = registration;
+        registrations = updated;
+        subscribedMask |= registration.mask;
+        attach();
+        return () -> unsubscribe(registration);
+    }
+
+    /**
+     * 拦截一条消息：拦截器返回值作为窗口过程的结果，返回 {@link NativeWindowBackend#PASS_TO_ORIGINAL} 表示不处理
+     *
+     * <p>
+     * 同一消息有多个拦截器时按注册顺序调用，第一个处理的生效；订阅者仍会收到被拦截的消息。
+     * </p>
+     *
+     * @param msg         消息 ID（WM_*，不限于订阅掩码中的消息）
+     * @param interceptor 拦截器
+     * @return 凭证，{@link Subscription#close()} 取消拦截
+     */
+    public synchronized Subscription intercept(int msg, MessageInterceptor interceptor) {
+        if (interceptor == null) {
+            throw new IllegalArgumentException("拦截器不能为 null");
+        }
+        Interception interception = new Interception(msg, interceptor);
+        Interception[] current = interceptions;
+        Interception[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = interception;
+        interceptions = updated;
+        attach();
+        return () -> removeInterception(interception);
+    }
+
+    /**
+     * 是否已子类化窗口过程（false 表示当前平台 / 后端不支持，订阅者不会收到消息）
+     */
+    public synchronized boolean isAttached() {
+        return attached;
+    }
+
+    /**
+     * 取消所有订阅并恢复原窗口过程（实例仍然可用，之后的订阅会重新子类化窗口）
+     */
+    public synchronized void close() {
+        registrations = EMPTY;
+        subscribedMask = 0;
+        interceptions = NO_INTERCEPTIONS;
+        detach();
+    }
+
+    /**
+     * 已分发给订阅者的消息数
+     */
+    public long getDispatchCount() {
+        return dispatchCount;
+    }
+
+    /**
+     * 窗口消息对应的订阅掩码，不支持的消息返回 0
+     */
+    public static int maskOf(int msg) {
+        return switch (msg) {
+            case WM_MOVE -> MOVE;
+            case WM_SIZE -> SIZE;
+            case WM_ACTIVATE -> ACTIVATE;
+            case WM_DPICHANGED -> DPI_CHANGED;
+            case WM_DISPLAYCHANGE -> DISPLAY_CHANGE;
+            case WM_SETTINGCHANGE -> SETTING_CHANGE;
+            case WM_NCDESTROY -> DESTROY;
+            default -> 0;
+        };
+    }
+
+    /**
+     * 参数低 16 位（无符号），如 WM_SIZE 的宽度、WM_DPICHANGED 的 X 轴 DPI
+     */
+    public static int loWord(long value) {
+        return (int) (value & 0xFFFF);
+    }
+
+    /**
+     * 参数高 16 位（无符号），如 WM_SIZE 的高度
+     */
+    public static int hiWord(long value) {
+        return (int) ((value >>> 16) & 0xFFFF);
+    }
+
+    /**
+     * 参数低 16 位（有符号），如 WM_MOVE 的 X 坐标（多显示器下可能为负）
+     */
+    public static int signedLoWord(long value) {
+        return (short) value;
+    }
+
+    /**
+     * 参数高 16 位（有符号），如 WM_MOVE 的 Y 坐标
+     */
+    public static int signedHiWord(long value) {
+        return (short) (value >>> 16);
+    }
+
+    private synchronized void unsubscribe(Registration registration) {
+        Registration[] current = registrations;
+        int index = -1;
+        int mask = 0;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == registration) {
+                index = i;
+            } else {
+                mask |= current[i].mask;
+            }
+        }
+        if (index < 0) {
+            return;
+        }
+        Registration[] updated = new Registration[current.length - 1];
+        System.arraycopy(current, 0, updated, 0, index);
+        System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+        registrations = updated.length == 0 ? EMPTY : updated;
+        subscribedMask = mask;
+        if (updated.length == 0 && interceptions.length == 0) {
+            detach();
+        }
+    }
+
+    private synchronized void removeInterception(Interception interception) {
+        Interception[] current = interceptions;
+        int index = Arrays.asList(current).indexOf(interception);
+        if (index < 0) {
+            return;
+        }
+        Interception[] updated = new Interception[current.length - 1];
+        System.arraycopy(current, 0, updated, 0, index);
+        System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+        interceptions = updated.length == 0 ? NO_INTERCEPTIONS : updated;
+        if (updated.length == 0 && registrations.length == 0) {
+            detach();
+        }
+    }
+
+    private void attach() {
+        if (attached) {
+            return;
+        }
+        // 窗口销毁后实例已被移除；句柄可能已被新窗口复用，且新窗口已有自己的消息流时不再子类化
+        WindowMessageStream registered = STREAMS.putIfAbsent(handle, this);
+        if (registered == null || registered == this) {
+            attached = NativeWindowBackends.get().subclassWindow(handle, hook);
+        }
+    }
+
+    private void detach() {
+        if (attached) {
+            NativeWindowBackends.get().unsubclassWindow(handle);
+            attached = false;
+        }
+    }
+
+    private long onMessage(long hwnd, int msg, long wParam, long lParam) {
+        long result = NativeWindowBackend.PASS_TO_ORIGINAL;
+        for (Interception interception : interceptions) {
+            if (interception.msg == msg) {
+                try {
+                    result = interception.interceptor.intercept(hwnd, msg, wParam, lParam);
+                } catch (RuntimeException e) {
+                    log.warn("消息拦截器异常: msg=0x{}", Integer.toHexString(msg), e);
+                }
+                if (result != NativeWindowBackend.PASS_TO_ORIGINAL) {
+                    break;
+                }
+            }
+        }
+        int bit = maskOf(msg);
+        if (bit != 0 && (subscribedMask & bit) != 0) {
+            dispatchCount++;
+            for (Registration registration : registrations) {
+                if ((registration.mask & bit) != 0) {
+                    try {
+                        registration.listener.onMessage(hwnd, msg, wParam, lParam);
+                    } catch (RuntimeException e) {
+                        // 单个监听器异常不影响其他订阅者和原窗口过程
+                        log.warn("消息监听器异常: msg=0x{}", Integer.toHexString(msg), e);
+                    }
+                }
+            }
+        }
+        if (msg == WM_NCDESTROY) {
+            // 后端已在 WM_NCDESTROY 时恢复原窗口过程
+            synchronized (this) {
+                registrations = EMPTY;
+                subscribedMask = 0;
+                interceptions = NO_INTERCEPTIONS;
+                attached = false;
+                STREAMS.remove(handle, this);
+            }
+            return NativeWindowBackend.PASS_TO_ORIGINAL;
+        }
+        return result;
+    }
+
+    /**
+     * 窗口消息监听器
+     */
+    @FunctionalInterface
+    public interface WindowMessageListener {
+        /**
+         * @param hwnd   窗口句柄
+         * @param msg    消息 ID（WM_*）
+         * @param wParam 消息参数 1
+         * @param lParam 消息参数 2（可用 {@link #loWord(long)} 等方法解码）
+         */
+        void onMessage(long hwnd, int msg, long wParam, long lParam);
+    }
+
+    /**
+     * 消息拦截器
+     */
+    @FunctionalInterface
+    public interface MessageInterceptor {
+        /**
+         * @return 消息处理结果；返回 {@link NativeWindowBackend#PASS_TO_ORIGINAL} 表示不处理
+         */
+        long intercept(long hwnd, int msg, long wParam, long lParam);
+    }
+
+    /**
+     * 订阅凭证
+     */
+    @FunctionalInterface
+    public interface Subscription extends AutoCloseable {
+        /**
+         * 取消订阅（可重复调用）
+         */
+        @Override
+        void close();
+    }
+
+    private record Registration(int mask, WindowMessageListener listener) {
+    }
+
+    private record Interception(int msg, MessageInterceptor interceptor) {
+    }
+}
@@ -0,0 +1,327 @@
+package com.bingbaihanji.bfxwt.tools;
+
+import com.bingbaihanji.bfxwt.backend.NativeWindowBackends;
+import com.sun.jna.platform.win32.WinDef;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.WindowLongIndex.GWL_EXSTYLE;
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.WindowLongIndex.GWL_STYLE;
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.WindowStyle.*;
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.WindowStyleEx.WS_EX_LAYERED;
+
+/**
+ * 原生窗口状态镜像（按 HWND 缓存）
+ *
+ * <p>
+ * 缓存 GWL_STYLE、GWL_EXSTYLE、分层窗口透明度以及本库设置过的 DWM 属性：
+ * </p>
+ * <ul>
+ *   <li>DWM 属性和透明度未变化时直接跳过，不发起原生调用；样式位在读取当前值后只在实际变化时写入</li>
+ *   <li>{@code getWindowDarkMode} / {@code getWindowCornerPreference} 等查询优先从缓存应答</li>
+ *   <li>通过 {@link Transaction} 合并多个修改，提交时最多一次样式写入和一次非客户区刷新</li>
+ * </ul>
+ *
+ * <p><b>使用示例：</b></p>
+ * <pre>{@code
+ * FXNativeWindowsTools.beginTransaction(hwnd)
+ *         .enableAeroSnapForBorderless()
+ *         .disableMaximize(true)
+ *         .darkMode(true)
+ *         .cornerPreference(FXNativeWindowsTools.DwmWindowCornerPreference.ROUND)
+ *         .alpha(0.95f)
+ *         .commit();
+ * }</pre>
+ *
+ * @implNote 写入样式前会重新读取一次当前样式，只修改本库关心的位，
+ * 避免覆盖系统或 JavaFX 自身修改的位（如 WS_MAXIMIZE）。
+ * 通过 {@link FXWindowHandleRegistry} 获取的窗口在 Stage 隐藏或关闭时自动丢弃镜像；
+ * 其它来源的窗口销毁后，或 DWM 属性被外部修改时，请调用 {@link #invalidate(WinDef.HWND)}。
+ */
+public final class WindowStateMirror {
+
+    private static final Map<Long, WindowStateMirror> MIRRORS = new ConcurrentHashMap<>();
+
+    private final WinDef.HWND hwnd;
+    private final long handle;
+    // 最近一次观察到的样式（null 表示尚未读取）
+    private Long style;
+    private Long exStyle;
+    // 最近一次设置的分层透明度（null 表示尚未设置）
+    private Byte layeredAlpha;
+    // 已知的 DWM 属性值
+    private final Map<Integer, Integer> dwmAttributes = new HashMap<>();
+
+    private WindowStateMirror(WinDef.HWND hwnd) {
+        this.hwnd = hwnd;
+        this.handle = FXNativeWindowsTools.handleOf(hwnd);
+    }
+
+    /**
+     * 获取指定窗口的状态镜像
+     *
+     * @param hwnd 窗口句柄
+     * @return 状态镜像（同一窗口始终返回同一实例）
+     */
+    public static WindowStateMirror of(WinDef.HWND hwnd) {
+        if (hwnd == null) {
+            throw new IllegalArgumentException("窗口句柄不能为 null");
+        }
+        return MIRRORS.computeIfAbsent(FXNativeWindowsTools.handleOf(hwnd), key -> new WindowStateMirror(hwnd));
+    }
+
+    /**
+     * 丢弃指定窗口的缓存状态（窗口销毁或样式被外部修改后调用）
+     *
+     * @param hwnd 窗口句柄
+     */
+    public static void invalidate(WinDef.HWND hwnd) {
+        if (hwnd != null) {
+            MIRRORS.remove(FXNativeWindowsTools.handleOf(hwnd));
+        }
+    }
+
+    /**
+     * 开始一个样式事务
+     */
+    public Transaction edit() {
+        return new Transaction(this);
+    }
+
+    /**
+     * 获取窗口样式（GWL_STYLE），首次调用时读取并缓存
+     */
+    public synchronized long style() {
+        if (style == null) {
+            style = readLong(GWL_STYLE);
+        }
+        return style;
+    }
+
+    /**
+     * 获取扩展窗口样式（GWL_EXSTYLE），首次调用时读取并缓存
+     */
+    public synchronized long exStyle() {
+        if (exStyle == null) {
+            exStyle = readLong(GWL_EXSTYLE);
+        }
+        return exStyle;
+    }
+
+    /**
+     * 获取 DWM 整型属性，已知时直接从缓存返回
+     *
+     * @param attribute DWM 属性 ID
+     * @return 属性值，获取失败返回 null
+     */
+    public synchronized Integer dwmAttribute(int attribute) {
+        Integer cached = dwmAttributes.get(attribute);
+        if (cached != null) {
+            return cached;
+        }
+        int[] value = new int[1];
+        int result = NativeWindowBackends.get().dwmGetWindowAttribute(handle, attribute, value);
+        if (result != 0) {
+            return null;
+        }
+        dwmAttributes.put(attribute, value[0]);
+        return value[0];
+    }
+
+    /*
+     * 修改样式位：读取当前值、修改，实际变化时才写回
+     * 不根据缓存跳过读取——样式可能已被系统或 JavaFX 修改，缓存只用于 style() / exStyle() 查询
+     * @return 样式是否实际发生变化
+     */
+    synchronized boolean applyStyleBits(int index, long setBits, long clearBits) {
+        if (setBits == 0 && clearBits == 0) {
+            return false;
+        }
+        long current = readLong(index);
+        long updated = (current | setBits) & ~clearBits;
+        if (updated != current) {
+            NativeWindowBackends.get().setWindowLongPtr(handle, index, updated);
+        }
+        if (index == GWL_STYLE) {
+            style = updated;
+        } else {
+            exStyle = updated;
+        }
+        return updated != current;
+    }
+
+    /*
+     * 设置 DWM 整型属性，值未变化时跳过
+     * @return HRESULT，跳过时返回 0
+     */
+    synchronized int applyDwmAttribute(int attribute, int value) {
+        Integer cached = dwmAttributes.get(attribute);
+        if (cached != null && cached == value) {
+            return 0;
+        }
+        int result = NativeWindowBackends.get().dwmSetWindowAttribute(handle, attribute, value);
+        if (result == 0) {
+            dwmAttributes.put(attribute, value);
+        } else {
+            dwmAttributes.remove(attribute);
+        }
+        return result;
+    }
+
+    /*
+     * 设置分层窗口透明度，值未变化时跳过
+     */
+    synchronized void applyLayeredAlpha(byte alpha) {
+        if (layeredAlpha != null && layeredAlpha == alpha) {
+            return;
+        }
+        NativeWindowBackends.get().setLayeredWindowAttributes(
+                handle, 0, alpha, FXNativeWindowsTools.Win32Constants.LayeredWindowAttribute.LWA_ALPHA);
+        layeredAlpha = alpha;
+    }
+
+    private long readLong(int index) {
+        return NativeWindowBackends.get().getWindowLongPtr(handle, index);
+    }
+
+    /**
+     * 窗口样式事务
+     *
+     * <p>
+     * 收集多个样式 / DWM / 透明度修改，在 {@link #commit()} 时统一提交：
+     * GWL_STYLE 与 GWL_EXSTYLE 各最多写入一次，DWM 属性去重，
+     * 只有 GWL_STYLE 实际变化时才刷新一次非客户区（SWP_FRAMECHANGED）。
+     * </p>
+     */
+    public static final class Transaction {
+        private final WindowStateMirror mirror;
+        private final Map<Integer, Integer> dwmAttributes = new LinkedHashMap<>();
+        private long styleSet, styleClear;
+        private long exStyleSet, exStyleClear;
+        private Byte alpha;
+
+        private Transaction(WindowStateMirror mirror) {
+            this.mirror = mirror;
+        }
+
+        /**
+         * 设置窗口透明度（自动添加 WS_EX_LAYERED）
+         *
+         * @param value 透明度，范围 (0, 1]
+         */
+        public Transaction alpha(float value) {
+            if (value <= 0 || value > 1) {
+                throw new IllegalArgumentException("Alpha value must be in range (0, 1], received: " + value);
+            }
+            exStyle(WS_EX_LAYERED, 0);
+            alpha = (byte) (value * 255);
+            return this;
+        }
+
+        /**
+         * 禁用 / 恢复最大化按钮
+         */
+        public Transaction disableMaximize(boolean disable) {
+            return disable ? style(0, WS_MAXIMIZEBOX) : style(WS_MAXIMIZEBOX, 0);
+        }
+
+        /**
+         * 禁止 / 恢复调整窗口大小
+         */
+        public Transaction disableResize(boolean disable) {
+            long bits = WS_THICKFRAME | WS_MAXIMIZEBOX;
+            return disable ? style(0, bits) : style(bits, 0);
+        }
+
+        /**
+         * 转换为标准窗口样式以支持 Aero Snap
+         */
+        public Transaction enableAeroSnap() {
+            return style(WS_OVERLAPPEDWINDOW, WS_POPUP);
+        }
+
+        /**
+         * 为无边框窗口启用 Aero Snap（添加 WS_THICKFRAME，移除 WS_CAPTION）
+         */
+        public Transaction enableAeroSnapForBorderless() {
+            return style(WS_THICKFRAME, WS_CAPTION);
+        }
+
+        /**
+         * 设置暗色 / 亮色标题栏
+         */
+        public Transaction darkMode(boolean useDarkMode) {
+            return dwmAttribute(FXNativeWindowsTools.Win32Constants.DwmAttribute.DWMWA_USE_IMMERSIVE_DARK_MODE,
+                    useDarkMode ? 1 : 0);
+        }
+
+        /**
+         * 设置圆角偏好
+         */
+        public Transaction cornerPreference(FXNativeWindowsTools.DwmWindowCornerPreference preference) {
+            return dwmAttribute(FXNativeWindowsTools.Win32Constants.DwmAttribute.DWMWA_WINDOW_CORNER_PREFERENCE,
+                    preference.getValue());
+        }
+
+        /**
+         * 设置系统背景（Mica / Acrylic）
+         */
+        public Transaction systemBackdrop(FXNativeWindowsTools.SystemBackdropType backdropType) {
+            return dwmAttribute(FXNativeWindowsTools.Win32Constants.DwmAttribute.DWMWA_SYSTEMBACKDROP_TYPE,
+                    backdropType.getValue());
+        }
+
+        /**
+         * 修改 GWL_STYLE 位
+         *
+         * @param setBits   需要添加的位
+         * @param clearBits 需要移除的位
+         */
+        public Transaction style(long setBits, long clearBits) {
+            styleSet = (styleSet & ~clearBits) | setBits;
+            styleClear = (styleClear & ~setBits) | clearBits;
+            return this;
+        }
+
+        /**
+         * 修改 GWL_EXSTYLE 位
+         *
+         * @param setBits   需要添加的位
+         * @param clearBits 需要移除的位
+         */
+        public Transaction exStyle(long setBits, long clearBits) {
+            exStyleSet = (exStyleSet & ~clearBits) | setBits;
+            exStyleClear = (exStyleClear & ~setBits) | clearBits;
+            return this;
+        }
+
+        /**
+         * 设置任意 DWM 整型属性
+         */
+        public Transaction dwmAttribute(int attribute, int value) {
+            dwmAttributes.put(attribute, value);
+            return this;
+        }
+
+        /**
+         * 提交所有修改
+         *
+         * @return GWL_STYLE 是否发生变化（变化时已刷新非客户区）
+         */
+        public boolean commit() {
+            boolean styleChanged = mirror.applyStyleBits(GWL_STYLE, styleSet, styleClear);
+            mirror.applyStyleBits(GWL_EXSTYLE, exStyleSet, exStyleClear);
+            dwmAttributes.forEach(mirror::applyDwmAttribute);
+            if (alpha != null) {
+                mirror.applyLayeredAlpha(alpha);
+            }
+            if (styleChanged) {
+                FXNativeWindowsTools.refreshWindowFrame(mirror.hwnd);
+            }
+            return styleChanged;
+        }
+    }
+}
@@ -3,6 +3,7 @@ module com.bingbaihanji.bfxwt {
     requires com.sun.jna;
     requires com.sun.jna.platform;
     requires java.desktop;
+    requires jdk.jfr;
     requires javafx.controls;
     requires javafx.graphics;
     requires javafx.swing;
@@ -13,6 +14,8 @@ module com.bingbaihanji.bfxwt {
     // 导出你需要对外访问的包
     exports com.bingbaihanji.bfxwt.stage;
     exports com.bingbaihanji.bfxwt.tools;
+    exports com.bingbaihanji.bfxwt.backend;
+    exports com.bingbaihanji.bfxwt.jfr;
 
 
 }
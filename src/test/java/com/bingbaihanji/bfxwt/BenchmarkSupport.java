@@ -0,0 +1,93 @@
+package com.bingbaihanji.bfxwt;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+/**
+ * 基准测试辅助：预热 + 多轮测量，取每次操作耗时的中位数
+ *
+ * <p>
+ * 基准测试类以 {@code Benchmark} 结尾并标记 {@code @Tag(BenchmarkSupport.TAG)}，
+ * 默认构建不运行，通过 {@code mvn test -Pbenchmark} 执行，结果输出到标准输出。
+ * </p>
+ *
+ * @author bingbaihanji
+ * @date 2026-01-24
+ */
+public final class BenchmarkSupport {
+
+    /**
+     * 基准测试的 JUnit 标签
+     */
+    public static final String TAG = "benchmark";
+
+    /**
+     * 防止测量的代码被 JIT 当作死代码消除
+     */
+    public static volatile long sink;
+
+    // com.sun.management.ThreadMXBean#getThreadAllocatedBytes（模块不依赖 jdk.management，通过反射调用）
+    private static final Object THREAD_BEAN;
+    private static final Method ALLOCATED_BYTES;
+
+    static {
+        Object bean = null;
+        Method method = null;
+        try {
+            bean = Class.forName("java.lang.management.ManagementFactory").getMethod("getThreadMXBean").invoke(null);
+            method = Class.forName("com.sun.management.ThreadMXBean")
+                    .getMethod("getThreadAllocatedBytes", long.class);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // 当前 JVM 不支持按线程统计分配量
+        }
+        THREAD_BEAN = bean;
+        ALLOCATED_BYTES = method;
+    }
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * 测量每次操作的耗时
+     *
+     * @param warmupRounds 预热轮数（不计入结果）
+     * @param rounds       测量轮数
+     * @param opsPerRound  每轮执行的操作次数
+     * @param round        执行一轮（opsPerRound 次操作）
+     * @return 各轮每次操作耗时的中位数（纳秒）
+     */
+    public static double nanosPerOp(int warmupRounds, int rounds, int opsPerRound, Runnable round) {
+        for (int i = 0; i < warmupRounds; i++) {
+            round.run();
+        }
+        double[] samples = new double[rounds];
+        for (int i = 0; i < rounds; i++) {
+            long start = System.nanoTime();
+            round.run();
+            samples[i] = (double) (System.nanoTime() - start) / opsPerRound;
+        }
+        Arrays.sort(samples);
+        return samples[rounds / 2];
+    }
+
+    /**
+     * 当前线程累计分配的堆内存字节数，不支持时返回 -1
+     */
+    public static long allocatedBytes() {
+        if (ALLOCATED_BYTES == null) {
+            return -1;
+        }
+        try {
+            return (long) ALLOCATED_BYTES.invoke(THREAD_BEAN, Thread.currentThread().getId());
+        } catch (ReflectiveOperationException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * 输出一行基准结果
+     */
+    public static void report(String benchmark, String format, Object... args) {
+        System.out.printf("[benchmark] %-28s %s%n", benchmark, String.format(format, args));
+    }
+}
@@ -0,0 +1,132 @@
+package com.bingbaihanji.bfxwt;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * 需要 JavaFX 平台的测试的辅助方法
+ *
+ * <p>
+ * 平台只启动一次；没有显示环境时（{@code Unable to open DISPLAY}）跳过测试而不是失败。
+ * 在无图形界面的 CI 上可通过 Xvfb（{@code xvfb-run mvn test}）运行，
+ * 或把 Monocle 加入测试类路径后使用
+ * {@code -Dglass.platform=Monocle -Dmonocle.platform=Headless -Dprism.order=sw}。
+ * </p>
+ *
+ * @author bingbaihanji
+ * @date 2026-01-24
+ */
+public final class FxTestSupport {
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private static Boolean started;
+
+    private FxTestSupport() {
+    }
+
+    /**
+     * 确保 JavaFX 平台已启动，无法启动时跳过当前测试
+     */
+    public static synchronized void assumeToolkit() {
+        if (started == null) {
+            started = startToolkit();
+        }
+        assumeTrue(started, "JavaFX 平台无法启动（没有可用的显示环境）");
+    }
+
+    /**
+     * 在 FX 线程上执行并等待结果
+     */
+    public static <T> T onFx(Callable<T> action) throws Exception {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Platform.runLater(() -> {
+            try {
+                future.complete(action.call());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+        try {
+            return future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 在 FX 线程上执行并等待完成
+     */
+    public static void runOnFx(Runnable action) throws Exception {
+        onFx(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * 等待条件在 FX 线程上成立（每帧检查一次）
+     *
+     * @throws TimeoutException 超时仍未成立
+     */
+    public static void waitUntil(BooleanSupplier condition) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (!onFx(condition::getAsBoolean)) {
+            if (System.nanoTime() > deadline) {
+                throw new TimeoutException("等待条件超时");
+            }
+            Thread.sleep(16);
+        }
+    }
+
+    /**
+     * 等待若干个完整的脉冲（此前的场景变化已完成 CSS 处理、布局和渲染同步）
+     */
+    public static void waitPulses(int pulses) throws Exception {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        runOnFx(() -> new AnimationTimer() {
+            private int count;
+
+            @Override
+            public void handle(long now) {
+                if (++count > pulses) {
+                    stop();
+                    done.complete(null);
+                }
+            }
+        }.start());
+        done.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private static boolean startToolkit() {
+        CountDownLatch latch = new CountDownLatch(1);
+        try {
+            Platform.startup(latch::countDown);
+        } catch (IllegalStateException e) {
+            // 平台已由其它测试启动
+            return true;
+        } catch (RuntimeException | LinkageError e) {
+            return false;
+        }
+        Platform.setImplicitExit(false);
+        try {
+            return latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
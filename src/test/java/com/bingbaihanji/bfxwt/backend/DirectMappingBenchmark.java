@@ -0,0 +1,108 @@
+package com.bingbaihanji.bfxwt.backend;
+
+import com.bingbaihanji.bfxwt.BenchmarkSupport;
+import com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.User32Direct;
+import com.sun.jna.Library;
+import com.sun.jna.Native;
+import com.sun.jna.NativeLibrary;
+import com.sun.jna.Platform;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * JNA 接口映射与直接映射（{@link Native#register}）的单次调用开销对比
+ *
+ * <p>
+ * {@link #interfaceVersusDirectMapping()} 以 C 运行库中的 {@code int abs(int)} 作为桩函数，在任意平台上对比两种映射的纯调用开销
+ * （不使用 {@code labs}：C 的 long 在 Win64 上为 32 位，不能映射为 Java long）；
+ * {@link #win32VersusDirectWin32Backend()} 仅在 Windows 上对比 {@link Win32WindowBackend} 与
+ * {@link DirectWin32WindowBackend} 的 SetWindowPos（传入空句柄，函数立即失败返回，测量的是调用开销）。
+ * 结果只输出不断言，负载较高的机器上两者的差距会波动。
+ * </p>
+ *
+ * @author bingbaihanji
+ * @date 2026-01-24
+ */
+@Tag(BenchmarkSupport.TAG)
+class DirectMappingBenchmark {
+
+    private static final int WARMUP = 10;
+    private static final int ROUNDS = 15;
+    private static final int OPS = 200_000;
+
+    @Test
+    void interfaceVersusDirectMapping() {
+        CLibrary mapped = Native.load(Platform.C_LIBRARY_NAME, CLibrary.class);
+        assumeTrue(CDirect.AVAILABLE, "C 运行库无法直接映射");
+
+        double interfaceNanos = BenchmarkSupport.nanosPerOp(WARMUP, ROUNDS, OPS, () -> {
+            long sum = 0;
+            for (int i = 0; i < OPS; i++) {
+                sum += mapped.abs(-i);
+            }
+            BenchmarkSupport.sink = sum;
+        });
+        double directNanos = BenchmarkSupport.nanosPerOp(WARMUP, ROUNDS, OPS, () -> {
+            long sum = 0;
+            for (int i = 0; i < OPS; i++) {
+                sum += CDirect.abs(-i);
+            }
+            BenchmarkSupport.sink = sum;
+        });
+
+        BenchmarkSupport.report("abs interface mapping", "%.1f ns/call", interfaceNanos);
+        BenchmarkSupport.report("abs direct mapping", "%.1f ns/call (%.1fx)", directNanos,
+                interfaceNanos / directNanos);
+    }
+
+    @Test
+    void win32VersusDirectWin32Backend() {
+        assumeTrue(Platform.isWindows() && User32Direct.isAvailable(), "需要 64 位 Windows");
+        Win32WindowBackend mapped = new Win32WindowBackend();
+        DirectWin32WindowBackend direct = new DirectWin32WindowBackend();
+
+        double interfaceNanos = BenchmarkSupport.nanosPerOp(WARMUP, ROUNDS, OPS, () -> {
+            for (int i = 0; i < OPS; i++) {
+                mapped.setWindowPos(0, 0, i, i, 100, 100, 0);
+            }
+        });
+        double directNanos = BenchmarkSupport.nanosPerOp(WARMUP, ROUNDS, OPS, () -> {
+            for (int i = 0; i < OPS; i++) {
+                direct.setWindowPos(0, 0, i, i, 100, 100, 0);
+            }
+        });
+
+        BenchmarkSupport.report("SetWindowPos Win32", "%.1f ns/call", interfaceNanos);
+        BenchmarkSupport.report("SetWindowPos Win32 direct", "%.1f ns/call (%.1fx)", directNanos,
+                interfaceNanos / directNanos);
+    }
+
+    /**
+     * 接口映射的桩库
+     */
+    public interface CLibrary extends Library {
+        int abs(int value);
+    }
+
+    /*
+     * 直接映射的桩库
+     */
+    private static final class CDirect {
+        private static final boolean AVAILABLE;
+
+        static {
+            boolean available;
+            try {
+                Native.register(CDirect.class, NativeLibrary.getInstance(Platform.C_LIBRARY_NAME));
+                available = true;
+            } catch (LinkageError | RuntimeException e) {
+                available = false;
+            }
+            AVAILABLE = available;
+        }
+
+        static native int abs(int value);
+    }
+}
@@ -0,0 +1,50 @@
+package com.bingbaihanji.bfxwt.backend;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * {@link InstrumentedWindowBackend} 失败判定测试
+ *
+ * @author bingbaihanji
+ * @date 2026-01-24
+ */
+class InstrumentedWindowBackendTest {
+
+    // GWLP_USERDATA，新窗口上的初始值为 0
+    private static final int GWLP_USERDATA = -21;
+
+    private RecordingWindowBackend recording;
+    private InstrumentedWindowBackend backend;
+
+    @BeforeEach
+    void setUp() {
+        recording = new RecordingWindowBackend();
+        backend = new InstrumentedWindowBackend(recording);
+        NativeCallMetrics.reset();
+    }
+
+    @Test
+    void staleLastErrorIsNotCountedAsSetWindowLongPtrFailure() {
+        long hwnd = recording.addWindow("GlassWndClass-GlassWindowClass-2", "Demo", 0, 0, 100, 100);
+        // 之前的某次调用留下的错误码
+        recording.setLastError(1400);
+
+        assertEquals(0L, backend.setWindowLongPtr(hwnd, GWLP_USERDATA, 42));
+
+        NativeCallMetrics.FunctionStats stats = NativeCallMetrics.snapshot("SetWindowLongPtr");
+        assertEquals(1L, stats.calls());
+        assertEquals(0L, stats.failures());
+    }
+
+    @Test
+    void invalidHandleIsCountedAsSetWindowLongPtrFailure() {
+        assertEquals(0L, backend.setWindowLongPtr(0xdead0, GWLP_USERDATA, 42));
+
+        NativeCallMetrics.FunctionStats stats = NativeCallMetrics.snapshot("SetWindowLongPtr");
+        assertEquals(1L, stats.failures());
+        assertEquals(1400, stats.lastErrorCode());
+    }
+}
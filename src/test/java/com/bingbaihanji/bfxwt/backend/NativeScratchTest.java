@@ -0,0 +1,177 @@
+package com.bingbaihanji.bfxwt.backend;
+
+import com.bingbaihanji.bfxwt.BenchmarkSupport;
+import com.sun.jna.Platform;
+import org.junit.jupiter.api.Test;
+
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.DwmAttribute.DWMWA_USE_IMMERSIVE_DARK_MODE;
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.DwmAttribute.DWMWA_WINDOW_CORNER_PREFERENCE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * {@link NativeScratch} 复用测试：稳定状态下反复调用不再创建新的缓冲区
+ *
+ * <p>
+ * Windows 上另外测量 {@link Win32WindowBackend} 各条热点路径的实际堆分配（每次调用的字节数）。
+ * </p>
+ *
+ * @author bingbaihanji
+ * @date 2026-01-24
+ */
+class NativeScratchTest {
+
+    private static final int ITERATIONS = 10_000;
+    // 每次枚举允许的堆分配上限：JNA 调用本身的参数数组等；每次新建回调时为数 KB（回调引用、原生跳板）
+    private static final long ENUM_BYTES_LIMIT = 1024;
+
+    @Test
+    void repeatedAcquireReusesThreadBuffer() {
+        NativeScratch first = acquireAndRelease();
+        long allocations = NativeScratch.getAllocationCount();
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            assertSame(first, acquireAndRelease());
+        }
+
+        assertEquals(allocations, NativeScratch.getAllocationCount());
+    }
+
+    @Test
+    void reentrantAcquireUsesTemporaryBufferWithoutReplacingThreadBuffer() {
+        NativeScratch threadBuffer = acquireAndRelease();
+        long allocations = NativeScratch.getAllocationCount();
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            NativeScratch outer = NativeScratch.acquire();
+            try {
+                outer.intRef.setValue(i);
+                // 模拟原生调用进行中窗口过程重入
+                NativeScratch inner = NativeScratch.acquire();
+                try {
+                    assertNotSame(outer, inner);
+                    inner.intRef.setValue(-1);
+                } finally {
+                    inner.release();
+                }
+                assertEquals(i, outer.intRef.getValue());
+            } finally {
+                outer.release();
+            }
+        }
+
+        // 每次重入只分配一个临时缓冲区，线程缓冲区本身保持不变
+        assertEquals(allocations + ITERATIONS, NativeScratch.getAllocationCount());
+        assertSame(threadBuffer, acquireAndRelease());
+        assertEquals(allocations + ITERATIONS, NativeScratch.getAllocationCount());
+    }
+
+    @Test
+    void otherThreadsGetTheirOwnBuffer() throws InterruptedException {
+        NativeScratch mine = acquireAndRelease();
+        NativeScratch[] theirs = new NativeScratch[1];
+        Thread thread = new Thread(() -> theirs[0] = acquireAndRelease());
+        thread.start();
+        thread.join();
+
+        assertNotSame(mine, theirs[0]);
+        assertFalse(theirs[0] == null);
+    }
+
+    @Test
+    void win32HotPathDoesNotAllocateInSteadyState() {
+        assumeTrue(Platform.isWindows(), "需要 Windows");
+        Win32WindowBackend backend = new Win32WindowBackend();
+        int[] rect = new int[4];
+        int[] point = new int[2];
+        int[] value = new int[1];
+        // 首次调用创建当前线程的缓冲区
+        backend.getWindowRect(0, rect);
+        long allocations = NativeScratch.getAllocationCount();
+
+        // screenToClient 即 FXWindowEmbedTools.convertNodeToNativeClientCoordinates 每次尺寸变化时的调用
+        for (int i = 0; i < ITERATIONS; i++) {
+            backend.getWindowRect(0, rect);
+            backend.screenToClient(0, point);
+            backend.dwmGetWindowAttribute(0, 0, value);
+            backend.getClassName(0);
+        }
+
+        assertEquals(allocations, NativeScratch.getAllocationCount());
+    }
+
+    @Test
+    void win32StylePathsAndEnumerationReuseBuffersAndCallbacks() {
+        assumeTrue(Platform.isWindows(), "需要 Windows");
+        Win32WindowBackend backend = new Win32WindowBackend();
+        // 当前（测试）线程没有窗口：只测量枚举调用本身，访问器不会被调用
+        int threadId = backend.getCurrentThreadId();
+        NativeWindowBackend.WindowVisitor visitor = hwnd -> true;
+        // 首次调用创建当前线程的缓冲区和枚举回调
+        backend.dwmSetWindowAttribute(0, DWMWA_WINDOW_CORNER_PREFERENCE, 2);
+        backend.dwmExtendFrameIntoClientArea(0, -1, -1, -1, -1);
+        backend.enumThreadWindows(threadId, visitor);
+        long allocations = NativeScratch.getAllocationCount();
+
+        // setWindowCornerPreference / setWindowDarkMode / extendFrameIntoClientArea 落到的后端调用
+        long corner = bytesPerCall(() -> backend.dwmSetWindowAttribute(0, DWMWA_WINDOW_CORNER_PREFERENCE, 2));
+        long darkMode = bytesPerCall(() -> backend.dwmSetWindowAttribute(0, DWMWA_USE_IMMERSIVE_DARK_MODE, 1));
+        long extendFrame = bytesPerCall(() -> backend.dwmExtendFrameIntoClientArea(0, -1, -1, -1, -1));
+        long enumeration = bytesPerCall(() -> backend.enumThreadWindows(threadId, visitor));
+
+        BenchmarkSupport.report("Win32 分配 corner", "%d B/次", corner);
+        BenchmarkSupport.report("Win32 分配 dark mode", "%d B/次", darkMode);
+        BenchmarkSupport.report("Win32 分配 extend frame", "%d B/次", extendFrame);
+        BenchmarkSupport.report("Win32 分配 enum", "%d B/次", enumeration);
+
+        assertEquals(allocations, NativeScratch.getAllocationCount());
+        assumeTrue(enumeration >= 0, "当前 JVM 不支持线程分配统计");
+        assertTrue(enumeration < ENUM_BYTES_LIMIT, "每次枚举分配 " + enumeration + " B");
+    }
+
+    @Test
+    void nestedEnumerationRestoresOuterVisitor() {
+        assumeTrue(Platform.isWindows(), "需要 Windows");
+        Win32WindowBackend backend = new Win32WindowBackend();
+        int[] topLevel = {0};
+        backend.enumWindows(hwnd -> ++topLevel[0] > 0);
+        assumeTrue(topLevel[0] > 1, "没有可枚举的顶层窗口");
+
+        // 访问器中再次枚举：内层结束后外层继续使用自己的访问器
+        int[] outer = {0};
+        int[] inner = {0};
+        backend.enumWindows(hwnd -> {
+            if (outer[0]++ == 0) {
+                backend.enumWindows(nested -> ++inner[0] < 3);
+            }
+            return true;
+        });
+
+        assertEquals(3, inner[0]);
+        assertEquals(topLevel[0], outer[0], 1);
+    }
+
+    /*
+     * 每次调用的平均堆分配字节数，不支持统计时返回 -1
+     */
+    private static long bytesPerCall(Runnable call) {
+        long before = BenchmarkSupport.allocatedBytes();
+        if (before < 0) {
+            return -1;
+        }
+        for (int i = 0; i < ITERATIONS; i++) {
+            call.run();
+        }
+        return (BenchmarkSupport.allocatedBytes() - before) / ITERATIONS;
+    }
+
+    private static NativeScratch acquireAndRelease() {
+        NativeScratch scratch = NativeScratch.acquire();
+        scratch.release();
+        return scratch;
+    }
+}
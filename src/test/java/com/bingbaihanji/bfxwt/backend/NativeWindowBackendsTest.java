@@ -0,0 +1,85 @@
+package com.bingbaihanji.bfxwt.backend;
+
+import com.bingbaihanji.bfxwt.jfr.JfrWindowBackend;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link NativeWindowBackends} 测试：启用 / 停用调用统计不改变当前后端的平台标志
+ *
+ * @author bingbaihanji
+ * @date 2026-01-24
+ */
+class NativeWindowBackendsTest {
+
+    @AfterEach
+    void tearDown() {
+        NativeCallMetrics.disable();
+        System.clearProperty(NativeWindowBackends.BACKEND_PROPERTY);
+        System.clearProperty(JfrWindowBackend.JFR_PROPERTY);
+        NativeWindowBackends.set(null);
+    }
+
+    @Test
+    void metricsKeepX11Flags() {
+        useDefault("x11");
+        NativeWindowBackend x11Backend = NativeWindowBackends.get();
+        boolean usable = NativeWindowBackends.isUsable();
+        assertTrue(NativeWindowBackends.isX11());
+
+        NativeCallMetrics.enable();
+        assertTrue(NativeCallMetrics.isEnabled());
+        assertTrue(NativeWindowBackends.isX11());
+        assertEquals(usable, NativeWindowBackends.isUsable());
+
+        NativeCallMetrics.disable();
+        assertSame(x11Backend, NativeWindowBackends.get());
+        assertTrue(NativeWindowBackends.isX11());
+        assertEquals(usable, NativeWindowBackends.isUsable());
+    }
+
+    @Test
+    void metricsKeepWin32Flags() {
+        useDefault("win32");
+        boolean usable = NativeWindowBackends.isUsable();
+
+        NativeCallMetrics.enable();
+        assertFalse(NativeWindowBackends.isX11());
+        assertEquals(usable, NativeWindowBackends.isUsable());
+
+        NativeCallMetrics.disable();
+        assertFalse(NativeWindowBackends.isX11());
+        assertEquals(usable, NativeWindowBackends.isUsable());
+    }
+
+    @Test
+    void metricsKeepInstalledBackend() {
+        RecordingWindowBackend recording = new RecordingWindowBackend();
+        NativeWindowBackends.set(recording);
+
+        NativeCallMetrics.enable();
+        NativeCallMetrics.enable();
+        assertTrue(NativeWindowBackends.get() instanceof InstrumentedWindowBackend instrumented
+                && instrumented.delegate() == recording);
+        assertTrue(NativeWindowBackends.isUsable());
+        assertFalse(NativeWindowBackends.isX11());
+
+        NativeCallMetrics.disable();
+        assertSame(recording, NativeWindowBackends.get());
+        assertTrue(NativeWindowBackends.isUsable());
+    }
+
+    /*
+     * 按系统属性重新创建默认后端（不包装 JFR 层，便于比较实例）
+     */
+    private static void useDefault(String name) {
+        System.setProperty(NativeWindowBackends.BACKEND_PROPERTY, name);
+        System.setProperty(JfrWindowBackend.JFR_PROPERTY, "false");
+        NativeWindowBackends.set(null);
+    }
+}
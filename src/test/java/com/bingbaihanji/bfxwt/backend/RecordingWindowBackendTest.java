@@ -0,0 +1,189 @@
+package com.bingbaihanji.bfxwt.backend;
+
+import com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools;
+import com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants;
+import com.sun.jna.Pointer;
+import com.sun.jna.platform.win32.WinDef;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link RecordingWindowBackend} 测试（通过 {@link NativeWindowBackends#set} 安装）
+ *
+ * @author bingbaihanji
+ * @date 2026-01-24
+ */
+class RecordingWindowBackendTest {
+
+    private static final String GLASS = "GlassWndClass-GlassWindowClass-2";
+    // GWLP_USERDATA
+    private static final int GWLP_USERDATA = -21;
+
+    private RecordingWindowBackend backend;
+
+    @BeforeEach
+    void setUp() {
+        backend = new RecordingWindowBackend();
+        NativeWindowBackends.set(backend);
+    }
+
+    @AfterEach
+    void tearDown() {
+        NativeWindowBackends.set(null);
+    }
+
+    @Test
+    void installedBackendReceivesToolCalls() {
+        long hwnd = backend.addWindow(GLASS, "Demo", 0, 0, 800, 600);
+
+        assertSame(backend, NativeWindowBackends.get());
+        assertTrue(NativeWindowBackends.isUsable());
+        assertFalse(NativeWindowBackends.isX11());
+
+        FXNativeWindowsTools.setWindowDarkMode(new WinDef.HWND(new Pointer(hwnd)), true);
+
+        assertEquals(1L, backend.callCount("DwmSetWindowAttribute"));
+        assertEquals(Integer.valueOf(1),
+                backend.window(hwnd).dwmAttribute(Win32Constants.DwmAttribute.DWMWA_USE_IMMERSIVE_DARK_MODE));
+    }
+
+    @Test
+    void callLimitKeepsRecentCallsAndExactCounts() {
+        long hwnd = backend.addWindow(GLASS, "Demo", 0, 0, 800, 600);
+        backend.setCallLimit(10);
+
+        for (int i = 0; i < 100; i++) {
+            backend.isZoomed(hwnd);
+        }
+        backend.getWindowText(hwnd);
+
+        List<RecordingWindowBackend.NativeCall> calls = backend.calls();
+        assertEquals(10, calls.size());
+        assertEquals("GetWindowText", calls.get(calls.size() - 1).function());
+        assertEquals(101L, backend.callCount());
+        assertEquals(100L, backend.callCount("IsZoomed"));
+    }
+
+    @Test
+    void clearCallsResetsRecordsAndCounts() {
+        long hwnd = backend.addWindow(GLASS, "Demo", 0, 0, 800, 600);
+        backend.isIconic(hwnd);
+        backend.clearCalls();
+
+        assertEquals(0, backend.calls().size());
+        assertEquals(0L, backend.callCount());
+        assertEquals(0L, backend.callCount("IsIconic"));
+        assertThrows(IllegalArgumentException.class, () -> backend.setCallLimit(0));
+    }
+
+    @Test
+    void deferredBatchAppliesAllPositionsOnEnd() {
+        long first = backend.addWindow(GLASS, "A", 0, 0, 100, 100);
+        long second = backend.addWindow(GLASS, "B", 0, 0, 100, 100);
+
+        long hdwp = backend.beginDeferWindowPos(2);
+        hdwp = backend.deferWindowPos(hdwp, first, 0, 10, 20, 300, 200, Win32Constants.SetWindowPosFlags.SWP_NOZORDER);
+        hdwp = backend.deferWindowPos(hdwp, second, 0, 30, 40, 300, 200, Win32Constants.SetWindowPosFlags.SWP_NOZORDER);
+        assertEquals(0, backend.window(first).x());
+
+        assertTrue(backend.endDeferWindowPos(hdwp));
+        assertEquals(10, backend.window(first).x());
+        assertEquals(40, backend.window(second).y());
+        assertEquals(300, backend.window(second).width());
+    }
+
+    @Test
+    void enumerationFollowsCreationOrderAndProcess() {
+        long first = backend.addWindow(GLASS, "A", 0, 0, 100, 100);
+        backend.addWindow(1, 1, "Notepad", "Other process", 0, 0, 100, 100);
+        long second = backend.addWindow(GLASS, "B", 0, 0, 100, 100);
+
+        List<Long> own = new ArrayList<>();
+        int pid = backend.getCurrentProcessId();
+        backend.enumWindows(hwnd -> {
+            if (backend.getWindowProcessId(hwnd) == pid) {
+                own.add(hwnd);
+            }
+            return true;
+        });
+
+        assertEquals(List.of(first, second), own);
+        assertEquals(second, backend.findWindow(GLASS, "B"));
+    }
+
+    @Test
+    void winEventsAreDeliveredOnEventThread() {
+        List<Integer> events = new ArrayList<>();
+        List<String> threads = new ArrayList<>();
+        long hook = backend.setWinEventHook(Win32Constants.WinEvent.EVENT_OBJECT_CREATE,
+                Win32Constants.WinEvent.EVENT_OBJECT_NAMECHANGE, (event, hwnd, idObject, idChild) -> {
+                    synchronized (events) {
+                        events.add(event);
+                        threads.add(Thread.currentThread().getName());
+                    }
+                });
+        long hwnd = backend.addWindow(GLASS, "Demo", 0, 0, 100, 100);
+        backend.setWindowTitle(hwnd, "Renamed");
+        backend.flushWinEvents();
+
+        synchronized (events) {
+            assertEquals(List.of(Win32Constants.WinEvent.EVENT_OBJECT_CREATE,
+                    Win32Constants.WinEvent.EVENT_OBJECT_SHOW,
+                    Win32Constants.WinEvent.EVENT_OBJECT_NAMECHANGE), events);
+            assertFalse(threads.contains(Thread.currentThread().getName()));
+        }
+        assertTrue(backend.unhookWinEvent(hook));
+    }
+
+    @Test
+    void latencyIsParallelAndEachCallStaysAtomic() throws InterruptedException {
+        long hwnd = backend.addWindow(GLASS, "Demo", 0, 0, 100, 100);
+        backend.setLatency(50, TimeUnit.MILLISECONDS);
+        int threads = 4;
+        int writes = 5;
+        List<Long> previous = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long base = (t + 1) * 100L;
+            workers.add(new Thread(() -> {
+                for (int i = 0; i < writes; i++) {
+                    previous.add(backend.setWindowLongPtr(hwnd, GWLP_USERDATA, base + i));
+                }
+            }));
+        }
+        long start = System.nanoTime();
+        workers.forEach(Thread::start);
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // 不同线程并行等待：总耗时接近单个线程的耗时，而不是所有调用之和
+        assertTrue(elapsedMillis < threads * writes * 50L, "调用被串行等待: " + elapsedMillis + " ms");
+        // 每次写入读到的旧值都是另一次写入的结果：0 和每个写入的值（最后一个除外）恰好出现一次
+        backend.setLatency(0, TimeUnit.MILLISECONDS);
+        List<Long> chain = new ArrayList<>(previous);
+        chain.add(backend.getWindowLongPtr(hwnd, GWLP_USERDATA));
+        Collections.sort(chain);
+        List<Long> expected = new ArrayList<>();
+        expected.add(0L);
+        for (int t = 0; t < threads; t++) {
+            for (int i = 0; i < writes; i++) {
+                expected.add((t + 1) * 100L + i);
+            }
+        }
+        assertEquals(expected, chain);
+    }
+}
@@ -0,0 +1,141 @@
+package com.bingbaihanji.bfxwt.backend;
+
+import com.bingbaihanji.bfxwt.FxTestSupport;
+import com.bingbaihanji.bfxwt.jfr.JfrWindowBackend;
+import com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools;
+import com.sun.jna.Pointer;
+import com.sun.jna.platform.win32.WinDef;
+import javafx.scene.Scene;
+import javafx.scene.layout.Pane;
+import javafx.stage.Stage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.LayeredWindowAttribute.LWA_ALPHA;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * {@link X11WindowBackend} 测试：_NET_WM_WINDOW_OPACITY、_NET_CLIENT_LIST / _NET_WM_PID 枚举以及已显示 Stage 的句柄查找
+ *
+ * <p>
+ * 需要 X 服务器，没有 {@code DISPLAY} 时跳过（CI 上可用 {@code xvfb-run mvn test}）。
+ * _NET_CLIENT_LIST 由窗口管理器维护，没有运行窗口管理器时枚举相关的断言也会跳过。
+ * </p>
+ *
+ * @author bingbaihanji
+ * @date 2026-01-24
+ */
+class X11WindowBackendTest {
+
+    private static final long CLIENT_LIST_TIMEOUT_MILLIS = 3000;
+
+    private X11WindowBackend backend;
+    private final List<Long> created = new ArrayList<>();
+    private Stage stage;
+
+    @BeforeEach
+    void setUp() {
+        assumeTrue(System.getenv("DISPLAY") != null, "没有 DISPLAY，跳过 X11 测试");
+        System.setProperty(NativeWindowBackends.BACKEND_PROPERTY, "x11");
+        System.setProperty(JfrWindowBackend.JFR_PROPERTY, "false");
+        NativeWindowBackends.set(null);
+        assumeTrue(NativeWindowBackends.get() instanceof X11WindowBackend, "当前平台不使用 X11 后端");
+        backend = (X11WindowBackend) NativeWindowBackends.get();
+        assumeTrue(backend.isAvailable(), "无法连接到 X 服务器");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (stage != null) {
+            FxTestSupport.runOnFx(stage::hide);
+        }
+        if (backend != null) {
+            created.forEach(backend::destroyWindow);
+        }
+        System.clearProperty(NativeWindowBackends.BACKEND_PROPERTY);
+        System.clearProperty(JfrWindowBackend.JFR_PROPERTY);
+        NativeWindowBackends.set(null);
+    }
+
+    @Test
+    void layeredAlphaWritesNetWmWindowOpacity() {
+        long hwnd = backend.createWindowEx(0, "", "Opacity", 0, 0, 0, 200, 150, 0);
+        assertTrue(hwnd != 0);
+        created.add(hwnd);
+        assertEquals(-1, backend.getWindowOpacity(hwnd));
+
+        assertTrue(backend.setLayeredWindowAttributes(hwnd, 0, (byte) 128, LWA_ALPHA));
+        assertEquals(128 * 0xFFFFFFFFL / 255, backend.getWindowOpacity(hwnd));
+
+        // 不含 LWA_ALPHA 时不修改透明度
+        assertTrue(backend.setLayeredWindowAttributes(hwnd, 0, (byte) 32, 0));
+        assertEquals(128 * 0xFFFFFFFFL / 255, backend.getWindowOpacity(hwnd));
+
+        assertTrue(backend.setLayeredWindowAttributes(hwnd, 0, (byte) 0xFF, LWA_ALPHA));
+        assertEquals(0xFFFFFFFFL, backend.getWindowOpacity(hwnd));
+    }
+
+    @Test
+    void shownStageIsEnumeratedAndResolved() throws Exception {
+        FxTestSupport.assumeToolkit();
+        assertSame(backend, NativeWindowBackends.get());
+        stage = FxTestSupport.onFx(() -> {
+            Stage shown = new Stage();
+            shown.setTitle("X11WindowBackendTest");
+            shown.setScene(new Scene(new Pane(), 320, 240));
+            shown.show();
+            return shown;
+        });
+
+        // 窗口管理器收到映射请求后才把窗口加入 _NET_CLIENT_LIST
+        long own = awaitOwnClient();
+        assumeTrue(own != 0, "窗口管理器没有维护 _NET_CLIENT_LIST");
+        assertEquals(backend.getCurrentProcessId(), backend.getWindowProcessId(own));
+        assertEquals("X11WindowBackendTest", backend.getWindowText(own));
+
+        List<Long> threadWindows = new ArrayList<>();
+        backend.enumThreadWindows(backend.getCurrentThreadId(), hwnd -> threadWindows.add(hwnd));
+        assertTrue(threadWindows.contains(own));
+
+        WinDef.HWND resolved = FxTestSupport.onFx(() -> FXNativeWindowsTools.getHWnd(stage));
+        assertNotNull(resolved);
+        assertEquals(own, Pointer.nativeValue(resolved.getPointer()));
+
+        // 通过后端设置透明度写入的是 Stage 的顶层窗口
+        assertTrue(backend.setLayeredWindowAttributes(own, 0, (byte) 0, LWA_ALPHA));
+        assertEquals(0, backend.getWindowOpacity(own));
+    }
+
+    /*
+     * 等待 _NET_CLIENT_LIST 中出现本进程、标题匹配的窗口，超时返回 0
+     */
+    private long awaitOwnClient() throws InterruptedException {
+        int pid = backend.getCurrentProcessId();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(CLIENT_LIST_TIMEOUT_MILLIS);
+        while (System.nanoTime() < deadline) {
+            long[] found = {0};
+            backend.enumWindows(hwnd -> {
+                if (backend.getWindowProcessId(hwnd) == pid
+                        && "X11WindowBackendTest".equals(backend.getWindowText(hwnd))) {
+                    found[0] = hwnd;
+                    return false;
+                }
+                return true;
+            });
+            if (found[0] != 0) {
+                return found[0];
+            }
+            Thread.sleep(50);
+        }
+        return 0;
+    }
+}
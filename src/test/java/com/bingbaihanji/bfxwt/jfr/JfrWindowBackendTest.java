@@ -0,0 +1,65 @@
+package com.bingbaihanji.bfxwt.jfr;
+
+import com.bingbaihanji.bfxwt.backend.RecordingWindowBackend;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link JfrWindowBackend} 事件内容测试
+ *
+ * @author bingbaihanji
+ * @date 2026-01-24
+ */
+class JfrWindowBackendTest {
+
+    // GWLP_USERDATA，新窗口上的初始值为 0
+    private static final int GWLP_USERDATA = -21;
+
+    @Test
+    void setWindowLongPtrIgnoresStaleLastError() throws IOException {
+        RecordingWindowBackend recording = new RecordingWindowBackend();
+        JfrWindowBackend backend = new JfrWindowBackend(recording);
+        long hwnd = recording.addWindow("GlassWndClass-GlassWindowClass-2", "Demo", 0, 0, 100, 100);
+
+        List<RecordedEvent> events = record(() -> {
+            recording.setLastError(1400);
+            backend.setWindowLongPtr(hwnd, GWLP_USERDATA, 42);
+            backend.setWindowLongPtr(0xdead0, GWLP_USERDATA, 42);
+        });
+
+        assertEquals(2, events.size());
+        assertTrue(events.get(0).getBoolean("success"));
+        assertEquals(0, events.get(0).getInt("errorCode"));
+        assertFalse(events.get(1).getBoolean("success"));
+        assertEquals(1400, events.get(1).getInt("errorCode"));
+    }
+
+    private static List<RecordedEvent> record(Runnable calls) throws IOException {
+        Path file = Files.createTempFile("bfxwt-native-call", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("bfxwt.NativeCall").withThreshold(Duration.ZERO);
+            recording.start();
+            calls.run();
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file).stream()
+                    .filter(event -> event.getEventType().getName().equals("bfxwt.NativeCall"))
+                    .filter(event -> event.getString("function").equals("SetWindowLongPtr"))
+                    .toList();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.bingbaihanji.bfxwt.jfr;
+
+import jdk.jfr.Configuration;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * {@link WindowJfr} 配置测试
+ *
+ * @author bingbaihanji
+ * @date 2026-01-24
+ */
+class WindowJfrTest {
+
+    @Test
+    void nativeCallRecordsOnlySlowCalls() {
+        Map<String, String> settings = WindowJfr.configuration().getSettings();
+
+        assertEquals("true", settings.get("bfxwt.NativeCall#enabled"));
+        assertEquals("1 ms", settings.get("bfxwt.NativeCall#threshold"));
+    }
+
+    @Test
+    void exportedConfigurationIsUsableFromDisk() throws IOException, ParseException {
+        Path directory = Files.createTempDirectory("bfxwt-jfc");
+        try {
+            Path file = WindowJfr.exportConfiguration(directory);
+
+            assertEquals(directory.resolve("bfxwt.jfc"), file);
+            assertEquals(WindowJfr.configuration().getSettings(), Configuration.create(file).getSettings());
+        } finally {
+            Files.deleteIfExists(directory.resolve("bfxwt.jfc"));
+            Files.deleteIfExists(directory);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.bingbaihanji.bfxwt.stage;
+
+import com.bingbaihanji.bfxwt.BenchmarkSupport;
+import com.bingbaihanji.bfxwt.FxTestSupport;
+import com.bingbaihanji.bfxwt.tools.CssPassMonitor;
+import javafx.animation.AnimationTimer;
+import javafx.util.Duration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 多窗口下 CSS 处理占布局阶段的比例：{@link AbstractCustomWindow.ChromeStyling#STYLESHEET} vs
+ * {@link AbstractCustomWindow.ChromeStyling#DIRECT}
+ *
+ * <p>
+ * 每种方式打开 {@value #WINDOWS} 个窗口，每个场景安装一个 {@link CssPassMonitor}，
+ * 连续 {@value #FRAMES} 帧在每帧中切换所有窗口的主题（不带过渡），
+ * 汇总这些脉冲中的 CSS 处理耗时和占「CSS + 布局」的比例。
+ * </p>
+ *
+ * @author bingbaihanji
+ * @date 2026-01-24
+ */
+@Tag(BenchmarkSupport.TAG)
+class ChromeStylingBenchmark {
+
+    private static final int WINDOWS = 8;
+    private static final int FRAMES = 60;
+
+    private final List<TestWindow> windows = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        FxTestSupport.assumeToolkit();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (!windows.isEmpty()) {
+            FxTestSupport.runOnFx(() -> windows.forEach(TestWindow::close));
+        }
+    }
+
+    @Test
+    void cssShareStylesheetVersusDirect() throws Exception {
+        // 第一次为预热（类加载、样式表解析），不计入结果
+        run(AbstractCustomWindow.ChromeStyling.STYLESHEET);
+        CssPassMonitor.Stats stylesheet = run(AbstractCustomWindow.ChromeStyling.STYLESHEET);
+        CssPassMonitor.Stats direct = run(AbstractCustomWindow.ChromeStyling.DIRECT);
+
+        BenchmarkSupport.report("CSS pass STYLESHEET", "%d 个窗口, %s", WINDOWS, stylesheet);
+        BenchmarkSupport.report("CSS pass DIRECT", "%d 个窗口, %s", WINDOWS, direct);
+
+        assertTrue(stylesheet.pulses() > 0 && direct.pulses() > 0);
+    }
+
+    /*
+     * 打开一组窗口，逐帧切换主题，返回所有场景的合计统计
+     */
+    private CssPassMonitor.Stats run(AbstractCustomWindow.ChromeStyling styling) throws Exception {
+        List<CssPassMonitor> monitors = FxTestSupport.onFx(() -> {
+            windows.forEach(TestWindow::close);
+            windows.clear();
+            List<CssPassMonitor> installed = new ArrayList<>();
+            for (int i = 0; i < WINDOWS; i++) {
+                TestWindow window = TestWindow.open(styling, Duration.ZERO);
+                windows.add(window);
+                installed.add(CssPassMonitor.install(window.getStage().getScene()));
+            }
+            return installed;
+        });
+        // 等待首帧的 CSS 和布局完成后再开始统计
+        FxTestSupport.waitPulses(2);
+
+        WindowTheme[] themes = {WindowTheme.light(), WindowTheme.dark()};
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        FxTestSupport.runOnFx(() -> {
+            monitors.forEach(CssPassMonitor::reset);
+            new AnimationTimer() {
+                private int frame;
+
+                @Override
+                public void handle(long now) {
+                    if (frame == FRAMES) {
+                        stop();
+                        done.complete(null);
+                        return;
+                    }
+                    // 动画在脉冲的 CSS 处理和布局之前执行，本帧的主题变化在同一个脉冲中被统计
+                    for (TestWindow window : windows) {
+                        window.setTheme(themes[frame % 2]);
+                    }
+                    frame++;
+                }
+            }.start();
+        });
+        done.get(FRAMES, TimeUnit.SECONDS);
+        // 动画停止所在的脉冲还会完成一次 CSS 处理和布局
+        FxTestSupport.waitPulses(1);
+
+        return FxTestSupport.onFx(() -> {
+            long pulses = 0;
+            long cssNanos = 0;
+            long totalNanos = 0;
+            long maxCssNanos = 0;
+            for (CssPassMonitor monitor : monitors) {
+                CssPassMonitor.Stats stats = monitor.stats();
+                monitor.uninstall();
+                pulses += stats.pulses();
+                cssNanos += stats.cssNanos();
+                totalNanos += stats.totalNanos();
+                maxCssNanos = Math.max(maxCssNanos, stats.maxCssNanos());
+            }
+            return new CssPassMonitor.Stats(pulses, cssNanos, totalNanos, maxCssNanos);
+        });
+    }
+}
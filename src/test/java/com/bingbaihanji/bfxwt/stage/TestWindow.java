@@ -0,0 +1,61 @@
+package com.bingbaihanji.bfxwt.stage;
+
+import javafx.scene.Parent;
+import javafx.scene.control.Label;
+import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
+import javafx.util.Duration;
+
+/**
+ * 测试用的自定义窗口：内容为若干标签，外观方式和主题过渡时长可配置
+ *
+ * @author bingbaihanji
+ * @date 2026-01-24
+ */
+final class TestWindow extends AbstractCustomWindow {
+
+    private static final int CONTENT_LABELS = 20;
+
+    private final ChromeStyling styling;
+    private final Duration transition;
+
+    private TestWindow(ChromeStyling styling, Duration transition) {
+        this.styling = styling;
+        this.transition = transition;
+    }
+
+    /**
+     * 创建并显示窗口（应在 FX 线程上调用）
+     */
+    static TestWindow open(ChromeStyling styling, Duration transition) {
+        TestWindow window = new TestWindow(styling, transition);
+        window.start(new Stage());
+        return window;
+    }
+
+    /**
+     * 关闭窗口
+     */
+    void close() {
+        getStage().hide();
+    }
+
+    @Override
+    protected Parent createContent() {
+        VBox content = new VBox();
+        for (int i = 0; i < CONTENT_LABELS; i++) {
+            content.getChildren().add(new Label("Item " + i));
+        }
+        return content;
+    }
+
+    @Override
+    protected ChromeStyling chromeStyling() {
+        return styling;
+    }
+
+    @Override
+    protected Duration themeTransitionDuration() {
+        return transition;
+    }
+}
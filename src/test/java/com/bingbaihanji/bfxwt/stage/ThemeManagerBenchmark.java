@@ -0,0 +1,111 @@
+package com.bingbaihanji.bfxwt.stage;
+
+import com.bingbaihanji.bfxwt.BenchmarkSupport;
+import com.bingbaihanji.bfxwt.FxTestSupport;
+import com.bingbaihanji.bfxwt.backend.NativeWindowBackends;
+import com.bingbaihanji.bfxwt.backend.RecordingWindowBackend;
+import javafx.util.Duration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link ThemeManager} 一次主题切换的耗时随窗口数的变化
+ *
+ * <p>
+ * 依次打开 {@code WINDOW_COUNTS} 个窗口（原生调用交给 {@link RecordingWindowBackend}，在 Linux 上也能运行），
+ * 每种窗口数切换 {@value #SWITCHES} 次：{@link ThemeManager#flush()} 同步完成全部窗口的样式表替换、CSS 处理和布局，
+ * 取 {@link ThemeManager.Stats#lastApplyNanos()} 的中位数；另测一次经由脉冲应用时从请求到完成的延迟。
+ * 窗口不带主题过渡，只测量切换本身。
+ * </p>
+ *
+ * <p>
+ * 无图形界面时可在 Xvfb 下运行（{@code xvfb-run mvn test -Pbenchmark -Dtest=ThemeManagerBenchmark}），
+ * 或使用 Monocle，见 {@link FxTestSupport}。
+ * </p>
+ *
+ * @author bingbaihanji
+ * @date 2026-01-24
+ */
+@Tag(BenchmarkSupport.TAG)
+class ThemeManagerBenchmark {
+
+    private static final int[] WINDOW_COUNTS = {1, 4, 16};
+    private static final int SWITCHES = 11;
+
+    private final List<TestWindow> windows = new ArrayList<>();
+    private RecordingWindowBackend backend;
+
+    @BeforeEach
+    void setUp() {
+        FxTestSupport.assumeToolkit();
+        backend = new RecordingWindowBackend();
+        NativeWindowBackends.set(backend);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (!windows.isEmpty()) {
+            FxTestSupport.runOnFx(() -> windows.forEach(TestWindow::close));
+        }
+        NativeWindowBackends.set(null);
+    }
+
+    @Test
+    void switchTimeByWindowCount() throws Exception {
+        for (int count : WINDOW_COUNTS) {
+            FxTestSupport.runOnFx(() -> {
+                while (windows.size() < count) {
+                    windows.add(TestWindow.open(AbstractCustomWindow.ChromeStyling.STYLESHEET, Duration.ZERO));
+                }
+            });
+            FxTestSupport.waitPulses(2);
+
+            // 第一次切换为预热（样式表编译和解析），不计入结果
+            double[] applyNanos = new double[SWITCHES];
+            ThemeManager.Stats stats = FxTestSupport.onFx(() -> {
+                switchAndFlush(0);
+                backend.clearCalls();
+                for (int i = 0; i < SWITCHES; i++) {
+                    switchAndFlush(i + 1);
+                    applyNanos[i] = ThemeManager.stats().lastApplyNanos();
+                }
+                return ThemeManager.stats();
+            });
+            Arrays.sort(applyNanos);
+            double median = applyNanos[SWITCHES / 2];
+            long nativeCalls = backend.callCount();
+
+            // 经由脉冲应用：请求到全部窗口完成的延迟
+            FxTestSupport.runOnFx(() -> ThemeManager.setTheme(theme(SWITCHES + 1)));
+            FxTestSupport.waitUntil(() -> !ThemeManager.isPending());
+            long latency = FxTestSupport.onFx(() -> ThemeManager.stats().lastLatencyNanos());
+
+            BenchmarkSupport.report("ThemeManager " + count + " 个窗口",
+                    "切换 %.2f ms (每窗口 %.0f µs), 经由脉冲 %.2f ms, 原生调用 %.1f 次/切换 (实际重新设置 %d 个窗口)",
+                    median / 1e6, median / 1e3 / stats.lastWindows(), latency / 1e6,
+                    (double) nativeCalls / SWITCHES, stats.lastWindows());
+
+            // 已关闭但尚未回收的窗口也会被重新设置，实际数量不少于打开的窗口数
+            assertTrue(stats.lastWindows() >= count);
+            assertEquals(count, windows.size());
+        }
+    }
+
+    private static void switchAndFlush(int index) {
+        ThemeManager.setTheme(theme(index));
+        ThemeManager.flush();
+    }
+
+    private static WindowTheme theme(int index) {
+        return index % 2 == 0 ? WindowTheme.light() : WindowTheme.dark();
+    }
+}
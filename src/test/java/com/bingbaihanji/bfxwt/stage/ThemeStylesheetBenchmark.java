@@ -0,0 +1,234 @@
+package com.bingbaihanji.bfxwt.stage;
+
+import com.bingbaihanji.bfxwt.BenchmarkSupport;
+import com.bingbaihanji.bfxwt.FxTestSupport;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.Menu;
+import javafx.scene.control.MenuBar;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Pane;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 窗口外观的 CSS 开销：逐节点改写内联样式（改造前） vs 编译后的主题样式表 + 伪类（{@link ThemeStylesheet}）
+ *
+ * <p>
+ * 两种方式作用在同一组标题栏节点上（窗口根节点、标题栏、标题文字、两个菜单的菜单栏、三个窗口按钮）。
+ * 改造前的方式按原 {@code AbstractCustomWindow.setTheme} 复现：每个节点 {@code setStyle}、
+ * 每个按钮重新安装鼠标处理器、移除并重新加入菜单的 data URI 样式表，鼠标进出按钮时 {@code setStyle}。
+ * 每次操作后同步执行 {@code applyCss()}，测量一次按钮悬停（进入 + 离开）和一次主题切换的耗时与堆分配。
+ * </p>
+ *
+ * @author bingbaihanji
+ * @date 2026-01-24
+ */
+@Tag(BenchmarkSupport.TAG)
+class ThemeStylesheetBenchmark {
+
+    private static final int HOVERS = 200;
+    private static final int SWITCHES = 50;
+
+    private final WindowTheme[] themes = {WindowTheme.dark(), WindowTheme.light()};
+
+    @BeforeEach
+    void setUp() {
+        FxTestSupport.assumeToolkit();
+    }
+
+    @Test
+    void hoverAndThemeSwitchInlineVersusStylesheet() throws Exception {
+        FxTestSupport.runOnFx(() -> {
+            Chrome inline = new Chrome();
+            InlineStyling before = new InlineStyling(inline);
+            before.apply(themes[0]);
+            inline.root.applyCss();
+
+            Chrome compiled = new Chrome();
+            compiled.useStyleClasses();
+            StylesheetStyling after = new StylesheetStyling(compiled);
+            after.apply(themes[0]);
+            compiled.root.applyCss();
+
+            Result inlineHover = measure(HOVERS, () -> {
+                for (ChromeButton button : inline.buttons) {
+                    button.getOnMouseEntered().handle(null);
+                    inline.root.applyCss();
+                    button.getOnMouseExited().handle(null);
+                    inline.root.applyCss();
+                }
+            }, inline.buttons.size());
+            Result compiledHover = measure(HOVERS, () -> {
+                for (ChromeButton button : compiled.buttons) {
+                    button.hover(true);
+                    compiled.root.applyCss();
+                    button.hover(false);
+                    compiled.root.applyCss();
+                }
+            }, compiled.buttons.size());
+
+            int[] next = {1};
+            Result inlineSwitch = measure(SWITCHES, () -> {
+                before.apply(themes[next[0]++ % 2]);
+                inline.root.applyCss();
+            }, 1);
+            Result compiledSwitch = measure(SWITCHES, () -> {
+                after.apply(themes[next[0]++ % 2]);
+                compiled.root.applyCss();
+            }, 1);
+
+            BenchmarkSupport.report("Chrome hover inline", inlineHover.toString());
+            BenchmarkSupport.report("Chrome hover stylesheet", compiledHover.toString());
+            BenchmarkSupport.report("Theme switch inline", inlineSwitch.toString());
+            BenchmarkSupport.report("Theme switch stylesheet", compiledSwitch.toString());
+
+            assertTrue(compiledSwitch.nanos() < inlineSwitch.nanos());
+        });
+    }
+
+    /*
+     * 测量每次操作的耗时（中位数）和平均堆分配；round 执行 opsPerRound 次操作
+     */
+    private static Result measure(int rounds, Runnable round, int opsPerRound) {
+        double nanos = BenchmarkSupport.nanosPerOp(rounds / 5, rounds, opsPerRound, round);
+        long bytes = BenchmarkSupport.allocatedBytes();
+        for (int i = 0; i < rounds; i++) {
+            round.run();
+        }
+        long allocated = bytes < 0 ? -1 : (BenchmarkSupport.allocatedBytes() - bytes) / ((long) rounds * opsPerRound);
+        return new Result(nanos, allocated);
+    }
+
+    private record Result(double nanos, long bytes) {
+
+        @Override
+        public String toString() {
+            return String.format("%.1f µs/次, %s", nanos / 1000, bytes < 0 ? "分配量不可用" : bytes + " B/次");
+        }
+    }
+
+    /*
+     * 标题栏节点的最小复制
+     */
+    private static final class Chrome {
+        final BorderPane root = new BorderPane();
+        final HBox titleBar = new HBox();
+        final Label title = new Label("Benchmark");
+        final MenuBar menuBar = new MenuBar(new Menu("文件"), new Menu("编辑"));
+        final List<ChromeButton> buttons = List.of(new ChromeButton(false), new ChromeButton(false),
+                new ChromeButton(true));
+        final Scene scene;
+
+        Chrome() {
+            titleBar.getChildren().addAll(title, menuBar);
+            titleBar.getChildren().addAll(buttons);
+            root.setTop(titleBar);
+            root.setCenter(new Pane());
+            scene = new Scene(root, 800, 600);
+        }
+
+        void useStyleClasses() {
+            root.getStyleClass().add(ThemeStylesheet.WINDOW);
+            titleBar.getStyleClass().add(ThemeStylesheet.TITLE_BAR);
+            title.getStyleClass().add(ThemeStylesheet.TITLE_LABEL);
+            menuBar.getStyleClass().add(ThemeStylesheet.MENU_BAR);
+            for (ChromeButton button : buttons) {
+                button.getStyleClass().add(ThemeStylesheet.WINDOW_BUTTON);
+                if (button.close) {
+                    button.getStyleClass().add(ThemeStylesheet.CLOSE_BUTTON);
+                }
+            }
+        }
+    }
+
+    /*
+     * 可以直接设置悬停状态的按钮（场景没有显示，不会收到真实的鼠标事件）
+     */
+    private static final class ChromeButton extends Button {
+        final boolean close;
+
+        ChromeButton(boolean close) {
+            this.close = close;
+        }
+
+        void hover(boolean value) {
+            setHover(value);
+        }
+    }
+
+    /*
+     * 改造前的实现：逐节点改写内联样式，鼠标进出按钮时改写按钮样式
+     */
+    private static final class InlineStyling {
+        private final Chrome chrome;
+        private WindowTheme theme;
+
+        InlineStyling(Chrome chrome) {
+            this.chrome = chrome;
+        }
+
+        void apply(WindowTheme theme) {
+            this.theme = theme;
+            chrome.root.setStyle("-fx-background-color: " + theme.windowBgColor() + ";");
+            chrome.titleBar.setStyle("""
+                    -fx-background-color: %s;
+                    -fx-alignment: center-left;
+                    -fx-padding: 0 6;
+                    """.formatted(theme.titleBarBgColor()));
+            chrome.title.setStyle("-fx-text-fill: " + theme.titleTextColor() + "; -fx-padding: 0 8;");
+            chrome.menuBar.setStyle("""
+                    -fx-background-color: transparent;
+                    -fx-text-fill: %s;
+                    -fx-text-base-color: %s;
+                    """.formatted(theme.titleTextColor(), theme.titleTextColor()));
+            for (Menu menu : chrome.menuBar.getMenus()) {
+                menu.setStyle("""
+                        -fx-text-fill: %s;
+                        -fx-text-base-color: %s;
+                        """.formatted(theme.titleTextColor(), theme.titleTextColor()));
+            }
+            chrome.scene.getStylesheets().removeIf(s -> s.startsWith("data:text/css"));
+            chrome.scene.getStylesheets().add(
+                    "data:text/css," + theme.generateMenuCSS().replace("\n", "").replace(" ", "%20"));
+            for (ChromeButton button : chrome.buttons) {
+                button.setStyle(theme.btnStyleTransparent());
+                button.setOnMouseEntered(e -> button.setStyle(
+                        button.close ? this.theme.closeBtnStyleHover() : this.theme.btnStyleHover()));
+                button.setOnMousePressed(e -> button.setStyle(
+                        button.close ? this.theme.closeBtnStylePressed() : this.theme.btnStylePressed()));
+                button.setOnMouseExited(e -> button.setStyle(this.theme.btnStyleTransparent()));
+            }
+        }
+    }
+
+    /*
+     * 当前实现：替换场景中的一张主题样式表
+     */
+    private static final class StylesheetStyling {
+        private final Chrome chrome;
+        private String stylesheet;
+
+        StylesheetStyling(Chrome chrome) {
+            this.chrome = chrome;
+        }
+
+        void apply(WindowTheme theme) {
+            String next = ThemeStylesheet.of(theme);
+            int index = chrome.scene.getStylesheets().indexOf(stylesheet);
+            if (index >= 0) {
+                chrome.scene.getStylesheets().set(index, next);
+            } else {
+                chrome.scene.getStylesheets().add(next);
+            }
+            stylesheet = next;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.bingbaihanji.bfxwt.stage;
+
+import javafx.scene.paint.Color;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link ThemeTokens} 测试：亮 / 暗主题推导、文字对比度，以及按内容判断主题文件是否变化
+ *
+ * @author bingbaihanji
+ * @date 2026-01-24
+ */
+class ThemeTokensTest {
+
+    @Test
+    void contrastFollowsWcag() {
+        assertEquals(21.0, ThemeTokens.contrast(Color.BLACK, Color.WHITE), 1e-9);
+        assertEquals(1.0, ThemeTokens.contrast(Color.web("#3574f0"), Color.web("#3574f0")), 1e-9);
+        assertEquals(ThemeTokens.contrast(Color.RED, Color.WHITE), ThemeTokens.contrast(Color.WHITE, Color.RED), 1e-9);
+        assertEquals(0.0, ThemeTokens.luminance(Color.BLACK), 1e-9);
+        assertEquals(1.0, ThemeTokens.luminance(Color.WHITE), 1e-9);
+        assertTrue(ThemeTokens.isDark(Color.web("#1e1f22")));
+        assertFalse(ThemeTokens.isDark(Color.web("#f7f8fa")));
+    }
+
+    @Test
+    void derivesDarkAndLightThemesFromBackground() {
+        WindowTheme dark = ThemeTokens.of(Color.web("#1e1f22")).toTheme();
+        // 暗色主题：标题栏在背景上提亮，文字偏白
+        assertTrue(luminance(dark.titleBarBgColor()) > luminance(dark.windowBgColor()));
+        assertTrue(luminance(dark.titleTextColor()) > 0.5);
+        assertEquals(dark.titleBarBgColor(), dark.menuBgColor());
+
+        WindowTheme light = ThemeTokens.of(Color.web("#f7f8fa")).toTheme();
+        // 亮色主题：标题栏在背景上压暗，文字偏黑，菜单沿用窗口背景
+        assertTrue(luminance(light.titleBarBgColor()) < luminance(light.windowBgColor()));
+        assertTrue(luminance(light.titleTextColor()) < 0.5);
+        assertEquals(light.windowBgColor(), light.menuBgColor());
+        assertEquals("#c42b1c", ThemeTokens.css(ThemeTokens.DEFAULT_DANGER));
+    }
+
+    @Test
+    void derivedTextMeetsMinimumContrast() {
+        List<Color> backgrounds = new ArrayList<>(List.of(Color.web("#1e1f22"), Color.web("#14213d"),
+                Color.web("#fca311"), Color.web("#3574f0"), Color.web("#c42b1c")));
+        // 灰阶全范围，包括与白色、黑色对比度都接近阈值的中灰
+        for (int gray = 0; gray <= 255; gray += 5) {
+            backgrounds.add(Color.grayRgb(gray));
+        }
+        for (Color background : backgrounds) {
+            WindowTheme theme = ThemeTokens.of(background).toTheme();
+            double contrast = ThemeTokens.contrast(Color.web(theme.titleTextColor()), Color.web(theme.titleBarBgColor()));
+            assertTrue(contrast >= ThemeTokens.MIN_TEXT_CONTRAST, background + " 的文字对比度 " + contrast);
+        }
+    }
+
+    @Test
+    void explicitTokensAreKeptAndThemesAreShared() {
+        ThemeTokens tokens = new ThemeTokens(Color.web("#14213d"), Color.web("#0b132b"), Color.web("#e5e5e5"),
+                Color.web("#fca311"), null);
+        WindowTheme theme = tokens.toTheme();
+        assertEquals("#0b132b", theme.titleBarBgColor());
+        assertEquals("#e5e5e5", theme.titleTextColor());
+        assertEquals(ThemeTokens.DEFAULT_DANGER, tokens.danger());
+
+        // 令牌按字段比较，相同令牌只推导一次
+        assertSame(theme, new ThemeTokens(Color.web("#14213d"), Color.web("#0b132b"), Color.web("#e5e5e5"),
+                Color.web("#fca311"), ThemeTokens.DEFAULT_DANGER).toTheme());
+        assertThrows(IllegalArgumentException.class, () -> ThemeTokens.of(null));
+    }
+
+    @Test
+    void parseRejectsMissingOrInvalidColors() {
+        Properties properties = new Properties();
+        properties.setProperty("accent", "#3574f0");
+        assertThrows(IllegalArgumentException.class, () -> ThemeTokens.parse(properties));
+
+        properties.setProperty("background", "not-a-color");
+        assertThrows(IllegalArgumentException.class, () -> ThemeTokens.parse(properties));
+
+        properties.setProperty("background", " #1e1f22 ");
+        properties.setProperty("titleBar", "");
+        ThemeTokens tokens = ThemeTokens.parse(properties);
+        assertEquals(Color.web("#1e1f22"), tokens.background());
+        assertNull(tokens.titleBar());
+        assertEquals(Color.web("#3574f0"), tokens.accent());
+    }
+
+    @Test
+    void loadDetectsSameSizeEditWithUnchangedModifiedTime() throws Exception {
+        Path file = Files.createTempFile("bfxwt-theme", ".properties");
+        try {
+            Files.writeString(file, "background = #1e1f22\n", StandardCharsets.UTF_8);
+            FileTime modified = Files.getLastModifiedTime(file);
+            ThemeTokens first = ThemeTokens.load(file);
+            assertSame(first, ThemeTokens.load(file));
+
+            // 等长修改，修改时间保持不变（同一时间粒度内的两次保存）
+            Files.writeString(file, "background = #f7f8fa\n", StandardCharsets.UTF_8);
+            Files.setLastModifiedTime(file, modified);
+            ThemeTokens second = ThemeTokens.load(file);
+            assertNotEquals(first, second);
+            assertEquals(Color.web("#f7f8fa"), second.background());
+
+            // 只改修改时间、内容不变时沿用上次的结果
+            Files.setLastModifiedTime(file, FileTime.fromMillis(modified.toMillis() + 60_000));
+            assertSame(second, ThemeTokens.load(file));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static double luminance(String css) {
+        return ThemeTokens.luminance(Color.web(css));
+    }
+}
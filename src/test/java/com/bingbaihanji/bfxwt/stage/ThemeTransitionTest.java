@@ -0,0 +1,93 @@
+package com.bingbaihanji.bfxwt.stage;
+
+import com.bingbaihanji.bfxwt.FxTestSupport;
+import com.bingbaihanji.bfxwt.backend.NativeWindowBackends;
+import com.bingbaihanji.bfxwt.backend.RecordingWindowBackend;
+import javafx.util.Duration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link ThemeTransition} 测试：过渡期间有帧统计，窗口尺寸不变时复用快照图片
+ *
+ * @author bingbaihanji
+ * @date 2026-01-24
+ */
+class ThemeTransitionTest {
+
+    private static final Duration TRANSITION = Duration.millis(150);
+
+    private TestWindow window;
+    private ThemeTransition transition;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        FxTestSupport.assumeToolkit();
+        NativeWindowBackends.set(new RecordingWindowBackend());
+        window = FxTestSupport.onFx(() -> TestWindow.open(AbstractCustomWindow.ChromeStyling.STYLESHEET, TRANSITION));
+        transition = window.getThemeTransition();
+        FxTestSupport.waitPulses(2);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (window != null) {
+            FxTestSupport.runOnFx(window::close);
+        }
+        NativeWindowBackends.set(null);
+    }
+
+    @Test
+    void transitionRecordsFramesAndReusesSnapshot() throws Exception {
+        switchTo(WindowTheme.light());
+        ThemeTransition.Stats first = FxTestSupport.onFx(transition::stats);
+        assertEquals(1L, first.transitions());
+        assertTrue(first.frames() > 0, "过渡期间没有记录到帧");
+        assertEquals(0L, first.snapshotReuses());
+
+        // 尺寸不变：渲染到上一次的图片中
+        switchTo(WindowTheme.dark());
+        ThemeTransition.Stats second = FxTestSupport.onFx(transition::stats);
+        assertEquals(2L, second.transitions());
+        assertTrue(second.frames() > first.frames());
+        assertEquals(1L, second.snapshotReuses());
+
+        // 尺寸变化后需要新的图片
+        FxTestSupport.runOnFx(() -> window.getStage().setWidth(window.getStage().getWidth() + 40));
+        FxTestSupport.waitPulses(2);
+        switchTo(WindowTheme.light());
+        assertEquals(1L, FxTestSupport.onFx(transition::stats).snapshotReuses());
+    }
+
+    @Test
+    void switchDuringTransitionInterruptsIt() throws Exception {
+        FxTestSupport.runOnFx(() -> {
+            window.setTheme(WindowTheme.light());
+            window.setTheme(WindowTheme.dark());
+        });
+        FxTestSupport.waitUntil(() -> !transition.isRunning());
+
+        ThemeTransition.Stats stats = FxTestSupport.onFx(transition::stats);
+        assertEquals(2L, stats.transitions());
+        assertEquals(1L, stats.interrupted());
+        // 被打断时快照包含半透明的旧覆盖层，不复用图片
+        assertEquals(0L, stats.snapshotReuses());
+    }
+
+    /*
+     * 带过渡地切换主题并等待过渡结束
+     */
+    private void switchTo(WindowTheme theme) throws Exception {
+        FxTestSupport.runOnFx(() -> {
+            window.setTheme(theme);
+            assertTrue(transition.isRunning());
+        });
+        FxTestSupport.waitUntil(() -> !transition.isRunning());
+        assertFalse(FxTestSupport.onFx(transition::isRunning));
+    }
+}
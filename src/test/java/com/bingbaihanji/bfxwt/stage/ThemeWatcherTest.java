@@ -0,0 +1,127 @@
+package com.bingbaihanji.bfxwt.stage;
+
+import javafx.scene.paint.Color;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * {@link ThemeWatcher} 测试：连续保存合并为一次重新加载、主题未变化时不通知、文件无效时保留当前主题
+ *
+ * <p>
+ * 通过 {@link ThemeWatcher#watch(Path, java.util.function.Consumer)} 把主题交给测试中的接收者，不需要 JavaFX 平台。
+ * </p>
+ *
+ * @author bingbaihanji
+ * @date 2026-01-24
+ */
+class ThemeWatcherTest {
+
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    private final List<WindowTheme> received = new CopyOnWriteArrayList<>();
+    private Path directory;
+    private Path file;
+    private ThemeWatcher watcher;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("bfxwt-theme");
+        file = directory.resolve("brand.properties");
+        write("background = #1e1f22\n");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (watcher != null) {
+            watcher.close();
+        }
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(directory);
+    }
+
+    @Test
+    void rapidSavesReloadOnce() throws Exception {
+        watcher = ThemeWatcher.watch(file, received::add);
+        assertEquals(List.of(ThemeTokens.of(Color.web("#1e1f22")).toTheme()), received);
+
+        // 编辑器的一次保存通常产生多个事件，连续写入在合并时间内只重新加载一次
+        write("background = #2b2d30\n");
+        write("background = #3c3f41\n");
+        write("background = #f7f8fa\n");
+        awaitCount(watcher::getReloadCount, 1);
+        Thread.sleep(ThemeWatcher.SETTLE_MILLIS * 3);
+
+        WindowTheme expected = ThemeTokens.of(Color.web("#f7f8fa")).toTheme();
+        assertEquals(1, watcher.getReloadCount());
+        assertEquals(2, received.size());
+        assertSame(expected, received.get(1));
+        assertSame(expected, watcher.getTheme());
+    }
+
+    @Test
+    void unchangedThemeIsNotDelivered() throws Exception {
+        watcher = ThemeWatcher.watch(file, received::add);
+
+        write("# 只修改注释\nbackground = #1e1f22\n");
+        awaitCount(watcher::getUnchangedCount, 1);
+
+        assertEquals(0, watcher.getReloadCount());
+        assertEquals(1, received.size());
+    }
+
+    @Test
+    void invalidFileKeepsCurrentThemeUntilFixed() throws Exception {
+        watcher = ThemeWatcher.watch(file, received::add);
+        WindowTheme initial = watcher.getTheme();
+
+        write("background = not-a-color\n");
+        awaitCount(watcher::getErrorCount, 1);
+        assertSame(initial, watcher.getTheme());
+        assertEquals(1, received.size());
+
+        write("background = #14213d\n");
+        awaitCount(watcher::getReloadCount, 1);
+        assertEquals(1, watcher.getErrorCount());
+        assertEquals(ThemeTokens.of(Color.web("#14213d")).toTheme(), watcher.getTheme());
+        assertEquals(2, received.size());
+    }
+
+    @Test
+    void invalidInitialFileIsRejected() throws IOException {
+        write("accent = #3574f0\n");
+        assertThrows(IllegalArgumentException.class, () -> ThemeWatcher.watch(file, received::add));
+        assertEquals(0, received.size());
+    }
+
+    private void write(String content) throws IOException {
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+    }
+
+    /*
+     * 等待计数达到期望值
+     */
+    private static void awaitCount(LongSupplier counter, long expected) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MILLIS);
+        while (counter.getAsLong() < expected) {
+            if (System.nanoTime() > deadline) {
+                throw new TimeoutException("等待主题文件事件超时");
+            }
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.bingbaihanji.bfxwt.stage;
+
+import javafx.scene.Node;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Region;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.bingbaihanji.bfxwt.stage.TitleBarSlots.Slot.CENTER;
+import static com.bingbaihanji.bfxwt.stage.TitleBarSlots.Slot.LEADING;
+import static com.bingbaihanji.bfxwt.stage.TitleBarSlots.Slot.TRAILING;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link TitleBarSlots} 测试：按优先级和添加顺序排序、addFirst / addLast、最小宽度的增量维护，
+ * 以及移除时还原组件原本的 visible / managed
+ *
+ * @author bingbaihanji
+ * @date 2026-01-24
+ */
+class TitleBarSlotsTest {
+
+    private static final double SPACING = 4;
+
+    private HBox bar;
+    private TitleBarSlots slots;
+
+    @BeforeEach
+    void setUp() {
+        bar = new HBox();
+        slots = new TitleBarSlots(bar);
+    }
+
+    @Test
+    void buildsLeadingCenterTrailingLayout() {
+        assertEquals(5, bar.getChildren().size());
+        assertEquals(slots.box(LEADING), bar.getChildren().get(0));
+        assertEquals(slots.box(CENTER), bar.getChildren().get(2));
+        assertEquals(slots.box(TRAILING), bar.getChildren().get(4));
+    }
+
+    @Test
+    void ordersByPriorityThenSequence() {
+        Region close = region(46);
+        Region maximize = region(46);
+        Region minimize = region(46);
+        Region pin = region(30);
+        slots.add(TRAILING, close, 10);
+        slots.add(TRAILING, minimize, 0);
+        slots.add(TRAILING, maximize, 5);
+        // 优先级相同时按添加顺序
+        slots.add(TRAILING, pin, 0);
+
+        assertOrder(TRAILING, minimize, pin, maximize, close);
+        assertEquals(TRAILING, slots.slotOf(pin));
+
+        // 已在标题栏中的节点重新添加时移动位置
+        slots.add(LEADING, pin, 0);
+        assertOrder(TRAILING, minimize, maximize, close);
+        assertOrder(LEADING, pin);
+        assertEquals(LEADING, slots.slotOf(pin));
+    }
+
+    @Test
+    void addFirstAndAddLast() {
+        Region title = region(100);
+        Region icon = region(16);
+        Region menu = region(80);
+        Region first = region(10);
+
+        slots.addFirst(LEADING, title);
+        slots.addFirst(LEADING, icon);
+        slots.addLast(LEADING, menu);
+        assertOrder(LEADING, icon, title, menu);
+
+        // addLast 与最后一个组件同优先级，添加顺序在后
+        Region extra = region(10);
+        slots.add(LEADING, first, -10);
+        slots.addLast(LEADING, extra);
+        assertOrder(LEADING, first, icon, title, menu, extra);
+        slots.addFirst(LEADING, extra);
+        assertOrder(LEADING, extra, first, icon, title, menu);
+    }
+
+    @Test
+    void minWidthTracksAddRemoveHideAndSpacing() {
+        slots.box(TRAILING).setSpacing(SPACING);
+        Region a = region(20);
+        Region b = region(30);
+        Region c = region(10);
+        slots.add(TRAILING, a, 0);
+        slots.add(TRAILING, b, 1);
+        slots.add(TRAILING, c, 2);
+        assertEquals(60 + 2 * SPACING, slots.getMinWidth(TRAILING));
+
+        slots.setVisible(b, false);
+        assertFalse(b.isVisible());
+        assertFalse(b.isManaged());
+        assertEquals(30 + SPACING, slots.getMinWidth(TRAILING));
+
+        // 隐藏组件的最小宽度变化在重新显示时才计入
+        b.setMinWidth(50);
+        assertEquals(30 + SPACING, slots.getMinWidth(TRAILING));
+        slots.setVisible(b, true);
+        assertEquals(80 + 2 * SPACING, slots.getMinWidth(TRAILING));
+
+        slots.remove(a);
+        assertEquals(60 + SPACING, slots.getMinWidth(TRAILING));
+
+        slots.box(TRAILING).setSpacing(10);
+        assertEquals(60.0 + 10, slots.getMinWidth(TRAILING));
+
+        c.setMinWidth(25);
+        assertEquals(75.0 + 10, slots.getMinWidth(TRAILING));
+
+        slots.remove(b);
+        slots.remove(c);
+        assertEquals(0.0, slots.getMinWidth(TRAILING));
+        assertEquals(0.0, slots.getMinWidth(LEADING));
+    }
+
+    @Test
+    void removeRestoresOriginalVisibility() {
+        Region shown = region(20);
+        Region hidden = region(20);
+        hidden.setVisible(false);
+        Region unmanaged = region(20);
+        unmanaged.setManaged(false);
+
+        slots.add(CENTER, shown, 0);
+        slots.add(CENTER, hidden, 1);
+        slots.add(CENTER, unmanaged, 2);
+        // 初始隐藏的组件不占位置
+        assertFalse(hidden.isManaged());
+        assertEquals(40.0, slots.getMinWidth(CENTER));
+
+        slots.setVisible(shown, false);
+        assertTrue(slots.remove(shown));
+        assertTrue(shown.isVisible());
+        assertTrue(shown.isManaged());
+
+        assertTrue(slots.remove(hidden));
+        assertFalse(hidden.isVisible());
+        assertTrue(hidden.isManaged());
+
+        assertTrue(slots.remove(unmanaged));
+        assertTrue(unmanaged.isVisible());
+        assertFalse(unmanaged.isManaged());
+
+        assertFalse(slots.remove(unmanaged));
+        assertFalse(slots.contains(unmanaged));
+        assertNull(slots.slotOf(unmanaged));
+        assertTrue(slots.box(CENTER).getChildren().isEmpty());
+    }
+
+    private void assertOrder(TitleBarSlots.Slot slot, Node... expected) {
+        assertEquals(List.of(expected), slots.nodes(slot));
+        assertEquals(List.of(expected), slots.box(slot).getChildren());
+    }
+
+    private static Region region(double minWidth) {
+        Region region = new Region();
+        region.setMinWidth(minWidth);
+        return region;
+    }
+}
@@ -1,6 +1,7 @@
 package com.bingbaihanji.bfxwt.test;//package com.bingbaihanji.bfxwt.test;
 //
 /// /import com.sun.glass.ui.Window;
+//import com.bingbaihanji.bfxwt.tools.SystemWindowIndex;
 //import com.sun.jna.Pointer;
 //import com.sun.jna.platform.win32.BaseTSD;
 //import com.sun.jna.platform.win32.Kernel32;
@@ -11,6 +12,8 @@ package com.bingbaihanji.bfxwt.test;//package com.bingbaihanji.bfxwt.test;
 //import javafx.scene.layout.StackPane;
 //import javafx.stage.Stage;
 //
+//import java.time.Duration;
+//
 //import static com.sun.jna.platform.win32.WinUser.*;
 //
 //public class FxEmbedNotepadDemo extends Application {
@@ -71,21 +74,17 @@ package com.bingbaihanji.bfxwt.test;//package com.bingbaihanji.bfxwt.test;
 //            return;
 //        }
 //
-//        new Thread(() -> {
-//            try {
-//                Thread.sleep(800);
-//            } catch (InterruptedException ignored) {
-//            }
-//
-//            // Notepad 的稳定窗口类名
-//            childHwnd = User32.INSTANCE.FindWindow("Notepad", null);
-//            if (childHwnd == null) {
-//                System.out.println("Notepad not found");
-//                return;
-//            }
-//
-//            embed(childHwnd, scene);
-//        }).start();
+//        // Notepad 的稳定窗口类名；窗口出现时立即完成，不再固定 sleep 后 FindWindow
+//        SystemWindowIndex.shared()
+//                .await(w -> w.className().equals("Notepad") && w.visible(), Duration.ofSeconds(5))
+//                .whenComplete((hwnd, error) -> {
+//                    if (error != null) {
+//                        System.out.println("Notepad not found");
+//                        return;
+//                    }
+//                    childHwnd = hwnd;
+//                    embed(childHwnd, scene);
+//                });
 //    }
 //
 //    // 4️⃣ 嵌入逻辑
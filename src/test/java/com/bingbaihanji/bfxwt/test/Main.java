@@ -3,7 +3,9 @@ package com.bingbaihanji.bfxwt.test;
 import com.bingbaihanji.bfxwt.stage.AbstractCustomWindow;
 import com.bingbaihanji.bfxwt.stage.WindowTheme;
 import com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools;
+import com.bingbaihanji.bfxwt.tools.WindowAlphaController;
 import com.sun.jna.platform.win32.WinDef;
+import javafx.animation.Interpolator;
 import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
@@ -12,6 +14,7 @@ import javafx.scene.control.*;
 import javafx.scene.image.Image;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.VBox;
+import javafx.util.Duration;
 
 /**
  *
@@ -128,10 +131,8 @@ public class Main extends AbstractCustomWindow {
             double percentage = alpha * 100;
             opacityValueLabel.setText(String.format("%.0f%%", percentage));
 
-            // 实时更新窗口透明度
-
-            super.getStage().setOpacity(alpha);
-
+            // 实时更新窗口透明度（按帧合并，每帧最多一次原生调用）
+            WindowAlphaController.of(super.getStage()).setAlpha(alpha);
 
         });
 
@@ -192,17 +193,14 @@ public class Main extends AbstractCustomWindow {
 
 
         transparent.setOnAction(e -> {
-            WinDef.HWND hWnd = FXNativeWindowsTools.getHWndByEnumeration();
-            System.out.println("半透明: " + hWnd);
-            FXNativeWindowsTools.setWindowAlpha(hWnd, 0.5f); // 50% 透明
-
+            // 200ms 渐变到 50% 透明
+            WindowAlphaController.of(getStage()).fadeTo(0.5, Duration.millis(200), Interpolator.EASE_BOTH);
         });
 
 
         restore.setOnAction(e -> {
-            WinDef.HWND hWnd = FXNativeWindowsTools.getHWndByEnumeration();
-            System.out.println("恢复: " + hWnd);
-            FXNativeWindowsTools.setWindowAlpha(hWnd, 1.0f); // 完全不透明
+            // 200ms 渐变到完全不透明
+            WindowAlphaController.of(getStage()).fadeTo(1.0, Duration.millis(200), Interpolator.EASE_BOTH);
         });
 
 
@@ -0,0 +1,75 @@
+package com.bingbaihanji.bfxwt.tools;
+
+import com.bingbaihanji.bfxwt.backend.NativeWindowBackends;
+import com.bingbaihanji.bfxwt.backend.RecordingWindowBackend;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * {@link FXWindowHandleRegistry} 候选窗口挑选测试（模拟后端中的多个 Glass 窗口）
+ *
+ * @author bingbaihanji
+ * @date 2026-01-24
+ */
+class FXWindowHandleRegistryTest {
+
+    private static final String GLASS = "GlassWndClass-GlassWindowClass-2";
+
+    private RecordingWindowBackend backend;
+
+    @BeforeEach
+    void setUp() {
+        backend = new RecordingWindowBackend();
+        NativeWindowBackends.set(backend);
+    }
+
+    @AfterEach
+    void tearDown() {
+        NativeWindowBackends.set(null);
+    }
+
+    @Test
+    void selectsWindowMatchingStageBoundsOverTooltip() {
+        long tooltip = backend.addWindow(GLASS, "", 300, 200, 120, 24);
+        long stage = backend.addWindow(GLASS, "", 100, 100, 800, 600);
+        FXWindowHandleRegistry.Target target = new FXWindowHandleRegistry.Target("", false, 100, 100, 800, 600);
+
+        assertEquals(stage, FXWindowHandleRegistry.select(backend, target, List.of(tooltip, stage), List.of()));
+    }
+
+    @Test
+    void skipsOwnedPopupWithSameBounds() {
+        long owner = backend.addWindow(GLASS, "Owner", 0, 0, 1024, 768);
+        long popup = backend.addWindow(GLASS, "", 100, 100, 800, 600);
+        backend.setParent(popup, owner);
+        long stage = backend.addWindow(GLASS, "", 100, 100, 800, 600);
+        FXWindowHandleRegistry.Target target = new FXWindowHandleRegistry.Target("", false, 100, 100, 800, 600);
+
+        assertEquals(stage, FXWindowHandleRegistry.select(backend, target, List.of(popup, stage), List.of(owner)));
+    }
+
+    @Test
+    void prefersTitleAmongMatchingWindows() {
+        long other = backend.addWindow(GLASS, "Other", 100, 100, 800, 600);
+        long stage = backend.addWindow(GLASS, "Editor", 104, 100, 800, 600);
+        FXWindowHandleRegistry.Target target =
+                new FXWindowHandleRegistry.Target("Editor", false, 100, 100, 800, 600);
+
+        assertEquals(stage, FXWindowHandleRegistry.select(backend, target, List.of(other, stage), List.of()));
+    }
+
+    @Test
+    void returnsZeroWhenOnlyUnrelatedGlassWindowsAreFree() {
+        long registered = backend.addWindow(GLASS, "Main", 100, 100, 800, 600);
+        long tooltip = backend.addWindow(GLASS, "", 300, 200, 120, 24);
+        FXWindowHandleRegistry.Target target = new FXWindowHandleRegistry.Target("", false, 100, 100, 800, 600);
+
+        assertEquals(0L, FXWindowHandleRegistry.select(backend, target, List.of(registered, tooltip),
+                List.of(registered)));
+    }
+}
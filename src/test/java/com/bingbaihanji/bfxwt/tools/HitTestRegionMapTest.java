@@ -0,0 +1,142 @@
+package com.bingbaihanji.bfxwt.tools;
+
+import com.bingbaihanji.bfxwt.FxTestSupport;
+import com.bingbaihanji.bfxwt.backend.NativeWindowBackends;
+import com.bingbaihanji.bfxwt.backend.RecordingWindowBackend;
+import com.sun.jna.platform.win32.WinDef;
+import javafx.scene.Scene;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.Region;
+import javafx.stage.Stage;
+import javafx.stage.StageStyle;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.HitTestCode.HTBOTTOMRIGHT;
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.HitTestCode.HTCAPTION;
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.HitTestCode.HTCLIENT;
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.HitTestCode.HTLEFT;
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.HitTestCode.HTNOWHERE;
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.HitTestCode.HTTOP;
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.WindowMessage.WM_NCHITTEST;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * {@link HitTestRegionMap} 测试：通过模拟后端发送 WM_NCHITTEST，检查边缘、标题区域和交互控件的 HT* 代码
+ *
+ * @author bingbaihanji
+ * @date 2026-01-24
+ */
+class HitTestRegionMapTest {
+
+    private static final double WIDTH = 800;
+    private static final double HEIGHT = 600;
+    private static final double TITLE_BAR_HEIGHT = 32;
+    private static final double BUTTONS_WIDTH = 90;
+    private static final int SCREEN_X = 100;
+    private static final int SCREEN_Y = 100;
+
+    private RecordingWindowBackend backend;
+    private Stage stage;
+    private long handle;
+    private HitTestRegionMap regions;
+    private WindowMessageStream.Subscription installed;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        FxTestSupport.assumeToolkit();
+        backend = new RecordingWindowBackend();
+        NativeWindowBackends.set(backend);
+        stage = FxTestSupport.onFx(() -> {
+            Region buttons = new Region();
+            buttons.setMinSize(BUTTONS_WIDTH, TITLE_BAR_HEIGHT);
+            buttons.setPrefSize(BUTTONS_WIDTH, TITLE_BAR_HEIGHT);
+            buttons.setMaxSize(BUTTONS_WIDTH, TITLE_BAR_HEIGHT);
+            BorderPane titleBar = new BorderPane();
+            titleBar.setRight(buttons);
+            titleBar.setMinHeight(TITLE_BAR_HEIGHT);
+            titleBar.setPrefHeight(TITLE_BAR_HEIGHT);
+            BorderPane root = new BorderPane();
+            root.setTop(titleBar);
+            regions = new HitTestRegionMap(6).addCaption(titleBar).addClient(buttons);
+            Stage created = new Stage(StageStyle.UNDECORATED);
+            created.setScene(new Scene(root, WIDTH, HEIGHT));
+            created.setX(SCREEN_X);
+            created.setY(SCREEN_Y);
+            created.show();
+            return created;
+        });
+        WinDef.HWND hwnd = FxTestSupport.onFx(() -> FXNativeWindowsTools.getHWnd(stage));
+        assumeTrue(hwnd != null, "无法获取 Stage 的原生句柄");
+        handle = FXNativeWindowsTools.handleOf(hwnd);
+        double scale = FxTestSupport.onFx(() -> stage.getOutputScaleX());
+        backend.adoptWindow(handle, "GlassWndClass-GlassWindowClass-2", "", SCREEN_X, SCREEN_Y,
+                (int) Math.round(WIDTH * scale), (int) Math.round(HEIGHT * scale));
+        installed = FxTestSupport.onFx(() -> regions.install(stage));
+        assertNotNull(installed, "区域表安装失败");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (stage != null) {
+            FxTestSupport.runOnFx(() -> {
+                if (installed != null) {
+                    installed.close();
+                }
+                stage.hide();
+            });
+        }
+        NativeWindowBackends.set(null);
+    }
+
+    @Test
+    void answersEdgesCaptionAndClientRegions() throws Exception {
+        FxTestSupport.runOnFx(() -> {
+            assertEquals(HTLEFT, hitTest(2, HEIGHT / 2));
+            assertEquals(HTTOP, hitTest(WIDTH / 2, 2));
+            assertEquals(HTBOTTOMRIGHT, hitTest(WIDTH - 2, HEIGHT - 2));
+            assertEquals(HTCAPTION, hitTest(WIDTH / 2, TITLE_BAR_HEIGHT / 2));
+            // 标题栏中的交互控件优先于标题区域
+            assertEquals(HTCLIENT, hitTest(WIDTH - BUTTONS_WIDTH / 2, TITLE_BAR_HEIGHT / 2));
+            assertEquals(HTCLIENT, hitTest(WIDTH / 2, HEIGHT / 2));
+            assertEquals(HTNOWHERE, hitTest(-20, HEIGHT / 2));
+        });
+    }
+
+    @Test
+    void resizableAndMovableSwitchOffNativeHandling() throws Exception {
+        FxTestSupport.runOnFx(() -> {
+            regions.setResizable(false).setMovable(false);
+            assertEquals(HTCLIENT, hitTest(2, HEIGHT / 2));
+            assertEquals(HTCLIENT, hitTest(WIDTH / 2, TITLE_BAR_HEIGHT / 2));
+
+            regions.setResizable(true).setMovable(true);
+            assertEquals(HTLEFT, hitTest(2, HEIGHT / 2));
+            assertEquals(HTCAPTION, hitTest(WIDTH / 2, TITLE_BAR_HEIGHT / 2));
+        });
+    }
+
+    @Test
+    void closingTheSubscriptionUninstalls() throws Exception {
+        FxTestSupport.runOnFx(() -> {
+            installed.close();
+            installed = null;
+            // 没有窗口过程钩子时模拟后端按默认窗口过程返回 0
+            assertEquals(0, hitTest(WIDTH / 2, TITLE_BAR_HEIGHT / 2));
+        });
+    }
+
+    /*
+     * 把窗口内的逻辑坐标换算为屏幕物理坐标，发送 WM_NCHITTEST
+     */
+    private long hitTest(double x, double y) {
+        double scale = stage.getOutputScaleX();
+        int screenX = SCREEN_X + (int) Math.round(x * scale);
+        int screenY = SCREEN_Y + (int) Math.round(y * scale);
+        long lParam = (screenX & 0xFFFFL) | (screenY & 0xFFFFL) << 16;
+        return backend.simulateMessage(handle, WM_NCHITTEST, 0, lParam);
+    }
+}
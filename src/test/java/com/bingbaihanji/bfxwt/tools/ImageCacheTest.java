@@ -0,0 +1,145 @@
+package com.bingbaihanji.bfxwt.tools;
+
+import com.bingbaihanji.bfxwt.FxTestSupport;
+import javafx.scene.image.Image;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * {@link ImageCache} 测试：缓存键由目标物理像素尺寸（显示尺寸 × 缩放）决定，并发请求共享同一次解码
+ *
+ * <p>
+ * 缓存键的换算不需要 JavaFX 平台；解码图片需要平台，没有显示环境时相应测试跳过。
+ * </p>
+ *
+ * @author bingbaihanji
+ * @date 2026-01-24
+ */
+class ImageCacheTest {
+
+    private static final String ICON = "/icons/close.png";
+    private static final int THREADS = 8;
+
+    private final URL url = ImageCacheTest.class.getResource(ICON);
+
+    @BeforeEach
+    void setUp() {
+        ImageCache.clear();
+        ImageCache.resetStats();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ImageCache.clear();
+        ImageCache.resetStats();
+    }
+
+    @Test
+    void keyIsPhysicalPixelSize() {
+        ImageCache.Key standard = ImageCache.Key.of(url, 12, 12, 1.0);
+        assertEquals(new ImageCache.Key(url.toExternalForm(), 12, 12), standard);
+        assertEquals(new ImageCache.Key(url.toExternalForm(), 24, 24), ImageCache.Key.of(url, 12, 12, 2.0));
+        assertNotEquals(standard, ImageCache.Key.of(url, 12, 12, 2.0));
+
+        // 物理像素相同即为同一个缓存项
+        assertEquals(ImageCache.Key.of(url, 24, 24, 1.0), ImageCache.Key.of(url, 12, 12, 2.0));
+        assertEquals(ImageCache.Key.of(url, 18, 18, 1.0), ImageCache.Key.of(url, 12, 12, 1.5));
+        // 非整数的物理尺寸向上取整，非法缩放按 1.0 处理，负尺寸按 0（不限制）处理
+        assertEquals(ImageCache.Key.of(url, 13, 13, 1.0), ImageCache.Key.of(url, 12.1, 12.1, 1.0));
+        assertEquals(standard, ImageCache.Key.of(url, 12, 12, 0));
+        assertEquals(standard, ImageCache.Key.of(url, 12, 12, -2));
+        assertEquals(new ImageCache.Key(url.toExternalForm(), 0, 16), ImageCache.Key.of(url, -1, 8, 2.0));
+        // 只按宽度限制与宽高都限制是不同的解码
+        assertNotEquals(ImageCache.Key.of(url, 12, 0, 1.0), standard);
+    }
+
+    @Test
+    void decodesAtPhysicalSizeAndSharesEntries() {
+        FxTestSupport.assumeToolkit();
+        Image standard = ImageCache.get(ImageCacheTest.class, ICON, 12, 12, 1.0);
+        Image hiDpi = ImageCache.get(ImageCacheTest.class, ICON, 12, 12, 2.0);
+        assertNotSame(standard, hiDpi);
+        assertEquals(12, standard.getWidth());
+        assertEquals(24, hiDpi.getWidth());
+
+        // 物理像素相同即为同一个缓存项
+        assertSame(hiDpi, ImageCache.get(ImageCacheTest.class, ICON, 24, 24, 1.0));
+        assertSame(standard, ImageCache.get(ImageCacheTest.class, ICON, 12, 12, 1.0));
+        // 非整数的物理尺寸向上取整
+        assertSame(ImageCache.get(ImageCacheTest.class, ICON, 18, 18, 1.0),
+                ImageCache.get(ImageCacheTest.class, ICON, 12, 12, 1.5));
+        assertSame(ImageCache.get(ImageCacheTest.class, ICON, 13, 13, 1.0),
+                ImageCache.get(ImageCacheTest.class, ICON, 12.1, 12.1, 1.0));
+        // 非法缩放按 1.0 处理
+        assertSame(standard, ImageCache.get(ImageCacheTest.class, ICON, 12, 12, 0));
+
+        Image original = ImageCache.get(ImageCacheTest.class, ICON);
+        assertEquals(200, original.getWidth());
+        assertNull(ImageCache.get(ImageCacheTest.class, "/icons/missing.png"));
+
+        ImageCache.Stats stats = ImageCache.stats();
+        assertEquals(5, stats.misses());
+        assertEquals(5, stats.entries());
+        assertEquals(5, stats.hits());
+        assertEquals((12L * 12 + 24 * 24 + 18 * 18 + 13 * 13 + 200 * 200) * 4, stats.bytes());
+    }
+
+    @Test
+    void concurrentCallersShareOneDecode() throws Exception {
+        FxTestSupport.assumeToolkit();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Image>> results = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return ImageCache.get(ImageCacheTest.class, ICON, 16, 16, 2.0);
+                }));
+            }
+            start.countDown();
+            Image first = results.get(0).get(10, TimeUnit.SECONDS);
+            for (Future<Image> result : results) {
+                assertSame(first, result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        ImageCache.Stats stats = ImageCache.stats();
+        assertEquals(1, stats.misses());
+        assertEquals(1, stats.entries());
+    }
+
+    @Test
+    void preloadDecodesInBackgroundAndLaterGetsHit() throws Exception {
+        FxTestSupport.assumeToolkit();
+        ImageCache.preload(ImageCacheTest.class, 12, 12, 2.0, "/icons/min.png", "/icons/max.png")
+                .get(10, TimeUnit.SECONDS);
+        assertEquals(2, ImageCache.stats().misses());
+
+        ImageCache.get(ImageCacheTest.class, "/icons/min.png", 12, 12, 2.0);
+        ImageCache.get(ImageCacheTest.class, "/icons/max.png", 12, 12, 2.0);
+
+        ImageCache.Stats stats = ImageCache.stats();
+        assertEquals(2, stats.misses());
+        assertEquals(2, stats.hits());
+        assertEquals(0.5, stats.hitRate());
+    }
+}
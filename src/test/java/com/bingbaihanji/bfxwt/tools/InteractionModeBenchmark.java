@@ -0,0 +1,160 @@
+package com.bingbaihanji.bfxwt.tools;
+
+import com.bingbaihanji.bfxwt.BenchmarkSupport;
+import com.bingbaihanji.bfxwt.FxTestSupport;
+import com.bingbaihanji.bfxwt.backend.NativeWindowBackends;
+import com.bingbaihanji.bfxwt.backend.RecordingWindowBackend;
+import com.sun.jna.platform.win32.WinDef;
+import javafx.event.Event;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.stage.Stage;
+import javafx.stage.StageStyle;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.HitTestCode.HTCAPTION;
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.WindowMessage.WM_NCHITTEST;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * 标题栏拖动 / 边缘调整大小三种方式（{@code AbstractCustomWindow.InteractionMode}）的开销对比
+ *
+ * <p>
+ * 悬停：JAVA 和 SYSTEM_LOOP 在每次鼠标移动时由 {@link ResizeHitTester}（COMPUTED）计算区域并同步光标；
+ * NATIVE_HIT_TEST 由系统发送 WM_NCHITTEST，通过模拟后端的 {@code simulateMessage} 交给 {@link HitTestRegionMap} 回答。
+ * 拖动：JAVA 每帧一次 SetWindowPos（见 {@link StageBoundsUpdaterBenchmark}），
+ * SYSTEM_LOOP 按下时一次 ReleaseCapture + WM_NCLBUTTONDOWN，NATIVE_HIT_TEST 在 Java 中没有任何调用。
+ * 网格上的每个点依次测量，两种点击测试得到的边缘区域必须一致。
+ * </p>
+ *
+ * @author bingbaihanji
+ * @date 2026-01-24
+ */
+@Tag(BenchmarkSupport.TAG)
+class InteractionModeBenchmark {
+
+    private static final double WIDTH = 800;
+    private static final double HEIGHT = 600;
+    private static final double TITLE_BAR_HEIGHT = 32;
+    private static final int COLUMNS = 40;
+    private static final int ROWS = 30;
+
+    private RecordingWindowBackend backend;
+    private Stage stage;
+    private long handle;
+    private ResizeHitTester tester;
+    private HitTestRegionMap regions;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        FxTestSupport.assumeToolkit();
+        backend = new RecordingWindowBackend();
+        NativeWindowBackends.set(backend);
+        stage = FxTestSupport.onFx(() -> {
+            HBox buttons = new HBox(new Button("_"), new Button("□"), new Button("×"));
+            BorderPane titleBar = new BorderPane();
+            titleBar.setRight(buttons);
+            titleBar.setPrefHeight(TITLE_BAR_HEIGHT);
+            BorderPane root = new BorderPane();
+            root.setTop(titleBar);
+            Scene scene = new Scene(root, WIDTH, HEIGHT);
+            tester = new ResizeHitTester(scene).setMargin(6).addCursorTarget(titleBar);
+            tester.setStrategy(ResizeHitTester.Strategy.COMPUTED);
+            regions = new HitTestRegionMap(tester.getEffectiveMargin()).addCaption(titleBar).addClient(buttons);
+            Stage created = new Stage(StageStyle.UNDECORATED);
+            created.setScene(scene);
+            created.setX(100);
+            created.setY(100);
+            created.show();
+            return created;
+        });
+        WinDef.HWND hwnd = FxTestSupport.onFx(() -> FXNativeWindowsTools.getHWnd(stage));
+        assumeTrue(hwnd != null, "无法获取 Stage 的原生句柄");
+        handle = FXNativeWindowsTools.handleOf(hwnd);
+        double scale = FxTestSupport.onFx(() -> stage.getOutputScaleX());
+        backend.adoptWindow(handle, "GlassWndClass-GlassWindowClass-2", "", 100, 100,
+                (int) Math.round(WIDTH * scale), (int) Math.round(HEIGHT * scale));
+        assertNotNull(FxTestSupport.onFx(() -> regions.install(stage)), "区域表安装失败");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (stage != null) {
+            FxTestSupport.runOnFx(stage::hide);
+        }
+        NativeWindowBackends.set(null);
+    }
+
+    @Test
+    void hoverAndPressCostPerInteractionMode() throws Exception {
+        FxTestSupport.runOnFx(() -> {
+            double scale = stage.getOutputScaleX();
+            int points = COLUMNS * ROWS;
+            MouseEvent[] moves = new MouseEvent[points];
+            long[] lParams = new long[points];
+            for (int i = 0; i < points; i++) {
+                double x = (i % COLUMNS + 0.5) * WIDTH / COLUMNS;
+                double y = (i / COLUMNS) * HEIGHT / ROWS;
+                moves[i] = new MouseEvent(MouseEvent.MOUSE_MOVED, x, y, 100 + x, 100 + y, MouseButton.NONE, 0,
+                        false, false, false, false, false, false, false, false, false, false, null);
+                int screenX = 100 + (int) Math.round(x * scale);
+                int screenY = 100 + (int) Math.round(y * scale);
+                lParams[i] = (screenX & 0xFFFFL) | (screenY & 0xFFFFL) << 16;
+            }
+
+            // 两种点击测试对边缘区域的判断一致
+            int caption = 0;
+            for (int i = 0; i < points; i++) {
+                Event.fireEvent(stage.getScene(), moves[i]);
+                long code = backend.simulateMessage(handle, WM_NCHITTEST, 0, lParams[i]);
+                if (tester.getZone().isResize()) {
+                    assertEquals(tester.getZone().hitTestCode(), code);
+                } else if (code == HTCAPTION) {
+                    caption++;
+                }
+            }
+
+            tester.resetStats();
+            double javaNanos = BenchmarkSupport.nanosPerOp(5, 10, points, () -> {
+                for (MouseEvent move : moves) {
+                    Event.fireEvent(stage.getScene(), move);
+                }
+            });
+            double transitionsPerMove = (double) tester.getTransitionCount() / tester.getMoveCount();
+            double cursorWritesPerMove = (double) tester.getCursorWriteCount() / tester.getMoveCount();
+
+            backend.clearCalls();
+            double nativeNanos = BenchmarkSupport.nanosPerOp(5, 10, points, () -> {
+                long sum = 0;
+                for (long lParam : lParams) {
+                    sum += backend.simulateMessage(handle, WM_NCHITTEST, 0, lParam);
+                }
+                BenchmarkSupport.sink = sum;
+            });
+            double callsPerHitTest = (double) backend.callCount() / (15L * points);
+
+            backend.clearCalls();
+            FXNativeWindowsTools.startSystemMoveResize(FXNativeWindowsTools.hwndOf(handle), HTCAPTION);
+            long systemLoopCalls = backend.callCount();
+
+            BenchmarkSupport.report("InteractionMode hover",
+                    "JAVA / SYSTEM_LOOP %.0f ns/移动 (区域变化 %.2f, 光标写入 %.2f 次/移动, Java 内计时 %.0f ns);"
+                            + " NATIVE_HIT_TEST %.0f ns/WM_NCHITTEST (%.1f 次原生调用)",
+                    javaNanos, transitionsPerMove, cursorWritesPerMove, tester.getAverageNanosPerMove(),
+                    nativeNanos, callsPerHitTest);
+            BenchmarkSupport.report("InteractionMode press",
+                    "JAVA 每帧 1 次 SetWindowPos; SYSTEM_LOOP 按下时 %d 次原生调用; NATIVE_HIT_TEST 0 次 (%d/%d 点为标题区域)",
+                    systemLoopCalls, caption, points);
+            assertEquals(2L, systemLoopCalls);
+        });
+    }
+}
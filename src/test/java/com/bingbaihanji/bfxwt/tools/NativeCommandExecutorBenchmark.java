@@ -0,0 +1,120 @@
+package com.bingbaihanji.bfxwt.tools;
+
+import com.bingbaihanji.bfxwt.BenchmarkSupport;
+import com.bingbaihanji.bfxwt.backend.NativeWindowBackends;
+import com.bingbaihanji.bfxwt.backend.RecordingWindowBackend;
+import com.sun.jna.platform.win32.WinDef;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.DwmAttribute.DWMWA_USE_IMMERSIVE_DARK_MODE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 调用线程（通常是 FX 线程）在慢原生调用上的阻塞时间：同步调用 vs {@link NativeCommandExecutor}
+ *
+ * <p>
+ * 模拟后端为每次调用加上 {@value #LATENCY_MILLIS} ms 的耗时（模拟 DWM 响应慢），
+ * 分别测量同步设置 DWM 属性 / 透明度与提交到执行器时调用线程被占用的时间，
+ * 以及连续提交时被合并的命令数。
+ * </p>
+ *
+ * @author bingbaihanji
+ * @date 2026-01-24
+ */
+@Tag(BenchmarkSupport.TAG)
+class NativeCommandExecutorBenchmark {
+
+    private static final long LATENCY_MILLIS = 5;
+    private static final int COMMANDS = 20;
+
+    private RecordingWindowBackend backend;
+    private WinDef.HWND hwnd;
+    private NativeCommandExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        backend = new RecordingWindowBackend();
+        NativeWindowBackends.set(backend);
+        hwnd = FXNativeWindowsTools.hwndOf(backend.addWindow("GlassWndClass-GlassWindowClass-2", "Demo",
+                0, 0, 800, 600));
+        WindowStateMirror.invalidate(hwnd);
+        backend.setLatency(LATENCY_MILLIS, TimeUnit.MILLISECONDS);
+        executor = new NativeCommandExecutor();
+        // 预热：创建后台线程、加载相关类
+        executor.run(hwnd, null, () -> {
+        }).join();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+        WindowStateMirror.invalidate(hwnd);
+        NativeWindowBackends.set(null);
+    }
+
+    @Test
+    void callerBlockingTimeSyncVersusExecutor() {
+        long syncNanos = 0;
+        long asyncNanos = 0;
+        long nativeCalls = 0;
+        // 第一轮为预热（类加载、JIT），只记录第二轮
+        for (int round = 0; round < 2; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < COMMANDS; i++) {
+                FXNativeWindowsTools.setWindowDarkMode(hwnd, i % 2 == 0);
+            }
+            syncNanos = System.nanoTime() - start;
+            backend.clearCalls();
+            // 丢弃镜像，避免最后一次设置因与缓存相同而被跳过
+            WindowStateMirror.invalidate(hwnd);
+
+            start = System.nanoTime();
+            CompletableFuture<Void> last = null;
+            for (int i = 0; i < COMMANDS; i++) {
+                last = executor.setDwmAttribute(hwnd, DWMWA_USE_IMMERSIVE_DARK_MODE, i % 2 == 0 ? 1 : 0);
+            }
+            asyncNanos = System.nanoTime() - start;
+            last.join();
+            nativeCalls = backend.callCount("DwmSetWindowAttribute");
+        }
+
+        BenchmarkSupport.report("dark mode sync", "调用线程阻塞 %.2f ms / %d 次", syncNanos / 1e6, COMMANDS);
+        BenchmarkSupport.report("dark mode executor", "调用线程阻塞 %.3f ms / %d 次, 实际执行 %d 次原生调用",
+                asyncNanos / 1e6, COMMANDS, nativeCalls);
+        assertTrue(asyncNanos * 10 < syncNanos, "提交到执行器不应阻塞调用线程");
+        assertTrue(nativeCalls > 0 && nativeCalls < COMMANDS, "连续设置应被合并");
+    }
+
+    @Test
+    void alphaAnimationCoalescesOnBackgroundThread() {
+        long submitNanos = 0;
+        long executed = 0;
+        long coalesced = 0;
+        for (int round = 0; round < 2; round++) {
+            backend.clearCalls();
+            long coalescedBefore = executor.getCoalescedCount();
+            long start = System.nanoTime();
+            CompletableFuture<Void> last = null;
+            for (int i = 1; i <= COMMANDS; i++) {
+                last = executor.setWindowAlpha(hwnd, (i + round) / (double) (COMMANDS + 1));
+            }
+            submitNanos = System.nanoTime() - start;
+            last.join();
+            executed = backend.callCount("SetLayeredWindowAttributes");
+            coalesced = executor.getCoalescedCount() - coalescedBefore;
+        }
+
+        BenchmarkSupport.report("alpha executor", "提交 %d 次用时 %.3f ms, 实际执行 %d 次, 合并 %d 次",
+                COMMANDS, submitNanos / 1e6, executed, coalesced);
+        assertEquals(255, backend.window(FXNativeWindowsTools.handleOf(hwnd)).alpha());
+        assertTrue(executed < COMMANDS);
+        assertEquals(COMMANDS, executed + coalesced);
+    }
+}
@@ -0,0 +1,103 @@
+package com.bingbaihanji.bfxwt.tools;
+
+import com.bingbaihanji.bfxwt.backend.NativeWindowBackends;
+import com.bingbaihanji.bfxwt.backend.RecordingWindowBackend;
+import com.sun.jna.platform.win32.WinDef;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.SetWindowPosFlags.SWP_NOACTIVATE;
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.SetWindowPosFlags.SWP_NOMOVE;
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.SetWindowPosFlags.SWP_NOSIZE;
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.SetWindowPosFlags.SWP_NOZORDER;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link NativeCommandExecutor#setWindowPos} 的合并规则：只合并标志相同的调用
+ *
+ * <p>
+ * 使用手动执行的 Executor：提交阶段命令只排队，{@link #runPending()} 时才执行，队列内容因此是确定的。
+ * </p>
+ *
+ * @author bingbaihanji
+ * @date 2026-01-24
+ */
+class NativeCommandExecutorTest {
+
+    private static final int MOVE = SWP_NOSIZE | SWP_NOZORDER | SWP_NOACTIVATE;
+    private static final int SIZE = SWP_NOMOVE | SWP_NOZORDER | SWP_NOACTIVATE;
+
+    private final List<Runnable> tasks = new ArrayList<>();
+    private RecordingWindowBackend backend;
+    private long handle;
+    private WinDef.HWND hwnd;
+    private NativeCommandExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        backend = new RecordingWindowBackend();
+        NativeWindowBackends.set(backend);
+        handle = backend.addWindow("GlassWndClass-GlassWindowClass-2", "Demo", 0, 0, 800, 600);
+        hwnd = FXNativeWindowsTools.hwndOf(handle);
+        executor = new NativeCommandExecutor(tasks::add);
+    }
+
+    @AfterEach
+    void tearDown() {
+        NativeWindowBackends.set(null);
+    }
+
+    @Test
+    void moveFollowedBySizeKeepsBoth() {
+        CompletableFuture<Boolean> move = executor.setWindowPos(hwnd, 120, 80, 0, 0, MOVE);
+        CompletableFuture<Boolean> size = executor.setWindowPos(hwnd, 0, 0, 640, 480, SIZE);
+        runPending();
+
+        assertTrue(move.join());
+        assertTrue(size.join());
+        assertEquals(2, backend.callCount("SetWindowPos"));
+        assertEquals(0, executor.getCoalescedCount());
+        RecordingWindowBackend.SimulatedWindow window = backend.window(handle);
+        assertEquals(120, window.x());
+        assertEquals(80, window.y());
+        assertEquals(640, window.width());
+        assertEquals(480, window.height());
+    }
+
+    @Test
+    void sameFlagsCoalesceToLastCall() {
+        List<CompletableFuture<Boolean>> moves = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            moves.add(executor.setWindowPos(hwnd, i * 10, i * 20, 0, 0, MOVE));
+        }
+        CompletableFuture<Boolean> size = executor.setWindowPos(hwnd, 0, 0, 300, 200, SIZE);
+        moves.add(executor.setWindowPos(hwnd, 400, 500, 0, 0, MOVE));
+        runPending();
+
+        // 四次移动只执行最后一次，尺寸调整不受影响
+        assertEquals(2, backend.callCount("SetWindowPos"));
+        assertEquals(3, executor.getCoalescedCount());
+        moves.forEach(future -> assertTrue(future.join()));
+        assertTrue(size.join());
+        RecordingWindowBackend.SimulatedWindow window = backend.window(handle);
+        assertEquals(400, window.x());
+        assertEquals(500, window.y());
+        assertEquals(300, window.width());
+        assertEquals(200, window.height());
+    }
+
+    /*
+     * 执行所有已调度的队列
+     */
+    private void runPending() {
+        while (!tasks.isEmpty()) {
+            tasks.remove(0).run();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.bingbaihanji.bfxwt.tools;
+
+import com.sun.jna.Platform;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * {@link NativeWarmup} 测试：只启动一次，非 Windows 平台立即完成，Windows 上在后台线程记录各步耗时
+ *
+ * @author bingbaihanji
+ * @date 2026-01-24
+ */
+class NativeWarmupTest {
+
+    @Test
+    void startReturnsTheSameFuture() throws Exception {
+        CompletableFuture<Void> first = NativeWarmup.start();
+        assertSame(first, NativeWarmup.start());
+        NativeWarmup.startIfEnabled();
+        assertSame(first, NativeWarmup.start());
+
+        first.get(30, TimeUnit.SECONDS);
+        assertTrue(NativeWarmup.isDone());
+    }
+
+    @Test
+    void completesImmediatelyOffWindows() {
+        assumeTrue(!Platform.isWindows(), "非 Windows 平台");
+        assertTrue(NativeWarmup.start().isDone());
+    }
+
+    @Test
+    void recordsEachStepOnTheWarmupThread() throws Exception {
+        assumeTrue(Platform.isWindows(), "需要 Windows");
+        NativeWarmup.start().get(30, TimeUnit.SECONDS);
+
+        // 预热可能在本测试之前（由其它类的初始化）启动，而时间线可能已被其它测试清空：只检查仍在的记录
+        List<StartupTimeline.Phase> phases = StartupTimeline.report().phases().stream()
+                .filter(phase -> phase.name().startsWith("warmup:"))
+                .toList();
+        for (StartupTimeline.Phase phase : phases) {
+            assertEquals("bfxwt-warmup", phase.thread(), phase.toString());
+            assertTrue(phase.durationNanos() >= 0);
+        }
+    }
+}
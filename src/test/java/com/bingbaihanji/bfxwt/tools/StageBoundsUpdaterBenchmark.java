@@ -0,0 +1,140 @@
+package com.bingbaihanji.bfxwt.tools;
+
+import com.bingbaihanji.bfxwt.BenchmarkSupport;
+import com.bingbaihanji.bfxwt.FxTestSupport;
+import com.bingbaihanji.bfxwt.backend.NativeWindowBackends;
+import com.bingbaihanji.bfxwt.backend.RecordingWindowBackend;
+import com.sun.jna.platform.win32.WinDef;
+import javafx.animation.AnimationTimer;
+import javafx.scene.Scene;
+import javafx.scene.layout.Pane;
+import javafx.stage.Stage;
+import javafx.stage.StageStyle;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * 拖动时的原生 SetWindowPos 调用频率：{@link StageBoundsUpdater} 按帧合并 vs 每个鼠标事件直接应用
+ *
+ * <p>
+ * 每帧产生 {@value #EVENTS_PER_FRAME} 个移动请求（相当于高回报率鼠标在 60 Hz 下的事件数），持续
+ * {@value #DRAG_MILLIS} ms；模拟后端为每次调用加上 {@value #LATENCY_MICROS} µs 的耗时（模拟 DWM 处理一次移动），
+ * 分别统计每秒的 SetWindowPos 调用数和 FX 线程花在原生调用上的时间。
+ * </p>
+ *
+ * @author bingbaihanji
+ * @date 2026-01-24
+ */
+@Tag(BenchmarkSupport.TAG)
+class StageBoundsUpdaterBenchmark {
+
+    private static final int EVENTS_PER_FRAME = 8;
+    private static final long DRAG_MILLIS = 1000;
+    private static final long LATENCY_MICROS = 200;
+
+    private RecordingWindowBackend backend;
+    private Stage stage;
+    private StageBoundsUpdater updater;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        FxTestSupport.assumeToolkit();
+        backend = new RecordingWindowBackend();
+        NativeWindowBackends.set(backend);
+        stage = FxTestSupport.onFx(() -> {
+            Stage created = new Stage(StageStyle.UNDECORATED);
+            created.setScene(new Scene(new Pane(), 400, 300));
+            created.show();
+            return created;
+        });
+        WinDef.HWND hwnd = FxTestSupport.onFx(() -> FXNativeWindowsTools.getHWnd(stage));
+        assumeTrue(hwnd != null, "无法获取 Stage 的原生句柄");
+        backend.adoptWindow(FXNativeWindowsTools.handleOf(hwnd), "GlassWndClass-GlassWindowClass-2", "",
+                0, 0, 400, 300);
+        backend.setLatency(LATENCY_MICROS, TimeUnit.MICROSECONDS);
+        updater = FxTestSupport.onFx(() -> StageBoundsUpdater.of(stage).setMode(StageBoundsUpdater.Mode.NATIVE));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (stage != null) {
+            FxTestSupport.runOnFx(stage::hide);
+        }
+        NativeWindowBackends.set(null);
+    }
+
+    @Test
+    void setWindowPosRateCoalescedVersusDirect() throws Exception {
+        // 第一次为预热（类加载、JIT），不计入结果
+        drag(false);
+        Result direct = drag(false);
+        Result coalesced = drag(true);
+
+        BenchmarkSupport.report("StageBounds direct", "%d 次请求, %d 次 SetWindowPos, %.0f 次/秒, 原生耗时 %.0f ms/秒",
+                direct.requests(), direct.nativeCalls(), direct.callsPerSecond(), direct.nativeMillisPerSecond());
+        BenchmarkSupport.report("StageBounds coalesced", "%d 次请求, %d 次 SetWindowPos, %.0f 次/秒, 原生耗时 %.0f ms/秒",
+                coalesced.requests(), coalesced.nativeCalls(), coalesced.callsPerSecond(),
+                coalesced.nativeMillisPerSecond());
+
+        // 合并后每帧最多一次调用
+        assertTrue(coalesced.nativeCalls() <= coalesced.frames());
+        assertTrue(coalesced.callsPerSecond() < direct.callsPerSecond());
+    }
+
+    /*
+     * 模拟一次拖动：每帧发出 EVENTS_PER_FRAME 个移动请求；coalesce 为 false 时每个请求立即 flush
+     */
+    private Result drag(boolean coalesce) throws Exception {
+        CompletableFuture<Result> result = new CompletableFuture<>();
+        FxTestSupport.runOnFx(() -> {
+            backend.clearCalls();
+            updater.resetStats();
+            new AnimationTimer() {
+                private long start;
+                private int step;
+
+                @Override
+                public void handle(long now) {
+                    if (start == 0) {
+                        start = System.nanoTime();
+                    }
+                    long elapsed = System.nanoTime() - start;
+                    if (elapsed >= TimeUnit.MILLISECONDS.toNanos(DRAG_MILLIS)) {
+                        stop();
+                        updater.flush();
+                        result.complete(new Result(updater.getRequestCount(), backend.callCount("SetWindowPos"),
+                                updater.getFrameCount(), elapsed / 1e9));
+                        return;
+                    }
+                    for (int i = 0; i < EVENTS_PER_FRAME; i++) {
+                        step++;
+                        updater.moveTo(100 + step % 200, 100 + step % 50);
+                        if (!coalesce) {
+                            updater.flush();
+                        }
+                    }
+                }
+            }.start();
+        });
+        return result.get(DRAG_MILLIS * 10, TimeUnit.MILLISECONDS);
+    }
+
+    private record Result(long requests, long nativeCalls, long frames, double seconds) {
+
+        double callsPerSecond() {
+            return nativeCalls / seconds;
+        }
+
+        double nativeMillisPerSecond() {
+            return callsPerSecond() * LATENCY_MICROS / 1000.0;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.bingbaihanji.bfxwt.tools;
+
+import com.bingbaihanji.bfxwt.FxTestSupport;
+import javafx.scene.Scene;
+import javafx.scene.layout.Pane;
+import javafx.stage.Stage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link StartupTimeline} 测试：阶段记录与排序、跨线程记录、首帧占比、重置
+ *
+ * @author bingbaihanji
+ * @date 2026-01-24
+ */
+class StartupTimelineTest {
+
+    @BeforeEach
+    void setUp() {
+        StartupTimeline.reset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        StartupTimeline.reset();
+    }
+
+    @Test
+    void phasesAreSortedByStartAndKeepTheirThread() throws Exception {
+        long first = StartupTimeline.now();
+        long second = StartupTimeline.now();
+        Thread worker = new Thread(() -> StartupTimeline.record("test:worker", second), "test-worker");
+        worker.start();
+        worker.join();
+        StartupTimeline.record("test:main", first);
+
+        List<StartupTimeline.Phase> phases = StartupTimeline.report().phases();
+        assertEquals(List.of("test:main", "test:worker"), phases.stream().map(StartupTimeline.Phase::name).toList());
+        assertEquals(Thread.currentThread().getName(), phases.get(0).thread());
+        assertEquals("test-worker", phases.get(1).thread());
+        for (StartupTimeline.Phase phase : phases) {
+            // 时间原点为进程启动时刻，阶段不会早于原点
+            assertTrue(phase.startNanos() >= 0);
+            assertTrue(phase.durationNanos() >= 0);
+        }
+    }
+
+    @Test
+    void shareIsUndefinedUntilFirstFrameAndResetClears() {
+        StartupTimeline.record("test:phase", StartupTimeline.now());
+        StartupTimeline.Report report = StartupTimeline.report();
+
+        assertFalse(StartupTimeline.isFirstFrameRecorded());
+        assertEquals(-1, report.firstFrameNanos());
+        assertTrue(Double.isNaN(report.shareOfFirstFrame(report.phases().get(0))));
+        assertTrue(report.format().contains("首帧未记录"));
+        assertTrue(report.format().contains("test:phase"));
+
+        StartupTimeline.reset();
+        assertTrue(StartupTimeline.report().phases().isEmpty());
+    }
+
+    @Test
+    void firstFrameIsRecordedOnceAfterLayoutPulse() throws Exception {
+        FxTestSupport.assumeToolkit();
+        Stage stage = FxTestSupport.onFx(() -> {
+            StartupTimeline.record("test:before-frame", StartupTimeline.now());
+            Scene scene = new Scene(new Pane(), 200, 150);
+            StartupTimeline.markFirstFrame(scene);
+            Stage created = new Stage();
+            created.setScene(scene);
+            created.show();
+            return created;
+        });
+        try {
+            FxTestSupport.waitUntil(StartupTimeline::isFirstFrameRecorded);
+            long firstFrame = StartupTimeline.report().firstFrameNanos();
+            FxTestSupport.waitPulses(2);
+
+            StartupTimeline.Report report = StartupTimeline.report();
+            assertEquals(firstFrame, report.firstFrameNanos());
+            double share = report.shareOfFirstFrame(report.phases().get(0));
+            assertTrue(share >= 0 && share <= 1, "阶段在首帧之前完成，占比应在 0~1 之间: " + share);
+        } finally {
+            FxTestSupport.runOnFx(stage::hide);
+        }
+    }
+}
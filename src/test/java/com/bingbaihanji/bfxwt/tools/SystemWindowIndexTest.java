@@ -0,0 +1,188 @@
+package com.bingbaihanji.bfxwt.tools;
+
+import com.bingbaihanji.bfxwt.backend.RecordingWindowBackend;
+import com.sun.jna.platform.win32.WinDef;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link SystemWindowIndex} 测试：事件增量维护、await、超时、快照差异，以及 refresh 与事件并发时的一致性
+ *
+ * <p>
+ * 窗口的创建、销毁和标题变化由 {@link RecordingWindowBackend} 产生对应的系统事件，
+ * {@link RecordingWindowBackend#flushWinEvents()} 等待事件线程处理完毕。
+ * </p>
+ *
+ * @author bingbaihanji
+ * @date 2026-01-24
+ */
+class SystemWindowIndexTest {
+
+    private static final Duration AWAIT_TIMEOUT = Duration.ofSeconds(5);
+
+    private SystemWindowIndex index;
+
+    @AfterEach
+    void tearDown() {
+        if (index != null) {
+            index.close();
+        }
+    }
+
+    @Test
+    void eventsMaintainIndexIncrementally() {
+        RecordingWindowBackend backend = new RecordingWindowBackend();
+        long existing = backend.addWindow("Existing", "Before start", 0, 0, 100, 100);
+        index = new SystemWindowIndex(backend).start();
+        assertTrue(index.isLive());
+        assertEquals(1, index.size());
+        long queries = index.getNativeQueryCount();
+
+        long created = backend.addWindow("Created", "New", 0, 0, 100, 100);
+        backend.flushWinEvents();
+        assertEquals(List.of(created), handles(index.findByClassName("Created")));
+
+        backend.setWindowTitle(created, "Renamed");
+        backend.flushWinEvents();
+        assertTrue(index.findByTitle("New").isEmpty());
+        assertEquals(List.of(created), handles(index.findByTitle("Renamed")));
+
+        backend.removeWindow(existing);
+        backend.flushWinEvents();
+        assertNull(index.get(FXNativeWindowsTools.hwndOf(existing)));
+        assertEquals(1, index.size());
+
+        // 查询只由事件触发（销毁事件不需要查询）
+        assertTrue(index.getEventCount() > 0);
+        assertEquals(queries + 3, index.getNativeQueryCount(), 1);
+    }
+
+    @Test
+    void awaitCompletesWhenWindowAppears() throws Exception {
+        RecordingWindowBackend backend = new RecordingWindowBackend();
+        index = new SystemWindowIndex(backend).start();
+        CompletableFuture<WinDef.HWND> future = index.await(w -> w.className().equals("Notepad"), AWAIT_TIMEOUT);
+        assertFalse(future.isDone());
+
+        long hwnd = backend.addWindow("Notepad", "无标题 - 记事本", 0, 0, 640, 480);
+
+        assertEquals(hwnd, FXNativeWindowsTools.handleOf(future.get(AWAIT_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)));
+        // 已存在的窗口立即完成
+        assertTrue(index.await(w -> w.handle() == hwnd, AWAIT_TIMEOUT).isDone());
+    }
+
+    @Test
+    void awaitTimesOutAndCloseCancels() {
+        RecordingWindowBackend backend = new RecordingWindowBackend();
+        index = new SystemWindowIndex(backend).start();
+
+        CompletableFuture<WinDef.HWND> timedOut = index.await(w -> false, Duration.ofMillis(50));
+        ExecutionException error = assertThrows(ExecutionException.class,
+                () -> timedOut.get(AWAIT_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS));
+        assertInstanceOf(TimeoutException.class, error.getCause());
+
+        CompletableFuture<WinDef.HWND> pending = index.await(w -> false, null);
+        index.close();
+        assertThrows(CancellationException.class, pending::get);
+    }
+
+    @Test
+    void snapshotDiffReportsAddedRemovedAndChanged() {
+        RecordingWindowBackend backend = new RecordingWindowBackend();
+        long kept = backend.addWindow("Kept", "Title", 0, 0, 100, 100);
+        long removed = backend.addWindow("Removed", "Title", 0, 0, 100, 100);
+        index = new SystemWindowIndex(backend).start();
+        SystemWindowIndex.Snapshot before = index.snapshot();
+
+        long added = backend.addWindow("Added", "Title", 0, 0, 100, 100);
+        backend.setWindowTitle(kept, "Changed");
+        backend.removeWindow(removed);
+        backend.flushWinEvents();
+        SystemWindowIndex.Snapshot after = index.snapshot();
+
+        SystemWindowIndex.Diff diff = before.diff(after);
+        assertTrue(after.version() > before.version());
+        assertEquals(List.of(added), handles(diff.added()));
+        assertEquals(List.of(removed), handles(diff.removed()));
+        assertEquals(List.of(kept), handles(diff.changed()));
+        assertEquals("Changed", diff.changed().get(0).title());
+        assertTrue(after.diff(after).isEmpty());
+    }
+
+    @Test
+    void refreshKeepsChangesMadeByEventsDuringEnumeration() {
+        RacingBackend backend = new RacingBackend();
+        long renamed = backend.addWindow("Renamed", "Old", 0, 0, 100, 100);
+        long destroyed = backend.addWindow("Destroyed", "Title", 0, 0, 100, 100);
+        index = new SystemWindowIndex(backend).start();
+        CompletableFuture<WinDef.HWND> late = index.await(w -> w.className().equals("Late"), AWAIT_TIMEOUT);
+
+        // 枚举结束后、结果应用前，事件线程加入、改名和移除窗口
+        backend.duringNextEnumeration = () -> {
+            backend.addWindow("Late", "Title", 0, 0, 100, 100);
+            backend.setWindowTitle(renamed, "New");
+            backend.removeWindow(destroyed);
+            backend.flushWinEvents();
+        };
+        index.refresh();
+
+        assertTrue(late.isDone());
+        assertEquals(1, index.findByClassName("Late").size());
+        assertEquals(List.of(renamed), handles(index.findByTitle("New")));
+        assertTrue(index.findByTitle("Old").isEmpty());
+        assertNull(index.get(FXNativeWindowsTools.hwndOf(destroyed)));
+    }
+
+    @Test
+    void awaitFallsBackToRescanWithoutEventHooks() throws Exception {
+        RecordingWindowBackend backend = new RecordingWindowBackend() {
+            @Override
+            public long setWinEventHook(int eventMin, int eventMax, WinEventListener listener) {
+                return 0;
+            }
+        };
+        index = new SystemWindowIndex(backend).start();
+        assertFalse(index.isLive());
+        CompletableFuture<WinDef.HWND> future = index.await(w -> w.className().equals("Notepad"), AWAIT_TIMEOUT);
+
+        long hwnd = backend.addWindow("Notepad", "", 0, 0, 640, 480);
+
+        assertEquals(hwnd, FXNativeWindowsTools.handleOf(future.get(AWAIT_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)));
+    }
+
+    private static List<Long> handles(List<SystemWindowIndex.WindowInfo> windows) {
+        return windows.stream().map(SystemWindowIndex.WindowInfo::handle).toList();
+    }
+
+    /*
+     * 在下一次 EnumWindows 结束后执行指定操作，模拟枚举期间到达的系统事件
+     */
+    private static final class RacingBackend extends RecordingWindowBackend {
+        private volatile Runnable duringNextEnumeration;
+
+        @Override
+        public void enumWindows(WindowVisitor visitor) {
+            super.enumWindows(visitor);
+            Runnable action = duringNextEnumeration;
+            if (action != null) {
+                duringNextEnumeration = null;
+                action.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.bingbaihanji.bfxwt.tools;
+
+import com.bingbaihanji.bfxwt.FxTestSupport;
+import com.bingbaihanji.bfxwt.backend.NativeWindowBackends;
+import com.bingbaihanji.bfxwt.backend.RecordingWindowBackend;
+import com.sun.jna.platform.win32.WinDef;
+import javafx.scene.Scene;
+import javafx.scene.layout.Pane;
+import javafx.stage.Stage;
+import javafx.stage.StageStyle;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.WindowStyleEx.WS_EX_LAYERED;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * {@link WindowAlphaController} 测试：{@link WindowAlphaController.Mode#NATIVE} 下每帧最多一次
+ * SetLayeredWindowAttributes，WS_EX_LAYERED 只写入一次
+ *
+ * @author bingbaihanji
+ * @date 2026-01-24
+ */
+class WindowAlphaControllerTest {
+
+    private static final int FRAMES = 5;
+    private static final int REQUESTS_PER_FRAME = 10;
+
+    private RecordingWindowBackend backend;
+    private Stage stage;
+    private long handle;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        FxTestSupport.assumeToolkit();
+        backend = new RecordingWindowBackend();
+        NativeWindowBackends.set(backend);
+        stage = FxTestSupport.onFx(() -> {
+            Stage created = new Stage(StageStyle.UNDECORATED);
+            created.setScene(new Scene(new Pane(), 200, 150));
+            created.show();
+            return created;
+        });
+        WinDef.HWND hwnd = FxTestSupport.onFx(() -> FXNativeWindowsTools.getHWnd(stage));
+        assumeTrue(hwnd != null, "无法获取 Stage 的原生句柄");
+        handle = FXNativeWindowsTools.handleOf(hwnd);
+        backend.adoptWindow(handle, "GlassWndClass-GlassWindowClass-2", "", 0, 0, 200, 150);
+        // 丢弃真实窗口留下的状态镜像，样式从模拟窗口读取
+        WindowStateMirror.invalidate(hwnd);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (stage != null) {
+            FxTestSupport.runOnFx(stage::hide);
+        }
+        NativeWindowBackends.set(null);
+    }
+
+    @Test
+    void coalescesRequestsToOneNativeCallPerPulse() throws Exception {
+        backend.clearCalls();
+        WindowAlphaController controller = FxTestSupport.onFx(() -> {
+            WindowAlphaController created = WindowAlphaController.of(stage).setMode(WindowAlphaController.Mode.NATIVE);
+            assertSame(created, WindowAlphaController.of(stage));
+            return created;
+        });
+        // 切换模式后的第一帧应用当前透明度
+        FxTestSupport.waitPulses(2);
+        long initial = backend.callCount("SetLayeredWindowAttributes");
+        assertEquals(1, initial);
+
+        for (int frame = 0; frame < FRAMES; frame++) {
+            double base = 0.2 + frame * 0.1;
+            FxTestSupport.runOnFx(() -> {
+                for (int i = 0; i < REQUESTS_PER_FRAME; i++) {
+                    controller.setAlpha(base + i * 0.005);
+                }
+            });
+            FxTestSupport.waitPulses(2);
+            // 同一帧内的多次设置只应用最后一个值
+            assertEquals(initial + frame + 1, backend.callCount("SetLayeredWindowAttributes"));
+            assertEquals(Math.round((base + (REQUESTS_PER_FRAME - 1) * 0.005) * 255), backend.window(handle).alpha());
+        }
+
+        // 分层位在第一次应用时写入一次，之后的帧不再写窗口样式
+        assertEquals(1, backend.callCount("SetWindowLongPtr"));
+        assertTrue((backend.window(handle).exStyle() & WS_EX_LAYERED) != 0);
+        assertEquals((long) FRAMES * REQUESTS_PER_FRAME, (long) FxTestSupport.onFx(controller::getRequestCount));
+        assertEquals(FRAMES + 1, (long) FxTestSupport.onFx(controller::getApplyCount));
+    }
+}
@@ -0,0 +1,124 @@
+package com.bingbaihanji.bfxwt.tools;
+
+import com.bingbaihanji.bfxwt.FxTestSupport;
+import com.bingbaihanji.bfxwt.backend.NativeWindowBackends;
+import com.bingbaihanji.bfxwt.backend.RecordingWindowBackend;
+import com.sun.jna.platform.win32.WinDef;
+import javafx.scene.Scene;
+import javafx.scene.layout.Pane;
+import javafx.stage.Stage;
+import javafx.stage.StageStyle;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.DwmAttribute.DWMWA_USE_IMMERSIVE_DARK_MODE;
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.DwmAttribute.DWMWA_WINDOW_CORNER_PREFERENCE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * {@link WindowController} 测试：调用失败的 DWM 属性在进程内记住，之后对所有窗口都不再重试
+ *
+ * @author bingbaihanji
+ * @date 2026-01-24
+ */
+class WindowControllerTest {
+
+    private static final int WINDOWS = 2;
+    private static final int REPEATS = 10;
+
+    private final List<Stage> stages = new ArrayList<>();
+    private final List<Long> handles = new ArrayList<>();
+    private RecordingWindowBackend backend;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        FxTestSupport.assumeToolkit();
+        backend = new RecordingWindowBackend();
+        NativeWindowBackends.set(backend);
+        WindowController.resetCapabilities();
+        FxTestSupport.runOnFx(() -> {
+            for (int i = 0; i < WINDOWS; i++) {
+                Stage stage = new Stage(StageStyle.UNDECORATED);
+                stage.setScene(new Scene(new Pane(), 200, 150));
+                stage.show();
+                stages.add(stage);
+            }
+        });
+        for (Stage stage : stages) {
+            WinDef.HWND hwnd = FxTestSupport.onFx(() -> FXNativeWindowsTools.getHWnd(stage));
+            assumeTrue(hwnd != null, "无法获取 Stage 的原生句柄");
+            long handle = FXNativeWindowsTools.handleOf(hwnd);
+            backend.adoptWindow(handle, "GlassWndClass-GlassWindowClass-2", "", 0, 0, 200, 150);
+            WindowStateMirror.invalidate(hwnd);
+            handles.add(handle);
+        }
+        assumeTrue(WindowController.capabilities().supportsDwmAttribute(DWMWA_WINDOW_CORNER_PREFERENCE),
+                "当前系统版本不支持圆角偏好");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (!stages.isEmpty()) {
+            FxTestSupport.runOnFx(() -> stages.forEach(Stage::hide));
+        }
+        NativeWindowBackends.set(null);
+        WindowController.resetCapabilities();
+    }
+
+    @Test
+    void failedDwmAttributeIsMemoisedAcrossWindows() throws Exception {
+        backend.setDwmAttributeSupported(DWMWA_WINDOW_CORNER_PREFERENCE, false);
+        backend.clearCalls();
+        long skipped = WindowController.getSkippedCount();
+
+        FxTestSupport.runOnFx(() -> {
+            WindowController first = WindowController.of(stages.get(0));
+            assertSame(first, WindowController.of(stages.get(0)));
+            first.setCornerStyle(WindowController.CornerStyle.ROUND);
+            assertFalse(first.isNative(WindowController.Feature.CORNER_STYLE));
+
+            // 之后的设置（包括其它窗口）只记录期望值
+            WindowController.CornerStyle[] styles = WindowController.CornerStyle.values();
+            for (int i = 0; i < REPEATS; i++) {
+                for (Stage stage : stages) {
+                    WindowController.of(stage).setCornerStyle(styles[i % styles.length]);
+                }
+            }
+            assertEquals(styles[(REPEATS - 1) % styles.length], WindowController.of(stages.get(1)).getCornerStyle());
+        });
+
+        assertEquals(1, backend.callCount("DwmSetWindowAttribute"));
+        assertEquals((long) REPEATS * WINDOWS, WindowController.getSkippedCount() - skipped);
+        assertTrue(WindowController.capabilities().failedAttributes().contains(DWMWA_WINDOW_CORNER_PREFERENCE));
+        assertNull(backend.window(handles.get(1)).dwmAttribute(DWMWA_WINDOW_CORNER_PREFERENCE));
+    }
+
+    @Test
+    void supportedAttributesAreStillAppliedOncePerValue() throws Exception {
+        backend.setDwmAttributeSupported(DWMWA_WINDOW_CORNER_PREFERENCE, false);
+        backend.clearCalls();
+
+        FxTestSupport.runOnFx(() -> {
+            WindowController controller = WindowController.of(stages.get(0));
+            controller.setCornerStyle(WindowController.CornerStyle.ROUND);
+            for (int i = 0; i < REPEATS; i++) {
+                // 值未变化时状态镜像不再发出调用
+                controller.setDarkMode(true);
+            }
+            assertTrue(controller.isNative(WindowController.Feature.DARK_MODE));
+        });
+
+        // 一次失败的圆角 + 一次暗色模式
+        assertEquals(2, backend.callCount("DwmSetWindowAttribute"));
+        assertEquals(Integer.valueOf(1), backend.window(handles.get(0)).dwmAttribute(DWMWA_USE_IMMERSIVE_DARK_MODE));
+    }
+}
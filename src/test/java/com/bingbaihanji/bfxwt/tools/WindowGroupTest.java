@@ -0,0 +1,97 @@
+package com.bingbaihanji.bfxwt.tools;
+
+import com.bingbaihanji.bfxwt.FxTestSupport;
+import com.bingbaihanji.bfxwt.backend.NativeWindowBackends;
+import com.bingbaihanji.bfxwt.backend.RecordingWindowBackend;
+import com.sun.jna.platform.win32.WinDef;
+import javafx.scene.Scene;
+import javafx.scene.layout.Pane;
+import javafx.stage.Stage;
+import javafx.stage.StageStyle;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * {@link WindowGroup} 批量移动测试：一帧内的所有移动只产生一个 DeferWindowPos 批次
+ *
+ * @author bingbaihanji
+ * @date 2026-01-24
+ */
+class WindowGroupTest {
+
+    private static final int MEMBERS = 4;
+
+    private final List<Stage> stages = new ArrayList<>();
+    private final List<Long> handles = new ArrayList<>();
+    private RecordingWindowBackend backend;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        FxTestSupport.assumeToolkit();
+        backend = new RecordingWindowBackend();
+        NativeWindowBackends.set(backend);
+        FxTestSupport.runOnFx(() -> {
+            for (int i = 0; i <= MEMBERS; i++) {
+                Stage stage = new Stage(StageStyle.UNDECORATED);
+                stage.setScene(new Scene(new Pane(), 200, 150));
+                stage.setX(100 + i * 220);
+                stage.setY(100);
+                stage.show();
+                stages.add(stage);
+            }
+        });
+        // 把真实窗口句柄接入模拟后端，批次中的 DeferWindowPos 才能找到窗口
+        for (Stage stage : stages) {
+            WinDef.HWND hwnd = FxTestSupport.onFx(() -> FXNativeWindowsTools.getHWnd(stage));
+            assumeTrue(hwnd != null, "无法获取 Stage 的原生句柄");
+            long handle = FXNativeWindowsTools.handleOf(hwnd);
+            backend.adoptWindow(handle, "GlassWndClass-GlassWindowClass-2", "", 0, 0, 200, 150);
+            handles.add(handle);
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (!stages.isEmpty()) {
+            FxTestSupport.runOnFx(() -> stages.forEach(Stage::hide));
+        }
+        NativeWindowBackends.set(null);
+    }
+
+    @Test
+    void movesAllWindowsInOneDeferredBatchPerPulse() throws Exception {
+        WindowGroup group = FxTestSupport.onFx(() -> {
+            WindowGroup created = new WindowGroup(stages.get(0));
+            stages.subList(1, stages.size()).forEach(created::add);
+            created.setMode(WindowGroup.Mode.NATIVE);
+            return created;
+        });
+        backend.clearCalls();
+
+        // 同一帧内的多次移动请求合并为一个批次
+        FxTestSupport.runOnFx(() -> {
+            group.moveTo(300, 200);
+            group.moveTo(310, 210);
+        });
+        FxTestSupport.waitUntil(() -> group.getFrameCount() == 1);
+
+        assertEquals(1L, backend.callCount("BeginDeferWindowPos"));
+        assertEquals(MEMBERS + 1L, backend.callCount("DeferWindowPos"));
+        assertEquals(1L, backend.callCount("EndDeferWindowPos"));
+        assertEquals(0L, backend.callCount("SetWindowPos"));
+        assertEquals(1L, group.getBatchCount());
+        assertEquals(0L, group.getFallbackCount());
+
+        double scale = FxTestSupport.onFx(() -> stages.get(0).getOutputScaleX());
+        for (int i = 0; i < handles.size(); i++) {
+            assertEquals((int) Math.round((310 + i * 220) * scale), backend.window(handles.get(i)).x());
+        }
+    }
+}
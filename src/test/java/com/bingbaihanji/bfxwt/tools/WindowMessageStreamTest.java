@@ -0,0 +1,88 @@
+package com.bingbaihanji.bfxwt.tools;
+
+import com.bingbaihanji.bfxwt.backend.NativeWindowBackends;
+import com.bingbaihanji.bfxwt.backend.RecordingWindowBackend;
+import com.sun.jna.platform.win32.WinDef;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.WindowMessage.WM_MOVE;
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.WindowMessage.WM_NCDESTROY;
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.WindowMessage.WM_SIZE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link WindowMessageStream} 测试：按掩码分发、监听器异常隔离、取消订阅后实例保持注册直到窗口销毁
+ *
+ * @author bingbaihanji
+ * @date 2026-01-24
+ */
+class WindowMessageStreamTest {
+
+    private RecordingWindowBackend backend;
+    private long handle;
+    private WinDef.HWND hwnd;
+
+    @BeforeEach
+    void setUp() {
+        backend = new RecordingWindowBackend();
+        NativeWindowBackends.set(backend);
+        handle = backend.addWindow("GlassWndClass-GlassWindowClass-2", "Demo", 0, 0, 800, 600);
+        hwnd = FXNativeWindowsTools.hwndOf(handle);
+    }
+
+    @AfterEach
+    void tearDown() {
+        WindowMessageStream.of(hwnd).close();
+        NativeWindowBackends.set(null);
+    }
+
+    @Test
+    void dispatchesByMaskAndIsolatesFailingListeners() {
+        WindowMessageStream stream = WindowMessageStream.of(hwnd);
+        List<Integer> received = new ArrayList<>();
+        stream.subscribe(WindowMessageStream.MOVE, (h, msg, wParam, lParam) -> {
+            throw new IllegalStateException("监听器异常");
+        });
+        stream.subscribe(WindowMessageStream.MOVE, (h, msg, wParam, lParam) ->
+                received.add(WindowMessageStream.signedLoWord(lParam)));
+        assertTrue(stream.isAttached());
+
+        backend.simulateMessage(handle, WM_MOVE, 0, 0xFFFF);
+        // 未订阅的消息不分发
+        backend.simulateMessage(handle, WM_SIZE, 0, 0);
+
+        assertEquals(List.of(-1), received);
+        assertEquals(1, stream.getDispatchCount());
+    }
+
+    @Test
+    void staysRegisteredAfterLastSubscriptionUntilDestroy() {
+        WindowMessageStream stream = WindowMessageStream.of(hwnd);
+        int[] moves = {0};
+        WindowMessageStream.Subscription subscription =
+                stream.subscribe(WindowMessageStream.MOVE, (h, msg, wParam, lParam) -> moves[0]++);
+        subscription.close();
+        assertFalse(stream.isAttached());
+        assertEquals(1, backend.callCount("UnsubclassWindow"));
+
+        // 调用方仍持有的实例与 of() 返回的是同一个，重新订阅后能收到消息
+        assertSame(stream, WindowMessageStream.of(hwnd));
+        stream.subscribe(WindowMessageStream.MOVE, (h, msg, wParam, lParam) -> moves[0]++);
+        backend.simulateMessage(handle, WM_MOVE, 0, 0);
+        assertEquals(1, moves[0]);
+
+        // 窗口销毁后清理，同一句柄得到新的实例
+        backend.simulateMessage(handle, WM_NCDESTROY, 0, 0);
+        assertFalse(stream.isAttached());
+        assertNotSame(stream, WindowMessageStream.of(hwnd));
+    }
+}
@@ -0,0 +1,105 @@
+package com.bingbaihanji.bfxwt.tools;
+
+import com.bingbaihanji.bfxwt.backend.NativeWindowBackends;
+import com.bingbaihanji.bfxwt.backend.RecordingWindowBackend;
+import com.sun.jna.platform.win32.WinDef;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.WindowLongIndex.GWL_STYLE;
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.WindowStyle.WS_CAPTION;
+import static com.bingbaihanji.bfxwt.tools.FXNativeWindowsTools.Win32Constants.WindowStyle.WS_THICKFRAME;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link WindowStateMirror} 原生调用次数测试（模拟后端）
+ *
+ * @author bingbaihanji
+ * @date 2026-01-24
+ */
+class WindowStateMirrorTest {
+
+    private RecordingWindowBackend backend;
+    private long handle;
+    private WinDef.HWND hwnd;
+
+    @BeforeEach
+    void setUp() {
+        backend = new RecordingWindowBackend();
+        NativeWindowBackends.set(backend);
+        handle = backend.addWindow("GlassWndClass-GlassWindowClass-2", "Mirror", 0, 0, 640, 480);
+        hwnd = FXNativeWindowsTools.hwndOf(handle);
+        WindowStateMirror.invalidate(hwnd);
+    }
+
+    @AfterEach
+    void tearDown() {
+        WindowStateMirror.invalidate(hwnd);
+        NativeWindowBackends.set(null);
+    }
+
+    @Test
+    void transactionWritesEachStyleOnceAndRefreshesFrameOnce() {
+        boolean changed = FXNativeWindowsTools.beginTransaction(hwnd)
+                .enableAeroSnapForBorderless()
+                .disableMaximize(true)
+                .darkMode(true)
+                .alpha(0.5f)
+                .commit();
+
+        assertTrue(changed);
+        assertEquals(2L, backend.callCount("GetWindowLongPtr"));
+        assertEquals(2L, backend.callCount("SetWindowLongPtr"));
+        assertEquals(1L, backend.callCount("DwmSetWindowAttribute"));
+        assertEquals(1L, backend.callCount("SetLayeredWindowAttributes"));
+        assertEquals(1L, backend.callCount("SetWindowPos"));
+    }
+
+    @Test
+    void repeatedTransactionReadsStyleButWritesNothing() {
+        FXNativeWindowsTools.beginTransaction(hwnd).enableAeroSnapForBorderless().darkMode(true).commit();
+        backend.clearCalls();
+
+        boolean changed = FXNativeWindowsTools.beginTransaction(hwnd)
+                .enableAeroSnapForBorderless()
+                .darkMode(true)
+                .commit();
+
+        assertFalse(changed);
+        assertEquals(1L, backend.callCount("GetWindowLongPtr"));
+        assertEquals(0L, backend.callCount("SetWindowLongPtr"));
+        assertEquals(0L, backend.callCount("DwmSetWindowAttribute"));
+        assertEquals(0L, backend.callCount("SetWindowPos"));
+    }
+
+    @Test
+    void externalStyleChangeIsNotMaskedByCache() {
+        FXNativeWindowsTools.beginTransaction(hwnd).enableAeroSnapForBorderless().commit();
+        // 系统或 JavaFX 在镜像之外去掉了 WS_THICKFRAME
+        long style = backend.getWindowLongPtr(handle, GWL_STYLE);
+        backend.setWindowLongPtr(handle, GWL_STYLE, style & ~WS_THICKFRAME);
+        backend.clearCalls();
+
+        assertTrue(FXNativeWindowsTools.beginTransaction(hwnd).enableAeroSnapForBorderless().commit());
+        assertEquals(1L, backend.callCount("SetWindowLongPtr"));
+        long updated = backend.getWindowLongPtr(handle, GWL_STYLE);
+        assertEquals(WS_THICKFRAME, updated & WS_THICKFRAME);
+        assertEquals(0L, updated & WS_CAPTION);
+    }
+
+    @Test
+    void invalidatedMirrorDoesNotCarryStateToReusedHandle() {
+        FXNativeWindowsTools.beginTransaction(hwnd).darkMode(true).alpha(0.5f).commit();
+        // 窗口销毁后同一句柄被新窗口使用
+        WindowStateMirror.invalidate(hwnd);
+        backend.clearCalls();
+
+        FXNativeWindowsTools.beginTransaction(hwnd).darkMode(true).alpha(0.5f).commit();
+
+        assertEquals(1L, backend.callCount("DwmSetWindowAttribute"));
+        assertEquals(1L, backend.callCount("SetLayeredWindowAttributes"));
+    }
+}